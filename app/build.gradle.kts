@@ -45,7 +45,7 @@ android {
 
     // Don't compress native libraries
     androidResources {
-        noCompress += listOf("so", "pt") // Don't compress native libraries and PyTorch model files
+        noCompress += listOf("so", "pt", "torchscript") // Don't compress native libraries and PyTorch model files
     }
 
     // Fix packaging options
@@ -80,6 +80,45 @@ android {
     }
 }
 
+// Writes model_manifest.txt, the SHA-256 of every model asset, into the merged assets.
+// ModelStager checks staged copies against it instead of hashing the asset on each cold start.
+abstract class ModelManifestTask : DefaultTask() {
+    @get:InputFiles
+    @get:PathSensitive(PathSensitivity.NAME_ONLY)
+    abstract val models: ConfigurableFileCollection
+
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+
+    @TaskAction
+    fun write() {
+        val lines = models.files.sortedBy { it.name }.map { file ->
+            val digest = java.security.MessageDigest.getInstance("SHA-256")
+            file.inputStream().use { input ->
+                val buffer = ByteArray(1 shl 16)
+                while (true) {
+                    val read = input.read(buffer)
+                    if (read < 0) break
+                    digest.update(buffer, 0, read)
+                }
+            }
+            file.name + " " + digest.digest().joinToString("") { "%02x".format(it) }
+        }
+        outputDir.get().file("model_manifest.txt").asFile
+            .writeText(lines.joinToString("\n", postfix = "\n"))
+    }
+}
+
+val modelManifest = tasks.register<ModelManifestTask>("modelManifest") {
+    models.from(fileTree("src/main/assets") { include("*.torchscript", "*.pt") })
+}
+
+androidComponents {
+    onVariants { variant ->
+        variant.sources.assets?.addGeneratedSourceDirectory(modelManifest, ModelManifestTask::outputDir)
+    }
+}
+
 // Fix Kotlin dependency conflicts
 configurations.all {
     resolutionStrategy {
@@ -95,6 +134,9 @@ configurations.all {
 }
 
 dependencies {
+    // Android-free detection, tracking and reporting logic
+    implementation(project(":pothole-core"))
+
     implementation("androidx.appcompat:appcompat:1.6.1")
     implementation("androidx.constraintlayout:constraintlayout:2.1.4")
     implementation("com.google.android.material:material:1.9.0")
@@ -0,0 +1,202 @@
+package com.example.potholedetector;
+
+import android.media.Image;
+import android.os.Bundle;
+import android.util.Log;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.potholedetector.utils.DetectionOverlay;
+import com.example.potholedetector.utils.DetectorRegistry;
+import com.example.potholedetector.utils.EvidenceClipRecorder;
+import com.example.potholedetector.utils.PotholeDetector;
+import com.example.potholedetector.utils.RoadRoiEstimator;
+
+import org.opencv.android.CameraGLSurfaceView;
+import org.opencv.android.OpenCVLoader;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Detects potholes in the camera preview while driving.
+ *
+ * The preview stays on the GPU: the camera texture is drawn straight to the screen by
+ * {@link CameraGLSurfaceView} and the detections are drawn over it as line geometry by
+ * {@link DetectionOverlay}. Inference reads the YUV analysis stream captured alongside
+ * the preview; while a frame is being analyzed new ones are closed unread, and the model
+ * input is packed straight from the image planes, so no RGB frame is ever made.
+ *
+ * Every analysis frame is also encoded into a short ring of compressed video, and a
+ * high-risk pothole saves the seconds around it as an MP4 clip ({@link EvidenceClipRecorder}).
+ */
+public class LiveDetectionActivity extends AppCompatActivity implements CameraGLSurfaceView.CameraAnalysisListener {
+
+    private static final String TAG = "LiveDetectionActivity";
+
+    // Potholes are measured in a frame of this size, like in the video pipeline
+    private static final int FRAME_WIDTH = 1020;
+    private static final int FRAME_HEIGHT = 500;
+
+    // Evidence clips, in app storage
+    private static final String CLIP_DIR = "clips";
+
+    private CameraGLSurfaceView cameraView;
+    private TextView liveStatsTextView;
+    private final DetectionOverlay overlay = new DetectionOverlay();
+
+    private PotholeDetector potholeDetector;
+    private final ExecutorService inferenceExecutor = Executors.newSingleThreadExecutor();
+    // Set while a frame is being analyzed; frames arriving meanwhile are only shown
+    private final AtomicBoolean inferenceBusy = new AtomicBoolean();
+
+    // Started on the camera thread with the first frame, once its size is known
+    private volatile EvidenceClipRecorder clipRecorder;
+    private boolean clipRecorderFailed;
+
+    // Inference thread only
+    private int frameIndex;
+    private int potholeCount;
+    private int highRiskCount;
+    private long firstTimestampNs = -1;
+
+    static {
+        if (!OpenCVLoader.initDebug()) {
+            // Handle initialization error
+        }
+    }
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_live_detection);
+
+        cameraView = findViewById(R.id.cameraPreviewView);
+        liveStatsTextView = findViewById(R.id.liveStatsTextView);
+
+        try {
+            potholeDetector = DetectorRegistry.getInstance(this).acquire();
+            potholeDetector.setRoiMode(RoadRoiEstimator.Mode.LANE);
+        } catch (IOException e) {
+            Log.e(TAG, "Error initializing model", e);
+            Toast.makeText(this, "Error initializing model: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            finish();
+            return;
+        }
+
+        // No texture listener: the camera texture is drawn to the screen without an extra pass
+        cameraView.setCameraAnalysisListener(this);
+        cameraView.setCameraOverlayListener(overlay);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        cameraView.onResume();
+    }
+
+    @Override
+    protected void onPause() {
+        cameraView.onPause();
+        overlay.clear();
+        super.onPause();
+    }
+
+    @Override
+    protected void onDestroy() {
+        cameraView.disableView();
+        inferenceExecutor.shutdown();
+        try {
+            inferenceExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // The camera is closed, nothing feeds the recorder any more
+        if (clipRecorder != null) {
+            clipRecorder.stop();
+            clipRecorder = null;
+        }
+        if (potholeDetector != null) {
+            DetectorRegistry.getInstance(this).release(potholeDetector);
+            potholeDetector = null;
+        }
+        super.onDestroy();
+    }
+
+    // Camera thread
+    @Override
+    public void onAnalysisImage(Image image) {
+        recordClipFrame(image);
+        if (potholeDetector == null || !inferenceBusy.compareAndSet(false, true)) {
+            image.close();
+            return;
+        }
+        try {
+            inferenceExecutor.execute(() -> analyze(image));
+        } catch (RejectedExecutionException e) {
+            // Activity is closing
+            image.close();
+            inferenceBusy.set(false);
+        }
+    }
+
+    // Camera thread
+    private void recordClipFrame(Image image) {
+        if (clipRecorder == null && !clipRecorderFailed) {
+            EvidenceClipRecorder recorder = new EvidenceClipRecorder(getExternalFilesDir(CLIP_DIR),
+                    image.getWidth(), image.getHeight());
+            try {
+                recorder.start();
+                clipRecorder = recorder;
+            } catch (IOException e) {
+                // Detection goes on without clips
+                Log.e(TAG, "Cannot record evidence clips", e);
+                clipRecorderFailed = true;
+            }
+        }
+        if (clipRecorder != null) {
+            clipRecorder.offer(image);
+        }
+    }
+
+    // Inference thread
+    private void analyze(Image image) {
+        try {
+            PotholeDetector.DetectionResult result;
+            long timestampNs = image.getTimestamp();
+            try {
+                if (firstTimestampNs < 0) {
+                    firstTimestampNs = timestampNs;
+                }
+                long timestampMs = (timestampNs - firstTimestampNs) / 1_000_000;
+                result = potholeDetector.processImage(image, frameIndex++, timestampMs);
+            } finally {
+                image.close();
+            }
+
+            overlay.setDetections(result.potholes, FRAME_WIDTH, FRAME_HEIGHT);
+            potholeCount += result.potholes.size();
+            highRiskCount += result.highRiskCount;
+            EvidenceClipRecorder recorder = clipRecorder;
+            if (result.highRiskCount > 0 && recorder != null) {
+                recorder.onHighRisk(timestampNs);
+            }
+            String stats = String.format(Locale.US, "Potholes: %d (high risk: %d)\n%.0f ms per frame, %d clips",
+                    potholeCount, highRiskCount, result.inferenceTimeMs,
+                    recorder != null ? recorder.getClipCount() : 0);
+            runOnUiThread(() -> liveStatsTextView.setText(stats));
+        } catch (Exception e) {
+            // Also an image invalidated by the camera closing
+            Log.e(TAG, "Error analyzing camera frame", e);
+        } finally {
+            inferenceBusy.set(false);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import android.Manifest;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.database.Cursor;
+import android.media.MediaMetadataRetriever;
 import android.net.Uri;
 import android.os.Bundle;
 import android.provider.MediaStore;
@@ -20,6 +21,8 @@ import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 import androidx.core.content.FileProvider;
 
+import com.example.potholedetector.utils.SensorCapture;
+
 import org.opencv.android.OpenCVLoader;
 
 import java.io.File;
@@ -37,12 +40,16 @@ public class MainActivity extends AppCompatActivity {
 
     private Button selectVideoButton;
     private Button recordVideoButton;
+    private Button liveDetectionButton;
     private Button processVideoButton;
     private TextView selectedVideoTextView;
 
     private Uri videoUri;
     private File videoFile;
 
+    // Motion sensors recorded alongside a video filmed from the app
+    private SensorCapture sensorCapture;
+
     private String[] REQUIRED_PERMISSIONS = {
             Manifest.permission.CAMERA,
             Manifest.permission.READ_EXTERNAL_STORAGE,
@@ -65,6 +72,7 @@ public class MainActivity extends AppCompatActivity {
         // Initialize UI components
         selectVideoButton = findViewById(R.id.selectVideoButton);
         recordVideoButton = findViewById(R.id.recordVideoButton);
+        liveDetectionButton = findViewById(R.id.liveDetectionButton);
         processVideoButton = findViewById(R.id.processVideoButton);
         selectedVideoTextView = findViewById(R.id.selectedVideoTextView);
 
@@ -88,6 +96,13 @@ public class MainActivity extends AppCompatActivity {
             }
         });
 
+        liveDetectionButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                startLiveDetection();
+            }
+        });
+
         processVideoButton.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
@@ -131,6 +146,8 @@ public class MainActivity extends AppCompatActivity {
                             getApplicationContext().getPackageName() + ".fileprovider",
                             videoFile);
                     takeVideoIntent.putExtra(MediaStore.EXTRA_OUTPUT, videoUri);
+                    sensorCapture = new SensorCapture(this);
+                    sensorCapture.start(videoFile.getName());
                     startActivityForResult(takeVideoIntent, REQUEST_VIDEO_CAPTURE);
                 }
             } catch (IOException ex) {
@@ -141,6 +158,25 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    // Duration of a video file in ms, or -1 when it can't be read
+    private long videoDurationMs(File video) {
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try {
+            retriever.setDataSource(video.getAbsolutePath());
+            String duration = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
+            return duration != null ? Long.parseLong(duration) : -1;
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Cannot read duration of " + video, e);
+            return -1;
+        } finally {
+            try {
+                retriever.release();
+            } catch (Exception e) {
+                Log.w(TAG, "Error releasing retriever: " + e.getMessage());
+            }
+        }
+    }
+
     private File createVideoFile() throws IOException {
         // Create a unique filename with timestamp
         String timeStamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault()).format(new Date());
@@ -162,6 +198,16 @@ public class MainActivity extends AppCompatActivity {
     protected void onActivityResult(int requestCode, int resultCode, @Nullable Intent data) {
         super.onActivityResult(requestCode, resultCode, data);
 
+        if (requestCode == REQUEST_VIDEO_CAPTURE && sensorCapture != null) {
+            // The camera app has just finished writing the file, so it was last modified when recording stopped
+            long durationMs = resultCode == RESULT_OK ? videoDurationMs(videoFile) : -1;
+            File sensorLog = sensorCapture.stop(videoFile.lastModified(), durationMs);
+            sensorCapture = null;
+            if (resultCode != RESULT_OK && sensorLog != null) {
+                sensorLog.delete();
+            }
+        }
+
         if (resultCode == RESULT_OK) {
             if (requestCode == REQUEST_VIDEO_CAPTURE) {
                 // Video captured successfully
@@ -179,6 +225,15 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (sensorCapture != null) {
+            sensorCapture.stop();
+            sensorCapture = null;
+        }
+    }
+
     private String getVideoNameFromUri(Uri uri) {
         String result = "Selected Video";
         String[] projection = {MediaStore.Video.Media.DISPLAY_NAME};
@@ -212,6 +267,14 @@ public class MainActivity extends AppCompatActivity {
         processVideoButton.setEnabled(true);
     }
 
+    private void startLiveDetection() {
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA) != PackageManager.PERMISSION_GRANTED) {
+            ActivityCompat.requestPermissions(this, REQUIRED_PERMISSIONS, REQUEST_PERMISSIONS);
+            return;
+        }
+        startActivity(new Intent(this, LiveDetectionActivity.class));
+    }
+
     private void processVideo() {
         if (videoUri != null) {
             Intent intent = new Intent(MainActivity.this, VideoProcessorActivity.class);
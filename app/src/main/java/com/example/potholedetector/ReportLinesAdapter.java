@@ -0,0 +1,107 @@
+package com.example.potholedetector;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.potholedetector.utils.ReportLineIndex;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * One report line per row, read from the file a page at a time as rows come into view.
+ *
+ * Only a bounded number of pages is kept in memory, so the size of the report doesn't
+ * matter. Rows of a page that is still loading stay empty and are rebound when it arrives.
+ */
+public class ReportLinesAdapter extends RecyclerView.Adapter<ReportLinesAdapter.LineViewHolder> {
+
+    private static final String TAG = "ReportLinesAdapter";
+
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 20;
+
+    private final ReportLineIndex index;
+    private final ExecutorService executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final LruCache<Integer, String[]> pages = new LruCache<>(MAX_CACHED_PAGES);
+    private final Set<Integer> loading = new HashSet<>();
+
+    public ReportLinesAdapter(ReportLineIndex index, ExecutorService executor) {
+        this.index = index;
+        this.executor = executor;
+    }
+
+    @NonNull
+    @Override
+    public LineViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_report_line, parent, false);
+        return new LineViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull LineViewHolder holder, int position) {
+        int page = position / PAGE_SIZE;
+        String[] lines = pages.get(page);
+        if (lines != null) {
+            int offset = position - page * PAGE_SIZE;
+            holder.lineTextView.setText(offset < lines.length ? lines[offset] : "");
+        } else {
+            holder.lineTextView.setText("");
+            loadPage(page);
+        }
+    }
+
+    @Override
+    public int getItemCount() {
+        return index.getLineCount();
+    }
+
+    private void loadPage(int page) {
+        if (!loading.add(page)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                String[] lines;
+                try {
+                    lines = index.readLines(page * PAGE_SIZE, PAGE_SIZE);
+                } catch (IOException e) {
+                    Log.e(TAG, "Error reading report page " + page, e);
+                    lines = new String[0];
+                }
+                String[] loaded = lines;
+                mainHandler.post(() -> {
+                    loading.remove(page);
+                    pages.put(page, loaded);
+                    int first = page * PAGE_SIZE;
+                    notifyItemRangeChanged(first, Math.min(PAGE_SIZE, getItemCount() - first));
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            // Activity is finishing
+            loading.remove(page);
+        }
+    }
+
+    static class LineViewHolder extends RecyclerView.ViewHolder {
+        final TextView lineTextView;
+
+        LineViewHolder(View itemView) {
+            super(itemView);
+            lineTextView = (TextView) itemView;
+        }
+    }
+}
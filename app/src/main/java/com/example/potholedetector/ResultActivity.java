@@ -3,25 +3,43 @@ package com.example.potholedetector;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.View;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
 import android.widget.Button;
+import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.FileProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.potholedetector.core.ReportFormat;
+import com.example.potholedetector.core.ReportSummary;
+import com.example.potholedetector.core.RiskClass;
+import com.example.potholedetector.utils.ReportLineIndex;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class ResultActivity extends AppCompatActivity {
 
+    private static final String TAG = "ResultActivity";
+
     private TextView totalPotholesTextView;
     private TextView processingTimeTextView;
     private TextView framesProcessedTextView;
+    private TextView summaryDetailsTextView;
     private TextView reportContentTextView;
+    private Spinner sectionSpinner;
+    private RecyclerView reportRecyclerView;
     private Button shareReportButton;
     private Button newAnalysisButton;
 
@@ -30,6 +48,10 @@ public class ResultActivity extends AppCompatActivity {
     private long processingTime;
     private int framesProcessed;
 
+    // Report lines are indexed and paged in on this thread, never on the main thread
+    private final ExecutorService reportExecutor = Executors.newSingleThreadExecutor();
+    private ReportLineIndex reportIndex;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -39,7 +61,10 @@ public class ResultActivity extends AppCompatActivity {
         totalPotholesTextView = findViewById(R.id.totalPotholesTextView);
         processingTimeTextView = findViewById(R.id.processingTimeTextView);
         framesProcessedTextView = findViewById(R.id.framesProcessedTextView);
+        summaryDetailsTextView = findViewById(R.id.summaryDetailsTextView);
         reportContentTextView = findViewById(R.id.reportContentTextView);
+        sectionSpinner = findViewById(R.id.sectionSpinner);
+        reportRecyclerView = findViewById(R.id.reportRecyclerView);
         shareReportButton = findViewById(R.id.shareReportButton);
         newAnalysisButton = findViewById(R.id.newAnalysisButton);
 
@@ -54,6 +79,9 @@ public class ResultActivity extends AppCompatActivity {
         processingTimeTextView.setText("Processing time: " + (processingTime / 1000) + " seconds");
         framesProcessedTextView.setText("Frames processed: " + framesProcessed);
 
+        // Summary sidecar first: it is tiny, the report may not be
+        loadSummary();
+
         // Load and display report content
         loadReportContent();
 
@@ -76,6 +104,48 @@ public class ResultActivity extends AppCompatActivity {
         });
     }
 
+    private void loadSummary() {
+        if (reportPath == null || reportPath.isEmpty()) {
+            return;
+        }
+        File summaryFile = ReportSummary.fileFor(new File(reportPath));
+        reportExecutor.execute(() -> {
+            if (!summaryFile.exists()) {
+                return;
+            }
+            try {
+                ReportSummary summary = ReportSummary.read(summaryFile);
+                runOnUiThread(() -> showSummary(summary));
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "Unreadable report summary " + summaryFile, e);
+            }
+        });
+    }
+
+    private void showSummary(ReportSummary summary) {
+        StringBuilder details = new StringBuilder();
+        details.append(String.format(Locale.US, "Severity rating: %.1f / 10", summary.severity));
+        details.append("\nRisk: ")
+                .append(summary.riskCounts[RiskClass.HIGH.code()]).append(" high, ")
+                .append(summary.riskCounts[RiskClass.MEDIUM.code()]).append(" medium, ")
+                .append(summary.riskCounts[RiskClass.LOW.code()]).append(" low");
+        if (!summary.hotspots.isEmpty()) {
+            ReportSummary.Hotspot top = summary.hotspots.get(0);
+            details.append(String.format(Locale.US, "\nTop hotspot: x=%.0f, y=%.0f (%d potholes)",
+                    top.x, top.y, top.count));
+        }
+        if (summary.framesAnalyzed > 0) {
+            for (Map.Entry<String, Double> stage : summary.stageTimingsMs.entrySet()) {
+                if (!"report".equals(stage.getKey())) {
+                    details.append(String.format(Locale.US, "\n%s: %.1f ms/frame",
+                            stage.getKey(), stage.getValue() / summary.framesAnalyzed));
+                }
+            }
+        }
+        summaryDetailsTextView.setText(details.toString());
+        summaryDetailsTextView.setVisibility(View.VISIBLE);
+    }
+
     private void loadReportContent() {
         if (reportPath == null || reportPath.isEmpty()) {
             reportContentTextView.setText("Error: Report file not found");
@@ -88,16 +158,71 @@ public class ResultActivity extends AppCompatActivity {
             return;
         }
 
-        StringBuilder content = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new FileReader(reportFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                content.append(line).append("\n");
+        if (reportPath.endsWith("." + ReportFormat.BINARY.extension)) {
+            reportContentTextView.setText("Binary report saved to " + reportPath + "\nShare it to open it elsewhere.");
+            return;
+        }
+
+        // Only line offsets are read up front; lines are loaded page by page while scrolling
+        reportExecutor.execute(() -> {
+            try {
+                ReportLineIndex index = ReportLineIndex.build(reportFile);
+                runOnUiThread(() -> showReport(index));
+            } catch (IOException e) {
+                Log.e(TAG, "Error indexing report", e);
+                runOnUiThread(() -> reportContentTextView.setText("Error reading report: " + e.getMessage()));
             }
-            reportContentTextView.setText(content.toString());
+        });
+    }
+
+    private void showReport(ReportLineIndex index) {
+        if (isDestroyed()) {
+            closeIndex(index);
+            return;
+        }
+        reportIndex = index;
+
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        reportRecyclerView.setLayoutManager(layoutManager);
+        reportRecyclerView.setAdapter(new ReportLinesAdapter(index, reportExecutor));
+        reportRecyclerView.setVisibility(View.VISIBLE);
+        reportContentTextView.setVisibility(View.GONE);
+
+        if (!index.getSections().isEmpty()) {
+            ArrayAdapter<ReportLineIndex.Section> sectionAdapter = new ArrayAdapter<>(
+                    this, android.R.layout.simple_spinner_item, index.getSections());
+            sectionAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+            sectionSpinner.setAdapter(sectionAdapter);
+            sectionSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+                @Override
+                public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                    ReportLineIndex.Section section = (ReportLineIndex.Section) parent.getItemAtPosition(position);
+                    layoutManager.scrollToPositionWithOffset(section.line, 0);
+                }
+
+                @Override
+                public void onNothingSelected(AdapterView<?> parent) {
+                }
+            });
+            sectionSpinner.setVisibility(View.VISIBLE);
+        }
+    }
+
+    private static void closeIndex(ReportLineIndex index) {
+        try {
+            index.close();
         } catch (IOException e) {
-            e.printStackTrace();
-            reportContentTextView.setText("Error reading report: " + e.getMessage());
+            Log.w(TAG, "Error closing report", e);
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        reportExecutor.shutdownNow();
+        if (reportIndex != null) {
+            closeIndex(reportIndex);
+            reportIndex = null;
         }
     }
 
@@ -1,13 +1,17 @@
 package com.example.potholedetector;
 
+import android.app.ActivityManager;
 import android.content.Intent;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.media.MediaMetadataRetriever;
 import android.net.Uri;
 import android.os.AsyncTask;
+import android.os.BatteryManager;
+import android.os.Build;
 import android.os.Bundle;
 import android.os.Environment;
+import android.os.PowerManager;
 import android.view.View;
 import android.widget.Button;
 import android.widget.ImageView;
@@ -17,31 +21,71 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.potholedetector.core.BumpDetector;
+import com.example.potholedetector.core.BumpFusion;
+import com.example.potholedetector.core.DetectionTable;
+import com.example.potholedetector.core.GovernorTrace;
+import com.example.potholedetector.core.GpsTrack;
+import com.example.potholedetector.core.PotholeTracker;
+import com.example.potholedetector.core.ReportGenerator;
+import com.example.potholedetector.core.ReportWriter;
+import com.example.potholedetector.core.SensorLog;
+import com.example.potholedetector.core.ThroughputGovernor;
+import com.example.potholedetector.utils.DetectorRegistry;
+import com.example.potholedetector.utils.EvidenceCropStore;
+import com.example.potholedetector.utils.InferenceThreadTuner;
+import com.example.potholedetector.utils.InputSizeController;
+import com.example.potholedetector.utils.ModelComparisonHarness;
+import com.example.potholedetector.utils.ModelVariant;
 import com.example.potholedetector.utils.PotholeDetector;
-import com.example.potholedetector.utils.ReportGenerator;
+import com.example.potholedetector.utils.PotholeMapStore;
+import com.example.potholedetector.utils.RoadRoiEstimator;
+import com.example.potholedetector.utils.RoiComparisonHarness;
+import com.example.potholedetector.utils.SensorCapture;
+import com.example.potholedetector.utils.SurveyHistoryStore;
+import com.example.potholedetector.utils.TileScheduler;
 
 import org.opencv.android.OpenCVLoader;
 import org.opencv.core.Mat;
 import org.opencv.core.MatOfByte;
 import org.opencv.imgcodecs.Imgcodecs;
-import org.opencv.imgproc.Imgproc;
 import org.opencv.android.Utils;
+import org.pytorch.PyTorchAndroid;
 
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FileReader;
 import java.io.IOException;
-import java.io.InputStream;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
 
 public class VideoProcessorActivity extends AppCompatActivity {
 
     private static final String TAG = "VideoProcessorActivity";
+
+    // Photos kept of the worst potholes of a run, in app storage
+    private static final String EVIDENCE_DIR = "evidence";
+    private static final int EVIDENCE_CROPS = 50;
+    private static final int EVIDENCE_QUALITY = 85;
+
+    // A pothole reaches the front wheel within this time after leaving the bottom of the frame
+    private static final long BUMP_MAX_LEAD_MS = 1500;
+
+    // Sampling of the video: every 3rd frame of an assumed 30 fps, like in the Python code,
+    // until the throughput governor widens it
+    private static final int BASE_STRIDE = 3;
+    private static final double SOURCE_FPS = 30;
+    // Video seconds to analyze per second, held as the device heats up: an hour of driving in two
+    private static final double TARGET_SPEED = 0.5;
+    // Thermal status and battery are read this often
+    private static final long DEVICE_POLL_MS = 5000;
+    // Device state traces of runs, for replaying through the governor
+    private static final String TRACE_DIR = "thermal";
+
     private ProgressBar processingProgressBar;
     private TextView processingStatusTextView;
     private TextView detectedPotholesTextView;
@@ -51,7 +95,10 @@ public class VideoProcessorActivity extends AppCompatActivity {
     private Button cancelButton;
 
     private Uri videoUri;
+    // Potholes listed one by one in the text report, riskiest first; 0 lists all
+    private int reportDetailLimit;
     private VideoProcessingTask processingTask;
+    // Held until the processing task takes it over; released here only if no task ever ran
     private PotholeDetector potholeDetector;
     private boolean isCancelled = false;
 
@@ -84,6 +131,7 @@ public class VideoProcessorActivity extends AppCompatActivity {
             finish();
             return;
         }
+        reportDetailLimit = getIntent().getIntExtra("REPORT_DETAIL_LIMIT", 0);
 
         // Initialize the pothole detector
         initializePotholeDetector();
@@ -97,28 +145,25 @@ public class VideoProcessorActivity extends AppCompatActivity {
             finish();
         });
 
-        // Start processing video
-        processingTask = new VideoProcessingTask();
-        processingTask.execute(videoUri);
+        // Start processing video; the task keeps the detector and hands it back when it ends
+        if (potholeDetector != null) {
+            processingTask = new VideoProcessingTask(potholeDetector);
+            processingTask.execute(videoUri);
+        }
     }
 
     private void initializePotholeDetector() {
         try {
-            // Copy model from assets to storage
-            File modelFile = new File(getFilesDir(), "best_02.torchscript");
-            if (!modelFile.exists()) {
-                try (InputStream is = getAssets().open("best_02.torchscript");
-                     FileOutputStream os = new FileOutputStream(modelFile)) {
-                    byte[] buffer = new byte[4096];
-                    int bytesRead;
-                    while ((bytesRead = is.read(buffer)) != -1) {
-                        os.write(buffer, 0, bytesRead);
-                    }
-                }
-            }
+            // Shared detector, the model is only loaded once per process
+            potholeDetector = DetectorRegistry.getInstance(this).acquire();
+            potholeDetector.setRoiMode(RoadRoiEstimator.Mode.LANE);
 
-            // Create pothole detector
-            potholeDetector = new PotholeDetector(modelFile.getAbsolutePath());
+            // Far-field tiling costs extra forward passes, keep it to high-end devices
+            ActivityManager activityManager = (ActivityManager) getSystemService(ACTIVITY_SERVICE);
+            potholeDetector.setTiledInference(TileScheduler.isRecommended(
+                    Runtime.getRuntime().availableProcessors(),
+                    activityManager.isLowRamDevice(),
+                    activityManager.getMemoryClass()));
 
         } catch (IOException e) {
             e.printStackTrace();
@@ -127,8 +172,121 @@ public class VideoProcessorActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onDestroy() {
+        isCancelled = true;
+        if (processingTask != null) {
+            processingTask.cancel(true);
+        }
+        // A running task may still be in a forward pass, it releases the detector when it ends
+        if (potholeDetector != null && processingTask == null) {
+            DetectorRegistry.getInstance(this).release(potholeDetector);
+        }
+        potholeDetector = null;
+        super.onDestroy();
+    }
+
+    // Frame decoding keeps one core, inference gets the rest
+    private static final int DECODE_RESERVED_CORES = 1;
+
+    // Frames of the first video the fp32 and int8 models are compared on
+    private static final int COMPARISON_FRAMES = 20;
+    // Frames of every video run with and without the road crop, for the report
+    private static final int ROAD_CROP_COMPARISON_FRAMES = 10;
+
+    // Chooses the model variant once per device model, when an int8 build is bundled;
+    // the choice applies from the next time the detector is loaded. Returns the comparison
+    // for the report, or null when none ran
+    private ModelComparisonHarness.Comparison compareModelVariants(Uri uri) {
+        if (PotholeDetector.hasVariantSelection(this) || !ModelVariant.INT8.isBundled(this)) {
+            return null;
+        }
+        // The model never sees more than its largest input, so neither do the held frames
+        int maxSide = InputSizeController.DEFAULT_SIZES[InputSizeController.DEFAULT_SIZES.length - 1];
+        List<Mat> frames = ModelComparisonHarness.loadFrames(getApplicationContext(), uri, COMPARISON_FRAMES, maxSide);
+        try {
+            return new ModelComparisonHarness(getApplicationContext()).compareAndSelect(frames);
+        } catch (IOException e) {
+            android.util.Log.w(TAG, "Model comparison failed", e);
+            return null;
+        } finally {
+            for (Mat frame : frames) {
+                frame.release();
+            }
+        }
+    }
+
+    // Bumps in the sensor log recorded with this video, in video time; null when there is none
+    // or it was never aligned with the video
+    private List<BumpDetector.BumpEvent> loadBumps(String videoName) {
+        if (videoName == null) {
+            return null;
+        }
+        File sensorLog = SensorCapture.logFileFor(this, videoName);
+        if (!sensorLog.exists()) {
+            return null;
+        }
+        try (FileReader reader = new FileReader(sensorLog)) {
+            List<BumpDetector.BumpEvent> bumps = SensorLog.detectBumps(reader, new BumpDetector());
+            if (bumps == null) {
+                android.util.Log.w(TAG, "Sensor log " + sensorLog.getName() + " has no video span, not used");
+                return null;
+            }
+            android.util.Log.d(TAG, "Sensor log " + sensorLog.getName() + ": " + bumps.size() + " bumps");
+            return bumps;
+        } catch (IOException e) {
+            android.util.Log.w(TAG, "Unreadable sensor log " + sensorLog, e);
+            return null;
+        }
+    }
+
+    // Returns the inference thread count in use
+    private int tuneInferenceThreads(PotholeDetector detector, MediaMetadataRetriever retriever,
+                                     InferenceThreadTuner.SweepListener listener) {
+        InferenceThreadTuner threadTuner = new InferenceThreadTuner(getApplicationContext(), DECODE_RESERVED_CORES);
+        if (threadTuner.isTuned()) {
+            return threadTuner.apply();
+        }
+
+        Bitmap bitmap = retriever.getFrameAtTime(0, MediaMetadataRetriever.OPTION_CLOSEST_SYNC);
+        if (bitmap == null) {
+            return threadTuner.apply();
+        }
+        Mat frame = new Mat();
+        Utils.bitmapToMat(bitmap, frame);
+        // Same full-resolution input as the survey loop
+        try {
+            return threadTuner.sweep(detector, frame, listener);
+        } finally {
+            frame.release();
+            bitmap.recycle();
+        }
+    }
+
+    // PowerManager thermal status, or none before Android 10 where it can't be read
+    private int readThermalStatus() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+            return ThroughputGovernor.THERMAL_NONE;
+        }
+        PowerManager powerManager = (PowerManager) getSystemService(POWER_SERVICE);
+        return powerManager != null ? powerManager.getCurrentThermalStatus() : ThroughputGovernor.THERMAL_NONE;
+    }
+
+    private void applyGovernorSettings(PotholeDetector detector, ThroughputGovernor.Settings settings) {
+        detector.getInputSizeController().setMaxInputSize(settings.maxInputSize);
+        PyTorchAndroid.setNumThreads(settings.workers);
+        android.util.Log.i(TAG, "Governor: " + settings);
+    }
+
     private class VideoProcessingTask extends AsyncTask<Uri, ProcessingUpdate, ProcessingResult> {
 
+        // The activity may be destroyed while the task still runs, so the task keeps its own reference
+        private final PotholeDetector detector;
+
+        VideoProcessingTask(PotholeDetector detector) {
+            this.detector = detector;
+        }
+
         @Override
         protected void onPreExecute() {
             processingStatusTextView.setText("Preparing video for processing...");
@@ -138,6 +296,11 @@ public class VideoProcessorActivity extends AppCompatActivity {
         protected ProcessingResult doInBackground(Uri... uris) {
             ProcessingResult result = new ProcessingResult();
             result.success = false;
+            SurveyHistoryStore.RunWriter history = null;
+            ReportWriter trace = null;
+            // Input size cap and thread count from before the governor, put back when the run ends
+            int previousSizeCap = -1;
+            int previousThreads = 0;
 
             try {
                 // Initialize video retriever
@@ -149,11 +312,62 @@ public class VideoProcessorActivity extends AppCompatActivity {
                 long duration = Long.parseLong(durationStr);
                 int totalFrames = (int) (duration / 1000 * 30); // Estimate 30fps
 
+                // Vehicle positions, from a companion GPS log or the video's location tag
+                PotholeMapStore potholeMap = new PotholeMapStore(getApplicationContext());
+                GpsTrack gps = potholeMap.findGpsTrack(videoUri.getLastPathSegment(),
+                        retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_LOCATION));
+
+                // Wheel impacts from a motion sensor log recorded with the video, if there is one
+                List<BumpDetector.BumpEvent> bumps = loadBumps(videoUri.getLastPathSegment());
+
+                // Compare the int8 build with fp32, once per device model
+                ModelComparisonHarness.Comparison modelComparison = compareModelVariants(uris[0]);
+
+                // Pick the inference thread count, sweeping once per device model
+                int inferenceThreads = tuneInferenceThreads(detector, retriever, new InferenceThreadTuner.SweepListener() {
+                    @Override
+                    public void onMeasured(int threads, int maxThreads, double fps) {
+                        publishProgress(new ProcessingUpdate(String.format(Locale.US,
+                                "Tuning inference threads: %d of %d (%.1f fps)", threads, maxThreads, fps)));
+                    }
+
+                    @Override
+                    public boolean isCancelled() {
+                        return isCancelled || VideoProcessingTask.this.isCancelled();
+                    }
+                });
+                if (isCancelled) {
+                    retriever.release();
+                    return result;
+                }
+
+                // Throughput and small-pothole recall with and without the road crop, on this video
+                publishProgress(new ProcessingUpdate("Comparing inference with and without the road crop..."));
+                RoiComparisonHarness.Comparison roadCrop = new RoiComparisonHarness(detector).compare(
+                        getApplicationContext(), uris[0], ROAD_CROP_COMPARISON_FRAMES,
+                        () -> isCancelled || VideoProcessingTask.this.isCancelled());
+
+                // Stride, input size cap, preview rate and threads follow the device state from here on
+                ThroughputGovernor governor = new ThroughputGovernor(BASE_STRIDE, InputSizeController.DEFAULT_SIZES,
+                        inferenceThreads, 1000 / SOURCE_FPS, TARGET_SPEED);
+                ThroughputGovernor.Settings startSettings = governor.getSettings();
+                ThroughputGovernor.Settings settings = startSettings;
+                previousSizeCap = detector.getInputSizeController().getInputSizeCap();
+                previousThreads = inferenceThreads;
+                applyGovernorSettings(detector, settings);
+                BatteryManager batteryManager = (BatteryManager) getSystemService(BATTERY_SERVICE);
+                int thermalStatus = ThroughputGovernor.THERMAL_NONE;
+                int batteryPercent = 100;
+                boolean charging = true;
+                long nextDevicePollMs = 0;
+                trace = new ReportWriter(new File(getExternalFilesDir(TRACE_DIR),
+                        "trace_" + new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date()) + ".csv"));
+                trace.write(GovernorTrace.HEADER);
+
                 // Initialize progress tracking
                 processingProgressBar.setMax(totalFrames);
                 long startTime = System.currentTimeMillis();
 
-                // Process every 3rd frame (like in the Python code)
                 int frameCount = 0;
                 int processedCount = 0;
 
@@ -162,23 +376,38 @@ public class VideoProcessorActivity extends AppCompatActivity {
                 potholeCounts.put("Small", 0);
                 potholeCounts.put("Medium", 0);
                 potholeCounts.put("Large", 0);
-                List<Double> detectedAreas = new ArrayList<>();
                 Map<String, Integer> riskLevels = new HashMap<>();
                 riskLevels.put("Low", 0);
                 riskLevels.put("Medium", 0);
                 riskLevels.put("High", 0);
-                List<PotholeDetector.PotholeInfo> allPotholes = new ArrayList<>();
+                DetectionTable allPotholes = new DetectionTable();
+                Map<Integer, Integer> inputSizeUsage = new TreeMap<>();
+                double totalDecodeMs = 0;
+                double totalDetectMs = 0;
+                double totalInferenceMs = 0;
+                double totalTileMs = 0;
+                int tileOnlyDetections = 0;
 
                 // Create heatmap matrix
                 Mat heatmapHistory = new Mat();
 
+                // Every detection also goes to the survey history, linked into tracks
+                PotholeTracker tracker = new PotholeTracker();
+                long runStartedAt = System.currentTimeMillis();
+                history = SurveyHistoryStore.getInstance(getApplicationContext())
+                        .beginRun(videoUri.getLastPathSegment(), runStartedAt, gps);
+                EvidenceCropStore evidence = new EvidenceCropStore(getExternalFilesDir(EVIDENCE_DIR),
+                        EVIDENCE_CROPS, EvidenceCropStore.Format.JPEG, EVIDENCE_QUALITY);
+
                 // Process frames
-                for (int i = 0; i < totalFrames; i += 3) {
-                    if (isCancelled) {
+                for (int i = 0; i < totalFrames; i += settings.stride) {
+                    if (isCancelled || isCancelled()) {
                         break;
                     }
 
-                    long frameTime = i * 1000000 / 30; // Convert to microseconds
+                    long frameTime = (long) (i * 1000000L / SOURCE_FPS); // Convert to microseconds
+                    long decodeStart = System.nanoTime();
+                    int inputSize = 0;
                     Bitmap bitmap = retriever.getFrameAtTime(frameTime, MediaMetadataRetriever.OPTION_CLOSEST);
 
                     if (bitmap != null) {
@@ -186,24 +415,36 @@ public class VideoProcessorActivity extends AppCompatActivity {
                         Mat frame = new Mat();
                         Utils.bitmapToMat(bitmap, frame);
 
-                        // Resize frame to match Python code dimensions
-                        Imgproc.resize(frame, frame, new org.opencv.core.Size(1020, 500));
+                        // Full resolution in, so far-field tiles keep their detail; the
+                        // detector draws and measures at the Python code's 1020x500
+                        long detectStart = System.nanoTime();
+                        totalDecodeMs += (detectStart - decodeStart) / 1e6;
 
                         // Process frame with pothole detector
-                        PotholeDetector.DetectionResult detectionResult = potholeDetector.processFrame(frame);
+                        PotholeDetector.DetectionResult detectionResult = detector.processFrame(frame, i, frameTime / 1000);
+                        totalDetectMs += (System.nanoTime() - detectStart) / 1e6;
 
                         // Update analytics
                         potholeCounts.put("Small", potholeCounts.get("Small") + detectionResult.smallCount);
                         potholeCounts.put("Medium", potholeCounts.get("Medium") + detectionResult.mediumCount);
                         potholeCounts.put("Large", potholeCounts.get("Large") + detectionResult.largeCount);
 
-                        detectedAreas.addAll(detectionResult.areas);
-
                         riskLevels.put("Low", riskLevels.get("Low") + detectionResult.lowRiskCount);
                         riskLevels.put("Medium", riskLevels.get("Medium") + detectionResult.mediumRiskCount);
                         riskLevels.put("High", riskLevels.get("High") + detectionResult.highRiskCount);
 
-                        allPotholes.addAll(detectionResult.detectedPotholes);
+                        allPotholes.addAll(detectionResult.potholes);
+                        PotholeTracker.Track[] tracks = tracker.update(i, detectionResult.potholes);
+                        history.add(detectionResult.potholes, tracks);
+                        evidence.offer(frame, detectionResult.displayScaleX, detectionResult.displayScaleY,
+                                i, detectionResult.potholes, tracks);
+
+                        totalInferenceMs += detectionResult.inferenceTimeMs;
+                        totalTileMs += detectionResult.tileTimeMs;
+                        tileOnlyDetections += detectionResult.tileOnlyDetections;
+                        inputSize = detectionResult.inputSize;
+                        Integer sizeFrames = inputSizeUsage.get(detectionResult.inputSize);
+                        inputSizeUsage.put(detectionResult.inputSize, sizeFrames == null ? 1 : sizeFrames + 1);
 
                         // Update heatmap
                         if (heatmapHistory.empty()) {
@@ -215,8 +456,13 @@ public class VideoProcessorActivity extends AppCompatActivity {
                             }
                         }
 
-                        // Safely convert processed frame to bitmap for display
-                        if (!detectionResult.processedFrame.empty() && detectionResult.processedFrame.dims() == 2) {
+                        // Safely convert processed frame to bitmap for display, at the governor's preview rate
+                        if (processedCount % settings.previewInterval != 0) {
+                            processedCount++;
+                            publishProgress(new ProcessingUpdate(frameCount, processedCount, null,
+                                    potholeCounts.get("Small") + potholeCounts.get("Medium") + potholeCounts.get("Large"),
+                                    System.currentTimeMillis() - startTime));
+                        } else if (!detectionResult.processedFrame.empty() && detectionResult.processedFrame.dims() == 2) {
                             try {
                                 // Create a bitmap that will be sent to the UI - IMPORTANT: don't recycle this one
                                 Bitmap processedBitmap = Bitmap.createBitmap(
@@ -266,6 +512,27 @@ public class VideoProcessorActivity extends AppCompatActivity {
                     }
 
                     frameCount++;
+
+                    // Device state and the time of this frame go to the governor and the trace
+                    long elapsedMs = System.currentTimeMillis() - startTime;
+                    if (elapsedMs >= nextDevicePollMs) {
+                        thermalStatus = readThermalStatus();
+                        if (batteryManager != null) {
+                            batteryPercent = batteryManager.getIntProperty(BatteryManager.BATTERY_PROPERTY_CAPACITY);
+                            charging = batteryManager.isCharging();
+                        }
+                        governor.setThermalStatus(thermalStatus);
+                        governor.setBattery(batteryPercent, charging);
+                        nextDevicePollMs = elapsedMs + DEVICE_POLL_MS;
+                    }
+                    double frameMs = (System.nanoTime() - decodeStart) / 1e6;
+                    GovernorTrace.writeFrame(trace, elapsedMs, thermalStatus, batteryPercent, charging, frameMs,
+                            settings.stride, inputSize > 0 ? inputSize : settings.maxInputSize, settings.workers);
+                    ThroughputGovernor.Decision decision = governor.recordFrame(elapsedMs, frameMs);
+                    if (decision != null) {
+                        settings = decision.settings;
+                        applyGovernorSettings(detector, settings);
+                    }
                 }
 
                 // Clean up
@@ -274,11 +541,57 @@ public class VideoProcessorActivity extends AppCompatActivity {
                     heatmapHistory.release();
                 }
 
+                // A cancelled run gets no report and doesn't touch the map; its history stays incomplete
+                if (isCancelled || isCancelled()) {
+                    android.util.Log.i(TAG, "Processing cancelled after " + processedCount + " frames");
+                    return result;
+                }
+
                 // Generate report
+                ReportGenerator reportGenerator = new ReportGenerator();
+                reportGenerator.setDetailLimit(reportDetailLimit);
                 File reportFile = new File(getExternalFilesDir(Environment.DIRECTORY_DOCUMENTS),
-                        "pothole_report_" + new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date()) + ".txt");
+                        "pothole_report_" + new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date())
+                                + "." + reportGenerator.getFormat().extension);
+
+                reportGenerator.setInputSizeUsage(inputSizeUsage);
+                reportGenerator.addGovernorDecision(0, startSettings, "start");
+                for (ThroughputGovernor.Decision decision : governor.getDecisions()) {
+                    reportGenerator.addGovernorDecision(decision.timeMs, decision.settings, decision.reason);
+                }
+                reportGenerator.setGpsTrack(gps);
+                if (modelComparison != null) {
+                    reportGenerator.addComparison("MODEL VARIANT COMPARISON", modelComparison
+                            + "\nSelected for later runs: " + modelComparison.recommended());
+                }
+                if (roadCrop.frames > 0) {
+                    reportGenerator.addComparison("ROAD CROP COMPARISON", roadCrop.toString());
+                }
+                for (EvidenceCropStore.Evidence photo : evidence.finish()) {
+                    reportGenerator.addEvidence(photo.trackId, photo.risk, photo.area, photo.file.getName());
+                }
+                RoadRoiEstimator roadRoi = detector.getRoiEstimator();
+                reportGenerator.setInferenceStats(
+                        roadRoi != null ? roadRoi.getMode().name() : "OFF",
+                        processedCount > 0 ? totalInferenceMs / processedCount : 0);
+                reportGenerator.setTilingStats(
+                        detector.isTiledInference(),
+                        processedCount > 0 ? totalTileMs / processedCount : 0,
+                        tileOnlyDetections);
+                reportGenerator.addStageTiming("decode", totalDecodeMs);
+                reportGenerator.addStageTiming("detect", totalDetectMs);
+                reportGenerator.addStageTiming("inference", totalInferenceMs);
+                if (detector.isTiledInference()) {
+                    reportGenerator.addStageTiming("tiling", totalTileMs);
+                }
+
+                // Close all tracks and confirm them with the wheel impacts that followed
+                tracker.finish();
+                if (bumps != null) {
+                    int unmatchedBumps = BumpFusion.fuse(tracker.getFinishedTracks(), bumps, BUMP_MAX_LEAD_MS).size();
+                    reportGenerator.setBumpStats(bumps.size(), bumps.size() - unmatchedBumps, unmatchedBumps);
+                }
 
-                ReportGenerator reportGenerator = new ReportGenerator();
                 boolean reportSuccess = reportGenerator.generateReport(
                         reportFile,
                         videoUri.getLastPathSegment(),
@@ -286,10 +599,18 @@ public class VideoProcessorActivity extends AppCompatActivity {
                         processedCount,
                         potholeCounts,
                         riskLevels,
-                        detectedAreas,
                         allPotholes
                 );
 
+                history.finish(reportFile.getAbsolutePath(), reportGenerator.getSummary(), tracker.getFinishedTracks());
+                if (gps != null) {
+                    try {
+                        potholeMap.addRun(tracker.getFinishedTracks(), gps, runStartedAt);
+                    } catch (IOException e) {
+                        android.util.Log.e(TAG, "Error updating pothole map", e);
+                    }
+                }
+
                 result.success = true;
                 result.reportPath = reportFile.getAbsolutePath();
                 result.processingTimeMs = System.currentTimeMillis() - startTime;
@@ -299,6 +620,22 @@ public class VideoProcessorActivity extends AppCompatActivity {
             } catch (Exception e) {
                 e.printStackTrace();
                 result.errorMessage = e.getMessage();
+            } finally {
+                if (previousThreads > 0) {
+                    detector.getInputSizeController().setMaxInputSize(previousSizeCap);
+                    PyTorchAndroid.setNumThreads(previousThreads);
+                }
+                // Keeps what was detected before a failure; the run stays marked incomplete
+                if (history != null) {
+                    history.close();
+                }
+                if (trace != null) {
+                    try {
+                        trace.close();
+                    } catch (IOException e) {
+                        android.util.Log.e(TAG, "Error closing governor trace", e);
+                    }
+                }
             }
 
             return result;
@@ -308,6 +645,10 @@ public class VideoProcessorActivity extends AppCompatActivity {
         protected void onProgressUpdate(ProcessingUpdate... values) {
             if (values.length > 0) {
                 ProcessingUpdate update = values[0];
+                if (update.status != null) {
+                    processingStatusTextView.setText(update.status);
+                    return;
+                }
 
                 // Update progress bar
                 processingProgressBar.setProgress(update.frameCount);
@@ -328,8 +669,13 @@ public class VideoProcessorActivity extends AppCompatActivity {
             }
         }
 
+        private void releaseDetector() {
+            DetectorRegistry.getInstance(getApplicationContext()).release(detector);
+        }
+
         @Override
         protected void onPostExecute(ProcessingResult result) {
+            releaseDetector();
             if (result.success) {
                 Toast.makeText(VideoProcessorActivity.this, "Processing completed successfully", Toast.LENGTH_SHORT).show();
 
@@ -350,6 +696,7 @@ public class VideoProcessorActivity extends AppCompatActivity {
 
         @Override
         protected void onCancelled() {
+            releaseDetector();
             Toast.makeText(VideoProcessorActivity.this, "Processing cancelled", Toast.LENGTH_SHORT).show();
         }
     }
@@ -360,6 +707,12 @@ public class VideoProcessorActivity extends AppCompatActivity {
         Bitmap currentFrame;
         int potholeCount;
         long elapsedTimeMs;
+        // Shown instead of the frame progress while preparing, e.g. the thread sweep
+        String status;
+
+        ProcessingUpdate(String status) {
+            this.status = status;
+        }
 
         ProcessingUpdate(int frameCount, int processedCount, Bitmap currentFrame, int potholeCount, long elapsedTimeMs) {
             this.frameCount = frameCount;
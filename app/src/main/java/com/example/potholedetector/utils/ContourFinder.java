@@ -0,0 +1,58 @@
+package com.example.potholedetector.utils;
+
+import com.example.potholedetector.core.ContourSet;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.utils.Converters;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OpenCV contours straight into a {@link ContourSet}.
+ *
+ * findContours leaves its result native and it is copied out in one flat read, so finding
+ * and measuring contours takes no MatOfPoint and no native call per contour; the metrics
+ * come from {@link ContourSet#analyze}. MatOfPoints are only made for drawing.
+ */
+public final class ContourFinder {
+
+    private ContourFinder() {
+    }
+
+    // Contours of a binary image, replacing what out held; returns the contour count
+    public static int find(Mat binary, int mode, int method, ContourSet out) {
+        Mat contours = new Mat();
+        Mat hierarchy = new Mat();
+        try {
+            Imgproc.findContours(binary, contours, hierarchy, mode, method);
+            out.ensureCapacity(contours.rows(), Converters.vector_vector_Point_total(contours));
+            // Frees the native contours
+            int count = Converters.Mat_to_vector_vector_Point(contours, out.pointsColumn(), out.offsetsColumn());
+            out.setSize(count);
+            return count;
+        } finally {
+            // The contours are still native if anything threw before the conversion freed them
+            Converters.release_vector_vector_Point(contours);
+            hierarchy.release();
+        }
+    }
+
+    // The contours of the set as MatOfPoints, for OpenCV's drawing calls; the caller releases them
+    public static List<MatOfPoint> toMats(ContourSet contours) {
+        int longest = 0;
+        for (int i = 0; i < contours.size(); i++) {
+            longest = Math.max(longest, contours.pointCount(i));
+        }
+        int[] xy = new int[longest * 2];
+        List<MatOfPoint> mats = new ArrayList<>(contours.size());
+        for (int i = 0; i < contours.size(); i++) {
+            MatOfPoint mat = new MatOfPoint();
+            mat.fromArray(xy, contours.copyPoints(i, xy));
+            mats.add(mat);
+        }
+        return mats;
+    }
+}
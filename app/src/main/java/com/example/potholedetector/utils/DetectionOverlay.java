@@ -0,0 +1,166 @@
+package com.example.potholedetector.utils;
+
+import android.opengl.GLES20;
+import android.util.Log;
+
+import com.example.potholedetector.core.DetectionTable;
+import com.example.potholedetector.core.RiskClass;
+
+import org.opencv.android.CameraGLSurfaceView;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Draws pothole boxes over the live camera preview as GL line geometry.
+ *
+ * The inference thread publishes the boxes of its latest frame with
+ * {@link #setDetections}; the GL thread draws them after every camera frame, one
+ * {@code glDrawArrays} per risk level. Boxes are kept in normalized device coordinates,
+ * so they follow the preview whatever the view size, and nothing is allocated per
+ * drawn frame.
+ */
+public class DetectionOverlay implements CameraGLSurfaceView.CameraOverlayListener {
+
+    private static final String TAG = "DetectionOverlay";
+
+    private static final int MAX_BOXES = 64;
+    // Four edges of two vertices each
+    private static final int VERTICES_PER_BOX = 8;
+    private static final float LINE_WIDTH = 4f;
+
+    // Low, medium and high risk: green, orange and red, RGBA
+    private static final float[][] RISK_COLORS = {
+            {0f, 1f, 0f, 1f},
+            {1f, 0.65f, 0f, 1f},
+            {1f, 0f, 0f, 1f}};
+
+    private static final String VERTEX_SHADER = ""
+            + "attribute vec2 vPosition;\n"
+            + "void main() {\n"
+            + "  gl_Position = vec4(vPosition, 0.0, 1.0);\n"
+            + "}";
+
+    private static final String FRAGMENT_SHADER = ""
+            + "precision mediump float;\n"
+            + "uniform vec4 uColor;\n"
+            + "void main() {\n"
+            + "  gl_FragColor = uColor;\n"
+            + "}";
+
+    // x1, y1, x2, y2 in device coordinates and the risk code, per box; replaced, never modified
+    private volatile float[] boxes = new float[0];
+
+    // GL thread only
+    private final FloatBuffer vertices = ByteBuffer.allocateDirect(MAX_BOXES * VERTICES_PER_BOX * 2 * 4)
+            .order(ByteOrder.nativeOrder()).asFloatBuffer();
+    private int program;
+    private int positionAttrib;
+    private int colorUniform;
+
+    // Publishes the boxes of one analyzed frame, given in pixels of a frame of the given size
+    public void setDetections(DetectionTable rows, int frameWidth, int frameHeight) {
+        int count = Math.min(rows.size(), MAX_BOXES);
+        float[] next = new float[count * 5];
+        for (int i = 0; i < count; i++) {
+            next[i * 5] = rows.x1(i) / frameWidth * 2 - 1;
+            next[i * 5 + 1] = 1 - rows.y1(i) / frameHeight * 2;
+            next[i * 5 + 2] = rows.x2(i) / frameWidth * 2 - 1;
+            next[i * 5 + 3] = 1 - rows.y2(i) / frameHeight * 2;
+            next[i * 5 + 4] = rows.riskClass(i).code();
+        }
+        boxes = next;
+    }
+
+    public void clear() {
+        boxes = new float[0];
+    }
+
+    @Override
+    public void onOverlaySurfaceCreated() {
+        // The old program went with the old context
+        program = 0;
+    }
+
+    @Override
+    public void onDrawOverlay(int viewWidth, int viewHeight) {
+        float[] current = boxes;
+        if (current.length == 0) {
+            return;
+        }
+        if (program == 0 && !buildProgram()) {
+            return;
+        }
+
+        GLES20.glUseProgram(program);
+        GLES20.glLineWidth(LINE_WIDTH);
+        GLES20.glEnableVertexAttribArray(positionAttrib);
+        for (RiskClass risk : RiskClass.values()) {
+            vertices.clear();
+            for (int i = 0; i < current.length; i += 5) {
+                if ((int) current[i + 4] == risk.code()) {
+                    putBox(current[i], current[i + 1], current[i + 2], current[i + 3]);
+                }
+            }
+            int count = vertices.position() / 2;
+            if (count == 0) {
+                continue;
+            }
+            vertices.position(0);
+            float[] color = RISK_COLORS[risk.code()];
+            GLES20.glUniform4f(colorUniform, color[0], color[1], color[2], color[3]);
+            GLES20.glVertexAttribPointer(positionAttrib, 2, GLES20.GL_FLOAT, false, 0, vertices);
+            GLES20.glDrawArrays(GLES20.GL_LINES, 0, count);
+        }
+        GLES20.glDisableVertexAttribArray(positionAttrib);
+    }
+
+    private void putBox(float x1, float y1, float x2, float y2) {
+        vertices.put(x1).put(y1).put(x2).put(y1);
+        vertices.put(x2).put(y1).put(x2).put(y2);
+        vertices.put(x2).put(y2).put(x1).put(y2);
+        vertices.put(x1).put(y2).put(x1).put(y1);
+    }
+
+    private boolean buildProgram() {
+        int vertexShader = compile(GLES20.GL_VERTEX_SHADER, VERTEX_SHADER);
+        int fragmentShader = compile(GLES20.GL_FRAGMENT_SHADER, FRAGMENT_SHADER);
+        if (vertexShader == 0 || fragmentShader == 0) {
+            GLES20.glDeleteShader(vertexShader);
+            GLES20.glDeleteShader(fragmentShader);
+            return false;
+        }
+        int linked = GLES20.glCreateProgram();
+        GLES20.glAttachShader(linked, vertexShader);
+        GLES20.glAttachShader(linked, fragmentShader);
+        GLES20.glLinkProgram(linked);
+        GLES20.glDeleteShader(vertexShader);
+        GLES20.glDeleteShader(fragmentShader);
+        int[] status = new int[1];
+        GLES20.glGetProgramiv(linked, GLES20.GL_LINK_STATUS, status, 0);
+        if (status[0] == 0) {
+            Log.e(TAG, "Could not link overlay program: " + GLES20.glGetProgramInfoLog(linked));
+            GLES20.glDeleteProgram(linked);
+            return false;
+        }
+        program = linked;
+        positionAttrib = GLES20.glGetAttribLocation(program, "vPosition");
+        colorUniform = GLES20.glGetUniformLocation(program, "uColor");
+        return true;
+    }
+
+    private static int compile(int type, String source) {
+        int shader = GLES20.glCreateShader(type);
+        GLES20.glShaderSource(shader, source);
+        GLES20.glCompileShader(shader);
+        int[] status = new int[1];
+        GLES20.glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, status, 0);
+        if (status[0] == 0) {
+            Log.e(TAG, "Could not compile overlay shader: " + GLES20.glGetShaderInfoLog(shader));
+            GLES20.glDeleteShader(shader);
+            return 0;
+        }
+        return shader;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.potholedetector.utils;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Process-wide holder for the shared {@link PotholeDetector}.
+ *
+ * Loading the TorchScript module is the most expensive part of starting a run, so
+ * the detector is kept alive between activities and handed out with reference
+ * counting. An idle detector is only released when the system reports memory pressure.
+ */
+public final class DetectorRegistry implements ComponentCallbacks2 {
+
+    private static final String TAG = "DetectorRegistry";
+
+    private static DetectorRegistry instance;
+
+    private final Context appContext;
+    private final Map<ModelVariant, Entry> entries = new EnumMap<>(ModelVariant.class);
+
+    private DetectorRegistry(Context appContext) {
+        this.appContext = appContext;
+    }
+
+    public static synchronized DetectorRegistry getInstance(Context context) {
+        if (instance == null) {
+            instance = new DetectorRegistry(context.getApplicationContext());
+            instance.appContext.registerComponentCallbacks(instance);
+        }
+        return instance;
+    }
+
+    // Returns the shared detector for the variant selected on this device
+    public PotholeDetector acquire() throws IOException {
+        return acquire(PotholeDetector.selectVariant(appContext));
+    }
+
+    // Returns the shared detector of a variant, loading the model on first use
+    public synchronized PotholeDetector acquire(ModelVariant variant) throws IOException {
+        Entry entry = entries.get(variant);
+        if (entry == null) {
+            File modelFile = new ModelStager(appContext).stage(variant.assetName);
+            entry = new Entry(new PotholeDetector(modelFile.getAbsolutePath()));
+            entries.put(variant, entry);
+        }
+        entry.refCount++;
+        Log.d(TAG, "Detector " + variant + " acquired, users: " + entry.refCount);
+        return entry.detector;
+    }
+
+    // Hands a detector back; it stays loaded so the next run can reuse it
+    public synchronized void release(PotholeDetector released) {
+        if (released == null) {
+            return;
+        }
+        for (Map.Entry<ModelVariant, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            if (entry.detector == released && entry.refCount > 0) {
+                entry.refCount--;
+                Log.d(TAG, "Detector " + e.getKey() + " released, users: " + entry.refCount);
+                return;
+            }
+        }
+    }
+
+    public synchronized int getRefCount(ModelVariant variant) {
+        Entry entry = entries.get(variant);
+        return entry == null ? 0 : entry.refCount;
+    }
+
+    // Frees the native modules nobody is using
+    private synchronized void releaseIfIdle() {
+        Iterator<Map.Entry<ModelVariant, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<ModelVariant, Entry> e = it.next();
+            if (e.getValue().refCount == 0) {
+                e.getValue().detector.close();
+                it.remove();
+                Log.d(TAG, "Idle detector " + e.getKey() + " released under memory pressure");
+            }
+        }
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        // UI_HIDDEN alone is not memory pressure, everything else from RUNNING_LOW up is
+        boolean runningLow = level >= TRIM_MEMORY_RUNNING_LOW && level < TRIM_MEMORY_UI_HIDDEN;
+        if (runningLow || level >= TRIM_MEMORY_BACKGROUND) {
+            releaseIfIdle();
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        releaseIfIdle();
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+        // Nothing to do, the detector does not depend on configuration
+    }
+
+    private static class Entry {
+        final PotholeDetector detector;
+        int refCount;
+
+        Entry(PotholeDetector detector) {
+            this.detector = detector;
+        }
+    }
+}
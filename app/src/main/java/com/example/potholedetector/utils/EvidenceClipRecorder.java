@@ -0,0 +1,277 @@
+package com.example.potholedetector.utils;
+
+import android.media.Image;
+import android.media.MediaCodec;
+import android.media.MediaCodecInfo;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import android.util.Log;
+
+import com.example.potholedetector.core.EncodedSampleRing;
+import com.example.potholedetector.core.EvidenceClipper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Saves MP4 clips of the seconds around high-risk potholes while driving.
+ *
+ * Camera frames are H.264 encoded as they arrive and only the compressed samples of the
+ * last few seconds are kept, in a fixed {@link EncodedSampleRing}; an event writes them out
+ * as the pre-roll of a clip and the clip is then streamed to a {@link MediaMuxer} until the
+ * post-roll has passed. Overlapping events share a clip ({@link EvidenceClipper}).
+ *
+ * {@link #offer} copies the frame into the encoder on the caller's thread and never waits
+ * for it; a frame the encoder has no buffer for is skipped. Encoded output is drained on
+ * a thread of its own.
+ */
+public class EvidenceClipRecorder implements EvidenceClipper.ClipSink {
+
+    private static final String TAG = "EvidenceClipRecorder";
+
+    private static final String MIME_TYPE = MediaFormat.MIMETYPE_VIDEO_AVC;
+    private static final int BIT_RATE = 4_000_000;
+    private static final int FRAME_RATE = 30;
+    // A key frame every second, so a clip starts at most a second before its pre-roll
+    private static final int KEY_FRAME_INTERVAL_S = 1;
+    private static final long DRAIN_TIMEOUT_US = 10_000;
+
+    private static final long PRE_ROLL_US = 5_000_000;
+    private static final long POST_ROLL_US = 5_000_000;
+    private static final long MAX_CLIP_US = 60_000_000;
+
+    // Pre-roll, a key frame interval and the detection delay at the nominal bit rate, with headroom
+    private static final int RING_BYTES = 6 * 1024 * 1024;
+    private static final int RING_SAMPLES = 512;
+
+    private final File clipDir;
+    private final int width;
+    private final int height;
+    private final EvidenceClipper clipper;
+
+    private MediaCodec encoder;
+    private Thread drainThread;
+    private volatile boolean running;
+
+    // Set by the drain thread, carries the codec config the muxer needs
+    private volatile MediaFormat outputFormat;
+    private final MediaCodec.BufferInfo sampleInfo = new MediaCodec.BufferInfo();
+
+    // Only used under the clipper's lock
+    private MediaMuxer muxer;
+    private int track;
+    private long clipStartUs;
+    private File clipFile;
+    private ByteBuffer muxBuffer;
+    private final MediaCodec.BufferInfo muxInfo = new MediaCodec.BufferInfo();
+
+    public EvidenceClipRecorder(File clipDir, int width, int height) {
+        this.clipDir = clipDir;
+        this.width = width;
+        this.height = height;
+        this.clipper = new EvidenceClipper(new EncodedSampleRing(RING_BYTES, RING_SAMPLES),
+                PRE_ROLL_US, POST_ROLL_US, MAX_CLIP_US, this);
+    }
+
+    public void start() throws IOException {
+        MediaFormat format = MediaFormat.createVideoFormat(MIME_TYPE, width, height);
+        format.setInteger(MediaFormat.KEY_COLOR_FORMAT, MediaCodecInfo.CodecCapabilities.COLOR_FormatYUV420Flexible);
+        format.setInteger(MediaFormat.KEY_BIT_RATE, BIT_RATE);
+        format.setInteger(MediaFormat.KEY_FRAME_RATE, FRAME_RATE);
+        format.setInteger(MediaFormat.KEY_I_FRAME_INTERVAL, KEY_FRAME_INTERVAL_S);
+
+        encoder = MediaCodec.createEncoderByType(MIME_TYPE);
+        try {
+            encoder.configure(format, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+            encoder.start();
+        } catch (RuntimeException e) {
+            encoder.release();
+            encoder = null;
+            throw new IOException("Cannot start " + width + "x" + height + " encoder", e);
+        }
+        running = true;
+        drainThread = new Thread(this::drain, "EvidenceClipRecorder");
+        drainThread.start();
+    }
+
+    // Encodes one camera frame; the caller still owns and closes the image
+    public void offer(Image image) {
+        if (!running) {
+            return;
+        }
+        try {
+            int index = encoder.dequeueInputBuffer(0);
+            if (index < 0) {
+                return;
+            }
+            Image input = encoder.getInputImage(index);
+            if (input == null) {
+                encoder.queueInputBuffer(index, 0, 0, 0, 0);
+                return;
+            }
+            copyPlanes(image, input);
+            encoder.queueInputBuffer(index, 0, width * height * 3 / 2, image.getTimestamp() / 1000, 0);
+        } catch (IllegalStateException e) {
+            // Encoder stopped meanwhile
+        }
+    }
+
+    // A high-risk pothole seen in the frame with this camera timestamp
+    public void onHighRisk(long timestampNs) {
+        try {
+            clipper.onEvent(timestampNs / 1000);
+        } catch (IOException e) {
+            Log.e(TAG, "Error writing evidence clip", e);
+        }
+    }
+
+    public int getClipCount() {
+        return clipper.getClipCount();
+    }
+
+    // Stops encoding and finishes the clip being written
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            drainThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            clipper.flush();
+        } catch (IOException e) {
+            Log.e(TAG, "Error finishing evidence clip", e);
+        }
+        try {
+            encoder.stop();
+        } catch (IllegalStateException e) {
+            Log.w(TAG, "Encoder already stopped", e);
+        }
+        encoder.release();
+        encoder = null;
+        Log.d(TAG, clipper.getClipCount() + " clips, " + clipper.getMergedEventCount() + " merged events");
+    }
+
+    // Drain thread
+    private void drain() {
+        while (running) {
+            int index;
+            try {
+                index = encoder.dequeueOutputBuffer(sampleInfo, DRAIN_TIMEOUT_US);
+            } catch (IllegalStateException e) {
+                Log.e(TAG, "Encoder failed", e);
+                return;
+            }
+            if (index == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                outputFormat = encoder.getOutputFormat();
+                continue;
+            }
+            if (index < 0) {
+                continue;
+            }
+            ByteBuffer sample = encoder.getOutputBuffer(index);
+            boolean config = (sampleInfo.flags & MediaCodec.BUFFER_FLAG_CODEC_CONFIG) != 0;
+            if (sample != null && !config && sampleInfo.size > 0) {
+                sample.position(sampleInfo.offset);
+                sample.limit(sampleInfo.offset + sampleInfo.size);
+                try {
+                    clipper.addSample(sample, sampleInfo.presentationTimeUs,
+                            (sampleInfo.flags & MediaCodec.BUFFER_FLAG_KEY_FRAME) != 0);
+                } catch (IOException e) {
+                    Log.e(TAG, "Error writing evidence clip", e);
+                }
+            }
+            encoder.releaseOutputBuffer(index, false);
+        }
+    }
+
+    // Called by the clipper, on whichever thread fed it the sample or event
+
+    @Override
+    public void beginClip(long startPtsUs) throws IOException {
+        if (outputFormat == null) {
+            throw new IOException("Encoder output format not known yet");
+        }
+        clipFile = new File(clipDir, "clip_"
+                + new SimpleDateFormat("yyyyMMdd_HHmmss_SSS", Locale.US).format(new Date()) + ".mp4");
+        muxer = new MediaMuxer(clipFile.getAbsolutePath(), MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4);
+        track = muxer.addTrack(outputFormat);
+        muxer.start();
+        clipStartUs = startPtsUs;
+    }
+
+    @Override
+    public void writeSample(byte[] data, int offset, int size, long ptsUs, boolean keyFrame) {
+        if (muxer == null) {
+            return;
+        }
+        // The data is always the ring's arena, wrapped once
+        if (muxBuffer == null || muxBuffer.array() != data) {
+            muxBuffer = ByteBuffer.wrap(data);
+        }
+        muxInfo.set(offset, size, ptsUs - clipStartUs, keyFrame ? MediaCodec.BUFFER_FLAG_KEY_FRAME : 0);
+        muxer.writeSampleData(track, muxBuffer, muxInfo);
+    }
+
+    @Override
+    public void endClip() {
+        if (muxer == null) {
+            return;
+        }
+        try {
+            muxer.stop();
+        } catch (IllegalStateException e) {
+            Log.e(TAG, "Error finishing " + clipFile.getName(), e);
+        }
+        muxer.release();
+        muxer = null;
+        Log.i(TAG, "Saved evidence clip " + clipFile.getName());
+    }
+
+    // Copies a YUV_420_888 frame into the encoder's input image, whatever the strides of either
+    private static void copyPlanes(Image source, Image target) {
+        Image.Plane[] from = source.getPlanes();
+        Image.Plane[] to = target.getPlanes();
+        int w = Math.min(source.getWidth(), target.getWidth());
+        int h = Math.min(source.getHeight(), target.getHeight());
+        for (int p = 0; p < 3; p++) {
+            int planeW = p == 0 ? w : w / 2;
+            int planeH = p == 0 ? h : h / 2;
+            copyPlane(from[p], to[p], planeW, planeH);
+        }
+    }
+
+    private static void copyPlane(Image.Plane from, Image.Plane to, int planeW, int planeH) {
+        ByteBuffer src = from.getBuffer();
+        ByteBuffer dst = to.getBuffer();
+        int srcPixel = from.getPixelStride();
+        int dstPixel = to.getPixelStride();
+        // Interleaved chroma goes pixel by pixel: a row of it also holds the other plane's samples,
+        // and copying those would overwrite the other plane when the two sides order U and V differently
+        if (srcPixel == 1 && dstPixel == 1) {
+            // Whole rows at once
+            ByteBuffer srcRow = src.duplicate();
+            for (int y = 0; y < planeH; y++) {
+                srcRow.limit(y * from.getRowStride() + planeW);
+                srcRow.position(y * from.getRowStride());
+                dst.position(y * to.getRowStride());
+                dst.put(srcRow);
+            }
+            return;
+        }
+        for (int y = 0; y < planeH; y++) {
+            int srcRow = y * from.getRowStride();
+            int dstRow = y * to.getRowStride();
+            for (int x = 0; x < planeW; x++) {
+                dst.put(dstRow + x * dstPixel, src.get(srcRow + x * srcPixel));
+            }
+        }
+    }
+}
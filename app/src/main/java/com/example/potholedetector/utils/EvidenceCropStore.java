@@ -0,0 +1,312 @@
+package com.example.potholedetector.utils;
+
+import android.util.Log;
+
+import com.example.potholedetector.core.DetectionTable;
+import com.example.potholedetector.core.PotholeTracker;
+import com.example.potholedetector.core.RiskClass;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.MatOfInt;
+import org.opencv.core.Rect;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps one photo of each of the worst potholes of a run.
+ *
+ * Every tracked detection is ranked by risk, then area. Each track keeps only its best
+ * crop, and at most {@code maxCrops} tracks are kept overall, the lowest ranked being
+ * evicted. The pipeline thread only copies the crop out of the frame; colour conversion
+ * and {@code Imgcodecs.imencode} run on one background thread with a short queue, and
+ * when that queue is full the crop is dropped rather than waiting. A crop only replaces
+ * or evicts kept ones once it is stored, so a failed or dropped encode loses nothing.
+ * Files are named by the SHA-1 of their bytes, so identical crops are stored once.
+ */
+public class EvidenceCropStore {
+
+    private static final String TAG = "EvidenceCropStore";
+
+    // Crops waiting for the encoder; more than this means it can't keep up
+    private static final int MAX_QUEUED = 8;
+    // Context around the box, as a fraction of its size on each side
+    private static final float PADDING = 0.25f;
+
+    public enum Format {
+        JPEG(".jpg", Imgcodecs.IMWRITE_JPEG_QUALITY),
+        WEBP(".webp", Imgcodecs.IMWRITE_WEBP_QUALITY);
+
+        public final String extension;
+        final int qualityFlag;
+
+        Format(String extension, int qualityFlag) {
+            this.extension = extension;
+            this.qualityFlag = qualityFlag;
+        }
+    }
+
+    // The kept crop of one track
+    public static class Evidence {
+        public final int trackId;
+        public final int frameIndex;
+        public final RiskClass risk;
+        public final float area;
+        final long rank;
+        // Set once encoded and stored, before it is kept
+        public File file;
+
+        Evidence(int trackId, int frameIndex, RiskClass risk, float area, long rank) {
+            this.trackId = trackId;
+            this.frameIndex = frameIndex;
+            this.risk = risk;
+            this.area = area;
+            this.rank = rank;
+        }
+    }
+
+    private final File directory;
+    private final int maxCrops;
+    private final Format format;
+    private final int quality;
+
+    private final ThreadPoolExecutor encoder = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED));
+
+    // Guarded by this; kept crops, all stored
+    private final Map<Integer, Evidence> byTrack = new HashMap<>();
+    private final PriorityQueue<Evidence> lowestFirst = new PriorityQueue<>(
+            (a, b) -> Long.compare(a.rank, b.rank));
+    // The newest candidate of each track waiting for the encoder
+    private final Map<Integer, Evidence> pending = new HashMap<>();
+    // Tracks sharing one file (identical bytes) keep it alive
+    private final Map<File, Integer> fileRefs = new HashMap<>();
+    // Files this run wrote; a file already there belongs to an earlier run and is never deleted
+    private final Set<File> createdFiles = new HashSet<>();
+    private int dropped;
+
+    public EvidenceCropStore(File directory, int maxCrops, Format format, int quality) {
+        this.directory = directory;
+        this.maxCrops = maxCrops;
+        this.format = format;
+        this.quality = quality;
+        // A run that fails before finish() doesn't leave the thread behind
+        encoder.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Considers every tracked row of one frame; returns quickly, encoding happens later.
+     * Rows are in display coordinates, scaleX/scaleY display pixels per frame pixel, so
+     * crops are cut from the frame at its own resolution.
+     */
+    public void offer(Mat frame, double scaleX, double scaleY, int frameIndex,
+                      DetectionTable rows, PotholeTracker.Track[] tracks) {
+        byte[] risks = rows.riskClassColumn();
+        for (int i = 0; i < rows.size(); i++) {
+            if (tracks[i] == null) {
+                continue;
+            }
+            // Risk first, area to break ties; areas are non-negative so their bits order like the values
+            long rank = ((long) risks[i] << 32) | Float.floatToIntBits(rows.area(i));
+            Evidence candidate = new Evidence(tracks[i].id, frameIndex,
+                    RiskClass.fromCode(risks[i]), rows.area(i), rank);
+            if (!admit(candidate)) {
+                continue;
+            }
+
+            Rect box = paddedBox(rows, i, scaleX, scaleY, frame.cols(), frame.rows());
+            if (box.width <= 0 || box.height <= 0) {
+                withdraw(candidate);
+                continue;
+            }
+            // The frame is reused after this call, so the crop must be copied here
+            Mat region = new Mat(frame, box);
+            Mat crop = region.clone();
+            region.release();
+            try {
+                encoder.execute(() -> encode(candidate, crop));
+            } catch (RejectedExecutionException e) {
+                crop.release();
+                withdraw(candidate);
+                synchronized (this) {
+                    dropped++;
+                }
+            }
+        }
+    }
+
+    // Queues the candidate if it could outrank what is kept; nothing kept changes until it is stored
+    private synchronized boolean admit(Evidence candidate) {
+        Evidence queued = pending.get(candidate.trackId);
+        if (queued != null && queued.rank >= candidate.rank) {
+            return false;
+        }
+        if (!outranksKept(candidate)) {
+            return false;
+        }
+        pending.put(candidate.trackId, candidate);
+        return true;
+    }
+
+    // Called with the lock held
+    private boolean outranksKept(Evidence candidate) {
+        Evidence current = byTrack.get(candidate.trackId);
+        if (current != null) {
+            return candidate.rank > current.rank;
+        }
+        if (byTrack.size() < maxCrops) {
+            return true;
+        }
+        Evidence lowest = lowestFirst.peek();
+        return lowest != null && candidate.rank > lowest.rank;
+    }
+
+    // The candidate was not stored; what its track had is still kept
+    private synchronized void withdraw(Evidence candidate) {
+        pending.remove(candidate.trackId, candidate);
+    }
+
+    // Keeps a stored candidate, replacing its track's crop or evicting the lowest ranked one
+    private synchronized void keep(Evidence candidate, File file) {
+        pending.remove(candidate.trackId, candidate);
+        fileRefs.merge(file, 1, Integer::sum);
+        // Others may have been kept while it was encoded
+        if (!outranksKept(candidate)) {
+            release(file);
+            return;
+        }
+        Evidence current = byTrack.get(candidate.trackId);
+        if (current == null && byTrack.size() >= maxCrops) {
+            current = lowestFirst.peek();
+        }
+        candidate.file = file;
+        if (current != null) {
+            remove(current);
+        }
+        byTrack.put(candidate.trackId, candidate);
+        lowestFirst.add(candidate);
+    }
+
+    // Called with the lock held
+    private void remove(Evidence evidence) {
+        byTrack.remove(evidence.trackId);
+        lowestFirst.remove(evidence);
+        release(evidence.file);
+    }
+
+    private Rect paddedBox(DetectionTable rows, int i, double scaleX, double scaleY, int frameWidth, int frameHeight) {
+        float padX = (rows.x2(i) - rows.x1(i)) * PADDING;
+        float padY = (rows.y2(i) - rows.y1(i)) * PADDING;
+        int x1 = Math.max(0, (int) Math.floor((rows.x1(i) - padX) / scaleX));
+        int y1 = Math.max(0, (int) Math.floor((rows.y1(i) - padY) / scaleY));
+        int x2 = Math.min(frameWidth, (int) Math.ceil((rows.x2(i) + padX) / scaleX));
+        int y2 = Math.min(frameHeight, (int) Math.ceil((rows.y2(i) + padY) / scaleY));
+        return new Rect(x1, y1, x2 - x1, y2 - y1);
+    }
+
+    // Encoder thread
+    private void encode(Evidence candidate, Mat crop) {
+        MatOfByte encoded = new MatOfByte();
+        try {
+            synchronized (this) {
+                // A better crop of the track was queued after it
+                if (pending.get(candidate.trackId) != candidate) {
+                    return;
+                }
+            }
+            Imgproc.cvtColor(crop, crop, crop.channels() == 4 ? Imgproc.COLOR_RGBA2BGR : Imgproc.COLOR_RGB2BGR);
+            if (!Imgcodecs.imencode(format.extension, crop, encoded, new MatOfInt(format.qualityFlag, quality))) {
+                Log.w(TAG, "Could not encode crop of track " + candidate.trackId);
+                withdraw(candidate);
+                return;
+            }
+            byte[] bytes = encoded.toArray();
+            File file = new File(directory, sha1(bytes) + format.extension);
+            boolean created = false;
+            synchronized (this) {
+                // Another track may have just produced the same bytes
+                if (!file.exists() && !createdFiles.contains(file)) {
+                    createdFiles.add(file);
+                    created = true;
+                }
+            }
+            if (created) {
+                try (FileOutputStream out = new FileOutputStream(file)) {
+                    out.write(bytes);
+                }
+            }
+
+            keep(candidate, file);
+        } catch (IOException e) {
+            Log.e(TAG, "Error storing crop of track " + candidate.trackId, e);
+            withdraw(candidate);
+        } finally {
+            crop.release();
+            encoded.release();
+        }
+    }
+
+    // Called with the lock held; deletes the file when no track uses it any more
+    private void release(File file) {
+        Integer refs = fileRefs.get(file);
+        if (refs == null || refs <= 1) {
+            fileRefs.remove(file);
+            if (createdFiles.remove(file) && !file.delete()) {
+                Log.w(TAG, "Could not delete " + file);
+            }
+        } else {
+            fileRefs.put(file, refs - 1);
+        }
+    }
+
+    private static String sha1(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(bytes);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Waits for queued crops and returns the kept ones, highest ranked first
+    public List<Evidence> finish() {
+        encoder.shutdown();
+        try {
+            if (!encoder.awaitTermination(30, TimeUnit.SECONDS)) {
+                Log.w(TAG, "Crop encoder did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Evidence> kept;
+        synchronized (this) {
+            kept = new ArrayList<>(byTrack.values());
+            if (dropped > 0) {
+                Log.d(TAG, dropped + " crops dropped while the encoder was busy");
+            }
+        }
+        kept.sort((a, b) -> Long.compare(b.rank, a.rank));
+        return kept;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.potholedetector.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.util.Log;
+
+import org.opencv.core.Mat;
+import org.pytorch.PyTorchAndroid;
+
+/**
+ * Chooses the PyTorch intra-op thread count for this device.
+ *
+ * The first run sweeps 1..N threads on a real frame, measures throughput and stores the
+ * best count per device model; later runs just apply it. N leaves cores free for frame
+ * decoding and the UI. Java can't pin threads to cores, so capping the inference pool
+ * below the core count is what keeps it off the decode thread's core.
+ *
+ * A sweep reports each thread count as it is measured and can be cancelled; a cancelled
+ * sweep, or one where the model fails, stores nothing and goes back to the stored (or
+ * default) thread count. Input size adaptation is restored either way.
+ */
+public class InferenceThreadTuner {
+
+    private static final String TAG = "InferenceThreadTuner";
+    private static final String PREF_THREADS = "inference_threads_";
+
+    private static final int WARMUP_RUNS = 2;
+    private static final int TIMED_RUNS = 5;
+
+    // More threads must beat fewer by this margin, extra threads cost power and contention
+    private static final double MIN_GAIN = 1.05;
+
+    private final Context context;
+    private final int reservedCores;
+
+    /** Follows a sweep and can stop it between measurements. */
+    public interface SweepListener {
+        void onMeasured(int threads, int maxThreads, double fps);
+
+        boolean isCancelled();
+    }
+
+    public InferenceThreadTuner(Context context, int reservedCores) {
+        this.context = context.getApplicationContext();
+        this.reservedCores = reservedCores;
+    }
+
+    public int getMaxThreads() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() - reservedCores);
+    }
+
+    public boolean isTuned() {
+        return getPreferences().contains(PREF_THREADS + Build.MODEL);
+    }
+
+    // Apply the stored thread count, or a conservative default before the sweep has run
+    public int apply() {
+        int threads = getPreferences().getInt(PREF_THREADS + Build.MODEL, Math.min(4, getMaxThreads()));
+        threads = Math.min(threads, getMaxThreads());
+        PyTorchAndroid.setNumThreads(threads);
+        Log.d(TAG, "Inference threads: " + threads);
+        return threads;
+    }
+
+    // Measure throughput for 1..N threads on the given frame and persist the best count;
+    // returns the thread count in use afterwards
+    public int sweep(PotholeDetector detector, Mat frame, SweepListener listener) {
+        InputSizeController sizeController = detector.getInputSizeController();
+        boolean wasAdaptive = sizeController.isAdaptive();
+        sizeController.setAdaptive(false);
+
+        int bestThreads = -1;
+        int restoredThreads = 0;
+        try {
+            bestThreads = measure(detector, frame, listener);
+        } finally {
+            sizeController.setAdaptive(wasAdaptive);
+            if (bestThreads < 0) {
+                // Cancelled, failed or thrown: the thread count from before the sweep
+                restoredThreads = apply();
+            }
+        }
+        if (bestThreads < 0) {
+            return restoredThreads;
+        }
+
+        getPreferences().edit().putInt(PREF_THREADS + Build.MODEL, bestThreads).apply();
+        PyTorchAndroid.setNumThreads(bestThreads);
+        return bestThreads;
+    }
+
+    // Best thread count, or -1 when cancelled or the model failed
+    private int measure(PotholeDetector detector, Mat frame, SweepListener listener) {
+        int maxThreads = getMaxThreads();
+        int bestThreads = 1;
+        double bestFps = 0;
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            if (listener.isCancelled()) {
+                Log.d(TAG, "Thread sweep cancelled");
+                return -1;
+            }
+            PyTorchAndroid.setNumThreads(threads);
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                if (!run(detector, frame)) {
+                    return -1;
+                }
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < TIMED_RUNS; i++) {
+                if (!run(detector, frame)) {
+                    return -1;
+                }
+            }
+            double fps = TIMED_RUNS / ((System.nanoTime() - start) / 1e9);
+            Log.d(TAG, String.format("%d threads: %.2f fps", threads, fps));
+            listener.onMeasured(threads, maxThreads, fps);
+
+            if (fps > bestFps * MIN_GAIN) {
+                bestFps = fps;
+                bestThreads = threads;
+            }
+        }
+        Log.i(TAG, String.format("Selected %d inference threads (%.2f fps) for %s", bestThreads, bestFps, Build.MODEL));
+        return bestThreads;
+    }
+
+    // One timed pass; false when the model failed, which makes the timing meaningless
+    private static boolean run(PotholeDetector detector, Mat frame) {
+        PotholeDetector.DetectionResult result = detector.detect(frame);
+        release(result);
+        if (!result.modelSuccessful) {
+            Log.w(TAG, "Model failed during the thread sweep, keeping the current thread count");
+        }
+        return result.modelSuccessful;
+    }
+
+    private SharedPreferences getPreferences() {
+        return context.getSharedPreferences(PotholeDetector.PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    private static void release(PotholeDetector.DetectionResult result) {
+        result.processedFrame.release();
+        result.heatmapUpdate.release();
+    }
+}
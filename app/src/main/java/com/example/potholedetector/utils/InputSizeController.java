@@ -0,0 +1,178 @@
+package com.example.potholedetector.utils;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Picks the YOLO input resolution from measured forward latency.
+ *
+ * Latency is smoothed with an exponential moving average. The controller steps down one
+ * size when the average stays above the budget, and steps up when the predicted latency
+ * at the next size (latency scales with pixel count) stays well under it. Both directions
+ * need several consecutive frames, and every switch is followed by a cooldown, so the
+ * size doesn't oscillate between two neighbours.
+ *
+ * Sizes other than the export size only work with a model exported with dynamic shapes;
+ * a size the model rejects is dropped with {@link #markUnsupported(int)}.
+ */
+public class InputSizeController {
+
+    private static final String TAG = "InputSizeController";
+
+    public static final int[] DEFAULT_SIZES = {320, 416, 512, 640};
+
+    // Thresholds relative to the budget
+    private static final double STEP_DOWN_RATIO = 1.15;
+    private static final double STEP_UP_RATIO = 0.85;
+
+    private static final double EMA_ALPHA = 0.2;
+    private static final int PATIENCE_FRAMES = 5;
+    private static final int COOLDOWN_FRAMES = 10;
+
+    private final List<Integer> sizes = new ArrayList<>();
+    private double targetLatencyMs;
+    private boolean adaptive = true;
+    private int sizeCap = Integer.MAX_VALUE;
+
+    private int index;
+    private double emaLatencyMs = -1;
+    private int overBudgetFrames = 0;
+    private int underBudgetFrames = 0;
+    private int cooldown = 0;
+
+    public InputSizeController(double targetLatencyMs) {
+        this(DEFAULT_SIZES, targetLatencyMs);
+    }
+
+    public InputSizeController(int[] sizes, double targetLatencyMs) {
+        int[] sorted = sizes.clone();
+        Arrays.sort(sorted);
+        for (int size : sorted) {
+            this.sizes.add(size);
+        }
+        this.targetLatencyMs = targetLatencyMs;
+        // Start at full resolution, the model's native export size
+        this.index = this.sizes.size() - 1;
+    }
+
+    public synchronized int getInputSize() {
+        return sizes.get(index);
+    }
+
+    public synchronized int getMaxInputSize() {
+        return sizes.get(sizes.size() - 1);
+    }
+
+    public synchronized double getTargetLatencyMs() {
+        return targetLatencyMs;
+    }
+
+    public synchronized void setTargetLatencyMs(double targetLatencyMs) {
+        this.targetLatencyMs = targetLatencyMs;
+        resetStatistics();
+    }
+
+    public synchronized boolean isAdaptive() {
+        return adaptive;
+    }
+
+    // With adaptation off the current size is kept regardless of latency
+    public synchronized void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+        resetStatistics();
+    }
+
+    // The cap set from outside, Integer.MAX_VALUE when there is none
+    public synchronized int getInputSizeCap() {
+        return sizeCap;
+    }
+
+    // Caps the resolution from outside, e.g. when the device is throttling
+    public synchronized void setMaxInputSize(int maxSize) {
+        sizeCap = maxSize;
+        while (index > 0 && sizes.get(index) > maxSize) {
+            index--;
+        }
+        resetStatistics();
+    }
+
+    // Feed the forward latency of a frame run at the given size
+    public synchronized void recordLatency(int inputSize, double latencyMs) {
+        if (!adaptive || inputSize != getInputSize()) {
+            // Stale measurement from before a switch
+            return;
+        }
+
+        emaLatencyMs = emaLatencyMs < 0 ? latencyMs : EMA_ALPHA * latencyMs + (1 - EMA_ALPHA) * emaLatencyMs;
+
+        if (cooldown > 0) {
+            cooldown--;
+            return;
+        }
+
+        if (emaLatencyMs > targetLatencyMs * STEP_DOWN_RATIO) {
+            overBudgetFrames++;
+            underBudgetFrames = 0;
+        } else if (canStepUp() && predictedLatency(index + 1) < targetLatencyMs * STEP_UP_RATIO) {
+            underBudgetFrames++;
+            overBudgetFrames = 0;
+        } else {
+            overBudgetFrames = 0;
+            underBudgetFrames = 0;
+        }
+
+        if (overBudgetFrames >= PATIENCE_FRAMES && index > 0) {
+            switchTo(index - 1);
+        } else if (underBudgetFrames >= PATIENCE_FRAMES && canStepUp()) {
+            switchTo(index + 1);
+        }
+    }
+
+    // The model failed at this size (static export shape), never use it again
+    public synchronized void markUnsupported(int inputSize) {
+        int position = sizes.indexOf(inputSize);
+        if (position < 0 || sizes.size() == 1) {
+            return;
+        }
+        int current = getInputSize();
+        sizes.remove(position);
+        Log.w(TAG, "Input size " + inputSize + " not supported by the model");
+
+        if (current == inputSize) {
+            // Fall back to the largest size within the cap, the export size when uncapped
+            index = sizes.size() - 1;
+            while (index > 0 && sizes.get(index) > sizeCap) {
+                index--;
+            }
+        } else {
+            index = sizes.indexOf(current);
+        }
+        resetStatistics();
+    }
+
+    private boolean canStepUp() {
+        return index < sizes.size() - 1 && sizes.get(index + 1) <= sizeCap;
+    }
+
+    private double predictedLatency(int targetIndex) {
+        double ratio = (double) sizes.get(targetIndex) / sizes.get(index);
+        return emaLatencyMs * ratio * ratio;
+    }
+
+    private void switchTo(int newIndex) {
+        Log.d(TAG, String.format("Input size %d -> %d (avg forward %.1f ms, budget %.1f ms)",
+                sizes.get(index), sizes.get(newIndex), emaLatencyMs, targetLatencyMs));
+        index = newIndex;
+        resetStatistics();
+    }
+
+    private void resetStatistics() {
+        emaLatencyMs = -1;
+        overBudgetFrames = 0;
+        underBudgetFrames = 0;
+        cooldown = COOLDOWN_FRAMES;
+    }
+}
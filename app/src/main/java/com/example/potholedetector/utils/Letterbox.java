@@ -0,0 +1,95 @@
+package com.example.potholedetector.utils;
+
+import com.example.potholedetector.core.Detection;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Aspect-preserving fit of a frame region into the square model input.
+ *
+ * The region is scaled to fit and the rest is padded with YOLO's grey (114), the same
+ * letterboxing the model was trained with. The instance keeps the transform so model
+ * coordinates can be mapped back to the full frame.
+ */
+public class Letterbox {
+
+    static final int PAD_VALUE = 114;
+    private static final Scalar PAD_COLOR = new Scalar(PAD_VALUE, PAD_VALUE, PAD_VALUE, 255);
+
+    public final int inputSize;
+    public final double scale;
+    // The scaled region is placed at padX, padY; an odd remainder of padding goes right and below
+    public final int scaledWidth;
+    public final int scaledHeight;
+    public final int padX;
+    public final int padY;
+    public final int offsetX;
+    public final int offsetY;
+    // Scale actually applied per axis once the scaled size is rounded to whole pixels
+    private final double scaleX;
+    private final double scaleY;
+
+    public Letterbox(Rect region, int inputSize) {
+        this.inputSize = inputSize;
+        this.scale = Math.min((double) inputSize / region.width, (double) inputSize / region.height);
+        this.scaledWidth = Math.min(inputSize, (int) Math.round(region.width * scale));
+        this.scaledHeight = Math.min(inputSize, (int) Math.round(region.height * scale));
+        this.padX = (inputSize - scaledWidth) / 2;
+        this.padY = (inputSize - scaledHeight) / 2;
+        this.offsetX = region.x;
+        this.offsetY = region.y;
+        this.scaleX = (double) scaledWidth / region.width;
+        this.scaleY = (double) scaledHeight / region.height;
+    }
+
+    // Crop the region out of the frame and letterbox it into dst (inputSize x inputSize)
+    public void apply(Mat frame, Rect region, Mat dst) {
+        Mat crop = frame.submat(region);
+        Mat scaled = new Mat();
+        Imgproc.resize(crop, scaled, new Size(scaledWidth, scaledHeight), 0, 0, Imgproc.INTER_LINEAR);
+        Core.copyMakeBorder(scaled, dst,
+                padY, inputSize - scaledHeight - padY,
+                padX, inputSize - scaledWidth - padX,
+                Core.BORDER_CONSTANT, PAD_COLOR);
+        scaled.release();
+        crop.release();
+    }
+
+    // Model input coordinates -> full frame coordinates
+    public double toFrameX(double inputX) {
+        return (inputX - padX) / scaleX + offsetX;
+    }
+
+    public double toFrameY(double inputY) {
+        return (inputY - padY) / scaleY + offsetY;
+    }
+
+    // Full frame coordinates -> model input coordinates
+    public double toInputX(double frameX) {
+        return (frameX - offsetX) * scaleX + padX;
+    }
+
+    public double toInputY(double frameY) {
+        return (frameY - offsetY) * scaleY + padY;
+    }
+
+    // Copy of a detection moved from model input space into frame space
+    public Detection toFrame(Detection d) {
+        Detection mapped = new Detection(
+                (float) toFrameX(d.x1), (float) toFrameY(d.y1),
+                (float) toFrameX(d.x2), (float) toFrameY(d.y2),
+                d.score, d.classId);
+        mapped.maskCoefficients = d.maskCoefficients;
+        return mapped;
+    }
+
+    // Model input length (box width/height) -> frame pixels
+    public double toFrameLength(double inputLength) {
+        return inputLength / scale;
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.potholedetector.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.media.MediaMetadataRetriever;
+import android.net.Uri;
+import android.os.Debug;
+import android.util.Log;
+
+import com.example.potholedetector.core.Detection;
+
+import org.opencv.android.Utils;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the fp32 and int8 models over the same fixed frame set and compares them.
+ *
+ * For each variant it measures model load memory (native heap growth) and per-frame
+ * inference latency. Detection agreement treats the fp32 output as ground truth: int8
+ * boxes are greedily matched to fp32 boxes at IoU >= 0.5, which gives precision and
+ * recall of the quantized model relative to the reference. Frames where either model
+ * failed are left out of the latencies and the agreement and counted instead; int8 is
+ * never recommended if it failed on any frame.
+ */
+public class ModelComparisonHarness {
+
+    private static final String TAG = "ModelComparison";
+
+    private static final float MATCH_IOU = 0.5f;
+    private static final int WARMUP_FRAMES = 3;
+
+    // Int8 is only selected if it agrees this well with fp32 and is faster
+    private static final double MIN_AGREEMENT = 0.9;
+
+    private final Context context;
+
+    public ModelComparisonHarness(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    // Evenly spaced frames from a video, each scaled down as it is decoded so its longer side is
+    // at most maxSide; both variants see the same frames, and 4K video doesn't fill the heap
+    public static List<Mat> loadFrames(Context context, Uri videoUri, int count, int maxSide) {
+        List<Mat> frames = new ArrayList<>();
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try {
+            retriever.setDataSource(context, videoUri);
+            long durationMs = Long.parseLong(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION));
+            for (int i = 0; i < count; i++) {
+                long timeUs = (durationMs * 1000L * (2L * i + 1)) / (2L * count);
+                Bitmap bitmap = retriever.getFrameAtTime(timeUs, MediaMetadataRetriever.OPTION_CLOSEST);
+                if (bitmap == null) {
+                    continue;
+                }
+                Mat frame = new Mat();
+                Utils.bitmapToMat(bitmap, frame);
+                bitmap.recycle();
+                double scale = (double) maxSide / Math.max(frame.cols(), frame.rows());
+                if (scale < 1) {
+                    Mat scaled = new Mat();
+                    Imgproc.resize(frame, scaled, new Size(Math.round(frame.cols() * scale),
+                            Math.round(frame.rows() * scale)), 0, 0, Imgproc.INTER_AREA);
+                    frame.release();
+                    frame = scaled;
+                }
+                frames.add(frame);
+            }
+        } finally {
+            try {
+                retriever.release();
+            } catch (Exception e) {
+                Log.w(TAG, "Error releasing retriever: " + e.getMessage());
+            }
+        }
+        return frames;
+    }
+
+    public Comparison compare(List<Mat> frames) throws IOException {
+        VariantRun reference = run(ModelVariant.FP32, frames);
+        VariantRun quantized = run(ModelVariant.INT8, frames);
+
+        Comparison comparison = new Comparison(reference, quantized);
+        int truePositives = 0;
+        int referenceCount = 0;
+        int quantizedCount = 0;
+        for (int i = 0; i < frames.size(); i++) {
+            List<Detection> expected = reference.detections.get(i);
+            List<Detection> actual = quantized.detections.get(i);
+            if (expected == null || actual == null) {
+                // One of the models failed on this frame; there is nothing to compare
+                continue;
+            }
+            comparison.comparedFrames++;
+            truePositives += countMatches(expected, actual);
+            referenceCount += expected.size();
+            quantizedCount += actual.size();
+        }
+        comparison.precision = quantizedCount == 0 ? 1 : (double) truePositives / quantizedCount;
+        comparison.recall = referenceCount == 0 ? 1 : (double) truePositives / referenceCount;
+        return comparison;
+    }
+
+    // Compare both variants and remember the better one for this device model
+    public Comparison compareAndSelect(List<Mat> frames) throws IOException {
+        Comparison comparison = compare(frames);
+        ModelVariant choice = comparison.recommended();
+        PotholeDetector.saveVariantSelection(context, choice);
+        Log.i(TAG, comparison + "\nSelected: " + choice);
+        return comparison;
+    }
+
+    private VariantRun run(ModelVariant variant, List<Mat> frames) throws IOException {
+        File modelFile = new ModelStager(context).stage(variant.assetName);
+
+        // A private instance, so load memory is measured and nothing shared is disturbed
+        long heapBefore = Debug.getNativeHeapAllocatedSize();
+        PotholeDetector detector = new PotholeDetector(modelFile.getAbsolutePath());
+        VariantRun run = new VariantRun(variant);
+        run.loadMemoryBytes = Debug.getNativeHeapAllocatedSize() - heapBefore;
+
+        try {
+            // Keep the resolution fixed so both variants see identical inputs
+            detector.getInputSizeController().setAdaptive(false);
+
+            for (int i = 0; i < Math.min(WARMUP_FRAMES, frames.size()); i++) {
+                releaseResult(detector.detect(frames.get(i)));
+            }
+
+            double[] latencies = new double[frames.size()];
+            int timed = 0;
+            for (int i = 0; i < frames.size(); i++) {
+                long start = System.nanoTime();
+                PotholeDetector.DetectionResult result = detector.detect(frames.get(i));
+                double latency = (System.nanoTime() - start) / 1e6;
+                if (result.modelSuccessful) {
+                    latencies[timed++] = latency;
+                    run.detections.add(result.modelDetections);
+                } else {
+                    // A failed pass has no detections to score and no meaningful latency
+                    run.detections.add(null);
+                    run.failedFrames++;
+                }
+                releaseResult(result);
+            }
+            run.peakMemoryBytes = Debug.getNativeHeapAllocatedSize() - heapBefore;
+            if (run.failedFrames > 0) {
+                Log.w(TAG, variant + " failed on " + run.failedFrames + " of " + frames.size() + " frames");
+            }
+
+            latencies = Arrays.copyOf(latencies, timed);
+            Arrays.sort(latencies);
+            if (latencies.length > 0) {
+                double sum = 0;
+                for (double latency : latencies) {
+                    sum += latency;
+                }
+                run.meanLatencyMs = sum / latencies.length;
+                run.p50LatencyMs = latencies[latencies.length / 2];
+                run.p90LatencyMs = latencies[(int) Math.min(latencies.length - 1, Math.floor(latencies.length * 0.9))];
+            }
+        } finally {
+            detector.close();
+        }
+        return run;
+    }
+
+    // Greedy one-to-one matching, highest IoU pairs first
+    static int countMatches(List<Detection> expected, List<Detection> actual) {
+        boolean[] used = new boolean[expected.size()];
+        int matches = 0;
+        for (Detection candidate : actual) {
+            int best = -1;
+            float bestIou = MATCH_IOU;
+            for (int j = 0; j < expected.size(); j++) {
+                if (used[j]) {
+                    continue;
+                }
+                float iou = candidate.iou(expected.get(j));
+                if (iou >= bestIou) {
+                    bestIou = iou;
+                    best = j;
+                }
+            }
+            if (best >= 0) {
+                used[best] = true;
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private static void releaseResult(PotholeDetector.DetectionResult result) {
+        result.processedFrame.release();
+        result.heatmapUpdate.release();
+    }
+
+    public static class VariantRun {
+        public final ModelVariant variant;
+        // Per frame; null where the model failed
+        public final List<List<Detection>> detections = new ArrayList<>();
+        public int failedFrames;
+        public long loadMemoryBytes;
+        public long peakMemoryBytes;
+        public double meanLatencyMs;
+        public double p50LatencyMs;
+        public double p90LatencyMs;
+
+        VariantRun(ModelVariant variant) {
+            this.variant = variant;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: mean %.1f ms, p50 %.1f ms, p90 %.1f ms, load %.1f MB, peak %.1f MB, %d failed frames",
+                    variant, meanLatencyMs, p50LatencyMs, p90LatencyMs,
+                    loadMemoryBytes / 1048576.0, peakMemoryBytes / 1048576.0, failedFrames);
+        }
+    }
+
+    public static class Comparison {
+        public final VariantRun reference;
+        public final VariantRun quantized;
+        public double precision;
+        public double recall;
+        // Frames both models ran on; agreement is over these only
+        public int comparedFrames;
+
+        Comparison(VariantRun reference, VariantRun quantized) {
+            this.reference = reference;
+            this.quantized = quantized;
+        }
+
+        public ModelVariant recommended() {
+            boolean reliable = quantized.failedFrames == 0 && comparedFrames > 0;
+            boolean agrees = reliable && precision >= MIN_AGREEMENT && recall >= MIN_AGREEMENT;
+            boolean faster = quantized.meanLatencyMs < reference.meanLatencyMs;
+            return agrees && faster ? ModelVariant.INT8 : ModelVariant.FP32;
+        }
+
+        @Override
+        public String toString() {
+            return reference + "\n" + quantized + "\n"
+                    + String.format("INT8 vs FP32 agreement over %d frames: precision %.3f, recall %.3f",
+                    comparedFrames, precision, recall);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.potholedetector.utils;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Copies model files out of the APK assets into private storage.
+ *
+ * Each staged file is named after its SHA-256 (e.g. best_02-1a2b3c4d5e6f7a8b.torchscript),
+ * so several versions can sit side by side and an app update that ships the same model
+ * doesn't copy it again. Copies go to a temp file that is verified and then renamed, so
+ * a crash mid-copy never leaves a truncated model behind.
+ *
+ * Expected hashes come from assets/model_manifest.txt, one "&lt;asset name&gt; &lt;sha256 hex&gt;"
+ * pair per line, which the build's modelManifest task writes from the model assets; a
+ * staged copy is then reused without hashing anything. Assets missing from the manifest
+ * are hashed straight from the APK on every start instead.
+ */
+public class ModelStager {
+
+    private static final String TAG = "ModelStager";
+    private static final String MANIFEST_ASSET = "model_manifest.txt";
+    private static final String MODELS_DIR = "models";
+
+    // Window size for hashing through a memory mapping
+    private static final long MAP_CHUNK = 8L * 1024 * 1024;
+
+    private final Context context;
+    private Map<String, String> manifest;
+
+    public ModelStager(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    // Returns a verified copy of the asset, staging it if this version isn't on disk yet
+    public synchronized File stage(String assetName) throws IOException {
+        String expectedHash = getManifest().get(assetName);
+        if (expectedHash == null) {
+            Log.w(TAG, assetName + " is not in the model manifest, hashing it from the APK");
+            expectedHash = hashAsset(assetName);
+        }
+
+        File dir = new File(context.getFilesDir(), MODELS_DIR);
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Cannot create model directory " + dir);
+        }
+
+        File target = new File(dir, versionedName(assetName, expectedHash));
+        if (target.isFile() && target.length() > 0) {
+            // Only fully verified files are ever renamed into place
+            Log.d(TAG, "Model already staged: " + target.getName());
+            return target;
+        }
+
+        File temp = File.createTempFile(baseName(assetName) + "-", ".tmp", dir);
+        try {
+            copyAsset(assetName, temp);
+
+            String actualHash = hashFile(temp);
+            if (!actualHash.equals(expectedHash)) {
+                throw new IOException("Checksum mismatch for " + assetName
+                        + ": expected " + expectedHash + ", got " + actualHash);
+            }
+
+            if (!temp.renameTo(target)) {
+                throw new IOException("Cannot move staged model to " + target);
+            }
+        } finally {
+            if (temp.exists() && !temp.delete()) {
+                Log.w(TAG, "Could not delete temp file " + temp);
+            }
+        }
+
+        Log.d(TAG, "Staged " + assetName + " as " + target.getName());
+        removeStaleVersions(dir, assetName, target);
+        return target;
+    }
+
+    private void copyAsset(String assetName, File destination) throws IOException {
+        try (FileOutputStream os = new FileOutputStream(destination);
+             FileChannel out = os.getChannel()) {
+            try (AssetFileDescriptor afd = context.getAssets().openFd(assetName);
+                 FileInputStream is = afd.createInputStream();
+                 FileChannel in = is.getChannel()) {
+                // Uncompressed asset: let the kernel copy straight out of the APK
+                long offset = afd.getStartOffset();
+                long remaining = afd.getLength();
+                while (remaining > 0) {
+                    long copied = in.transferTo(offset, remaining, out);
+                    if (copied <= 0) {
+                        throw new IOException("Short copy of " + assetName);
+                    }
+                    offset += copied;
+                    remaining -= copied;
+                }
+            } catch (FileNotFoundException compressed) {
+                // openFd() fails for compressed assets, fall back to a streamed copy
+                try (InputStream is = context.getAssets().open(assetName);
+                     ReadableByteChannel in = Channels.newChannel(is)) {
+                    long position = 0;
+                    long copied;
+                    while ((copied = out.transferFrom(in, position, MAP_CHUNK)) > 0) {
+                        position += copied;
+                    }
+                }
+            }
+            out.force(true);
+        }
+    }
+
+    private String hashFile(File file) throws IOException {
+        MessageDigest digest = newDigest();
+        try (FileInputStream is = new FileInputStream(file);
+             FileChannel channel = is.getChannel()) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += MAP_CHUNK) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY,
+                        position, Math.min(MAP_CHUNK, size - position));
+                digest.update(window);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private String hashAsset(String assetName) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream is = context.getAssets().open(assetName);
+             ReadableByteChannel channel = Channels.newChannel(is)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private Map<String, String> getManifest() {
+        if (manifest != null) {
+            return manifest;
+        }
+        manifest = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                context.getAssets().open(MANIFEST_ASSET), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                if (parts.length == 2) {
+                    manifest.put(parts[0], parts[1].toLowerCase(Locale.US));
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "No model manifest, hashes will be computed from the assets");
+        }
+        return manifest;
+    }
+
+    private void removeStaleVersions(File dir, String assetName, File keep) {
+        String prefix = baseName(assetName) + "-";
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!file.equals(keep) && file.getName().startsWith(prefix) && file.delete()) {
+                    Log.d(TAG, "Removed old model " + file.getName());
+                }
+            }
+        }
+
+        // Unversioned copy left by earlier app versions
+        File legacy = new File(context.getFilesDir(), assetName);
+        if (legacy.exists() && legacy.delete()) {
+            Log.d(TAG, "Removed legacy model " + legacy.getName());
+        }
+    }
+
+    private static String versionedName(String assetName, String hash) {
+        return baseName(assetName) + "-" + hash.substring(0, 16) + extension(assetName);
+    }
+
+    private static String baseName(String assetName) {
+        int dot = assetName.lastIndexOf('.');
+        return dot < 0 ? assetName : assetName.substring(0, dot);
+    }
+
+    private static String extension(String assetName) {
+        int dot = assetName.lastIndexOf('.');
+        return dot < 0 ? "" : assetName.substring(dot);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.potholedetector.utils;
+
+import android.content.Context;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The exported model builds shipped in assets.
+ *
+ * INT8 is the post-training quantized export of the same network; it is optional and
+ * only used when bundled and selected for the device by {@link ModelComparisonHarness}.
+ */
+public enum ModelVariant {
+    FP32("best_02.torchscript"),
+    INT8("best_02_int8.torchscript");
+
+    public final String assetName;
+
+    ModelVariant(String assetName) {
+        this.assetName = assetName;
+    }
+
+    public boolean isBundled(Context context) {
+        try (InputStream ignored = context.getAssets().open(assetName)) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
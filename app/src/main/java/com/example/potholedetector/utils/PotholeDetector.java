@@ -1,36 +1,61 @@
 package com.example.potholedetector.utils;
 
-import android.graphics.Bitmap;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.media.Image;
+import android.os.Build;
 import android.util.Log;
 
+import com.example.potholedetector.core.ContourSet;
+import com.example.potholedetector.core.Detection;
+import com.example.potholedetector.core.DetectionSource;
+import com.example.potholedetector.core.DetectionTable;
+import com.example.potholedetector.core.MaskDecoder;
+import com.example.potholedetector.core.ModelInputPacker;
+import com.example.potholedetector.core.Nms;
+import com.example.potholedetector.core.PotholeClassifier;
+import com.example.potholedetector.core.RiskClass;
+import com.example.potholedetector.core.SizeClass;
+import com.example.potholedetector.core.YoloDecoder;
+
 import org.opencv.core.Core;
 import org.opencv.core.CvType;
 import org.opencv.core.Mat;
 import org.opencv.core.MatOfPoint;
 import org.opencv.core.Point;
+import org.opencv.core.Rect;
 import org.opencv.core.Scalar;
 import org.opencv.core.Size;
 import org.opencv.imgproc.Imgproc;
 import org.pytorch.IValue;
 import org.pytorch.Module;
 import org.pytorch.Tensor;
-import org.pytorch.torchvision.TensorImageUtils;
 
 import java.io.File;
 import java.nio.FloatBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-public class PotholeDetector {
+public class PotholeDetector implements DetectionSource<Mat> {
 
     private static final String TAG = "PotholeDetector";
     private Module model;
 
-    // Define size thresholds (in pixels squared) - SAME AS PYTHON CODE
-    private final double smallThreshold = 5000;    // Areas below this are small potholes
-    private final double largeThreshold = 15000;   // Areas above this are large potholes
+    // Guards the native module: the detector is shared process-wide by DetectorRegistry
+    private final Object modelLock = new Object();
+
+    // Size and risk classification - SAME AS PYTHON CODE
+    private final PotholeClassifier classifier = new PotholeClassifier();
+
+    // Pluggable detections; null runs the model, with seeded simulation if inference fails
+    private volatile DetectionSource<? super Mat> detectionSource;
+    private static final long SIMULATION_SEED = 42;
+    private final SimulatedContourSource simulatedSource = new SimulatedContourSource(SIMULATION_SEED);
 
     // Colors for different size categories (BGR format in OpenCV)
     private final Scalar smallColor = new Scalar(0, 255, 0);     // Green for small
@@ -38,12 +63,50 @@ public class PotholeDetector {
     private final Scalar largeColor = new Scalar(0, 0, 255);     // Red for large
 
     // YOLOv8 input dimensions - YOLOv8 typically uses square inputs
-    private final int YOLO_INPUT_SIZE = 640;
+    // The size adapts to forward latency, 640 is the export size
+    private static final double DEFAULT_LATENCY_BUDGET_MS = 250;
+    private final InputSizeController inputSizeController = new InputSizeController(DEFAULT_LATENCY_BUDGET_MS);
+
+    // Tensor shape errors of the TorchScript interpreter, as thrown by a static-shape export fed another size
+    private static final String[] SHAPE_ERRORS = {
+            "must match the size of tensor",
+            "Sizes of tensors must match",
+            "Expected size",
+            "is invalid for input of size",
+            "size mismatch",
+    };
+
+    // Detection post-processing
+    private static final float CONFIDENCE_THRESHOLD = 0.25f;
+    private static final float NMS_IOU_THRESHOLD = 0.45f;
+    private static final int MAX_DETECTIONS = 100;
+
+    // Sliced inference of the far-field band, off by default
+    private final TileScheduler tileScheduler = new TileScheduler();
+    private volatile boolean tiledInference = false;
+    private boolean tileBatching = true;
+
+    // Optional road-region crop before letterboxing
+    private volatile RoadRoiEstimator roiEstimator;
 
     // Normalization parameters for PyTorch - using same as YOLOv8
     private static final float[] NORM_MEAN = new float[]{0.485f, 0.456f, 0.406f};
     private static final float[] NORM_STD = new float[]{0.229f, 0.224f, 0.225f};
 
+    // Model input scratch, reused across frames; guarded by inputPacker
+    private final ModelInputPacker inputPacker = new ModelInputPacker(NORM_MEAN, NORM_STD, Letterbox.PAD_VALUE);
+    private final Mat letterboxed = new Mat();
+    private byte[] letterboxPixels = new byte[0];
+    private final Mat roiLuma = new Mat();
+    private final Mat roiFrame = new Mat();
+
+    // Frame size of the analysis, display and risk classification
+    private static final Size DISPLAY_SIZE = new Size(1020, 500);
+
+    // Per-device model variant chosen by ModelComparisonHarness
+    static final String PREFS_NAME = "pothole_detector";
+    private static final String PREF_VARIANT = "model_variant_";
+
     public PotholeDetector(String modelPath) {
         // Load the YOLO model
         try {
@@ -56,162 +119,177 @@ public class PotholeDetector {
     }
 
     public DetectionResult processFrame(Mat frame) {
+        return processFrame(frame, 0, 0);
+    }
+
+    public DetectionResult processFrame(Mat frame, int frameIndex, long timestampMs) {
         DetectionResult result = new DetectionResult();
 
         // Initialize with a valid frame to avoid null/empty Mat issues
         result.processedFrame = frame.clone();
-        result.heatmapUpdate = Mat.zeros(frame.size(), CvType.CV_8UC1);
+        // Drawn in display coordinates, like everything measured below
+        result.heatmapUpdate = Mat.zeros(DISPLAY_SIZE, CvType.CV_8UC1);
 
         try {
             // ---------- Step 1: Prepare display frame ----------
-            // The display frame size should match the Python code (1020x500)
-            Mat displayFrame = frame.clone();
-            if (displayFrame.cols() != 1020 || displayFrame.rows() != 500) {
-                Imgproc.resize(displayFrame, displayFrame, new Size(1020, 500));
-            }
-
-            // ---------- Step 2: Prepare model input ----------
-            // Clone and convert to RGB (YOLOv8 expects RGB)
-            Mat inputFrame = frame.clone();
-            Imgproc.cvtColor(inputFrame, inputFrame, Imgproc.COLOR_BGR2RGB);
-
-            // Resize to square input - YOLOv8 standard
-            Mat resizedFrame = new Mat();
-            Imgproc.resize(inputFrame, resizedFrame, new Size(YOLO_INPUT_SIZE, YOLO_INPUT_SIZE));
-
-            // Convert to Bitmap for PyTorch processing
-            Bitmap bitmap = Bitmap.createBitmap(YOLO_INPUT_SIZE, YOLO_INPUT_SIZE, Bitmap.Config.ARGB_8888);
-            org.opencv.android.Utils.matToBitmap(resizedFrame, bitmap);
-
-            // Prepare tensor input
-            FloatBuffer inputBuffer = Tensor.allocateFloatBuffer(3 * YOLO_INPUT_SIZE * YOLO_INPUT_SIZE);
-            TensorImageUtils.bitmapToFloatBuffer(
-                    bitmap,
-                    0, 0,
-                    YOLO_INPUT_SIZE,
-                    YOLO_INPUT_SIZE,
-                    NORM_MEAN,
-                    NORM_STD,
-                    inputBuffer,
-                    0
-            );
-
-            Tensor inputTensor = Tensor.fromBlob(
-                    inputBuffer,
-                    new long[]{1, 3, YOLO_INPUT_SIZE, YOLO_INPUT_SIZE}
-            );
-
-            // ---------- Step 3: Run inference ----------
-            boolean modelSuccessful = false;
-            try {
-                // Forward pass through the model
-                IValue output = model.forward(IValue.from(inputTensor));
-
-                // Process model output
-                // For YOLOv8-seg, the output should contain both boxes and masks
-                // This would need model-specific interpretation
-                Log.d(TAG, "Model inference completed successfully");
-
-                // TODO: Extract segmentation masks from model output
-                // This would require model-specific processing
-
-                modelSuccessful = true;
-
-                // If successful, the real mask processing would go here
-                // Since we can't directly parse the output without the exact model format,
-                // we'll use simulation for now
+            // The display frame size should match the Python code (1020x500); the model
+            // and the far-field tiles still get the frame at its own resolution
+            Mat displayFrame = new Mat();
+            if (frame.cols() != 1020 || frame.rows() != 500) {
+                Imgproc.resize(frame, displayFrame, DISPLAY_SIZE);
+            } else {
+                frame.copyTo(displayFrame);
+            }
 
-            } catch (Exception e) {
-                Log.e(TAG, "Model inference error: " + e.getMessage(), e);
-                // Fall back to simulation
+            // ---------- Steps 2-3: Get detections ----------
+            List<Detection> detections;
+            DetectionSource<? super Mat> source = detectionSource;
+            if (source == null) {
+                runInference(frame, result);
+                detections = result.modelSuccessful
+                        ? result.modelDetections
+                        : simulatedSource.detect(frame, frameIndex, timestampMs);
+            } else {
+                detections = source.detect(frame, frameIndex, timestampMs);
             }
 
-            // ---------- Step 4: Process detections (simulated for now) ----------
-            // Get contours (either from model output or simulated)
-            List<MatOfPoint> contours = simulateContours(displayFrame);
+            // ---------- Step 4: Process detections ----------
             Mat overlay = displayFrame.clone();
 
-            // Process each contour
-            for (MatOfPoint contour : contours) {
-                // Calculate area to determine size
-                double area = Imgproc.contourArea(contour);
+            // Detections are in input frame coordinates, drawing happens on the display frame
+            double displayScaleX = (double) displayFrame.cols() / frame.cols();
+            double displayScaleY = (double) displayFrame.rows() / frame.rows();
+            result.displayScaleX = displayScaleX;
+            result.displayScaleY = displayScaleY;
+
+            // Outline each detection on the road surface, then measure them all at once
+            ContourSet contours = new ContourSet();
+            List<Detection> kept = new ArrayList<>();
+            for (Detection detection : detections) {
+                // Skip detections off the road surface
+                if (result.roi != null && !result.roi.contains(detection.centerX(), detection.centerY())) {
+                    continue;
+                }
+                addContour(contours, detection, displayScaleX, displayScaleY);
+                kept.add(detection);
+            }
+            contours.analyze(false);
+
+            for (int i = 0; i < kept.size(); i++) {
+                Detection detection = kept.get(i);
+                // Store for report, in display coordinates like the centroid; classified below
+                result.potholes.add(frameIndex, (int) timestampMs,
+                        contours.centroidX(i), contours.centroidY(i), contours.area(i),
+                        (float) (detection.x1 * displayScaleX), (float) (detection.y1 * displayScaleY),
+                        (float) (detection.x2 * displayScaleX), (float) (detection.y2 * displayScaleY),
+                        SizeClass.SMALL.code(), RiskClass.LOW.code());
+            }
 
-                // Store for report
-                result.areas.add(area);
+            // Classify size and risk for the whole frame at once - USING PYTHON CODE THRESHOLDS
+            classifier.classify(result.potholes, displayFrame.height());
 
-                // Get centroid for tracking & risk assessment
-                Point centroid = calculateCentroid(contour);
+            // Contours are drawn a size class at a time, one call per class and layer
+            List<MatOfPoint> outlines = ContourFinder.toMats(contours);
+            List<List<MatOfPoint>> bySize = new ArrayList<>();
+            for (int c = 0; c < SizeClass.values().length; c++) {
+                bySize.add(new ArrayList<>());
+            }
 
-                // Classify pothole size based on area - USING PYTHON CODE THRESHOLDS
-                String sizeCategory;
-                Scalar color;
-                int thickness;
+            // Count each pothole by class
+            for (int i = 0; i < outlines.size(); i++) {
+                SizeClass sizeClass = result.potholes.sizeClass(i);
+                RiskClass riskClass = result.potholes.riskClass(i);
+                bySize.get(sizeClass.code()).add(outlines.get(i));
 
-                if (area < smallThreshold) {
-                    sizeCategory = "Small";
-                    color = smallColor;
-                    thickness = 2;
-                    result.smallCount++;
-                } else if (area > largeThreshold) {
-                    sizeCategory = "Large";
-                    color = largeColor;
-                    thickness = 4;
-                    result.largeCount++;
-                } else {
-                    sizeCategory = "Medium";
-                    color = mediumColor;
-                    thickness = 3;
-                    result.mediumCount++;
+                switch (sizeClass) {
+                    case SMALL:
+                        result.smallCount++;
+                        break;
+                    case LARGE:
+                        result.largeCount++;
+                        break;
+                    default:
+                        result.mediumCount++;
+                        break;
                 }
 
-                // Calculate risk level
-                String riskLevel = calculateRiskLevel(sizeCategory, centroid, displayFrame.height());
-                Scalar riskColor;
-
-                switch (riskLevel) {
-                    case "High":
-                        riskColor = new Scalar(0, 0, 255);
+                switch (riskClass) {
+                    case HIGH:
                         result.highRiskCount++;
                         break;
-                    case "Medium":
-                        riskColor = new Scalar(0, 165, 255);
+                    case MEDIUM:
                         result.mediumRiskCount++;
                         break;
                     default:
-                        riskColor = new Scalar(0, 255, 0);
                         result.lowRiskCount++;
                         break;
                 }
+            }
 
-                // Add to detected potholes
-                PotholeInfo potholeInfo = new PotholeInfo();
-                potholeInfo.centroid = centroid;
-                potholeInfo.area = area;
-                potholeInfo.size = sizeCategory;
-                potholeInfo.risk = riskLevel;
-                result.detectedPotholes.add(potholeInfo);
+            for (SizeClass sizeClass : SizeClass.values()) {
+                List<MatOfPoint> group = bySize.get(sizeClass.code());
+                if (group.isEmpty()) {
+                    continue;
+                }
+                Scalar color;
+                int thickness;
+                switch (sizeClass) {
+                    case SMALL:
+                        color = smallColor;
+                        thickness = 2;
+                        break;
+                    case LARGE:
+                        color = largeColor;
+                        thickness = 4;
+                        break;
+                    default:
+                        color = mediumColor;
+                        thickness = 3;
+                        break;
+                }
 
-                // Draw contour boundary
-                Imgproc.drawContours(displayFrame, List.of(contour), -1, color, thickness);
+                // Draw contour boundaries
+                Imgproc.drawContours(displayFrame, group, -1, color, thickness);
 
-                // Fill contour area in overlay
-                Imgproc.drawContours(overlay, List.of(contour), -1, color, -1);
+                // Fill contour areas in overlay
+                Imgproc.drawContours(overlay, group, -1, color, -1);
+            }
 
-                // Add to heatmap
-                Imgproc.drawContours(result.heatmapUpdate, List.of(contour), -1, new Scalar(255), 1);
+            // Add to heatmap
+            if (!outlines.isEmpty()) {
+                Imgproc.drawContours(result.heatmapUpdate, outlines, -1, new Scalar(255), 1);
+            }
+            for (MatOfPoint outline : outlines) {
+                outline.release();
+            }
 
-                // Add label with size and risk
-                String label = sizeCategory + " (Risk: " + riskLevel + ")";
+            // Label each pothole, over its outline
+            for (int i = 0; i < outlines.size(); i++) {
+                SizeClass sizeClass = result.potholes.sizeClass(i);
+                RiskClass riskClass = result.potholes.riskClass(i);
 
-                // Get bounding rectangle for text positioning
-                org.opencv.core.Rect boundingRect = Imgproc.boundingRect(contour);
-                Point textPosition = new Point(boundingRect.x, boundingRect.y - 10);
+                // Add label with size and risk, above the bounding box
+                String label = sizeClass.label + " (Risk: " + riskClass.label + ")";
+                Point textPosition = new Point(contours.boxX(i), contours.boxY(i) - 10);
 
                 Imgproc.putText(displayFrame, label, textPosition,
                         Imgproc.FONT_HERSHEY_SIMPLEX, 0.5, new Scalar(255, 255, 255), 2);
 
                 // Draw centroid for tracking visualization
-                Imgproc.circle(displayFrame, centroid, 4, new Scalar(255, 0, 255), -1);
+                Imgproc.circle(displayFrame, new Point(contours.centroidX(i), contours.centroidY(i)),
+                        4, new Scalar(255, 0, 255), -1);
+            }
+
+            // Outline the road region used for inference
+            if (result.roi != null) {
+                MatOfPoint roiOutline = new MatOfPoint();
+                Point[] scaled = new Point[result.roi.polygon.length];
+                for (int i = 0; i < scaled.length; i++) {
+                    scaled[i] = new Point(result.roi.polygon[i].x * displayScaleX, result.roi.polygon[i].y * displayScaleY);
+                }
+                roiOutline.fromArray(scaled);
+                Imgproc.polylines(displayFrame, List.of(roiOutline), true, new Scalar(255, 255, 0), 1);
+                roiOutline.release();
             }
 
             // Blend overlay with original (40% overlay, 60% original)
@@ -224,16 +302,8 @@ public class PotholeDetector {
             result.processedFrame = displayFrame;
 
             // Clean up
-            bitmap.recycle();
-            inputFrame.release();
-            resizedFrame.release();
             overlay.release();
 
-            // Clean up contours
-            for (MatOfPoint contour : contours) {
-                contour.release();
-            }
-
         } catch (Exception e) {
             Log.e(TAG, "Error processing frame: " + e.getMessage(), e);
             e.printStackTrace();
@@ -248,112 +318,462 @@ public class PotholeDetector {
 
             // Set up a blank heatmap if needed
             if (result.heatmapUpdate == null || result.heatmapUpdate.empty()) {
-                result.heatmapUpdate = Mat.zeros(result.processedFrame.size(), CvType.CV_8UC1);
+                result.heatmapUpdate = Mat.zeros(DISPLAY_SIZE, CvType.CV_8UC1);
             }
         }
 
         return result;
     }
 
-    // Method to calculate centroid of a contour - SAME AS PYTHON CODE
-    private Point calculateCentroid(MatOfPoint contour) {
-        org.opencv.imgproc.Moments moments = Imgproc.moments(contour);
-        if (moments.get_m00() != 0) {
-            return new Point(moments.get_m10() / moments.get_m00(), moments.get_m01() / moments.get_m00());
-        } else {
-            org.opencv.core.Rect boundingRect = Imgproc.boundingRect(contour);
-            return new Point(boundingRect.x + boundingRect.width / 2.0, boundingRect.y + boundingRect.height / 2.0);
-        }
+    // Model detections for a frame, simulated if inference fails
+    @Override
+    public List<Detection> detect(Mat frame, int frameIndex, long timestampMs) {
+        DetectionResult result = detect(frame);
+        result.processedFrame.release();
+        result.heatmapUpdate.release();
+        return result.modelSuccessful ? result.modelDetections : simulatedSource.detect(frame, frameIndex, timestampMs);
     }
 
-    // Calculate risk level based on size and position - SAME AS PYTHON CODE
-    private String calculateRiskLevel(String sizeCategory, Point position, int frameHeight) {
-        // Determine risk level based on size and position (center of road is more severe)
-        double roadCenter = frameHeight / 2.0;
-        double centerFactor = 1 - (Math.abs(position.y - roadCenter) / roadCenter);  // 1 at center, 0 at edges
-
-        double riskBase;
-        if (sizeCategory.equals("Large")) {
-            riskBase = 2;  // High base risk
-        } else if (sizeCategory.equals("Medium")) {
-            riskBase = 1;  // Medium base risk
-        } else {  // Small
-            riskBase = 0;  // Low base risk
-        }
+    // Replace the model with another detection source; null restores the model
+    public void setDetectionSource(DetectionSource<? super Mat> source) {
+        detectionSource = source == this ? null : source;
+    }
+
+    // Model detections only, no drawing or classification; used by the comparison harness
+    public DetectionResult detect(Mat frame) {
+        DetectionResult result = new DetectionResult();
+        runInference(frame, result);
+        return result;
+    }
 
-        // Adjust risk by position factor
-        double riskAdjusted = riskBase + centerFactor;
+    /**
+     * Detects and classifies potholes in a YUV_420_888 camera image that is not displayed.
+     * The model input is packed straight from the image planes, so no RGB frame is made;
+     * potholes are measured in a 1020x500 frame like the video pipeline, but nothing is
+     * drawn and far-field tiling is skipped. The caller closes the image afterwards.
+     */
+    public DetectionResult processImage(Image image, int frameIndex, long timestampMs) {
+        DetectionResult result = new DetectionResult();
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Image.Plane[] planes = image.getPlanes();
+        double displayScaleX = DISPLAY_SIZE.width / width;
+        double displayScaleY = DISPLAY_SIZE.height / height;
+        result.displayScaleX = displayScaleX;
+        result.displayScaleY = displayScaleY;
+
+        long inferenceStart = System.nanoTime();
+        Rect region = new Rect(0, 0, width, height);
+        RoadRoiEstimator roadRoi = roiEstimator;
+        int inputSize = inputSizeController.getInputSize();
+        result.inputSize = inputSize;
+        FloatBuffer inputBuffer = Tensor.allocateFloatBuffer(3 * inputSize * inputSize);
+        synchronized (inputPacker) {
+            if (roadRoi != null) {
+                // The road is found on the luma plane at display size, then mapped back to the image
+                Mat luma = new Mat(height, width, CvType.CV_8UC1, planes[0].getBuffer(), planes[0].getRowStride());
+                Imgproc.resize(luma, roiLuma, DISPLAY_SIZE);
+                luma.release();
+                result.roi = roadRoi.estimate(roiLuma);
+                Rect bounds = result.roi.bounds;
+                int x0 = clamp((int) Math.floor(bounds.x / displayScaleX), 0, width - 1);
+                int y0 = clamp((int) Math.floor(bounds.y / displayScaleY), 0, height - 1);
+                int x1 = clamp((int) Math.ceil((bounds.x + bounds.width) / displayScaleX), x0 + 1, width);
+                int y1 = clamp((int) Math.ceil((bounds.y + bounds.height) / displayScaleY), y0 + 1, height);
+                region = new Rect(x0, y0, x1 - x0, y1 - y0);
+            }
+            result.letterbox = new Letterbox(region, inputSize);
+            inputPacker.packYuv(planes[0].getBuffer(), planes[0].getRowStride(),
+                    planes[1].getBuffer(), planes[2].getBuffer(), planes[1].getRowStride(), planes[1].getPixelStride(),
+                    region.x, region.y, region.width, region.height,
+                    inputSize, result.letterbox.padX, result.letterbox.padY,
+                    result.letterbox.scaledWidth, result.letterbox.scaledHeight, inputBuffer, 0);
+        }
+        runModel(inputBuffer, null, region, inferenceStart, result);
+        if (!result.modelSuccessful) {
+            return result;
+        }
 
-        // Classify final risk
-        if (riskAdjusted >= 2) {
-            return "High";
-        } else if (riskAdjusted >= 1) {
-            return "Medium";
-        } else {
-            return "Low";
+        // Measure in display coordinates, where the road region and the classifier thresholds are
+        ContourSet contours = new ContourSet();
+        List<Detection> kept = new ArrayList<>();
+        for (Detection detection : result.modelDetections) {
+            double centerX = detection.centerX() * displayScaleX;
+            double centerY = detection.centerY() * displayScaleY;
+            if (result.roi != null && !result.roi.contains(centerX, centerY)) {
+                continue;
+            }
+            addContour(contours, detection, displayScaleX, displayScaleY);
+            kept.add(detection);
+        }
+        contours.analyze(false);
+        for (int i = 0; i < kept.size(); i++) {
+            Detection detection = kept.get(i);
+            result.potholes.add(frameIndex, (int) timestampMs,
+                    contours.centroidX(i), contours.centroidY(i), contours.area(i),
+                    (float) (detection.x1 * displayScaleX), (float) (detection.y1 * displayScaleY),
+                    (float) (detection.x2 * displayScaleX), (float) (detection.y2 * displayScaleY),
+                    SizeClass.SMALL.code(), RiskClass.LOW.code());
         }
+        classifier.classify(result.potholes, (int) DISPLAY_SIZE.height);
+
+        int[] sizes = result.potholes.sizeHistogram();
+        result.smallCount = sizes[SizeClass.SMALL.code()];
+        result.mediumCount = sizes[SizeClass.MEDIUM.code()];
+        result.largeCount = sizes[SizeClass.LARGE.code()];
+        int[] risks = result.potholes.riskHistogram();
+        result.lowRiskCount = risks[RiskClass.LOW.code()];
+        result.mediumRiskCount = risks[RiskClass.MEDIUM.code()];
+        result.highRiskCount = risks[RiskClass.HIGH.code()];
+        return result;
     }
 
-    // Simulate contours for testing - based on the Python simulation approach
-    private List<MatOfPoint> simulateContours(Mat frame) {
-        // This is a placeholder for testing - in a real implementation
-        // you would process the actual YOLOv8-seg outputs to get masks
+    // Letterbox the (road region of the) frame, run the model and decode its detections into result
+    private void runInference(Mat frame, DetectionResult result) {
+        // ---------- Step 2: Prepare model input ----------
+        // Frames are RGBA (or RGB), already the channel order YOLOv8 expects
+        // Only the road region goes to the model when an ROI stage is set
+        long inferenceStart = System.nanoTime();
+        Rect region = new Rect(0, 0, frame.cols(), frame.rows());
+        RoadRoiEstimator roadRoi = roiEstimator;
+        if (roadRoi != null) {
+            synchronized (inputPacker) {
+                if (frame.cols() > DISPLAY_SIZE.width || frame.rows() > DISPLAY_SIZE.height) {
+                    // Lanes are found at display size, the region is still in frame pixels
+                    Imgproc.resize(frame, roiFrame, DISPLAY_SIZE);
+                    result.roi = roadRoi.estimate(roiFrame, frame.cols(), frame.rows());
+                } else {
+                    result.roi = roadRoi.estimate(frame);
+                }
+            }
+            region = result.roi.bounds;
+        }
+
+        // Letterbox to square input - YOLOv8 standard
+        int inputSize = inputSizeController.getInputSize();
+        result.inputSize = inputSize;
+        result.letterbox = new Letterbox(region, inputSize);
+
+        // Prepare tensor input
+        FloatBuffer inputBuffer = Tensor.allocateFloatBuffer(3 * inputSize * inputSize);
+        fillInput(frame, region, result.letterbox, inputBuffer, 0);
+        runModel(inputBuffer, frame, region, inferenceStart, result);
+    }
 
-        List<MatOfPoint> contours = new ArrayList<>();
-        List<MatOfPoint> allContours = new ArrayList<>();
-        Mat grayImage = new Mat();
-        Mat binaryMask = new Mat();
-        Mat hierarchy = new Mat();
-        Mat kernel = null;
+    // Forward pass and decoding into result; far-field tiles are cut from tileFrame, if given
+    private void runModel(FloatBuffer inputBuffer, Mat tileFrame, Rect region, long inferenceStart, DetectionResult result) {
+        int inputSize = result.inputSize;
+        Tensor inputTensor = Tensor.fromBlob(
+                inputBuffer,
+                new long[]{1, 3, inputSize, inputSize}
+        );
 
+        // ---------- Step 3: Run inference ----------
         try {
-            // Use a better simulation approach that mimics the Python code
-            // Convert to grayscale
-            Imgproc.cvtColor(frame, grayImage, Imgproc.COLOR_BGR2GRAY);
-
-            // Apply thresholding to create a binary mask
-            Imgproc.threshold(grayImage, binaryMask, 100, 255, Imgproc.THRESH_BINARY);
-
-            // Apply morphological operations to create blob-like shapes
-            kernel = Imgproc.getStructuringElement(Imgproc.MORPH_ELLIPSE, new Size(20, 20));
-            Imgproc.morphologyEx(binaryMask, binaryMask, Imgproc.MORPH_CLOSE, kernel);
-
-            // Find contours in the binary mask
-            Imgproc.findContours(binaryMask, allContours, hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
-
-            // Filter contours by area - select a few random ones to simulate potholes
-            for (MatOfPoint contour : allContours) {
-                double area = Imgproc.contourArea(contour);
-                // Create a more realistic distribution of potholes
-                if (area > 1000 && area < 20000) {
-                    // Generate more small potholes than large ones (simulate real distribution)
-                    double threshold = area < smallThreshold ? 0.3 : 0.7;
-                    if (Math.random() > threshold) {
-                        contours.add(contour);
-                    } else {
-                        contour.release();
-                    }
-                } else {
-                    contour.release();
+            // Forward pass through the model
+            long forwardStart = System.nanoTime();
+            IValue output = forward(inputTensor);
+            inputSizeController.recordLatency(inputSize, (System.nanoTime() - forwardStart) / 1e6);
+            result.inferenceTimeMs = (System.nanoTime() - inferenceStart) / 1e6;
+
+            // Decode boxes from the YOLOv8 head
+            List<Detection> detections = decodeOutput(output, new Letterbox[]{result.letterbox});
+            Log.d(TAG, "Model inference completed successfully");
+
+            // Optional second pass over the far-field band at native resolution
+            Set<Detection> fromTiles = Collections.newSetFromMap(new IdentityHashMap<>());
+            if (tiledInference && result.roi != null && tileFrame != null) {
+                long tileStart = System.nanoTime();
+                List<Detection> tileDetections = runTiledPass(tileFrame, region, inputSize, result);
+                detections.addAll(tileDetections);
+                fromTiles.addAll(tileDetections);
+                result.tileTimeMs = (System.nanoTime() - tileStart) / 1e6;
+            }
+            result.modelDetections = Nms.apply(detections, NMS_IOU_THRESHOLD, MAX_DETECTIONS);
+            for (Detection d : result.modelDetections) {
+                if (fromTiles.contains(d)) {
+                    result.tileOnlyDetections++;
                 }
             }
+
+            // Outlines from the segmentation masks of the full-frame pass
+            if (output.isTuple()) {
+                attachMasks(result.modelDetections, fromTiles, output.toTuple()[1].toTensor(), result.letterbox);
+            }
+
+            result.modelSuccessful = true;
+
+        } catch (IllegalStateException e) {
+            Log.e(TAG, "Model inference error: " + e.getMessage(), e);
+            // Fall back to simulation
         } catch (Exception e) {
-            Log.e(TAG, "Error in simulateContours: " + e.getMessage(), e);
-            // Release all contours in case of error
-            for (MatOfPoint contour : allContours) {
-                if (!contours.contains(contour)) {
-                    contour.release();
+            Log.e(TAG, "Model inference error: " + e.getMessage(), e);
+            // A model exported with static shapes rejects other sizes; any other failure may be transient
+            if (inputSize < inputSizeController.getMaxInputSize() && isShapeError(e)) {
+                inputSizeController.markUnsupported(inputSize);
+            }
+            // Fall back to simulation
+        }
+    }
+
+    private static boolean isShapeError(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            String message = t.getMessage();
+            if (message == null) {
+                continue;
+            }
+            for (String pattern : SHAPE_ERRORS) {
+                if (message.contains(pattern)) {
+                    return true;
                 }
             }
-        } finally {
-            // Clean up resources
-            if (grayImage != null && !grayImage.empty()) grayImage.release();
-            if (binaryMask != null && !binaryMask.empty()) binaryMask.release();
-            if (hierarchy != null && !hierarchy.empty()) hierarchy.release();
-            if (kernel != null && !kernel.empty()) kernel.release();
         }
+        return false;
+    }
+
+    // Letterbox a region into the model input and normalize it into the tensor buffer
+    private void fillInput(Mat rgbFrame, Rect region, Letterbox letterbox, FloatBuffer buffer, int offset) {
+        synchronized (inputPacker) {
+            letterbox.apply(rgbFrame, region, letterboxed);
+            int size = (int) letterboxed.total() * letterboxed.channels();
+            if (letterboxPixels.length < size) {
+                letterboxPixels = new byte[size];
+            }
+            letterboxed.get(0, 0, letterboxPixels);
+            inputPacker.packInterleaved(letterboxPixels, letterboxed.channels(), letterbox.inputSize, buffer, offset);
+        }
+    }
+
+    private IValue forward(Tensor input) {
+        synchronized (modelLock) {
+            if (model == null) {
+                throw new IllegalStateException("Detector has been closed");
+            }
+            return model.forward(IValue.from(input));
+        }
+    }
+
+    // Decode every image of the batch and map its boxes back to frame coordinates
+    private List<Detection> decodeOutput(IValue output, Letterbox[] letterboxes) {
+        // YOLOv8-seg returns (predictions, mask prototypes), the detect head a single tensor
+        boolean segmentation = output.isTuple();
+        Tensor predictions = segmentation ? output.toTuple()[0].toTensor() : output.toTensor();
+        long[] shape = predictions.shape();
+        int channels = (int) shape[1];
+        int anchors = (int) shape[2];
+        float[] data = predictions.getDataAsFloatArray();
+        int maskDim = segmentation ? YoloDecoder.SEG_MASK_DIM : 0;
+
+        List<Detection> detections = new ArrayList<>();
+        for (int b = 0; b < letterboxes.length; b++) {
+            for (Detection d : YoloDecoder.decode(data, b, channels, anchors, maskDim, CONFIDENCE_THRESHOLD)) {
+                detections.add(letterboxes[b].toFrame(d));
+            }
+        }
+        return detections;
+    }
+
+    // Decode each detection's mask and store its largest outline as the detection polygon
+    private void attachMasks(List<Detection> detections, Set<Detection> skip, Tensor protoTensor, Letterbox letterbox) {
+        long[] shape = protoTensor.shape();
+        int maskDim = (int) shape[1];
+        int protoH = (int) shape[2];
+        int protoW = (int) shape[3];
+        float[] protos = protoTensor.getDataAsFloatArray();
+        double protoScale = (double) protoW / letterbox.inputSize;
+
+        for (Detection d : detections) {
+            if (d.maskCoefficients == null || skip.contains(d)) {
+                continue;
+            }
+            // Box in prototype grid coordinates
+            int x0 = clamp((int) Math.floor(letterbox.toInputX(d.x1) * protoScale), 0, protoW);
+            int y0 = clamp((int) Math.floor(letterbox.toInputY(d.y1) * protoScale), 0, protoH);
+            int x1 = clamp((int) Math.ceil(letterbox.toInputX(d.x2) * protoScale), 0, protoW);
+            int y1 = clamp((int) Math.ceil(letterbox.toInputY(d.y2) * protoScale), 0, protoH);
+            if (x1 <= x0 || y1 <= y0) {
+                continue;
+            }
 
-        return contours;
+            byte[] mask = new byte[(x1 - x0) * (y1 - y0)];
+            if (MaskDecoder.decode(protos, maskDim, protoH, protoW, d.maskCoefficients, x0, y0, x1, y1, mask) > 0) {
+                d.polygon = maskOutline(mask, x0, y0, x1 - x0, y1 - y0, protoScale, letterbox);
+            }
+        }
+    }
+
+    private float[] maskOutline(byte[] mask, int x0, int y0, int width, int height, double protoScale, Letterbox letterbox) {
+        Mat maskMat = new Mat(height, width, CvType.CV_8UC1);
+        maskMat.put(0, 0, mask);
+        ContourSet contours = new ContourSet();
+        ContourFinder.find(maskMat, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE, contours);
+        contours.analyze(false);
+        int largest = contours.largest();
+
+        float[] polygon = null;
+        if (largest >= 0) {
+            int[] points = contours.pointsColumn();
+            int from = contours.offsetsColumn()[largest] * 2;
+            polygon = new float[contours.pointCount(largest) * 2];
+            for (int i = 0; i < polygon.length; i += 2) {
+                // Prototype cell centre -> model input -> frame
+                polygon[i] = (float) letterbox.toFrameX((x0 + points[from + i] + 0.5) / protoScale);
+                polygon[i + 1] = (float) letterbox.toFrameY((y0 + points[from + i + 1] + 0.5) / protoScale);
+            }
+        }
+
+        maskMat.release();
+        return polygon;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    // Detection outline (or box) as a contour in display coordinates
+    private static void addContour(ContourSet contours, Detection detection, double scaleX, double scaleY) {
+        if (detection.polygon != null && detection.polygon.length >= 6) {
+            for (int i = 0; i + 1 < detection.polygon.length; i += 2) {
+                contours.addPoint((int) (detection.polygon[i] * scaleX), (int) (detection.polygon[i + 1] * scaleY));
+            }
+        } else {
+            int x1 = (int) (detection.x1 * scaleX);
+            int y1 = (int) (detection.y1 * scaleY);
+            int x2 = (int) (detection.x2 * scaleX);
+            int y2 = (int) (detection.y2 * scaleY);
+            contours.addPoint(x1, y1);
+            contours.addPoint(x2, y1);
+            contours.addPoint(x2, y2);
+            contours.addPoint(x1, y2);
+        }
+        contours.endContour();
+    }
+
+    // Run the far-field tiles, as one batch when the model accepts it
+    private List<Detection> runTiledPass(Mat rgbFrame, Rect region, int inputSize, DetectionResult result) {
+        List<Rect> tiles = tileScheduler.schedule(region);
+        result.tileCount = tiles.size();
+        if (tiles.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        int plane = 3 * inputSize * inputSize;
+        Letterbox[] letterboxes = new Letterbox[tiles.size()];
+        for (int i = 0; i < letterboxes.length; i++) {
+            letterboxes[i] = new Letterbox(tiles.get(i), inputSize);
+        }
+
+        if (tileBatching) {
+            FloatBuffer batch = Tensor.allocateFloatBuffer(tiles.size() * plane);
+            for (int i = 0; i < letterboxes.length; i++) {
+                fillInput(rgbFrame, tiles.get(i), letterboxes[i], batch, i * plane);
+            }
+            try {
+                IValue output = forward(Tensor.fromBlob(batch, new long[]{tiles.size(), 3, inputSize, inputSize}));
+                return decodeOutput(output, letterboxes);
+            } catch (IllegalStateException e) {
+                throw e;
+            } catch (Exception e) {
+                // Exported with a fixed batch size of 1
+                Log.w(TAG, "Batched tile inference not supported, running tiles one by one");
+                tileBatching = false;
+            }
+        }
+
+        List<Detection> detections = new ArrayList<>();
+        FloatBuffer single = Tensor.allocateFloatBuffer(plane);
+        for (int i = 0; i < letterboxes.length; i++) {
+            fillInput(rgbFrame, tiles.get(i), letterboxes[i], single, 0);
+            IValue output = forward(Tensor.fromBlob(single, new long[]{1, 3, inputSize, inputSize}));
+            detections.addAll(decodeOutput(output, new Letterbox[]{letterboxes[i]}));
+        }
+        return detections;
+    }
+
+    // Tile the far field of the road in a second pass; needs the road ROI
+    public void setTiledInference(boolean enabled) {
+        tiledInference = enabled;
+    }
+
+    public boolean isTiledInference() {
+        return tiledInference;
+    }
+
+    public TileScheduler getTileScheduler() {
+        return tileScheduler;
+    }
+
+    // Restrict inference to the road region; null feeds the whole frame
+    public synchronized void setRoiMode(RoadRoiEstimator.Mode mode) {
+        if (mode == null) {
+            if (roiEstimator != null) {
+                roiEstimator.release();
+                roiEstimator = null;
+            }
+        } else if (roiEstimator == null) {
+            roiEstimator = new RoadRoiEstimator(mode);
+        } else {
+            roiEstimator.setMode(mode);
+        }
+    }
+
+    public RoadRoiEstimator getRoiEstimator() {
+        return roiEstimator;
+    }
+
+    // Size and risk thresholds are configured on the classifier
+    public PotholeClassifier getClassifier() {
+        return classifier;
+    }
+
+    public InputSizeController getInputSizeController() {
+        return inputSizeController;
+    }
+
+    // Variant to load on this device: the harness' saved choice, else fp32
+    public static ModelVariant selectVariant(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String saved = prefs.getString(PREF_VARIANT + Build.MODEL, null);
+        if (saved != null) {
+            try {
+                ModelVariant variant = ModelVariant.valueOf(saved);
+                if (variant.isBundled(context)) {
+                    return variant;
+                }
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "Unknown saved model variant " + saved);
+            }
+        }
+        return ModelVariant.FP32;
+    }
+
+    // Whether the harness has chosen a variant for this device model yet
+    public static boolean hasVariantSelection(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+                .contains(PREF_VARIANT + Build.MODEL);
+    }
+
+    public static void saveVariantSelection(Context context, ModelVariant variant) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+                .edit()
+                .putString(PREF_VARIANT + Build.MODEL, variant.name())
+                .apply();
+    }
+
+    // Release the native module; the detector can't run inference afterwards
+    public void close() {
+        synchronized (modelLock) {
+            if (model != null) {
+                model.destroy();
+                model = null;
+                Log.d(TAG, "Model released");
+            }
+        }
+        synchronized (inputPacker) {
+            letterboxed.release();
+            roiLuma.release();
+            roiFrame.release();
+        }
     }
 
     // Inner class to hold detection results
@@ -366,8 +786,19 @@ public class PotholeDetector {
         public int lowRiskCount;
         public int mediumRiskCount;
         public int highRiskCount;
-        public List<Double> areas;
-        public List<PotholeInfo> detectedPotholes;
+        public boolean modelSuccessful;
+        public int inputSize;
+        public double inferenceTimeMs;
+        public RoadRoiEstimator.Roi roi;
+        public Letterbox letterbox;
+        public List<Detection> modelDetections;
+        public int tileCount;
+        public int tileOnlyDetections;
+        public double tileTimeMs;
+        public DetectionTable potholes;
+        // Display coordinates (potholes, heatmap) per input frame pixel
+        public double displayScaleX = 1;
+        public double displayScaleY = 1;
 
         public DetectionResult() {
             processedFrame = new Mat();
@@ -378,18 +809,10 @@ public class PotholeDetector {
             lowRiskCount = 0;
             mediumRiskCount = 0;
             highRiskCount = 0;
-            areas = new ArrayList<>();
-            detectedPotholes = new ArrayList<>();
+            potholes = new DetectionTable();
+            modelDetections = new ArrayList<>();
         }
     }
-
-    // Inner class to hold pothole information
-    public static class PotholeInfo {
-        public Point centroid;
-        public double area;
-        public String size;
-        public String risk;
-    }
 }
 
 //hello
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.example.potholedetector.utils;
+
+import android.content.Context;
+import android.os.Environment;
+import android.util.Log;
+
+import com.example.potholedetector.core.GeoTileIndex;
+import com.example.potholedetector.core.GpsTrack;
+import com.example.potholedetector.core.PotholeTracker;
+import com.example.potholedetector.core.ReportWriter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Map of every pothole location found so far, kept across runs.
+ *
+ * After a run each finished track is placed at the vehicle position from the moment it
+ * was largest in frame, i.e. closest, and merged into a {@link GeoTileIndex} so the same
+ * pothole seen on later drives counts once. The index is saved to app storage and the
+ * whole map exported as GeoJSON next to the reports.
+ */
+public class PotholeMapStore {
+
+    private static final String TAG = "PotholeMapStore";
+
+    private static final String INDEX_FILE = "pothole_map.bin";
+    private static final String GEOJSON_FILE = "pothole_map.geojson";
+    private static final String GPS_LOG_DIR = "gps";
+
+    // Sightings closer than this are taken to be the same pothole; about GPS accuracy
+    private static final double MERGE_RADIUS_METERS = 5;
+
+    private final Context context;
+
+    public PotholeMapStore(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    // Companion log gps/<video name>.csv in app storage, else the video's own location, else null
+    public GpsTrack findGpsTrack(String videoName, String metadataLocation) {
+        if (videoName != null) {
+            int dot = videoName.lastIndexOf('.');
+            String baseName = dot > 0 ? videoName.substring(0, dot) : videoName;
+            File log = new File(context.getExternalFilesDir(GPS_LOG_DIR), baseName + ".csv");
+            if (log.exists()) {
+                try (FileReader reader = new FileReader(log)) {
+                    GpsTrack track = GpsTrack.readCsv(reader);
+                    if (!track.isEmpty()) {
+                        Log.d(TAG, "GPS log " + log.getName() + ": " + track.size() + " samples");
+                        return track;
+                    }
+                } catch (IOException e) {
+                    Log.w(TAG, "Unreadable GPS log " + log, e);
+                }
+            }
+        }
+        return GpsTrack.fromIso6709(metadataLocation);
+    }
+
+    // Merges the run's tracks into the map, saves it and rewrites the GeoJSON export;
+    // returns null and leaves the map alone when the run has only an approximate position
+    public synchronized File addRun(List<PotholeTracker.Track> tracks, GpsTrack gps, long startedAtMs) throws IOException {
+        if (gps.isApproximate()) {
+            // Every track would land on the one position and merge into a single pothole
+            Log.d(TAG, "Only an approximate position for the run, map not updated");
+            return null;
+        }
+        GeoTileIndex index = load();
+        int before = index.size();
+        for (PotholeTracker.Track track : tracks) {
+            double[] location = gps.locate(track.bestTimestampMs);
+            index.add(location[0], location[1], track.maxRisk, startedAtMs + track.bestTimestampMs);
+        }
+        Log.d(TAG, tracks.size() + " tracks, " + (index.size() - before) + " new locations, "
+                + index.size() + " in total");
+
+        File indexFile = new File(context.getFilesDir(), INDEX_FILE);
+        File temp = new File(context.getFilesDir(), INDEX_FILE + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(temp), 64 * 1024)) {
+            index.write(out);
+        }
+        if (!temp.renameTo(indexFile)) {
+            throw new IOException("Could not replace " + indexFile);
+        }
+
+        File geoJson = new File(context.getExternalFilesDir(Environment.DIRECTORY_DOCUMENTS), GEOJSON_FILE);
+        try (ReportWriter writer = new ReportWriter(geoJson)) {
+            index.writeGeoJson(writer);
+        }
+        return geoJson;
+    }
+
+    private GeoTileIndex load() {
+        File indexFile = new File(context.getFilesDir(), INDEX_FILE);
+        if (indexFile.exists()) {
+            try (InputStream in = new BufferedInputStream(new FileInputStream(indexFile), 64 * 1024)) {
+                return GeoTileIndex.read(in);
+            } catch (IOException e) {
+                Log.e(TAG, "Pothole map unreadable, starting a new one", e);
+            }
+        }
+        return new GeoTileIndex(MERGE_RADIUS_METERS);
+    }
+}
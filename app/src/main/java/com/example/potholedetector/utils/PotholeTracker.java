@@ -1,4 +0,0 @@
-package com.example.potholedetector.utils;
-
-public class PotholeTracker {
-}
@@ -0,0 +1,149 @@
+package com.example.potholedetector.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Byte offset of every line of a report file, so any range of lines can be read without
+ * loading the rest.
+ *
+ * Building the index is one sequential pass over the file and must run off the main
+ * thread. Section titles are the lines directly above a rule of dashes, the way
+ * {@link com.example.potholedetector.core.ReportGenerator} lays out the text report.
+ */
+public class ReportLineIndex implements Closeable {
+
+    private static final int SCAN_BUFFER = 64 * 1024;
+    private static final int MIN_RULE_LENGTH = 10;
+
+    private final RandomAccessFile file;
+    private final long length;
+    // offsets[i] is where line i starts; offsets[lineCount] is the end of the file
+    private long[] offsets;
+    private int lineCount;
+    private final List<Section> sections = new ArrayList<>();
+
+    private ReportLineIndex(File reportFile) throws IOException {
+        this.file = new RandomAccessFile(reportFile, "r");
+        this.length = file.length();
+    }
+
+    public static ReportLineIndex build(File reportFile) throws IOException {
+        ReportLineIndex index = new ReportLineIndex(reportFile);
+        try (InputStream in = new FileInputStream(reportFile)) {
+            index.scan(in);
+        } catch (IOException e) {
+            index.close();
+            throw e;
+        }
+        return index;
+    }
+
+    private void scan(InputStream in) throws IOException {
+        offsets = new long[1024];
+        List<Integer> ruleLines = new ArrayList<>();
+        byte[] buffer = new byte[SCAN_BUFFER];
+        long position = 0;
+        int lineLength = 0;
+        boolean onlyDashes = true;
+
+        offsets[0] = 0;
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            for (int i = 0; i < n; i++) {
+                byte b = buffer[i];
+                if (b == '\n') {
+                    if (onlyDashes && lineLength >= MIN_RULE_LENGTH) {
+                        ruleLines.add(lineCount);
+                    }
+                    addLineEnd(position + i + 1);
+                    lineLength = 0;
+                    onlyDashes = true;
+                } else {
+                    lineLength++;
+                    onlyDashes &= b == '-';
+                }
+            }
+            position += n;
+        }
+        // Last line without a newline
+        if (lineLength > 0) {
+            addLineEnd(length);
+        }
+
+        for (int rule : ruleLines) {
+            if (rule > 0) {
+                sections.add(new Section(readLines(rule - 1, 1)[0], rule - 1));
+            }
+        }
+    }
+
+    private void addLineEnd(long end) {
+        if (lineCount + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[++lineCount] = end;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public List<Section> getSections() {
+        return sections;
+    }
+
+    // Lines [first, first + count), clamped to the file, without line terminators
+    public synchronized String[] readLines(int first, int count) throws IOException {
+        int last = Math.min(lineCount, first + count);
+        if (first >= last) {
+            return new String[0];
+        }
+        long start = offsets[first];
+        byte[] bytes = new byte[(int) (offsets[last] - start)];
+        file.seek(start);
+        file.readFully(bytes);
+
+        String[] lines = new String[last - first];
+        int lineStart = 0;
+        for (int i = 0; i < lines.length; i++) {
+            int lineEnd = (int) (offsets[first + i + 1] - start);
+            int textEnd = lineEnd;
+            while (textEnd > lineStart && (bytes[textEnd - 1] == '\n' || bytes[textEnd - 1] == '\r')) {
+                textEnd--;
+            }
+            lines[i] = new String(bytes, lineStart, textEnd - lineStart, StandardCharsets.UTF_8);
+            lineStart = lineEnd;
+        }
+        return lines;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        file.close();
+    }
+
+    // A report section and the line its title is on
+    public static class Section {
+        public final String title;
+        public final int line;
+
+        Section(String title, int line) {
+            this.title = title;
+            this.line = line;
+        }
+
+        @Override
+        public String toString() {
+            return title;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.potholedetector.utils;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Estimates the road region of a dashcam frame so only that part is fed to the model.
+ *
+ * In {@link Mode#TRAPEZOID} mode a fixed, configurable trapezoid is used. In
+ * {@link Mode#LANE} mode lane markings are found with Canny + HoughLinesP, the left and
+ * right lane lines are intersected to get the vanishing point, and the trapezoid is
+ * hung below it. The vanishing point is smoothed over time and the fixed trapezoid is
+ * used until lanes have been seen.
+ *
+ * All trapezoid coordinates are fractions of the frame width/height.
+ */
+public class RoadRoiEstimator {
+
+    public enum Mode { TRAPEZOID, LANE }
+
+    // Default trapezoid: skips the sky and the dashboard strip at the bottom
+    private float topY = 0.35f;
+    private float bottomY = 0.95f;
+    private float topLeftX = 0.30f;
+    private float topRightX = 0.70f;
+    private float bottomLeftX = 0.0f;
+    private float bottomRightX = 1.0f;
+
+    // Lane mode parameters
+    private static final double SMOOTHING_ALPHA = 0.1;
+    private static final double MIN_SLOPE = 0.3;
+    private static final double MAX_SLOPE = 3.0;
+    private static final float HORIZON_MARGIN = 0.03f;
+    private static final float TOP_HALF_WIDTH = 0.2f;
+
+    private Mode mode;
+    private double vanishingX = -1;
+    private double vanishingY = -1;
+
+    private final Mat gray = new Mat();
+    private final Mat edges = new Mat();
+    private final Mat lines = new Mat();
+    private int[] lineBuffer = new int[0];
+
+    public RoadRoiEstimator(Mode mode) {
+        this.mode = mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+        vanishingX = -1;
+        vanishingY = -1;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // Configure the fixed trapezoid, all values are fractions of the frame size
+    public void setTrapezoid(float topY, float bottomY, float topLeftX, float topRightX,
+                             float bottomLeftX, float bottomRightX) {
+        this.topY = topY;
+        this.bottomY = bottomY;
+        this.topLeftX = topLeftX;
+        this.topRightX = topRightX;
+        this.bottomLeftX = bottomLeftX;
+        this.bottomRightX = bottomRightX;
+    }
+
+    public Roi estimate(Mat frame) {
+        return estimate(frame, frame.cols(), frame.rows());
+    }
+
+    // Lanes are looked for in a (smaller) copy of the frame; the region is in frame pixels
+    public Roi estimate(Mat analysisFrame, int frameWidth, int frameHeight) {
+        if (mode == Mode.LANE) {
+            updateVanishingPoint(analysisFrame);
+        }
+
+        float top = topY;
+        float left = topLeftX;
+        float right = topRightX;
+        if (vanishingY >= 0) {
+            top = (float) Math.min(bottomY - 0.1, vanishingY + HORIZON_MARGIN);
+            left = (float) Math.max(0, vanishingX - TOP_HALF_WIDTH);
+            right = (float) Math.min(1, vanishingX + TOP_HALF_WIDTH);
+        }
+
+        int w = frameWidth;
+        int h = frameHeight;
+        Point[] polygon = new Point[]{
+                new Point(left * w, top * h),
+                new Point(right * w, top * h),
+                new Point(bottomRightX * w, bottomY * h),
+                new Point(bottomLeftX * w, bottomY * h)
+        };
+
+        int x0 = (int) Math.floor(Math.min(left, bottomLeftX) * w);
+        int x1 = (int) Math.ceil(Math.max(right, bottomRightX) * w);
+        int y0 = (int) Math.floor(top * h);
+        int y1 = (int) Math.ceil(bottomY * h);
+        x0 = Math.max(0, x0);
+        y0 = Math.max(0, y0);
+        x1 = Math.min(w, x1);
+        y1 = Math.min(h, y1);
+
+        return new Roi(new Rect(x0, y0, Math.max(1, x1 - x0), Math.max(1, y1 - y0)), polygon);
+    }
+
+    private void updateVanishingPoint(Mat frame) {
+        int w = frame.cols();
+        int h = frame.rows();
+        int searchTop = h / 3;
+
+        // Lane markings live in the lower part of the frame
+        Mat lower = frame.submat(searchTop, h, 0, w);
+        if (frame.channels() == 1) {
+            // Already luma, e.g. the Y plane of a camera frame
+            lower.copyTo(gray);
+        } else {
+            Imgproc.cvtColor(lower, gray, frame.channels() == 4 ? Imgproc.COLOR_RGBA2GRAY : Imgproc.COLOR_BGR2GRAY);
+        }
+        lower.release();
+        Imgproc.Canny(gray, edges, 50, 150);
+        Imgproc.HoughLinesP(edges, lines, 1, Math.PI / 180, 40, w * 0.08, 20);
+
+        int count = lines.rows() * 4;
+        if (count == 0) {
+            return;
+        }
+        if (lineBuffer.length < count) {
+            lineBuffer = new int[count];
+        }
+        lines.get(0, 0, lineBuffer);
+
+        // Length-weighted average line on each side, y = slope * x + intercept
+        double leftSlope = 0, leftIntercept = 0, leftWeight = 0;
+        double rightSlope = 0, rightIntercept = 0, rightWeight = 0;
+        for (int i = 0; i < count; i += 4) {
+            double x1 = lineBuffer[i];
+            double y1 = lineBuffer[i + 1] + searchTop;
+            double x2 = lineBuffer[i + 2];
+            double y2 = lineBuffer[i + 3] + searchTop;
+            if (x1 == x2) {
+                continue;
+            }
+            double slope = (y2 - y1) / (x2 - x1);
+            double absSlope = Math.abs(slope);
+            if (absSlope < MIN_SLOPE || absSlope > MAX_SLOPE) {
+                continue;
+            }
+            double length = Math.hypot(x2 - x1, y2 - y1);
+            double intercept = y1 - slope * x1;
+            if (slope < 0 && x1 < w * 0.6) {
+                leftSlope += slope * length;
+                leftIntercept += intercept * length;
+                leftWeight += length;
+            } else if (slope > 0 && x1 > w * 0.4) {
+                rightSlope += slope * length;
+                rightIntercept += intercept * length;
+                rightWeight += length;
+            }
+        }
+        if (leftWeight == 0 || rightWeight == 0) {
+            return;
+        }
+
+        leftSlope /= leftWeight;
+        leftIntercept /= leftWeight;
+        rightSlope /= rightWeight;
+        rightIntercept /= rightWeight;
+
+        double x = (rightIntercept - leftIntercept) / (leftSlope - rightSlope);
+        double y = leftSlope * x + leftIntercept;
+        double nx = x / w;
+        double ny = y / h;
+
+        // Reject implausible intersections
+        if (nx < 0.1 || nx > 0.9 || ny < 0.15 || ny > 0.7) {
+            return;
+        }
+
+        if (vanishingY < 0) {
+            vanishingX = nx;
+            vanishingY = ny;
+        } else {
+            vanishingX += SMOOTHING_ALPHA * (nx - vanishingX);
+            vanishingY += SMOOTHING_ALPHA * (ny - vanishingY);
+        }
+    }
+
+    public void release() {
+        gray.release();
+        edges.release();
+        lines.release();
+    }
+
+    // Road region for one frame: the trapezoid and its bounding box in frame pixels
+    public static class Roi {
+        public final Rect bounds;
+        public final Point[] polygon;
+
+        Roi(Rect bounds, Point[] polygon) {
+            this.bounds = bounds;
+            this.polygon = polygon;
+        }
+
+        // Point-in-convex-polygon test, vertices are clockwise in image coordinates
+        public boolean contains(double x, double y) {
+            for (int i = 0; i < polygon.length; i++) {
+                Point a = polygon[i];
+                Point b = polygon[(i + 1) % polygon.length];
+                double cross = (b.x - a.x) * (y - a.y) - (b.y - a.y) * (x - a.x);
+                if (cross < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
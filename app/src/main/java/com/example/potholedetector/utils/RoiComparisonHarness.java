@@ -0,0 +1,198 @@
+package com.example.potholedetector.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.media.MediaMetadataRetriever;
+import android.net.Uri;
+import android.util.Log;
+
+import com.example.potholedetector.core.Detection;
+import com.example.potholedetector.core.DetectionTable;
+import com.example.potholedetector.core.SizeClass;
+
+import org.opencv.android.Utils;
+import org.opencv.core.Mat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs the same frames through the detector with and without the road crop and compares them.
+ *
+ * Frames are decoded one at a time at full resolution, since what the crop gains is the
+ * pixels it keeps, and each goes through both modes before the next is read. Throughput is
+ * the mean processFrame time per mode. Without labels the uncropped run is the reference:
+ * small-pothole recall is the share of its small potholes on the road that the cropped run
+ * also finds at IoU >= 0.5, and the small potholes only the cropped run finds are counted
+ * too. Off-road detections are left out, the crop drops those by design.
+ */
+public class RoiComparisonHarness {
+
+    private static final String TAG = "RoiComparison";
+
+    /** Stops a comparison between frames. */
+    public interface Listener {
+        boolean isCancelled();
+    }
+
+    private final PotholeDetector detector;
+
+    public RoiComparisonHarness(PotholeDetector detector) {
+        this.detector = detector;
+    }
+
+    // Compares over evenly spaced frames of a video; the detector's ROI mode and input size are restored after
+    public Comparison compare(Context context, Uri videoUri, int count, Listener listener) {
+        RoadRoiEstimator estimator = detector.getRoiEstimator();
+        RoadRoiEstimator.Mode mode = estimator != null ? estimator.getMode() : RoadRoiEstimator.Mode.LANE;
+        InputSizeController sizeController = detector.getInputSizeController();
+        boolean wasAdaptive = sizeController.isAdaptive();
+        // Both modes see the same input size
+        sizeController.setAdaptive(false);
+
+        Comparison comparison = new Comparison(mode);
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try {
+            retriever.setDataSource(context, videoUri);
+            long durationMs = Long.parseLong(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION));
+            for (int i = 0; i < count && !listener.isCancelled(); i++) {
+                long timeUs = (durationMs * 1000L * (2L * i + 1)) / (2L * count);
+                Bitmap bitmap = retriever.getFrameAtTime(timeUs, MediaMetadataRetriever.OPTION_CLOSEST);
+                if (bitmap == null) {
+                    continue;
+                }
+                Mat frame = new Mat();
+                Utils.bitmapToMat(bitmap, frame);
+                bitmap.recycle();
+                try {
+                    compareFrame(frame, mode, i > 0, comparison);
+                } finally {
+                    frame.release();
+                }
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Road crop comparison stopped", e);
+        } finally {
+            detector.setRoiMode(estimator != null ? mode : null);
+            sizeController.setAdaptive(wasAdaptive);
+            try {
+                retriever.release();
+            } catch (Exception e) {
+                Log.w(TAG, "Error releasing retriever: " + e.getMessage());
+            }
+        }
+        Log.i(TAG, comparison.toString());
+        return comparison;
+    }
+
+    // The first frame warms both modes up and is left out of the timings
+    private void compareFrame(Mat frame, RoadRoiEstimator.Mode mode, boolean timed, Comparison comparison) {
+        // A fresh estimator per frame, the frames are too far apart for its smoothing
+        detector.setRoiMode(null);
+        detector.setRoiMode(mode);
+        long start = System.nanoTime();
+        PotholeDetector.DetectionResult cropped = detector.processFrame(frame);
+        double croppedMs = (System.nanoTime() - start) / 1e6;
+
+        detector.setRoiMode(null);
+        start = System.nanoTime();
+        PotholeDetector.DetectionResult full = detector.processFrame(frame);
+        double fullMs = (System.nanoTime() - start) / 1e6;
+
+        try {
+            if (!cropped.modelSuccessful || !full.modelSuccessful || cropped.roi == null) {
+                comparison.failedFrames++;
+                return;
+            }
+            comparison.frames++;
+            if (timed) {
+                comparison.timedFrames++;
+                comparison.totalCroppedMs += croppedMs;
+                comparison.totalFullMs += fullMs;
+            }
+
+            // Small potholes of the reference that lie on the road the crop found, in display coordinates
+            List<Detection> referenceSmall = new ArrayList<>();
+            for (int i = 0; i < full.potholes.size(); i++) {
+                if (full.potholes.sizeClass(i) == SizeClass.SMALL
+                        && cropped.roi.contains(full.potholes.centroidX(i) / full.displayScaleX,
+                        full.potholes.centroidY(i) / full.displayScaleY)) {
+                    referenceSmall.add(box(full.potholes, i));
+                }
+            }
+            List<Detection> croppedAll = boxes(cropped.potholes, null);
+            List<Detection> croppedSmall = boxes(cropped.potholes, SizeClass.SMALL);
+            comparison.referenceSmall += referenceSmall.size();
+            comparison.recalledSmall += ModelComparisonHarness.countMatches(referenceSmall, croppedAll);
+            comparison.croppedOnlySmall += croppedSmall.size()
+                    - ModelComparisonHarness.countMatches(croppedSmall, boxes(full.potholes, null));
+        } finally {
+            releaseResult(cropped);
+            releaseResult(full);
+        }
+    }
+
+    private static List<Detection> boxes(DetectionTable potholes, SizeClass only) {
+        List<Detection> boxes = new ArrayList<>();
+        for (int i = 0; i < potholes.size(); i++) {
+            if (only == null || potholes.sizeClass(i) == only) {
+                boxes.add(box(potholes, i));
+            }
+        }
+        return boxes;
+    }
+
+    private static Detection box(DetectionTable potholes, int i) {
+        return new Detection(potholes.x1(i), potholes.y1(i), potholes.x2(i), potholes.y2(i), 1, 0);
+    }
+
+    private static void releaseResult(PotholeDetector.DetectionResult result) {
+        result.processedFrame.release();
+        result.heatmapUpdate.release();
+    }
+
+    public static class Comparison {
+        public final RoadRoiEstimator.Mode mode;
+        // Frames both modes ran on; the first is a warm-up and not timed
+        public int frames;
+        public int timedFrames;
+        public int failedFrames;
+        public double totalCroppedMs;
+        public double totalFullMs;
+        public int referenceSmall;
+        public int recalledSmall;
+        public int croppedOnlySmall;
+
+        Comparison(RoadRoiEstimator.Mode mode) {
+            this.mode = mode;
+        }
+
+        public double meanCroppedMs() {
+            return timedFrames > 0 ? totalCroppedMs / timedFrames : 0;
+        }
+
+        public double meanFullMs() {
+            return timedFrames > 0 ? totalFullMs / timedFrames : 0;
+        }
+
+        // 1 when the reference had no small potholes on the road
+        public double smallRecall() {
+            return referenceSmall > 0 ? (double) recalledSmall / referenceSmall : 1;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "Frames compared: %d (%d failed)\n"
+                            + "Without crop: %.1f ms/frame (%.2f fps)\n"
+                            + "With %s crop: %.1f ms/frame (%.2f fps)\n"
+                            + "Small potholes on the road without crop: %d, also found with crop: %d (recall %.3f)\n"
+                            + "Small potholes found only with crop: %d",
+                    frames, failedFrames,
+                    meanFullMs(), meanFullMs() > 0 ? 1000 / meanFullMs() : 0,
+                    mode, meanCroppedMs(), meanCroppedMs() > 0 ? 1000 / meanCroppedMs() : 0,
+                    referenceSmall, recalledSmall, smallRecall(), croppedOnlySmall);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.potholedetector.utils;
+
+import android.content.Context;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.potholedetector.core.BumpDetector;
+import com.example.potholedetector.core.ReportWriter;
+import com.example.potholedetector.core.SensorLog;
+import com.example.potholedetector.core.SensorRingBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the accelerometer and gyroscope while a survey video is being filmed.
+ *
+ * Sensor callbacks arrive at the fastest rate on their own thread and only push into a
+ * {@link SensorRingBuffer}. A second thread drains it every {@value #DRAIN_INTERVAL_MS} ms
+ * into the sensor log and a live {@link BumpDetector}. Times in the log are measured from
+ * {@link #start}, called when the camera app is launched, which can be any time before
+ * recording begins. {@link #stop(long, long)} places the finished video on that clock
+ * and writes its span into the log, see {@link SensorLog}.
+ */
+public class SensorCapture implements SensorEventListener {
+
+    private static final String TAG = "SensorCapture";
+
+    private static final String LOG_DIR = "sensors";
+    private static final long DRAIN_INTERVAL_MS = 100;
+    // About 5 s at the fastest rate of common phones, far more than one drain interval
+    private static final int BUFFER_SAMPLES = 2048;
+
+    private final Context context;
+    private final SensorRingBuffer buffer = new SensorRingBuffer(BUFFER_SAMPLES);
+    private final BumpDetector bumpDetector = new BumpDetector();
+
+    private SensorManager sensorManager;
+    private HandlerThread sensorThread;
+    private ScheduledExecutorService drainer;
+    private ReportWriter logWriter;
+    private File logFile;
+    private long startNs;
+    // Wall-clock time of startNs, to place the video on the log's clock
+    private long startWallMs;
+
+    public SensorCapture(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    // Log of a video: sensors/<video name without extension>.csv in app storage
+    public static File logFileFor(Context context, String videoName) {
+        int dot = videoName.lastIndexOf('.');
+        String baseName = dot > 0 ? videoName.substring(0, dot) : videoName;
+        return new File(context.getExternalFilesDir(LOG_DIR), baseName + ".csv");
+    }
+
+    public boolean start(String videoName) {
+        sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
+        Sensor accelerometer = sensorManager != null ? sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER) : null;
+        if (accelerometer == null) {
+            Log.w(TAG, "No accelerometer, sensor capture disabled");
+            return false;
+        }
+        try {
+            logFile = logFileFor(context, videoName);
+            logWriter = new ReportWriter(logFile);
+            logWriter.write(SensorLog.HEADER);
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot create sensor log", e);
+            return false;
+        }
+
+        startNs = SystemClock.elapsedRealtimeNanos();
+        startWallMs = System.currentTimeMillis();
+        sensorThread = new HandlerThread("SensorCapture");
+        sensorThread.start();
+        Handler handler = new Handler(sensorThread.getLooper());
+        sensorManager.registerListener(this, accelerometer, SensorManager.SENSOR_DELAY_FASTEST, handler);
+        Sensor gyroscope = sensorManager.getDefaultSensor(Sensor.TYPE_GYROSCOPE);
+        if (gyroscope != null) {
+            sensorManager.registerListener(this, gyroscope, SensorManager.SENSOR_DELAY_FASTEST, handler);
+        }
+
+        drainer = Executors.newSingleThreadScheduledExecutor();
+        drainer.scheduleWithFixedDelay(this::drain, DRAIN_INTERVAL_MS, DRAIN_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    @Override
+    public void onSensorChanged(SensorEvent event) {
+        int sensor = event.sensor.getType() == Sensor.TYPE_GYROSCOPE
+                ? SensorRingBuffer.GYROSCOPE : SensorRingBuffer.ACCELEROMETER;
+        buffer.offer(event.timestamp, sensor, event.values[0], event.values[1], event.values[2]);
+    }
+
+    @Override
+    public void onAccuracyChanged(Sensor sensor, int accuracy) {
+    }
+
+    // Drain thread
+    private void drain() {
+        buffer.drain((timestampNs, sensor, x, y, z) -> {
+            long logTimeMs = (timestampNs - startNs) / 1_000_000;
+            if (sensor == SensorRingBuffer.ACCELEROMETER) {
+                bumpDetector.accept(logTimeMs, x, y, z);
+            }
+            try {
+                SensorLog.writeSample(logWriter, logTimeMs, sensor, x, y, z);
+            } catch (IOException e) {
+                Log.e(TAG, "Error writing sensor log", e);
+            }
+        });
+    }
+
+    // Stops recording without a video; the log can't be matched to frames
+    public File stop() {
+        return stop(0, -1);
+    }
+
+    /**
+     * Stops recording and closes the log, with the video's span in it when the video's
+     * wall-clock end (its file's modification time) and duration are known; returns the
+     * log, or null if capture never started.
+     */
+    public File stop(long videoEndWallMs, long videoDurationMs) {
+        if (drainer == null) {
+            return null;
+        }
+        long logEndMs = System.currentTimeMillis() - startWallMs;
+        sensorManager.unregisterListener(this);
+        sensorThread.quitSafely();
+        drainer.shutdown();
+        try {
+            drainer.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+        try {
+            if (videoDurationMs > 0) {
+                long videoStartMs = SensorLog.videoStartMs(startWallMs, videoEndWallMs, videoDurationMs);
+                if (videoStartMs >= 0 && videoStartMs + videoDurationMs <= logEndMs) {
+                    SensorLog.writeVideoSpan(logWriter, videoStartMs, videoStartMs + videoDurationMs);
+                    Log.d(TAG, "Video starts " + videoStartMs + " ms into the sensor log");
+                } else {
+                    Log.w(TAG, "Video at " + videoStartMs + " ms does not fit the sensor log of " + logEndMs + " ms");
+                }
+            }
+            logWriter.close();
+        } catch (IOException e) {
+            Log.e(TAG, "Error closing sensor log", e);
+        }
+        Log.d(TAG, "Sensor log " + logFile.getName() + ": " + bumpDetector.finish().size()
+                + " bumps, " + buffer.getDropped() + " samples dropped");
+        drainer = null;
+        return logFile;
+    }
+}
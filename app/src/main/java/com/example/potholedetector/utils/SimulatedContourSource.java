@@ -0,0 +1,110 @@
+package com.example.potholedetector.utils;
+
+import android.util.Log;
+
+import com.example.potholedetector.core.ContourSet;
+import com.example.potholedetector.core.Detection;
+import com.example.potholedetector.core.DetectionSource;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Contour-based stand-in for the model, based on the Python simulation approach.
+ *
+ * Bright blobs of the frame become pothole candidates and a random subset of them is
+ * reported. The subset is drawn from a generator seeded with the source's seed and the
+ * frame index, so a frame always gives the same detections, whatever ran before it: a
+ * rerun, another video, or the extra passes of the thread sweep on the shared detector.
+ */
+public class SimulatedContourSource implements DetectionSource<Mat> {
+
+    private static final String TAG = "SimulatedContourSource";
+
+    // Same threshold as the small size category, small blobs are kept more often
+    private static final double SMALL_AREA = 5000;
+    // Blob sizes and areas above are tuned for frames of this size; larger frames are scaled down first
+    private static final Size ANALYSIS_SIZE = new Size(1020, 500);
+
+    private final long seed;
+
+    public SimulatedContourSource(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public List<Detection> detect(Mat frame, int frameIndex, long timestampMs) {
+        List<Detection> detections = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(seed ^ frameIndex);
+        ContourSet allContours = new ContourSet();
+        Mat grayImage = new Mat();
+        Mat binaryMask = new Mat();
+        Mat kernel = null;
+
+        try {
+            // Convert to grayscale, at analysis size
+            Imgproc.cvtColor(frame, grayImage, Imgproc.COLOR_BGR2GRAY);
+            float scaleX = 1;
+            float scaleY = 1;
+            if (frame.cols() > ANALYSIS_SIZE.width || frame.rows() > ANALYSIS_SIZE.height) {
+                Imgproc.resize(grayImage, grayImage, ANALYSIS_SIZE);
+                scaleX = (float) (frame.cols() / ANALYSIS_SIZE.width);
+                scaleY = (float) (frame.rows() / ANALYSIS_SIZE.height);
+            }
+
+            // Apply thresholding to create a binary mask
+            Imgproc.threshold(grayImage, binaryMask, 100, 255, Imgproc.THRESH_BINARY);
+
+            // Apply morphological operations to create blob-like shapes
+            kernel = Imgproc.getStructuringElement(Imgproc.MORPH_ELLIPSE, new Size(20, 20));
+            Imgproc.morphologyEx(binaryMask, binaryMask, Imgproc.MORPH_CLOSE, kernel);
+
+            // Find contours in the binary mask
+            ContourFinder.find(binaryMask, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE, allContours);
+            allContours.analyze(false);
+
+            // Filter contours by area - select a few random ones to simulate potholes
+            for (int i = 0; i < allContours.size(); i++) {
+                double area = allContours.area(i);
+                // Create a more realistic distribution of potholes
+                if (area > 1000 && area < 20000) {
+                    // Generate more small potholes than large ones (simulate real distribution)
+                    double threshold = area < SMALL_AREA ? 0.3 : 0.7;
+                    if (random.nextDouble() > threshold) {
+                        detections.add(toDetection(allContours, i, scaleX, scaleY));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error simulating contours: " + e.getMessage(), e);
+        } finally {
+            // Clean up resources
+            grayImage.release();
+            binaryMask.release();
+            if (kernel != null) kernel.release();
+        }
+
+        return detections;
+    }
+
+    // Contour i in frame coordinates
+    private static Detection toDetection(ContourSet contours, int i, float scaleX, float scaleY) {
+        int x = contours.boxX(i);
+        int y = contours.boxY(i);
+        Detection d = new Detection(x * scaleX, y * scaleY,
+                (x + contours.boxWidth(i)) * scaleX, (y + contours.boxHeight(i)) * scaleY, 1f, 0);
+        int[] points = contours.pointsColumn();
+        int from = contours.offsetsColumn()[i] * 2;
+        d.polygon = new float[contours.pointCount(i) * 2];
+        for (int j = 0; j < d.polygon.length; j += 2) {
+            d.polygon[j] = points[from + j] * scaleX;
+            d.polygon[j + 1] = points[from + j + 1] * scaleY;
+        }
+        return d;
+    }
+}
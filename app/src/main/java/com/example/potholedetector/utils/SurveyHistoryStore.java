@@ -0,0 +1,365 @@
+package com.example.potholedetector.utils;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import com.example.potholedetector.core.DetectionTable;
+import com.example.potholedetector.core.GpsTrack;
+import com.example.potholedetector.core.PotholeTracker;
+import com.example.potholedetector.core.ReportSummary;
+import com.example.potholedetector.core.RiskClass;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * SQLite history of every processing run: the run, its pothole tracks and each detection.
+ *
+ * Detections are buffered by a {@link RunWriter} and inserted on a single writer thread,
+ * {@value #BATCH_ROWS} rows per transaction through one compiled statement, so the
+ * pipeline never waits on the disk. Detections are indexed by run, by time, by risk and
+ * time together, and by location, which covers queries like "high-risk potholes this
+ * month" and "trend for this road segment" without a table scan.
+ */
+public final class SurveyHistoryStore extends SQLiteOpenHelper {
+
+    private static final String TAG = "SurveyHistoryStore";
+
+    private static final String DATABASE_NAME = "survey_history.db";
+    private static final int DATABASE_VERSION = 1;
+
+    // Rows per insert transaction; one commit costs about as much as a thousand row inserts
+    private static final int BATCH_ROWS = 1000;
+
+    private static SurveyHistoryStore instance;
+
+    // All writes go through this thread, in submission order
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+
+    private SurveyHistoryStore(Context appContext) {
+        super(appContext, DATABASE_NAME, null, DATABASE_VERSION);
+        // Readers don't block the writer, and commits don't rewrite the main file
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    public static synchronized SurveyHistoryStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new SurveyHistoryStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE runs ("
+                + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + "started_at INTEGER NOT NULL, "
+                + "video TEXT, "
+                + "report_path TEXT, "
+                + "duration_sec REAL, "
+                + "frames INTEGER, "
+                + "potholes INTEGER, "
+                + "severity REAL, "
+                + "completed INTEGER NOT NULL DEFAULT 0)");
+        db.execSQL("CREATE TABLE tracks ("
+                + "run_id INTEGER NOT NULL REFERENCES runs(id) ON DELETE CASCADE, "
+                + "track_no INTEGER NOT NULL, "
+                + "first_frame INTEGER, "
+                + "last_frame INTEGER, "
+                + "hits INTEGER, "
+                + "max_area REAL, "
+                + "bump_peak REAL, "
+                + "PRIMARY KEY (run_id, track_no))");
+        db.execSQL("CREATE TABLE detections ("
+                + "id INTEGER PRIMARY KEY, "
+                + "run_id INTEGER NOT NULL REFERENCES runs(id) ON DELETE CASCADE, "
+                + "track_no INTEGER, "
+                + "frame INTEGER, "
+                + "recorded_at INTEGER NOT NULL, "
+                + "x REAL, y REAL, area REAL, "
+                + "x1 REAL, y1 REAL, x2 REAL, y2 REAL, "
+                + "size INTEGER, "
+                + "risk INTEGER, "
+                // Vehicle position at the detection; null for videos without GPS
+                + "lat REAL, lon REAL)");
+        db.execSQL("CREATE INDEX runs_started ON runs(started_at)");
+        db.execSQL("CREATE INDEX detections_run ON detections(run_id, track_no)");
+        db.execSQL("CREATE INDEX detections_time ON detections(recorded_at)");
+        db.execSQL("CREATE INDEX detections_risk_time ON detections(risk, recorded_at)");
+        db.execSQL("CREATE INDEX detections_location ON detections(lat, lon)");
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        db.setForeignKeyConstraintsEnabled(true);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // No released schema to migrate from yet
+        db.execSQL("DROP TABLE IF EXISTS detections");
+        db.execSQL("DROP TABLE IF EXISTS tracks");
+        db.execSQL("DROP TABLE IF EXISTS runs");
+        onCreate(db);
+    }
+
+    // Starts a run; detections are added through the returned writer. gps may be null
+    public RunWriter beginRun(String video, long startedAtMs, GpsTrack gps) {
+        ContentValues values = new ContentValues();
+        values.put("started_at", startedAtMs);
+        values.put("video", video);
+        long runId = getWritableDatabase().insertOrThrow("runs", null, values);
+        Log.d(TAG, "Run " + runId + " started");
+        return new RunWriter(runId, startedAtMs, gps);
+    }
+
+    /**
+     * Collects the detections of one run and hands them to the writer thread in batches.
+     *
+     * Not thread-safe; use it from the thread that runs the pipeline.
+     */
+    public final class RunWriter {
+        public final long runId;
+        private final long startedAtMs;
+        private final GpsTrack gps;
+
+        private DetectionTable pending = new DetectionTable(BATCH_ROWS);
+        private int[] pendingTracks = new int[BATCH_ROWS];
+        private Future<?> lastBatch;
+        // Only touched on the writer thread
+        private SQLiteStatement insert;
+        private boolean closed;
+
+        private RunWriter(long runId, long startedAtMs, GpsTrack gps) {
+            this.runId = runId;
+            this.startedAtMs = startedAtMs;
+            // A single position for the whole video would give every row the same location
+            this.gps = gps != null && !gps.isApproximate() ? gps : null;
+        }
+
+        // Adds one frame's rows; tracks[i] is the track of row i, or null when untracked
+        public void add(DetectionTable rows, PotholeTracker.Track[] tracks) {
+            int first = pending.size();
+            pending.addAll(rows);
+            if (pendingTracks.length < pending.size()) {
+                pendingTracks = Arrays.copyOf(pendingTracks, Math.max(pending.size(), pendingTracks.length * 2));
+            }
+            for (int i = 0; i < rows.size(); i++) {
+                pendingTracks[first + i] = tracks != null && tracks[i] != null ? tracks[i].id : 0;
+            }
+            if (pending.size() >= BATCH_ROWS) {
+                submitPending();
+            }
+        }
+
+        private void submitPending() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            DetectionTable batch = pending;
+            int[] batchTracks = pendingTracks;
+            pending = new DetectionTable(BATCH_ROWS);
+            pendingTracks = new int[BATCH_ROWS];
+            lastBatch = writer.submit(() -> insertBatch(batch, batchTracks));
+        }
+
+        private void insertBatch(DetectionTable batch, int[] trackIds) {
+            SQLiteDatabase db = getWritableDatabase();
+            if (insert == null) {
+                insert = db.compileStatement("INSERT INTO detections (run_id, track_no, frame, recorded_at, "
+                        + "x, y, area, x1, y1, x2, y2, size, risk, lat, lon) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+            }
+            byte[] sizes = batch.sizeClassColumn();
+            byte[] risks = batch.riskClassColumn();
+            long start = System.nanoTime();
+            db.beginTransaction();
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    insert.bindLong(1, runId);
+                    if (trackIds[i] > 0) {
+                        insert.bindLong(2, trackIds[i]);
+                    } else {
+                        insert.bindNull(2);
+                    }
+                    insert.bindLong(3, batch.frameIndex(i));
+                    insert.bindLong(4, startedAtMs + batch.timestampMs(i));
+                    insert.bindDouble(5, batch.centroidX(i));
+                    insert.bindDouble(6, batch.centroidY(i));
+                    insert.bindDouble(7, batch.area(i));
+                    insert.bindDouble(8, batch.x1(i));
+                    insert.bindDouble(9, batch.y1(i));
+                    insert.bindDouble(10, batch.x2(i));
+                    insert.bindDouble(11, batch.y2(i));
+                    insert.bindLong(12, sizes[i]);
+                    insert.bindLong(13, risks[i]);
+                    double[] location = gps != null ? gps.locate(batch.timestampMs(i)) : null;
+                    if (location != null) {
+                        insert.bindDouble(14, location[0]);
+                        insert.bindDouble(15, location[1]);
+                    } else {
+                        insert.bindNull(14);
+                        insert.bindNull(15);
+                    }
+                    insert.executeInsert();
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            Log.d(TAG, String.format("Run %d: %d detections stored in %.1f ms",
+                    runId, batch.size(), (System.nanoTime() - start) / 1e6));
+        }
+
+        // Stores the remaining detections, the finished tracks and the run totals
+        public void finish(String reportPath, ReportSummary summary, List<PotholeTracker.Track> tracks) {
+            submitPending();
+            List<PotholeTracker.Track> trackCopy = new ArrayList<>(tracks);
+            lastBatch = writer.submit(() -> {
+                SQLiteDatabase db = getWritableDatabase();
+                db.beginTransaction();
+                try {
+                    SQLiteStatement insertTrack = db.compileStatement("INSERT OR REPLACE INTO tracks "
+                            + "(run_id, track_no, first_frame, last_frame, hits, max_area, bump_peak) VALUES (?, ?, ?, ?, ?, ?, ?)");
+                    for (PotholeTracker.Track track : trackCopy) {
+                        insertTrack.bindLong(1, runId);
+                        insertTrack.bindLong(2, track.id);
+                        insertTrack.bindLong(3, track.firstFrame);
+                        insertTrack.bindLong(4, track.lastFrame);
+                        insertTrack.bindLong(5, track.hits);
+                        insertTrack.bindDouble(6, track.maxArea);
+                        if (track.bumpPeak > 0) {
+                            insertTrack.bindDouble(7, track.bumpPeak);
+                        } else {
+                            insertTrack.bindNull(7);
+                        }
+                        insertTrack.executeInsert();
+                    }
+                    insertTrack.close();
+
+                    ContentValues values = new ContentValues();
+                    values.put("report_path", reportPath);
+                    if (summary != null) {
+                        values.put("duration_sec", summary.durationSec);
+                        values.put("frames", summary.framesAnalyzed);
+                        values.put("potholes", summary.potholes);
+                        values.put("severity", summary.severity);
+                    }
+                    values.put("completed", 1);
+                    db.update("runs", values, "id = ?", new String[]{String.valueOf(runId)});
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
+            });
+            close();
+        }
+
+        // Waits for everything submitted so far; a run closed without finish() stays incomplete
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            submitPending();
+            writer.execute(() -> {
+                if (insert != null) {
+                    insert.close();
+                    insert = null;
+                }
+            });
+            if (lastBatch != null) {
+                try {
+                    lastBatch.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    Log.e(TAG, "Error storing run " + runId, e.getCause());
+                }
+            }
+        }
+    }
+
+    // A stored detection with its absolute time
+    public static class DetectionRecord {
+        public long runId;
+        public int trackNo;
+        public long recordedAt;
+        public float x;
+        public float y;
+        public float area;
+        public byte size;
+        public byte risk;
+        public Double lat;
+        public Double lon;
+    }
+
+    // Detection counts of one run inside a region
+    public static class SegmentTrend {
+        public long runId;
+        public long startedAt;
+        public int detections;
+        public int highRisk;
+        public double avgArea;
+    }
+
+    // Detections at or above a risk code within [fromMs, toMs), newest first
+    public List<DetectionRecord> findDetections(int minRisk, long fromMs, long toMs, int limit) {
+        List<DetectionRecord> records = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT run_id, track_no, recorded_at, x, y, area, size, risk, lat, lon FROM detections "
+                        + "WHERE risk >= ? AND recorded_at >= ? AND recorded_at < ? "
+                        + "ORDER BY recorded_at DESC LIMIT ?",
+                new String[]{String.valueOf(minRisk), String.valueOf(fromMs), String.valueOf(toMs),
+                        String.valueOf(limit)})) {
+            while (cursor.moveToNext()) {
+                DetectionRecord record = new DetectionRecord();
+                record.runId = cursor.getLong(0);
+                record.trackNo = cursor.isNull(1) ? 0 : cursor.getInt(1);
+                record.recordedAt = cursor.getLong(2);
+                record.x = cursor.getFloat(3);
+                record.y = cursor.getFloat(4);
+                record.area = cursor.getFloat(5);
+                record.size = (byte) cursor.getInt(6);
+                record.risk = (byte) cursor.getInt(7);
+                record.lat = cursor.isNull(8) ? null : cursor.getDouble(8);
+                record.lon = cursor.isNull(9) ? null : cursor.getDouble(9);
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    // Per-run detections inside a lat/lon box, oldest run first
+    public List<SegmentTrend> segmentTrend(double minLat, double minLon, double maxLat, double maxLon) {
+        List<SegmentTrend> trend = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT d.run_id, r.started_at, COUNT(*), SUM(d.risk = " + RiskClass.HIGH.code() + "), AVG(d.area) "
+                        + "FROM detections d JOIN runs r ON r.id = d.run_id "
+                        + "WHERE d.lat BETWEEN ? AND ? AND d.lon BETWEEN ? AND ? "
+                        + "GROUP BY d.run_id ORDER BY r.started_at",
+                new String[]{String.valueOf(minLat), String.valueOf(maxLat),
+                        String.valueOf(minLon), String.valueOf(maxLon)})) {
+            while (cursor.moveToNext()) {
+                SegmentTrend entry = new SegmentTrend();
+                entry.runId = cursor.getLong(0);
+                entry.startedAt = cursor.getLong(1);
+                entry.detections = cursor.getInt(2);
+                entry.highRisk = cursor.getInt(3);
+                entry.avgArea = cursor.getDouble(4);
+                trend.add(entry);
+            }
+        }
+        return trend;
+    }
+}
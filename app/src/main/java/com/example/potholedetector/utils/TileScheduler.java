@@ -0,0 +1,71 @@
+package com.example.potholedetector.utils;
+
+import org.opencv.core.Rect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plans the tiles for sliced inference.
+ *
+ * Only the far-field band of the road is tiled: the upper part of the road region, where
+ * potholes are a few pixels wide after the whole frame is shrunk to the model input. The
+ * band is covered by square tiles as tall as the band, overlapping horizontally so that
+ * a pothole cut by one seam is whole in the neighbouring tile.
+ */
+public class TileScheduler {
+
+    // Fraction of the road region height treated as far field
+    private float farFieldFraction = 0.35f;
+    private float overlap = 0.2f;
+    private int maxTiles = 4;
+
+    public void setFarFieldFraction(float farFieldFraction) {
+        this.farFieldFraction = farFieldFraction;
+    }
+
+    public void setOverlap(float overlap) {
+        this.overlap = overlap;
+    }
+
+    public void setMaxTiles(int maxTiles) {
+        this.maxTiles = maxTiles;
+    }
+
+    public List<Rect> schedule(Rect roadRegion) {
+        List<Rect> tiles = new ArrayList<>();
+        int bandHeight = Math.round(roadRegion.height * farFieldFraction);
+        if (bandHeight < 8 || roadRegion.width < bandHeight) {
+            return tiles;
+        }
+
+        // Fit tiles across the band, growing them if the cap would leave gaps
+        int tileSize = bandHeight;
+        int count = tileCount(roadRegion.width, tileSize);
+        while (count > maxTiles) {
+            tileSize = Math.min(roadRegion.width, Math.round(tileSize * 1.25f));
+            count = tileCount(roadRegion.width, tileSize);
+        }
+
+        int tileHeight = Math.min(tileSize, roadRegion.height);
+        float step = count > 1 ? (float) (roadRegion.width - tileSize) / (count - 1) : 0;
+        for (int i = 0; i < count; i++) {
+            int x = roadRegion.x + Math.round(i * step);
+            tiles.add(new Rect(x, roadRegion.y, tileSize, tileHeight));
+        }
+        return tiles;
+    }
+
+    private int tileCount(int width, int tileSize) {
+        if (tileSize >= width) {
+            return 1;
+        }
+        float stride = tileSize * (1 - overlap);
+        return 1 + (int) Math.ceil((width - tileSize) / stride);
+    }
+
+    // Tiling multiplies forward passes, only worth it on high-end devices
+    public static boolean isRecommended(int cpuCores, boolean lowRamDevice, int memoryClassMb) {
+        return !lowRamDevice && cpuCores >= 8 && memoryClassMb >= 256;
+    }
+}
@@ -1,10 +1,13 @@
 package org.opencv.android;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import android.annotation.TargetApi;
 import android.content.Context;
+import android.graphics.ImageFormat;
 import android.graphics.SurfaceTexture;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCaptureSession;
@@ -13,6 +16,8 @@ import android.hardware.camera2.CameraDevice;
 import android.hardware.camera2.CameraManager;
 import android.hardware.camera2.CaptureRequest;
 import android.hardware.camera2.params.StreamConfigurationMap;
+import android.media.Image;
+import android.media.ImageReader;
 import android.os.Handler;
 import android.os.HandlerThread;
 import android.util.Log;
@@ -28,6 +33,9 @@ public class Camera2Renderer extends CameraGLRendererBase {
     private CaptureRequest.Builder mPreviewRequestBuilder;
     private String mCameraID;
     private Size mPreviewSize = new Size(-1, -1);
+    // YUV frames for CameraAnalysisListener; one held by the listener, one being filled, one spare
+    private static final int ANALYSIS_MAX_IMAGES = 3;
+    private ImageReader mAnalysisReader;
 
     private HandlerThread mBackgroundThread;
     private Handler mBackgroundHandler;
@@ -152,6 +160,7 @@ public class Camera2Renderer extends CameraGLRendererBase {
                 mCameraDevice.close();
                 mCameraDevice = null;
             }
+            closeAnalysisReader();
         } catch (InterruptedException e) {
             throw new RuntimeException("Interrupted while trying to lock camera closing.", e);
         } finally {
@@ -213,8 +222,29 @@ public class Camera2Renderer extends CameraGLRendererBase {
             mPreviewRequestBuilder = mCameraDevice
                     .createCaptureRequest(CameraDevice.TEMPLATE_PREVIEW);
             mPreviewRequestBuilder.addTarget(surface);
+            List<Surface> outputs = new ArrayList<Surface>(Arrays.asList(surface));
 
-            mCameraDevice.createCaptureSession(Arrays.asList(surface),
+            closeAnalysisReader();
+            final CameraGLSurfaceView.CameraAnalysisListener analysisListener = mView.getCameraAnalysisListener();
+            if (analysisListener != null) {
+                if (isYuvSizeSupported(w, h)) {
+                    mAnalysisReader = ImageReader.newInstance(w, h, ImageFormat.YUV_420_888, ANALYSIS_MAX_IMAGES);
+                    mAnalysisReader.setOnImageAvailableListener(new ImageReader.OnImageAvailableListener() {
+                        @Override
+                        public void onImageAvailable(ImageReader reader) {
+                            Image image = reader.acquireLatestImage();
+                            if (image != null)
+                                analysisListener.onAnalysisImage(image);
+                        }
+                    }, mBackgroundHandler);
+                    mPreviewRequestBuilder.addTarget(mAnalysisReader.getSurface());
+                    outputs.add(mAnalysisReader.getSurface());
+                } else {
+                    Log.e(LOGTAG, "createCameraPreviewSession: no YUV analysis stream at "+w+"x"+h);
+                }
+            }
+
+            mCameraDevice.createCaptureSession(outputs,
                     new CameraCaptureSession.StateCallback() {
                         @Override
                         public void onConfigured( CameraCaptureSession cameraCaptureSession) {
@@ -249,6 +279,28 @@ public class Camera2Renderer extends CameraGLRendererBase {
         }
     }
 
+    private boolean isYuvSizeSupported(int width, int height) {
+        CameraManager manager = (CameraManager) mView.getContext().getSystemService(Context.CAMERA_SERVICE);
+        try {
+            StreamConfigurationMap map = manager.getCameraCharacteristics(mCameraID)
+                    .get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
+            for (Size size : map.getOutputSizes(ImageFormat.YUV_420_888)) {
+                if (size.getWidth() == width && size.getHeight() == height)
+                    return true;
+            }
+        } catch (CameraAccessException e) {
+            Log.e(LOGTAG, "isYuvSizeSupported - Camera Access Exception");
+        }
+        return false;
+    }
+
+    private void closeAnalysisReader() {
+        if (null != mAnalysisReader) {
+            mAnalysisReader.close();
+            mAnalysisReader = null;
+        }
+    }
+
     private void startBackgroundThread() {
         Log.i(LOGTAG, "startBackgroundThread");
         stopBackgroundThread();
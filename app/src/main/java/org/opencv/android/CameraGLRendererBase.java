@@ -7,6 +7,7 @@ import java.nio.FloatBuffer;
 import javax.microedition.khronos.egl.EGLConfig;
 import javax.microedition.khronos.opengles.GL10;
 
+import org.opencv.android.CameraGLSurfaceView.CameraOverlayListener;
 import org.opencv.android.CameraGLSurfaceView.CameraTextureListener;
 
 import android.annotation.TargetApi;
@@ -142,6 +143,14 @@ public abstract class CameraGLRendererBase implements GLSurfaceView.Renderer, Su
                 // texCamera(OES) -> screen
                 drawTex(texCamera[0], true, 0);
             }
+
+            CameraOverlayListener overlayListener = mView.getCameraOverlayListener();
+            if(overlayListener != null) {
+                // user geometry on top of the frame, on the screen framebuffer
+                setAttribArraysEnabled(false);
+                overlayListener.onDrawOverlay(mView.getWidth(), mView.getHeight());
+                setAttribArraysEnabled(true);
+            }
             //Log.i(LOGTAG, "onDrawFrame end");
         }
     }
@@ -158,6 +167,22 @@ public abstract class CameraGLRendererBase implements GLSurfaceView.Renderer, Su
     public void onSurfaceCreated(GL10 gl, EGLConfig config) {
         Log.i(LOGTAG, "onSurfaceCreated");
         initShaders();
+        CameraOverlayListener overlayListener = mView.getCameraOverlayListener();
+        if(overlayListener != null) overlayListener.onOverlaySurfaceCreated();
+    }
+
+    private void setAttribArraysEnabled(boolean enabled) {
+        if(enabled) {
+            GLES20.glEnableVertexAttribArray(vPosOES);
+            GLES20.glEnableVertexAttribArray(vTCOES);
+            GLES20.glEnableVertexAttribArray(vPos2D);
+            GLES20.glEnableVertexAttribArray(vTC2D);
+        } else {
+            GLES20.glDisableVertexAttribArray(vPosOES);
+            GLES20.glDisableVertexAttribArray(vTCOES);
+            GLES20.glDisableVertexAttribArray(vPos2D);
+            GLES20.glDisableVertexAttribArray(vTC2D);
+        }
     }
 
     private void initShaders() {
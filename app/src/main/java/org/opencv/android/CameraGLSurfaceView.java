@@ -4,6 +4,7 @@ import org.opencv.R;
 
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.media.Image;
 import android.opengl.GLSurfaceView;
 import android.util.AttributeSet;
 import android.util.Log;
@@ -39,7 +40,37 @@ public class CameraGLSurfaceView extends GLSurfaceView {
         public boolean onCameraTexture(int texIn, int texOut, int width, int height);
     };
 
+    public interface CameraOverlayListener {
+        /**
+         * This method is invoked on the GL thread when a new GL context has been created.
+         * Programs and buffers made in an earlier context are gone and must be created again.
+         */
+        public void onOverlaySurfaceCreated();
+
+        /**
+         * This method is invoked on the GL thread after the camera frame has been drawn to the screen,
+         * with the screen framebuffer bound. The renderer's vertex attribute arrays are disabled during
+         * the call; the listener must disable the arrays it enables before returning.
+         * @param viewWidth -  the width of the view
+         * @param viewHeight - the height of the view
+         */
+        public void onDrawOverlay(int viewWidth, int viewHeight);
+    };
+
+    public interface CameraAnalysisListener {
+        /**
+         * This method is invoked on the camera thread with the latest frame of the analysis stream,
+         * a YUV_420_888 stream captured alongside the preview at the same size.
+         * The listener owns the image and must close it; at most one image may be kept open
+         * after the call returns. Images still open when the camera closes become invalid.
+         * @param image - the frame, in sensor orientation
+         */
+        public void onAnalysisImage(Image image);
+    };
+
     private CameraTextureListener mTexListener;
+    private CameraOverlayListener mOverlayListener;
+    private CameraAnalysisListener mAnalysisListener;
     private CameraGLRendererBase mRenderer;
 
     public CameraGLSurfaceView(Context context, AttributeSet attrs) {
@@ -71,6 +102,27 @@ public class CameraGLSurfaceView extends GLSurfaceView {
         return mTexListener;
     }
 
+    public void setCameraOverlayListener(CameraOverlayListener overlayListener)
+    {
+        mOverlayListener = overlayListener;
+    }
+
+    public CameraOverlayListener getCameraOverlayListener()
+    {
+        return mOverlayListener;
+    }
+
+    // Takes effect when the camera session is next created, set it before enableView()
+    public void setCameraAnalysisListener(CameraAnalysisListener analysisListener)
+    {
+        mAnalysisListener = analysisListener;
+    }
+
+    public CameraAnalysisListener getCameraAnalysisListener()
+    {
+        return mAnalysisListener;
+    }
+
     public void setCameraIndex(int cameraIndex) {
         mRenderer.setCameraIndex(cameraIndex);
     }
@@ -48,6 +48,10 @@ public class JavaCamera2View extends CameraBridgeViewBase {
     protected int mRequestTemplate = CameraDevice.TEMPLATE_PREVIEW;
     private int mFrameRotation;
 
+    // Scratch for planar chroma frames, reused while the frame size stays the same
+    private byte[] mYuvBytes;
+    private Mat mYuvMat;
+
     protected CameraDevice mCameraDevice;
     protected CameraCaptureSession mCaptureSession;
     protected CaptureRequest.Builder mPreviewRequestBuilder;
@@ -249,6 +253,11 @@ public class JavaCamera2View extends CameraBridgeViewBase {
                 mImageReader.close();
                 mImageReader = null;
             }
+            if (null != mYuvMat) {
+                mYuvMat.release();
+                mYuvMat = null;
+                mYuvBytes = null;
+            }
         }
         Log.i(LOGTAG, "camera closed!");
     }
@@ -391,7 +400,13 @@ public class JavaCamera2View extends CameraBridgeViewBase {
                 }
                 return mRgba;
             } else { // Chroma channels are not interleaved
-                byte[] yuv_bytes = new byte[w*(h+h/2)];
+                if (mYuvBytes == null || mYuvBytes.length != w*(h+h/2)) {
+                    mYuvBytes = new byte[w*(h+h/2)];
+                    if (mYuvMat != null)
+                        mYuvMat.release();
+                    mYuvMat = new Mat(h+h/2, w, CvType.CV_8UC1);
+                }
+                byte[] yuv_bytes = mYuvBytes;
                 ByteBuffer y_plane = planes[0].getBuffer();
                 ByteBuffer u_plane = planes[1].getBuffer();
                 ByteBuffer v_plane = planes[2].getBuffer();
@@ -441,9 +456,8 @@ public class JavaCamera2View extends CameraBridgeViewBase {
                     }
                 }
 
-                Mat yuv_mat = new Mat(h+h/2, w, CvType.CV_8UC1);
-                yuv_mat.put(0, 0, yuv_bytes);
-                Imgproc.cvtColor(yuv_mat, mRgba, Imgproc.COLOR_YUV2RGBA_I420, 4);
+                mYuvMat.put(0, 0, yuv_bytes);
+                Imgproc.cvtColor(mYuvMat, mRgba, Imgproc.COLOR_YUV2RGBA_I420, 4);
                 return mRgba;
             }
         }
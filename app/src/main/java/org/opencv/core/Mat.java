@@ -1604,6 +1604,25 @@ public class Mat {
         return nativeObj;
     }
 
+    // Element Mats of a vector_Mat by native address, for the MatOf* readers that skip the Java wrapper
+    static long nativeTotal(long addr) {
+        return n_total(addr);
+    }
+
+    // Copies from the first element into data, at most data.length values; 0 if the depth isn't CV_32S
+    static int nativeGet(long addr, int[] data) {
+        return nGetI(addr, 0, 0, data.length, data);
+    }
+
+    // Same for CV_32F
+    static int nativeGet(long addr, float[] data) {
+        return nGetF(addr, 0, 0, data.length, data);
+    }
+
+    static void nativeDelete(long addr) {
+        n_delete(addr);
+    }
+
     // C++: Mat::Mat()
     private static native long n_Mat();
 
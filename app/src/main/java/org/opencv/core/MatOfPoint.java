@@ -66,6 +66,40 @@ public class MatOfPoint extends Mat {
         return ap;
     }
 
+    // The first count x, y pairs of xy, without a Point per vertex
+    public void fromArray(int[] xy, int count) {
+        if(xy==null || count<=0)
+            return;
+        if(xy.length < count * _channels)
+            throw new IllegalArgumentException("Buffer holds fewer than " + count + " points");
+        alloc(count);
+        put(0, 0, xy); // copies the first count points only
+    }
+
+    // Points as x, y pairs from the start of xy, without a Point per vertex; returns the point count
+    public int toArray(int[] xy) {
+        int num = (int) total();
+        if(xy.length < num * _channels)
+            throw new IllegalArgumentException("Buffer can't hold " + num + " points");
+        if(num > 0)
+            get(0, 0, xy);
+        return num;
+    }
+
+    // A vector_Point Mat by native address, e.g. an element of a vector_vector_Point Mat,
+    // read without a MatOfPoint wrapper; the address must then be freed with deleteNative
+    public static int totalNative(long addr) {
+        return (int) nativeTotal(addr);
+    }
+
+    public static void toArrayNative(long addr, int[] xy) {
+        nativeGet(addr, xy);
+    }
+
+    public static void deleteNative(long addr) {
+        nativeDelete(addr);
+    }
+
     public void fromList(List<Point> lp) {
         Point ap[] = lp.toArray(new Point[0]);
         fromArray(ap);
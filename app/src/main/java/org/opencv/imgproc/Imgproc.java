@@ -7834,6 +7834,22 @@ public class Imgproc {
         contours_mat.release();
     }
 
+    /**
+     * Finds contours in a binary image, leaving them native.
+     *
+     * contours receives the vector_vector_Point as is, so no MatOfPoint is made per contour; read it
+     * with Converters.Mat_to_vector_vector_Point(Mat, int[], int[]), which also frees the contours.
+     *
+     * @param image Source, an 8-bit single-channel image.
+     * @param contours Detected contours, as a vector_vector_Point Mat.
+     * @param hierarchy Optional output vector, see findContours(Mat, List, Mat, int, int).
+     * @param mode Contour retrieval mode, see #RetrievalModes
+     * @param method Contour approximation method, see #ContourApproximationModes
+     */
+    public static void findContours(Mat image, Mat contours, Mat hierarchy, int mode, int method) {
+        findContours_1(image.nativeObj, contours.nativeObj, hierarchy.nativeObj, mode, method);
+    }
+
 
     //
     // C++:  void cv::findContoursLinkRuns(Mat image, vector_Mat& contours, Mat& hierarchy)
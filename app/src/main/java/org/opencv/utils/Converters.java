@@ -544,6 +544,75 @@ public class Converters {
         mats.clear();
     }
 
+    /**
+     * vector_vector_Point into one flat buffer, without a MatOfPoint per contour or a Point per
+     * vertex: contour i is the x, y pairs from points[2 * offsets[i]] up to points[2 * offsets[i + 1]].
+     * Returns the contour count and releases m, whose contours are freed. Returns -1 and leaves m
+     * untouched when points or offsets are too small, and leaves it untouched if reading throws;
+     * see vector_vector_Point_total and release_vector_vector_Point.
+     */
+    public static int Mat_to_vector_vector_Point(Mat m, int[] points, int[] offsets) {
+        if (points == null || offsets == null)
+            throw new IllegalArgumentException("Output buffers can't be null");
+        long[] addrs = contourAddresses(m);
+        int count = addrs.length;
+        if (offsets.length < count + 1)
+            return -1;
+        offsets[0] = 0;
+        for (int i = 0; i < count; i++)
+            offsets[i + 1] = offsets[i] + MatOfPoint.totalNative(addrs[i]);
+        if (points.length < offsets[count] * 2)
+            return -1;
+
+        // Each contour is copied to the start of points, so they are read last to first and moved into
+        // place: a contour's slot begins at or after the end of every contour read after it
+        for (int i = count - 1; i >= 0; i--) {
+            int n = offsets[i + 1] - offsets[i];
+            if (n > 0) {
+                MatOfPoint.toArrayNative(addrs[i], points);
+                System.arraycopy(points, 0, points, offsets[i] * 2, n * 2);
+            }
+        }
+        // Only freed once all are read, so a failed read leaves every contour to the caller
+        for (long addr : addrs)
+            MatOfPoint.deleteNative(addr);
+        m.release();
+        return count;
+    }
+
+    // Frees the contours of a vector_vector_Point Mat without reading them and releases m;
+    // does nothing for a Mat the flat conversion already released
+    public static void release_vector_vector_Point(Mat m) {
+        for (long addr : contourAddresses(m))
+            MatOfPoint.deleteNative(addr);
+        m.release();
+    }
+
+    // Number of points in all contours of a vector_vector_Point (or Point2f) Mat
+    public static int vector_vector_Point_total(Mat m) {
+        int total = 0;
+        for (long addr : contourAddresses(m))
+            total += MatOfPoint.totalNative(addr);
+        return total;
+    }
+
+    private static long[] contourAddresses(Mat m) {
+        if (m == null)
+            throw new IllegalArgumentException("Input Mat can't be null");
+        int count = m.rows();
+        if (count == 0)
+            return new long[0];
+        if (CvType.CV_32SC2 != m.type() || m.cols() != 1)
+            throw new IllegalArgumentException(
+                    "CvType.CV_32SC2 != m.type() ||  m.cols()!=1\n" + m);
+        int[] buff = new int[count * 2];
+        m.get(0, 0, buff);
+        long[] addrs = new long[count];
+        for (int i = 0; i < count; i++)
+            addrs[i] = (((long) buff[i * 2]) << 32) | (((long) buff[i * 2 + 1]) & 0xffffffffL);
+        return addrs;
+    }
+
     // vector_vector_Point2f
     public static void Mat_to_vector_vector_Point2f(Mat m, List<MatOfPoint2f> pts) {
         if (pts == null)
@@ -562,6 +631,32 @@ public class Converters {
         mats.clear();
     }
 
+    // vector_vector_Point2f into one flat buffer, laid out like Mat_to_vector_vector_Point(Mat, int[], int[])
+    public static int Mat_to_vector_vector_Point2f(Mat m, float[] points, int[] offsets) {
+        if (points == null || offsets == null)
+            throw new IllegalArgumentException("Output buffers can't be null");
+        long[] addrs = contourAddresses(m);
+        int count = addrs.length;
+        if (offsets.length < count + 1)
+            return -1;
+        offsets[0] = 0;
+        for (int i = 0; i < count; i++)
+            offsets[i + 1] = offsets[i] + MatOfPoint2f.totalNative(addrs[i]);
+        if (points.length < offsets[count] * 2)
+            return -1;
+
+        for (int i = count - 1; i >= 0; i--) {
+            int n = offsets[i + 1] - offsets[i];
+            if (n > 0) {
+                MatOfPoint2f.toArrayNative(addrs[i], points);
+                System.arraycopy(points, 0, points, offsets[i] * 2, n * 2);
+            }
+            MatOfPoint2f.deleteNative(addrs[i]);
+        }
+        m.release();
+        return count;
+    }
+
     // vector_vector_Point2f
     public static Mat vector_vector_Point2f_to_Mat(List<MatOfPoint2f> pts, List<Mat> mats) {
         Mat res;
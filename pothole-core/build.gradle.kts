@@ -0,0 +1,27 @@
+// Android-free pipeline logic: detection model, classification, tracking, reports.
+// Plain Java so it runs under JUnit and JMH on any JVM.
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
+
+// Benchmarks live in src/jmh/java, run with ./gradlew :pothole-core:jmh
+// A subset: ./gradlew :pothole-core:jmh -PjmhIncludes=Nms
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    fork.set(1)
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.set(listOf(it)) }
+
+    // Machine-readable results; keep one per commit to compare runs
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+}
@@ -0,0 +1,88 @@
+package com.example.potholedetector.core;
+
+import java.util.Random;
+
+/**
+ * Seeded synthetic inputs shared by the benchmarks.
+ *
+ * Potholes are placed on the display frame (1020x500) the way a drive produces them:
+ * most are spread over the road in the lower part of the frame, about a third sit in
+ * tight clusters (damaged stretches), and areas are log-normal like real detections.
+ */
+final class BenchmarkData {
+
+    static final int FRAME_WIDTH = 1020;
+    static final int FRAME_HEIGHT = 500;
+
+    static final long SEED = 42;
+
+    private static final double MEDIAN_AREA = 4000;
+    private static final double AREA_SIGMA = 0.8;
+    private static final double CLUSTERED_FRACTION = 0.3;
+    private static final double CLUSTER_SIGMA = 20;
+
+    private BenchmarkData() {
+    }
+
+    static double[] areas(Random random, int count) {
+        double[] areas = new double[count];
+        for (int i = 0; i < count; i++) {
+            areas[i] = MEDIAN_AREA * Math.exp(AREA_SIGMA * random.nextGaussian());
+        }
+        return areas;
+    }
+
+    static Point2D[] centroids(Random random, int count) {
+        int clusters = Math.max(1, count / 200);
+        Point2D[] centers = new Point2D[clusters];
+        for (int i = 0; i < clusters; i++) {
+            centers[i] = roadPoint(random);
+        }
+
+        Point2D[] points = new Point2D[count];
+        for (int i = 0; i < count; i++) {
+            if (random.nextDouble() < CLUSTERED_FRACTION) {
+                Point2D c = centers[random.nextInt(clusters)];
+                points[i] = new Point2D(
+                        clamp(c.x + CLUSTER_SIGMA * random.nextGaussian(), FRAME_WIDTH),
+                        clamp(c.y + CLUSTER_SIGMA * random.nextGaussian(), FRAME_HEIGHT));
+            } else {
+                points[i] = roadPoint(random);
+            }
+        }
+        return points;
+    }
+
+    // Classified potholes, as collected over a run at a few detections per frame
+    static DetectionTable potholes(int count) {
+        Random random = new Random(SEED);
+        double[] areas = areas(random, count);
+        Point2D[] centroids = centroids(random, count);
+        PotholeClassifier classifier = new PotholeClassifier();
+
+        DetectionTable potholes = new DetectionTable(count);
+        for (int i = 0; i < count; i++) {
+            float cx = (float) centroids[i].x;
+            float cy = (float) centroids[i].y;
+            float half = (float) Math.sqrt(areas[i]) / 2;
+            int frame = i / 3;
+            potholes.add(frame, frame * 100, cx, cy, (float) areas[i], cx - half, cy - half, cx + half, cy + half,
+                    SizeClass.SMALL.code(), RiskClass.LOW.code());
+        }
+        classifier.classify(potholes, FRAME_HEIGHT);
+        return potholes;
+    }
+
+    // Lower 60% of the frame, narrowing towards the horizon
+    private static Point2D roadPoint(Random random) {
+        double v = random.nextDouble();
+        double y = FRAME_HEIGHT * (0.4 + 0.6 * v);
+        double halfWidth = FRAME_WIDTH * (0.15 + 0.35 * v);
+        double x = FRAME_WIDTH / 2.0 + (2 * random.nextDouble() - 1) * halfWidth;
+        return new Point2D(x, y);
+    }
+
+    private static double clamp(double value, double max) {
+        return Math.max(0, Math.min(max - 1, value));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.potholedetector.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size and risk classification, per pothole.
+ *
+ * {@code legacyStrings} is the old per-object path (String categories compared with
+ * equals, a String result switched on by the caller) kept here as the baseline;
+ * {@code perObject} is the byte-coded classifier called row by row and {@code column} the
+ * same classifier over whole columns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ClassificationBenchmark {
+
+    private static final int COUNT = 4096;
+
+    private final PotholeClassifier classifier = new PotholeClassifier();
+    private float[] areas;
+    private float[] centroidYs;
+    private Point2D[] centroids;
+    private final byte[] sizes = new byte[COUNT];
+    private final byte[] risks = new byte[COUNT];
+
+    @Setup
+    public void setup() {
+        Random random = new Random(BenchmarkData.SEED);
+        double[] sampledAreas = BenchmarkData.areas(random, COUNT);
+        centroids = BenchmarkData.centroids(random, COUNT);
+        areas = new float[COUNT];
+        centroidYs = new float[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            areas[i] = (float) sampledAreas[i];
+            centroidYs[i] = (float) centroids[i].y;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void legacyStrings(Blackhole bh) {
+        for (int i = 0; i < COUNT; i++) {
+            String size = legacySize(areas[i]);
+            String risk = legacyRisk(size, centroids[i], BenchmarkData.FRAME_HEIGHT);
+            // The caller turned the label back into a number to count and sort
+            bh.consume(legacyRiskValue(risk));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void perObject(Blackhole bh) {
+        for (int i = 0; i < COUNT; i++) {
+            byte size = classifier.classifySize(areas[i]);
+            bh.consume(classifier.classifyRisk(size, centroidYs[i], BenchmarkData.FRAME_HEIGHT));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public byte[] column() {
+        classifier.classify(areas, centroidYs, COUNT, BenchmarkData.FRAME_HEIGHT, sizes, risks);
+        return risks;
+    }
+
+    private static String legacySize(double area) {
+        if (area < 5000) {
+            return "Small";
+        } else if (area > 15000) {
+            return "Large";
+        } else {
+            return "Medium";
+        }
+    }
+
+    private static String legacyRisk(String sizeCategory, Point2D position, int frameHeight) {
+        double roadCenter = frameHeight / 2.0;
+        double centerFactor = 1 - (Math.abs(position.y - roadCenter) / roadCenter);
+
+        double riskBase;
+        if (sizeCategory.equals("Large")) {
+            riskBase = 2;
+        } else if (sizeCategory.equals("Medium")) {
+            riskBase = 1;
+        } else {
+            riskBase = 0;
+        }
+
+        double riskAdjusted = riskBase + centerFactor;
+        if (riskAdjusted >= 2) {
+            return "High";
+        } else if (riskAdjusted >= 1) {
+            return "Medium";
+        } else {
+            return "Low";
+        }
+    }
+
+    private static int legacyRiskValue(String risk) {
+        switch (risk) {
+            case "High": return 2;
+            case "Medium": return 1;
+            case "Low": return 0;
+            default: return -1;
+        }
+    }
+}
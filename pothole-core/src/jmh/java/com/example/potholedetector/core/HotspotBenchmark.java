@@ -0,0 +1,44 @@
+package com.example.potholedetector.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hotspot search over all potholes of a run. Quadratic today, so the large sizes get few
+ * iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class HotspotBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int potholeCount;
+
+    private final ReportGenerator generator = new ReportGenerator();
+    private DetectionTable potholes;
+
+    @Setup
+    public void setup() {
+        potholes = BenchmarkData.potholes(potholeCount);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> findHotspots() {
+        return generator.findHotspots(potholes);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.potholedetector.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding one detection's mask from the 32 x 160 x 160 prototypes of YOLOv8-seg, for
+ * boxes from a distant pothole up to the whole prototype grid.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MaskDecoderBenchmark {
+
+    private static final int MASK_DIM = YoloDecoder.SEG_MASK_DIM;
+    private static final int PROTO_SIZE = 160;
+
+    // Box side in prototype cells
+    @Param({"16", "64", "160"})
+    public int boxSize;
+
+    private float[] protos;
+    private float[] coefficients;
+    private byte[] mask;
+    private int x0;
+    private int y0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(BenchmarkData.SEED);
+        protos = new float[MASK_DIM * PROTO_SIZE * PROTO_SIZE];
+        for (int i = 0; i < protos.length; i++) {
+            protos[i] = (float) random.nextGaussian();
+        }
+        coefficients = new float[MASK_DIM];
+        for (int k = 0; k < MASK_DIM; k++) {
+            coefficients[k] = (float) random.nextGaussian();
+        }
+        mask = new byte[boxSize * boxSize];
+        x0 = (PROTO_SIZE - boxSize) / 2;
+        y0 = PROTO_SIZE - boxSize;
+    }
+
+    @Benchmark
+    public int decode() {
+        return MaskDecoder.decode(protos, MASK_DIM, PROTO_SIZE, PROTO_SIZE, coefficients,
+                x0, y0, x0 + boxSize, y0 + boxSize, mask);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.potholedetector.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-maximum suppression over raw head candidates. Like real YOLO output, every pothole
+ * is hit by a cluster of overlapping anchors and the rest is low-score background noise;
+ * 8400 is the candidate count of a 640 input with nothing filtered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class NmsBenchmark {
+
+    private static final int CANDIDATES_PER_OBJECT = 20;
+    private static final int INPUT_SIZE = 640;
+
+    @Param({"100", "1000", "8400"})
+    public int candidateCount;
+
+    private List<Detection> candidates;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(BenchmarkData.SEED);
+        candidates = new ArrayList<>(candidateCount);
+        int objects = Math.max(1, candidateCount / (4 * CANDIDATES_PER_OBJECT));
+
+        // A quarter of the candidates are anchors around real objects
+        for (int o = 0; o < objects; o++) {
+            float size = (float) (10 + 80 * random.nextDouble());
+            float cx = (float) (random.nextDouble() * INPUT_SIZE);
+            float cy = (float) (INPUT_SIZE * (0.4 + 0.6 * random.nextDouble()));
+            for (int k = 0; k < CANDIDATES_PER_OBJECT; k++) {
+                float jx = (float) (random.nextGaussian() * size * 0.1);
+                float jy = (float) (random.nextGaussian() * size * 0.1);
+                float half = (float) (size * (0.45 + 0.1 * random.nextDouble()));
+                float score = (float) (0.3 + 0.65 * random.nextDouble());
+                candidates.add(new Detection(cx + jx - half, cy + jy - half, cx + jx + half, cy + jy + half, score, 0));
+            }
+        }
+        // Background noise
+        while (candidates.size() < candidateCount) {
+            float size = (float) (5 + 40 * random.nextDouble());
+            float x = (float) (random.nextDouble() * INPUT_SIZE);
+            float y = (float) (random.nextDouble() * INPUT_SIZE);
+            float score = (float) (0.25 + 0.2 * random.nextDouble());
+            candidates.add(new Detection(x, y, x + size, y + size, score, 0));
+        }
+    }
+
+    @Benchmark
+    public List<Detection> apply() {
+        return Nms.apply(candidates, 0.45f, 100);
+    }
+}
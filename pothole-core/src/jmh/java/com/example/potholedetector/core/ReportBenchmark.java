@@ -0,0 +1,67 @@
+package com.example.potholedetector.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing the full text report. The report includes the hotspot search, which dominates
+ * beyond 10k potholes; that part is measured on its own in {@link HotspotBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class ReportBenchmark {
+
+    @Param({"1000", "10000"})
+    public int potholeCount;
+
+    private DetectionTable potholes;
+    private Map<String, Integer> sizeCounts;
+    private Map<String, Integer> riskCounts;
+    private File reportFile;
+
+    @Setup
+    public void setup() throws IOException {
+        potholes = BenchmarkData.potholes(potholeCount);
+        sizeCounts = new HashMap<>();
+        riskCounts = new HashMap<>();
+        int[] sizes = potholes.sizeHistogram();
+        for (SizeClass size : SizeClass.values()) {
+            sizeCounts.put(size.label, sizes[size.code()]);
+        }
+        int[] risks = potholes.riskHistogram();
+        for (RiskClass risk : RiskClass.values()) {
+            riskCounts.put(risk.label, risks[risk.code()]);
+        }
+        reportFile = File.createTempFile("pothole_report", ".txt");
+    }
+
+    @TearDown
+    public void tearDown() {
+        reportFile.delete();
+        ReportSummary.fileFor(reportFile).delete();
+    }
+
+    @Benchmark
+    public boolean generateReport() {
+        return new ReportGenerator().generateReport(reportFile, "benchmark.mp4", 600, 18000,
+                sizeCounts, riskCounts, potholes);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.potholedetector.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Track association per frame, over a recorded synthetic drive. The spawn rate sets how
+ * crowded the road is: from a pothole every few seconds to dozens on screen at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TrackerBenchmark {
+
+    private static final int FRAMES = 900;
+
+    // New potholes per frame
+    @Param({"0.05", "0.5", "2"})
+    public double spawnRate;
+
+    private final List<List<Detection>> frames = new ArrayList<>(FRAMES);
+
+    @Setup
+    public void setup() {
+        SyntheticDetectionSource source = new SyntheticDetectionSource(BenchmarkData.SEED, 1280, 720, spawnRate);
+        // Skip the ramp-up so every frame has a steady number of potholes in view
+        for (int i = 0; i < 100; i++) {
+            source.next();
+        }
+        frames.clear();
+        for (int i = 0; i < FRAMES; i++) {
+            frames.add(source.next());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public int update() {
+        PotholeTracker tracker = new PotholeTracker();
+        for (int i = 0; i < FRAMES; i++) {
+            tracker.update(i, frames.get(i));
+        }
+        return tracker.getTrackCount();
+    }
+}
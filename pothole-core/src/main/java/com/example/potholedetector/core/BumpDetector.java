@@ -0,0 +1,172 @@
+package com.example.potholedetector.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds wheel impacts in a stream of accelerometer samples.
+ *
+ * Gravity is tracked with a slow low-pass of the acceleration vector, so the phone can
+ * be mounted at any angle; the vertical component is the projection on it. That signal
+ * is band-passed (two biquads, 2-20 Hz by default) to drop slow pitch and engine
+ * vibration, and a bump is a run of samples above the threshold, reported at its peak
+ * once the signal has stayed below for the refractory time. The sample rate is measured
+ * from the first samples, since sensor rates vary between phones.
+ */
+public class BumpDetector {
+
+    public static class BumpEvent {
+        public final long timestampMs;
+        // Peak band-passed vertical acceleration, m/s^2
+        public final float peak;
+
+        public BumpEvent(long timestampMs, float peak) {
+            this.timestampMs = timestampMs;
+            this.peak = peak;
+        }
+    }
+
+    private static final int RATE_SAMPLES = 32;
+    // Gravity low-pass time constant
+    private static final double GRAVITY_TAU_SEC = 1.0;
+
+    private float thresholdMs2 = 4.0f;
+    private long refractoryMs = 300;
+    private double lowCutHz = 2;
+    private double highCutHz = 20;
+
+    // Rate estimation
+    private int rateSamples;
+    private long firstTimeMs;
+    private boolean ready;
+
+    private double gravityAlpha;
+    private double gx;
+    private double gy;
+    private double gz;
+    private final Biquad highPass = new Biquad();
+    private final Biquad lowPass = new Biquad();
+
+    // Current bump, while the signal is above the threshold or within the refractory time
+    private boolean inBump;
+    private float peak;
+    private long peakTimeMs;
+    private long lastAboveMs;
+
+    private final List<BumpEvent> events = new ArrayList<>();
+
+    public void setThreshold(float thresholdMs2) {
+        this.thresholdMs2 = thresholdMs2;
+    }
+
+    public void setRefractoryMs(long refractoryMs) {
+        this.refractoryMs = refractoryMs;
+    }
+
+    public void setBand(double lowCutHz, double highCutHz) {
+        this.lowCutHz = lowCutHz;
+        this.highCutHz = highCutHz;
+    }
+
+    // One accelerometer sample, m/s^2 on the device axes
+    public void accept(long timeMs, float ax, float ay, float az) {
+        if (!ready) {
+            if (rateSamples == 0) {
+                firstTimeMs = timeMs;
+                gx = ax;
+                gy = ay;
+                gz = az;
+            }
+            if (++rateSamples < RATE_SAMPLES) {
+                trackGravity(ax, ay, az, 0.1);
+                return;
+            }
+            double sampleRate = 1000.0 * (rateSamples - 1) / Math.max(1, timeMs - firstTimeMs);
+            // Keep the band below Nyquist on slow sensors
+            double high = Math.min(highCutHz, sampleRate * 0.45);
+            gravityAlpha = 1 - Math.exp(-1 / (GRAVITY_TAU_SEC * sampleRate));
+            highPass.highPass(lowCutHz, sampleRate);
+            lowPass.lowPass(high, sampleRate);
+            ready = true;
+        }
+
+        trackGravity(ax, ay, az, gravityAlpha);
+        double norm = Math.sqrt(gx * gx + gy * gy + gz * gz);
+        if (norm < 1e-3) {
+            return;
+        }
+        double vertical = (ax * gx + ay * gy + az * gz) / norm - norm;
+        float filtered = (float) lowPass.filter(highPass.filter(vertical));
+        float magnitude = Math.abs(filtered);
+
+        if (magnitude >= thresholdMs2) {
+            if (!inBump || magnitude > peak) {
+                peak = magnitude;
+                peakTimeMs = timeMs;
+            }
+            inBump = true;
+            lastAboveMs = timeMs;
+        } else if (inBump && timeMs - lastAboveMs >= refractoryMs) {
+            events.add(new BumpEvent(peakTimeMs, peak));
+            inBump = false;
+        }
+    }
+
+    private void trackGravity(float ax, float ay, float az, double alpha) {
+        gx += alpha * (ax - gx);
+        gy += alpha * (ay - gy);
+        gz += alpha * (az - gz);
+    }
+
+    // Bumps found so far, in time order; a bump still in progress is closed first
+    public List<BumpEvent> finish() {
+        if (inBump) {
+            events.add(new BumpEvent(peakTimeMs, peak));
+            inBump = false;
+        }
+        return events;
+    }
+
+    public List<BumpEvent> getEvents() {
+        return events;
+    }
+
+    // Second-order section, RBJ cookbook coefficients, Q = 1/sqrt(2)
+    private static class Biquad {
+        private double b0, b1, b2, a1, a2;
+        private double x1, x2, y1, y2;
+
+        void lowPass(double cutoffHz, double sampleRate) {
+            double w = 2 * Math.PI * cutoffHz / sampleRate;
+            double alpha = Math.sin(w) / Math.sqrt(2);
+            double cos = Math.cos(w);
+            double a0 = 1 + alpha;
+            b0 = (1 - cos) / 2 / a0;
+            b1 = (1 - cos) / a0;
+            b2 = b0;
+            a1 = -2 * cos / a0;
+            a2 = (1 - alpha) / a0;
+        }
+
+        void highPass(double cutoffHz, double sampleRate) {
+            double w = 2 * Math.PI * cutoffHz / sampleRate;
+            double alpha = Math.sin(w) / Math.sqrt(2);
+            double cos = Math.cos(w);
+            double a0 = 1 + alpha;
+            b0 = (1 + cos) / 2 / a0;
+            b1 = -(1 + cos) / a0;
+            b2 = b0;
+            a1 = -2 * cos / a0;
+            a2 = (1 - alpha) / a0;
+        }
+
+        double filter(double x) {
+            double y = b0 * x + b1 * x1 + b2 * x2 - a1 * y1 - a2 * y2;
+            x2 = x1;
+            x1 = x;
+            y2 = y1;
+            y1 = y;
+            return y;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.potholedetector.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Matches wheel impacts to the visual tracks they confirm.
+ *
+ * A pothole leaves the bottom of the frame shortly before the wheel reaches it, so a
+ * bump belongs to the track that was last seen most recently before it, within
+ * {@code maxLeadMs}. Each track takes at most one bump (the strongest goes on its
+ * {@code bumpPeak}); bumps with no such track are potholes the camera missed, for example
+ * at night.
+ */
+public final class BumpFusion {
+
+    private BumpFusion() {
+    }
+
+    // Sets bumpPeak on matched tracks and returns the bumps no track explains
+    public static List<BumpDetector.BumpEvent> fuse(List<PotholeTracker.Track> tracks,
+                                                    List<BumpDetector.BumpEvent> bumps,
+                                                    long maxLeadMs) {
+        // Tracks by the time they were last seen, packed with their index
+        long[] keyed = new long[tracks.size()];
+        for (int i = 0; i < keyed.length; i++) {
+            keyed[i] = ((long) tracks.get(i).lastTimestampMs << 32) | i;
+        }
+        Arrays.sort(keyed);
+        boolean[] matched = new boolean[keyed.length];
+
+        List<BumpDetector.BumpEvent> unmatched = new ArrayList<>();
+        for (BumpDetector.BumpEvent bump : bumps) {
+            // Last track seen at or before the bump
+            int i = Arrays.binarySearch(keyed, (bump.timestampMs + 1) << 32);
+            i = (i < 0 ? -i - 1 : i) - 1;
+            while (i >= 0 && matched[i] && bump.timestampMs - (keyed[i] >> 32) <= maxLeadMs) {
+                i--;
+            }
+            if (i < 0 || bump.timestampMs - (keyed[i] >> 32) > maxLeadMs) {
+                unmatched.add(bump);
+                continue;
+            }
+            matched[i] = true;
+            PotholeTracker.Track track = tracks.get((int) keyed[i]);
+            track.bumpPeak = Math.max(track.bumpPeak, bump.peak);
+        }
+        return unmatched;
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.potholedetector.core;
+
+import java.util.Arrays;
+
+/**
+ * Contours stored flat, measured all at once.
+ *
+ * Points are x, y pairs in one int array and contour i spans the points from
+ * {@code offsetsColumn()[i]} up to {@code offsetsColumn()[i + 1]}, the layout OpenCV's
+ * flat contour converter fills. {@link #analyze} then computes area, centroid, bounding
+ * box and optionally perimeter of every contour in one pass, with the formulas of
+ * OpenCV's contourArea, moments, boundingRect and arcLength, so no native call or
+ * wrapper object is made per contour. Arrays grow by doubling and are kept across
+ * {@link #clear()}; only the first {@link #size()} entries are valid.
+ */
+public class ContourSet {
+
+    private int size;
+    private int[] points;
+    private int[] offsets;
+    // Points added since the last finished contour
+    private int openPoints;
+
+    private float[] area = new float[0];
+    private float[] centroidX = new float[0];
+    private float[] centroidY = new float[0];
+    private int[] boxX = new int[0];
+    private int[] boxY = new int[0];
+    private int[] boxWidth = new int[0];
+    private int[] boxHeight = new int[0];
+    private float[] perimeter = new float[0];
+
+    public ContourSet() {
+        this(16, 256);
+    }
+
+    public ContourSet(int contours, int totalPoints) {
+        points = new int[Math.max(2, totalPoints * 2)];
+        offsets = new int[Math.max(1, contours) + 1];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+        openPoints = 0;
+    }
+
+    // Room for this many contours and points in total, before filling the columns directly
+    public void ensureCapacity(int contours, int totalPoints) {
+        if (offsets.length < contours + 1) {
+            offsets = Arrays.copyOf(offsets, Math.max(contours + 1, offsets.length * 2));
+        }
+        if (points.length < totalPoints * 2) {
+            points = Arrays.copyOf(points, Math.max(totalPoints * 2, points.length * 2));
+        }
+    }
+
+    // After the point and offset columns were filled directly with this many contours
+    public void setSize(int contours) {
+        size = contours;
+        openPoints = 0;
+    }
+
+    public void addPoint(int x, int y) {
+        int start = offsets[size];
+        ensureCapacity(size + 1, start + openPoints + 1);
+        points[(start + openPoints) * 2] = x;
+        points[(start + openPoints) * 2 + 1] = y;
+        openPoints++;
+    }
+
+    // Finishes the contour made of the points added since the last one and returns its index
+    public int endContour() {
+        ensureCapacity(size + 1, offsets[size] + openPoints);
+        offsets[size + 1] = offsets[size] + openPoints;
+        openPoints = 0;
+        return size++;
+    }
+
+    public int[] pointsColumn() {
+        return points;
+    }
+
+    public int[] offsetsColumn() {
+        return offsets;
+    }
+
+    public int pointCount(int i) {
+        return offsets[i + 1] - offsets[i];
+    }
+
+    // Copies the x, y pairs of a contour to the start of xy, which must hold them; returns the point count
+    public int copyPoints(int i, int[] xy) {
+        int n = pointCount(i);
+        System.arraycopy(points, offsets[i] * 2, xy, 0, n * 2);
+        return n;
+    }
+
+    /**
+     * Measures every contour. Areas are unsigned, as contourArea; the centroid is m10/m00,
+     * m01/m00 of the polygon moments, or the box centre for a degenerate contour. The
+     * perimeter, of the closed contour, is only computed when asked for.
+     */
+    public void analyze(boolean withPerimeter) {
+        if (area.length < size) {
+            int capacity = Math.max(size, area.length * 2);
+            area = new float[capacity];
+            centroidX = new float[capacity];
+            centroidY = new float[capacity];
+            boxX = new int[capacity];
+            boxY = new int[capacity];
+            boxWidth = new int[capacity];
+            boxHeight = new int[capacity];
+        }
+        if (withPerimeter && perimeter.length < size) {
+            perimeter = new float[area.length];
+        }
+
+        for (int c = 0; c < size; c++) {
+            int from = offsets[c] * 2;
+            int to = offsets[c + 1] * 2;
+            if (from == to) {
+                area[c] = 0;
+                centroidX[c] = 0;
+                centroidY[c] = 0;
+                boxX[c] = boxY[c] = boxWidth[c] = boxHeight[c] = 0;
+                if (withPerimeter) {
+                    perimeter[c] = 0;
+                }
+                continue;
+            }
+
+            // Green's theorem over the closed polygon, starting with the edge from the last point
+            int prevX = points[to - 2];
+            int prevY = points[to - 1];
+            int minX = Integer.MAX_VALUE;
+            int minY = Integer.MAX_VALUE;
+            int maxX = Integer.MIN_VALUE;
+            int maxY = Integer.MIN_VALUE;
+            double a00 = 0;
+            double a10 = 0;
+            double a01 = 0;
+            double length = 0;
+            for (int p = from; p < to; p += 2) {
+                int x = points[p];
+                int y = points[p + 1];
+                double cross = (double) prevX * y - (double) x * prevY;
+                a00 += cross;
+                a10 += cross * (prevX + x);
+                a01 += cross * (prevY + y);
+                if (withPerimeter) {
+                    double dx = x - prevX;
+                    double dy = y - prevY;
+                    length += Math.sqrt(dx * dx + dy * dy);
+                }
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+                prevX = x;
+                prevY = y;
+            }
+
+            boxX[c] = minX;
+            boxY[c] = minY;
+            boxWidth[c] = maxX - minX + 1;
+            boxHeight[c] = maxY - minY + 1;
+            area[c] = (float) (Math.abs(a00) * 0.5);
+            // m10 / m00 = a10 / (3 a00), the orientation cancels out
+            if (Math.abs(a00) > 1.1920929e-7) {
+                centroidX[c] = (float) (a10 / (3 * a00));
+                centroidY[c] = (float) (a01 / (3 * a00));
+            } else {
+                centroidX[c] = (float) (minX + boxWidth[c] / 2.0);
+                centroidY[c] = (float) (minY + boxHeight[c] / 2.0);
+            }
+            if (withPerimeter) {
+                perimeter[c] = (float) length;
+            }
+        }
+    }
+
+    // Index of the contour with the largest area, or -1 when empty; after analyze
+    public int largest() {
+        int best = -1;
+        for (int c = 0; c < size; c++) {
+            if (best < 0 || area[c] > area[best]) {
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    // Metrics, after analyze
+
+    public float area(int i) {
+        return area[i];
+    }
+
+    public float centroidX(int i) {
+        return centroidX[i];
+    }
+
+    public float centroidY(int i) {
+        return centroidY[i];
+    }
+
+    public int boxX(int i) {
+        return boxX[i];
+    }
+
+    public int boxY(int i) {
+        return boxY[i];
+    }
+
+    public int boxWidth(int i) {
+        return boxWidth[i];
+    }
+
+    public int boxHeight(int i) {
+        return boxHeight[i];
+    }
+
+    // Only after analyze(true)
+    public float perimeter(int i) {
+        return perimeter[i];
+    }
+}
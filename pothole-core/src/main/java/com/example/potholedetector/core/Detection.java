@@ -0,0 +1,56 @@
+package com.example.potholedetector.core;
+
+/**
+ * A single detection: an axis-aligned box, its confidence and, for the segmentation
+ * head, the mask coefficients that combine the prototype masks and the decoded outline.
+ */
+public class Detection {
+    public float x1;
+    public float y1;
+    public float x2;
+    public float y2;
+    public float score;
+    public int classId;
+    public float[] maskCoefficients;
+    // Outline as x, y pairs in frame pixels; null when only the box is known
+    public float[] polygon;
+
+    public Detection(float x1, float y1, float x2, float y2, float score, int classId) {
+        this.x1 = x1;
+        this.y1 = y1;
+        this.x2 = x2;
+        this.y2 = y2;
+        this.score = score;
+        this.classId = classId;
+    }
+
+    public float width() {
+        return x2 - x1;
+    }
+
+    public float height() {
+        return y2 - y1;
+    }
+
+    public float area() {
+        return Math.max(0, x2 - x1) * Math.max(0, y2 - y1);
+    }
+
+    public float centerX() {
+        return (x1 + x2) * 0.5f;
+    }
+
+    public float centerY() {
+        return (y1 + y2) * 0.5f;
+    }
+
+    public float iou(Detection other) {
+        float ix = Math.min(x2, other.x2) - Math.max(x1, other.x1);
+        float iy = Math.min(y2, other.y2) - Math.max(y1, other.y1);
+        if (ix <= 0 || iy <= 0) {
+            return 0;
+        }
+        float intersection = ix * iy;
+        return intersection / (area() + other.area() - intersection);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.potholedetector.core;
+
+import java.util.List;
+
+/**
+ * Supplies the detections for each frame of a run.
+ *
+ * The real implementation is the model-backed detector of the app, with the video frame
+ * as {@code F}. Seeded synthetic and recorded sources exist so the downstream stages
+ * (classification, tracking, reports) can be run reproducibly and at volume without a
+ * model or a device. Detections are in frame pixel coordinates.
+ */
+public interface DetectionSource<F> {
+
+    // frame may be null for sources that don't look at pixels
+    List<Detection> detect(F frame, int frameIndex, long timestampMs);
+}
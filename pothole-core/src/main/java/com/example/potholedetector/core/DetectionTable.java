@@ -0,0 +1,324 @@
+package com.example.potholedetector.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Classified potholes stored column by column.
+ *
+ * One row per detection: frame index, timestamp, centroid, area, bounding box and the
+ * size and risk codes. Every column is a primitive array grown by doubling, so a run
+ * with millions of detections costs a few dozen bytes per row and no objects. Columns are
+ * exposed directly for tight loops; only the first {@link #size()} entries are valid.
+ */
+public class DetectionTable {
+
+    private static final int MAGIC = 0x50544231; // "PTB1"
+
+    private int size;
+
+    private int[] frameIndex;
+    private int[] timestampMs;
+    private float[] centroidX;
+    private float[] centroidY;
+    private float[] area;
+    private float[] x1;
+    private float[] y1;
+    private float[] x2;
+    private float[] y2;
+    private byte[] sizeClass;
+    private byte[] riskClass;
+
+    public DetectionTable() {
+        this(16);
+    }
+
+    public DetectionTable(int capacity) {
+        allocate(Math.max(1, capacity));
+    }
+
+    private void allocate(int capacity) {
+        frameIndex = new int[capacity];
+        timestampMs = new int[capacity];
+        centroidX = new float[capacity];
+        centroidY = new float[capacity];
+        area = new float[capacity];
+        x1 = new float[capacity];
+        y1 = new float[capacity];
+        x2 = new float[capacity];
+        y2 = new float[capacity];
+        sizeClass = new byte[capacity];
+        riskClass = new byte[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    // Appends a row and returns its index
+    public int add(int frame, int timestamp, float cx, float cy, float rowArea,
+                   float bx1, float by1, float bx2, float by2, byte size, byte risk) {
+        ensureCapacity(this.size + 1);
+        int i = this.size++;
+        frameIndex[i] = frame;
+        timestampMs[i] = timestamp;
+        centroidX[i] = cx;
+        centroidY[i] = cy;
+        area[i] = rowArea;
+        x1[i] = bx1;
+        y1[i] = by1;
+        x2[i] = bx2;
+        y2[i] = by2;
+        sizeClass[i] = size;
+        riskClass[i] = risk;
+        return i;
+    }
+
+    // Appends all rows of another table, column by column
+    public void addAll(DetectionTable other) {
+        int n = other.size;
+        if (n == 0) {
+            return;
+        }
+        ensureCapacity(size + n);
+        System.arraycopy(other.frameIndex, 0, frameIndex, size, n);
+        System.arraycopy(other.timestampMs, 0, timestampMs, size, n);
+        System.arraycopy(other.centroidX, 0, centroidX, size, n);
+        System.arraycopy(other.centroidY, 0, centroidY, size, n);
+        System.arraycopy(other.area, 0, area, size, n);
+        System.arraycopy(other.x1, 0, x1, size, n);
+        System.arraycopy(other.y1, 0, y1, size, n);
+        System.arraycopy(other.x2, 0, x2, size, n);
+        System.arraycopy(other.y2, 0, y2, size, n);
+        System.arraycopy(other.sizeClass, 0, sizeClass, size, n);
+        System.arraycopy(other.riskClass, 0, riskClass, size, n);
+        size += n;
+    }
+
+    private void ensureCapacity(int required) {
+        int capacity = frameIndex.length;
+        if (required <= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(required, capacity * 2);
+        frameIndex = Arrays.copyOf(frameIndex, newCapacity);
+        timestampMs = Arrays.copyOf(timestampMs, newCapacity);
+        centroidX = Arrays.copyOf(centroidX, newCapacity);
+        centroidY = Arrays.copyOf(centroidY, newCapacity);
+        area = Arrays.copyOf(area, newCapacity);
+        x1 = Arrays.copyOf(x1, newCapacity);
+        y1 = Arrays.copyOf(y1, newCapacity);
+        x2 = Arrays.copyOf(x2, newCapacity);
+        y2 = Arrays.copyOf(y2, newCapacity);
+        sizeClass = Arrays.copyOf(sizeClass, newCapacity);
+        riskClass = Arrays.copyOf(riskClass, newCapacity);
+    }
+
+    // Row accessors
+    public int frameIndex(int i) {
+        return frameIndex[i];
+    }
+
+    public int timestampMs(int i) {
+        return timestampMs[i];
+    }
+
+    public float centroidX(int i) {
+        return centroidX[i];
+    }
+
+    public float centroidY(int i) {
+        return centroidY[i];
+    }
+
+    public float area(int i) {
+        return area[i];
+    }
+
+    public float x1(int i) {
+        return x1[i];
+    }
+
+    public float y1(int i) {
+        return y1[i];
+    }
+
+    public float x2(int i) {
+        return x2[i];
+    }
+
+    public float y2(int i) {
+        return y2[i];
+    }
+
+    public SizeClass sizeClass(int i) {
+        return SizeClass.fromCode(sizeClass[i]);
+    }
+
+    public RiskClass riskClass(int i) {
+        return RiskClass.fromCode(riskClass[i]);
+    }
+
+    // Backing columns, valid up to size(); replaced when the table grows
+    public int[] frameIndexColumn() {
+        return frameIndex;
+    }
+
+    public float[] centroidXColumn() {
+        return centroidX;
+    }
+
+    public float[] centroidYColumn() {
+        return centroidY;
+    }
+
+    public float[] areaColumn() {
+        return area;
+    }
+
+    public byte[] sizeClassColumn() {
+        return sizeClass;
+    }
+
+    public byte[] riskClassColumn() {
+        return riskClass;
+    }
+
+    public double meanArea() {
+        if (size == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += area[i];
+        }
+        return sum / size;
+    }
+
+    // Row count per size code
+    public int[] sizeHistogram() {
+        int[] counts = new int[SizeClass.values().length];
+        for (int i = 0; i < size; i++) {
+            counts[sizeClass[i]]++;
+        }
+        return counts;
+    }
+
+    // Row count per risk code
+    public int[] riskHistogram() {
+        int[] counts = new int[RiskClass.values().length];
+        for (int i = 0; i < size; i++) {
+            counts[riskClass[i]]++;
+        }
+        return counts;
+    }
+
+    // Row indices ordered by risk, highest first; rows of equal risk keep insertion order
+    public int[] orderByRiskDescending() {
+        long[] keyed = new long[size];
+        for (int i = 0; i < size; i++) {
+            keyed[i] = ((long) (RiskClass.HIGH.code() - riskClass[i]) << 32) | i;
+        }
+        return permutation(keyed);
+    }
+
+    // Row indices ordered by area, largest first
+    public int[] orderByAreaDescending() {
+        long[] keyed = new long[size];
+        for (int i = 0; i < size; i++) {
+            // Areas are non-negative, so their IEEE bits order like the values
+            keyed[i] = ((long) ~Float.floatToIntBits(area[i]) << 32) | i;
+        }
+        return permutation(keyed);
+    }
+
+    private static int[] permutation(long[] keyed) {
+        Arrays.sort(keyed);
+        int[] order = new int[keyed.length];
+        for (int i = 0; i < keyed.length; i++) {
+            order[i] = (int) keyed[i];
+        }
+        return order;
+    }
+
+    // Bulk binary form: row count, then each column as one contiguous big-endian block
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(size);
+        ByteBuffer buffer = ByteBuffer.allocate(size * 4);
+        writeColumn(data, buffer, frameIndex);
+        writeColumn(data, buffer, timestampMs);
+        writeColumn(data, buffer, centroidX);
+        writeColumn(data, buffer, centroidY);
+        writeColumn(data, buffer, area);
+        writeColumn(data, buffer, x1);
+        writeColumn(data, buffer, y1);
+        writeColumn(data, buffer, x2);
+        writeColumn(data, buffer, y2);
+        data.write(sizeClass, 0, size);
+        data.write(riskClass, 0, size);
+        data.flush();
+    }
+
+    public static DetectionTable read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a detection table");
+        }
+        int n = data.readInt();
+        DetectionTable table = new DetectionTable(n);
+        byte[] bytes = new byte[n * 4];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        readColumn(data, bytes, buffer, table.frameIndex, n);
+        readColumn(data, bytes, buffer, table.timestampMs, n);
+        readColumn(data, bytes, buffer, table.centroidX, n);
+        readColumn(data, bytes, buffer, table.centroidY, n);
+        readColumn(data, bytes, buffer, table.area, n);
+        readColumn(data, bytes, buffer, table.x1, n);
+        readColumn(data, bytes, buffer, table.y1, n);
+        readColumn(data, bytes, buffer, table.x2, n);
+        readColumn(data, bytes, buffer, table.y2, n);
+        data.readFully(table.sizeClass, 0, n);
+        data.readFully(table.riskClass, 0, n);
+        table.size = n;
+        return table;
+    }
+
+    private void writeColumn(DataOutputStream out, ByteBuffer buffer, int[] column) throws IOException {
+        buffer.clear();
+        buffer.asIntBuffer().put(column, 0, size);
+        out.write(buffer.array(), 0, size * 4);
+    }
+
+    private void writeColumn(DataOutputStream out, ByteBuffer buffer, float[] column) throws IOException {
+        buffer.clear();
+        buffer.asFloatBuffer().put(column, 0, size);
+        out.write(buffer.array(), 0, size * 4);
+    }
+
+    private static void readColumn(DataInputStream in, byte[] bytes, ByteBuffer buffer, int[] column, int n) throws IOException {
+        in.readFully(bytes, 0, n * 4);
+        buffer.clear();
+        buffer.asIntBuffer().get(column, 0, n);
+    }
+
+    private static void readColumn(DataInputStream in, byte[] bytes, ByteBuffer buffer, float[] column, int n) throws IOException {
+        in.readFully(bytes, 0, n * 4);
+        buffer.clear();
+        buffer.asFloatBuffer().get(column, 0, n);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.potholedetector.core;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The most recent encoded video samples, in one preallocated byte arena.
+ *
+ * Samples are copied into the arena back to back and wrap to its start when they don't
+ * fit before the end; adding a sample evicts the oldest ones until it has room, so memory
+ * stays at the arena size however long the recording runs. Each sample gets a sequence
+ * number that keeps increasing across evictions, which lets a reader tell whether the
+ * samples it still needs are there. Not thread-safe.
+ */
+public class EncodedSampleRing {
+
+    private final byte[] data;
+    private final int mask;
+    private final int[] offsets;
+    private final int[] sizes;
+    private final long[] ptsUs;
+    private final boolean[] keyFrames;
+
+    // Sequence of the oldest sample held, and of the next sample to add
+    private long first;
+    private long next;
+    private int writePosition;
+
+    // maxSamples is rounded up to a power of two
+    public EncodedSampleRing(int capacityBytes, int maxSamples) {
+        int slots = Integer.highestOneBit(Math.max(1, maxSamples - 1)) << 1;
+        data = new byte[capacityBytes];
+        mask = slots - 1;
+        offsets = new int[slots];
+        sizes = new int[slots];
+        ptsUs = new long[slots];
+        keyFrames = new boolean[slots];
+    }
+
+    /**
+     * Copies the remaining bytes of {@code sample} in, evicting the oldest samples as
+     * needed. Returns false, and keeps nothing, for a sample larger than the arena; the
+     * sample still takes a sequence number, so readers see the gap.
+     */
+    public boolean add(ByteBuffer sample, long presentationUs, boolean keyFrame) {
+        int size = sample.remaining();
+        if (size > data.length) {
+            // Everything before is now behind a gap, and the sample itself isn't kept
+            first = ++next;
+            return false;
+        }
+        if (writePosition + size > data.length) {
+            // The samples past the write position are all older than those before it
+            while (first < next && offsets[slot(first)] >= writePosition) {
+                first++;
+            }
+            writePosition = 0;
+        }
+        while (first < next && (next - first > mask || overlaps(slot(first), writePosition, size))) {
+            first++;
+        }
+
+        int slot = slot(next);
+        sample.get(data, writePosition, size);
+        offsets[slot] = writePosition;
+        sizes[slot] = size;
+        ptsUs[slot] = presentationUs;
+        keyFrames[slot] = keyFrame;
+        writePosition += size;
+        next++;
+        return true;
+    }
+
+    public long firstSequence() {
+        return first;
+    }
+
+    public long nextSequence() {
+        return next;
+    }
+
+    public boolean isEmpty() {
+        return first == next;
+    }
+
+    // Sequence of the last key frame at or before the given time, or -1 if none is held
+    public long keyFrameAtOrBefore(long presentationUs) {
+        for (long seq = next - 1; seq >= first; seq--) {
+            int slot = slot(seq);
+            if (keyFrames[slot] && ptsUs[slot] <= presentationUs) {
+                return seq;
+            }
+        }
+        return -1;
+    }
+
+    // Accessors of a held sample, first <= seq < next; its bytes are at offset(seq) in data()
+    public byte[] data() {
+        return data;
+    }
+
+    public int offset(long seq) {
+        return offsets[slot(seq)];
+    }
+
+    public int size(long seq) {
+        return sizes[slot(seq)];
+    }
+
+    public long ptsUs(long seq) {
+        return ptsUs[slot(seq)];
+    }
+
+    public boolean isKeyFrame(long seq) {
+        return keyFrames[slot(seq)];
+    }
+
+    // Presentation time of the newest sample, or -1 when empty
+    public long newestPtsUs() {
+        return isEmpty() ? -1 : ptsUs[slot(next - 1)];
+    }
+
+    private int slot(long seq) {
+        return (int) seq & mask;
+    }
+
+    private boolean overlaps(int slot, int from, int size) {
+        return offsets[slot] < from + size && from < offsets[slot] + sizes[slot];
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.potholedetector.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Cuts short clips around events out of a continuously encoded video stream.
+ *
+ * Every encoded sample goes into an {@link EncodedSampleRing} holding the last few
+ * seconds. An event at time t asks for [t - preRoll, t + postRoll]: the clip starts at the
+ * key frame before the window and is then streamed to the {@link ClipSink} as samples
+ * arrive, so nothing beyond the ring is ever buffered. The clip is only finished once the
+ * stream is a pre-roll (plus the detection delay) past its end, since until then a later
+ * event can still overlap it; such an event extends the clip instead of starting a new
+ * one. A clip that reaches the maximum length is finished and the next event starts a
+ * new one after it.
+ *
+ * Times are presentation times in microseconds. Safe to feed samples and events from
+ * different threads.
+ */
+public class EvidenceClipper {
+
+    /** Receives the samples of one clip after another. */
+    public interface ClipSink {
+        void beginClip(long startPtsUs) throws IOException;
+
+        void writeSample(byte[] data, int offset, int size, long ptsUs, boolean keyFrame) throws IOException;
+
+        void endClip() throws IOException;
+    }
+
+    // Events arrive this long after their frame at most: the detector's latency
+    private static final long EVENT_DELAY_US = 1_000_000;
+
+    private final EncodedSampleRing ring;
+    private final long preRollUs;
+    private final long postRollUs;
+    private final long maxClipUs;
+    private final ClipSink sink;
+
+    private boolean open;
+    private boolean started;
+    private long clipStartUs;
+    private long clipEndUs;
+    // Next ring sample to write to the open clip
+    private long nextSequence;
+    // Last sample written to any clip; clips never repeat footage
+    private long lastWrittenUs = Long.MIN_VALUE;
+
+    private int clips;
+    private int mergedEvents;
+
+    public EvidenceClipper(EncodedSampleRing ring, long preRollUs, long postRollUs, long maxClipUs, ClipSink sink) {
+        this.ring = ring;
+        this.preRollUs = preRollUs;
+        this.postRollUs = postRollUs;
+        this.maxClipUs = maxClipUs;
+        this.sink = sink;
+    }
+
+    public synchronized void addSample(ByteBuffer sample, long ptsUs, boolean keyFrame) throws IOException {
+        ring.add(sample, ptsUs, keyFrame);
+        if (open) {
+            pump();
+        }
+    }
+
+    public synchronized void onEvent(long eventPtsUs) throws IOException {
+        long windowStart = eventPtsUs - preRollUs;
+        long windowEnd = eventPtsUs + postRollUs;
+        if (open && windowStart <= clipEndUs && windowEnd - clipStartUs <= maxClipUs
+                && nextSequence >= ring.firstSequence()) {
+            clipEndUs = Math.max(clipEndUs, windowEnd);
+            mergedEvents++;
+            pump();
+            return;
+        }
+        finishClip();
+
+        long keyFrame = ring.keyFrameAtOrBefore(windowStart);
+        if (keyFrame < 0) {
+            // Pre-roll already gone, or the stream only just started: from the first key frame held
+            keyFrame = ring.firstSequence();
+        }
+        open = true;
+        started = false;
+        clipStartUs = windowStart;
+        clipEndUs = windowEnd;
+        nextSequence = keyFrame;
+        pump();
+    }
+
+    // Finishes the open clip, e.g. when recording stops
+    public synchronized void flush() throws IOException {
+        finishClip();
+    }
+
+    public synchronized int getClipCount() {
+        return clips;
+    }
+
+    public synchronized int getMergedEventCount() {
+        return mergedEvents;
+    }
+
+    private void pump() throws IOException {
+        if (nextSequence < ring.firstSequence()) {
+            // The ring overran the open clip; continuing would leave a hole in it
+            if (started) {
+                finishClip();
+                return;
+            }
+            nextSequence = ring.firstSequence();
+        }
+        for (; nextSequence < ring.nextSequence(); nextSequence++) {
+            long pts = ring.ptsUs(nextSequence);
+            if (pts > clipEndUs) {
+                break;
+            }
+            boolean keyFrame = ring.isKeyFrame(nextSequence);
+            if (!started) {
+                if (!keyFrame || pts <= lastWrittenUs) {
+                    // A clip must start on a key frame, after the previous clip
+                    continue;
+                }
+                sink.beginClip(pts);
+                started = true;
+            }
+            sink.writeSample(ring.data(), ring.offset(nextSequence), ring.size(nextSequence), pts, keyFrame);
+            lastWrittenUs = pts;
+        }
+        if (ring.newestPtsUs() > clipEndUs + preRollUs + EVENT_DELAY_US) {
+            finishClip();
+        }
+    }
+
+    private void finishClip() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        if (started) {
+            started = false;
+            clips++;
+            sink.endClip();
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.potholedetector.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Unique pothole locations across runs, deduplicated through a grid of map tiles.
+ *
+ * Tiles are squares with a side of the merge radius, so any location within the radius
+ * of a new sighting lies in its tile or one of the eight around it. A sighting near an
+ * existing location is merged into it (position averaged over sightings, highest risk
+ * kept); otherwise it becomes a new location. Points are primitive columns and tiles
+ * are an open-addressing table of chains through them, so adding and looking up stay
+ * constant time with hundreds of thousands of locations and no per-point objects.
+ */
+public class GeoTileIndex {
+
+    private static final int MAGIC = 0x50474931; // "PGI1"
+    private static final double METERS_PER_DEGREE = 111_320;
+    private static final int GEOHASH_PRECISION = 9;
+
+    private final double radiusMeters;
+    private final double tileDegrees;
+
+    private int size;
+    private double[] latitude = new double[256];
+    private double[] longitude = new double[256];
+    private int[] sightings = new int[256];
+    private byte[] maxRisk = new byte[256];
+    private long[] firstSeenMs = new long[256];
+    private long[] lastSeenMs = new long[256];
+    // Next point in the same tile, -1 at the end of the chain
+    private int[] nextInTile = new int[256];
+
+    // Tile key -> first point; empty slots hold EMPTY
+    private static final long EMPTY = Long.MIN_VALUE;
+    private long[] tileKeys;
+    private int[] tileHeads;
+    private int tileCount;
+
+    public GeoTileIndex(double radiusMeters) {
+        this.radiusMeters = radiusMeters;
+        this.tileDegrees = radiusMeters / METERS_PER_DEGREE;
+        allocateTiles(1024);
+    }
+
+    private void allocateTiles(int capacity) {
+        tileKeys = new long[capacity];
+        Arrays.fill(tileKeys, EMPTY);
+        tileHeads = new int[capacity];
+        tileCount = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getRadiusMeters() {
+        return radiusMeters;
+    }
+
+    // Records a sighting and returns the id of the location it was merged into or created as
+    public int add(double lat, double lon, byte risk, long timeMs) {
+        int nearest = findNearest(lat, lon);
+        if (nearest >= 0) {
+            long oldKey = tileKey(latitude[nearest], longitude[nearest]);
+            int n = ++sightings[nearest];
+            latitude[nearest] += (lat - latitude[nearest]) / n;
+            longitude[nearest] += (lon - longitude[nearest]) / n;
+            long newKey = tileKey(latitude[nearest], longitude[nearest]);
+            if (newKey != oldKey) {
+                // The averaged position crossed into another tile
+                unlink(nearest, oldKey);
+                link(nearest, newKey);
+            }
+            maxRisk[nearest] = (byte) Math.max(maxRisk[nearest], risk);
+            firstSeenMs[nearest] = Math.min(firstSeenMs[nearest], timeMs);
+            lastSeenMs[nearest] = Math.max(lastSeenMs[nearest], timeMs);
+            return nearest;
+        }
+        return insert(lat, lon, 1, risk, timeMs, timeMs);
+    }
+
+    // Closest location within the radius, or -1
+    public int findNearest(double lat, double lon) {
+        int row = row(lat);
+        double cosLat = Math.cos(Math.toRadians(lat));
+        int best = -1;
+        double bestDistance = radiusMeters * radiusMeters;
+        for (int dr = -1; dr <= 1; dr++) {
+            int r = row + dr;
+            int column = column(r, lon);
+            for (int dc = -1; dc <= 1; dc++) {
+                for (int p = head(key(r, column + dc)); p >= 0; p = nextInTile[p]) {
+                    // Equirectangular distance, exact enough over a few metres
+                    double dy = (latitude[p] - lat) * METERS_PER_DEGREE;
+                    double dx = (longitude[p] - lon) * METERS_PER_DEGREE * cosLat;
+                    double distance = dx * dx + dy * dy;
+                    if (distance <= bestDistance) {
+                        bestDistance = distance;
+                        best = p;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private int insert(double lat, double lon, int count, byte risk, long firstSeen, long lastSeen) {
+        if (size == latitude.length) {
+            int capacity = size * 2;
+            latitude = Arrays.copyOf(latitude, capacity);
+            longitude = Arrays.copyOf(longitude, capacity);
+            sightings = Arrays.copyOf(sightings, capacity);
+            maxRisk = Arrays.copyOf(maxRisk, capacity);
+            firstSeenMs = Arrays.copyOf(firstSeenMs, capacity);
+            lastSeenMs = Arrays.copyOf(lastSeenMs, capacity);
+            nextInTile = Arrays.copyOf(nextInTile, capacity);
+        }
+        int id = size++;
+        latitude[id] = lat;
+        longitude[id] = lon;
+        sightings[id] = count;
+        maxRisk[id] = risk;
+        firstSeenMs[id] = firstSeen;
+        lastSeenMs[id] = lastSeen;
+
+        link(id, tileKey(lat, lon));
+        return id;
+    }
+
+    // Puts a point at the head of its tile's chain
+    private void link(int id, long key) {
+        int slot = slot(key);
+        if (tileKeys[slot] == EMPTY) {
+            tileKeys[slot] = key;
+            nextInTile[id] = -1;
+            tileCount++;
+        } else {
+            nextInTile[id] = tileHeads[slot];
+        }
+        tileHeads[slot] = id;
+        if (tileCount * 2 > tileKeys.length) {
+            rehash();
+        }
+    }
+
+    // Takes a point out of its tile's chain; an emptied tile keeps its slot with no points
+    private void unlink(int id, long key) {
+        int slot = slot(key);
+        if (tileHeads[slot] == id) {
+            tileHeads[slot] = nextInTile[id];
+            return;
+        }
+        for (int p = tileHeads[slot]; p >= 0; p = nextInTile[p]) {
+            if (nextInTile[p] == id) {
+                nextInTile[p] = nextInTile[id];
+                return;
+            }
+        }
+    }
+
+    private long tileKey(double lat, double lon) {
+        int r = row(lat);
+        return key(r, column(r, lon));
+    }
+
+    // Tiles are rows of latitude; within a row the column width follows the row's latitude
+    private int row(double lat) {
+        return (int) Math.floor(lat / tileDegrees);
+    }
+
+    private int column(int row, double lon) {
+        double cosLat = Math.max(0.01, Math.cos(Math.toRadians((row + 0.5) * tileDegrees)));
+        return (int) Math.floor(lon * cosLat / tileDegrees);
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    private int head(long key) {
+        int slot = slot(key);
+        return tileKeys[slot] == key ? tileHeads[slot] : -1;
+    }
+
+    // Slot holding the key, or the empty slot where it would go
+    private int slot(long key) {
+        int mask = tileKeys.length - 1;
+        int slot = (int) (mix(key) & mask);
+        while (tileKeys[slot] != EMPTY && tileKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private void rehash() {
+        long[] oldKeys = tileKeys;
+        int[] oldHeads = tileHeads;
+        allocateTiles(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                tileKeys[slot] = oldKeys[i];
+                tileHeads[slot] = oldHeads[i];
+                tileCount++;
+            }
+        }
+    }
+
+    // Location accessors
+    public double latitude(int i) {
+        return latitude[i];
+    }
+
+    public double longitude(int i) {
+        return longitude[i];
+    }
+
+    public int sightings(int i) {
+        return sightings[i];
+    }
+
+    public RiskClass maxRisk(int i) {
+        return RiskClass.fromCode(maxRisk[i]);
+    }
+
+    public long firstSeenMs(int i) {
+        return firstSeenMs[i];
+    }
+
+    public long lastSeenMs(int i) {
+        return lastSeenMs[i];
+    }
+
+    public String geohash(int i) {
+        return Geohash.encode(latitude[i], longitude[i], GEOHASH_PRECISION);
+    }
+
+    // GeoJSON FeatureCollection of every location, written one feature at a time
+    public void writeGeoJson(ReportWriter writer) throws IOException {
+        writer.write("{\"type\":\"FeatureCollection\",\"features\":[");
+        for (int i = 0; i < size; i++) {
+            writer.write(i > 0 ? ",\n" : "\n");
+            writer.write("{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[");
+            // GeoJSON order is longitude, latitude; 6 decimals is about 10 cm
+            writer.writeFixed(longitude[i], 6);
+            writer.write(',');
+            writer.writeFixed(latitude[i], 6);
+            writer.write("]},\"properties\":{\"id\":");
+            writer.writeJsonString(geohash(i));
+            writer.write(",\"sightings\":");
+            writer.writeLong(sightings[i]);
+            writer.write(",\"risk\":\"");
+            writer.write(RiskClass.fromCode(maxRisk[i]).label);
+            writer.write("\",\"firstSeenMs\":");
+            writer.writeLong(firstSeenMs[i]);
+            writer.write(",\"lastSeenMs\":");
+            writer.writeLong(lastSeenMs[i]);
+            writer.write("}}");
+        }
+        writer.write("\n]}\n");
+    }
+
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeDouble(radiusMeters);
+        data.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            data.writeDouble(latitude[i]);
+            data.writeDouble(longitude[i]);
+            data.writeInt(sightings[i]);
+            data.writeByte(maxRisk[i]);
+            data.writeLong(firstSeenMs[i]);
+            data.writeLong(lastSeenMs[i]);
+        }
+        data.flush();
+    }
+
+    public static GeoTileIndex read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a pothole location index");
+        }
+        GeoTileIndex index = new GeoTileIndex(data.readDouble());
+        int n = data.readInt();
+        for (int i = 0; i < n; i++) {
+            index.insert(data.readDouble(), data.readDouble(), data.readInt(), data.readByte(),
+                    data.readLong(), data.readLong());
+        }
+        return index;
+    }
+}
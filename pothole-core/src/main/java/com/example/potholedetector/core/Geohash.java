@@ -0,0 +1,50 @@
+package com.example.potholedetector.core;
+
+/**
+ * Geohash encoding of a position, the usual short text ID for a map cell.
+ *
+ * Nine characters address a cell of roughly 5 x 5 m, about the size of one pothole
+ * location.
+ */
+public final class Geohash {
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private Geohash() {
+    }
+
+    public static String encode(double lat, double lon, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        char[] hash = new char[precision];
+        boolean evenBit = true;
+        for (int c = 0; c < precision; c++) {
+            int bits = 0;
+            for (int b = 0; b < 5; b++) {
+                // Bits alternate between longitude and latitude, longitude first
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (lon >= mid) {
+                        bits = (bits << 1) | 1;
+                        minLon = mid;
+                    } else {
+                        bits <<= 1;
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (lat >= mid) {
+                        bits = (bits << 1) | 1;
+                        minLat = mid;
+                    } else {
+                        bits <<= 1;
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+            hash[c] = BASE32[bits];
+        }
+        return new String(hash);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.potholedetector.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Device state trace of a survey run, one analyzed frame per line:
+ * "time_ms,thermal_status,battery_percent,charging,frame_ms,stride,input_size,workers".
+ *
+ * Times are milliseconds of wall time from the start of the run; frame_ms is the wall time
+ * of the frame under the stride, model input size and thread count on the same line. A recorded
+ * trace can be replayed through a {@link ThroughputGovernor} to see how it would have
+ * steered the run, e.g. after changing its thresholds.
+ */
+public final class GovernorTrace {
+
+    public static final String HEADER = "time_ms,thermal_status,battery_percent,charging,frame_ms,stride,input_size,workers\n";
+
+    private GovernorTrace() {
+    }
+
+    /** Outcome of a replay. */
+    public static class Replay {
+        public int frames;
+        public double wallMs;
+        public double videoMs;
+        public List<ThroughputGovernor.Decision> decisions;
+
+        // Video time analyzed per wall time
+        public double speed() {
+            return wallMs > 0 ? videoMs / wallMs : 0;
+        }
+    }
+
+    public static void writeFrame(ReportWriter writer, long timeMs, int thermalStatus, int batteryPercent,
+                                  boolean charging, double frameMs, int stride, int inputSize, int workers)
+            throws IOException {
+        writer.writeLong(timeMs);
+        writer.write(',');
+        writer.writeLong(thermalStatus);
+        writer.write(',');
+        writer.writeLong(batteryPercent);
+        writer.write(charging ? ",1," : ",0,");
+        writer.writeFixed(frameMs, 1);
+        writer.write(',');
+        writer.writeLong(stride);
+        writer.write(',');
+        writer.writeLong(inputSize);
+        writer.write(',');
+        writer.writeLong(workers);
+        writer.write('\n');
+    }
+
+    /**
+     * Replays a trace through a governor on a simulated clock. At each step the device state
+     * is that of the last traced frame at or before the clock, and the frame costs the traced
+     * frame time rescaled from the traced settings to the governor's current ones, so slower
+     * frames under throttling carry over while the governor's own choices still take effect.
+     * Runs until the clock passes the end of the trace.
+     */
+    public static Replay replay(Reader in, ThroughputGovernor governor, double frameIntervalMs) throws IOException {
+        List<long[]> states = new ArrayList<>();
+        List<Double> frameTimes = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(in);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] fields = line.split(",");
+            if (fields.length < 8) {
+                continue;
+            }
+            try {
+                states.add(new long[]{
+                        Long.parseLong(fields[0].trim()),
+                        Integer.parseInt(fields[1].trim()),
+                        Integer.parseInt(fields[2].trim()),
+                        Integer.parseInt(fields[3].trim()),
+                        Integer.parseInt(fields[5].trim()),
+                        Integer.parseInt(fields[6].trim()),
+                        Integer.parseInt(fields[7].trim())});
+                frameTimes.add(Double.parseDouble(fields[4].trim()));
+            } catch (NumberFormatException e) {
+                // Header or damaged line
+            }
+        }
+
+        Replay replay = new Replay();
+        if (states.isEmpty()) {
+            replay.decisions = governor.getDecisions();
+            return replay;
+        }
+        long endMs = states.get(states.size() - 1)[0];
+        int row = 0;
+        while (replay.wallMs <= endMs) {
+            while (row + 1 < states.size() && states.get(row + 1)[0] <= replay.wallMs) {
+                row++;
+            }
+            long[] state = states.get(row);
+            governor.setThermalStatus((int) state[1]);
+            governor.setBattery((int) state[2], state[3] != 0);
+
+            ThroughputGovernor.Settings traced = new ThroughputGovernor.Settings(
+                    (int) state[4], (int) state[5], 1, (int) state[6]);
+            ThroughputGovernor.Settings current = governor.getSettings();
+            double frameMs = Math.max(1, frameTimes.get(row) * governor.relativeCost(current) / governor.relativeCost(traced));
+
+            replay.wallMs += frameMs;
+            replay.videoMs += current.stride * frameIntervalMs;
+            replay.frames++;
+            governor.recordFrame((long) replay.wallMs, frameMs);
+        }
+        replay.decisions = governor.getDecisions();
+        return replay;
+    }
+}
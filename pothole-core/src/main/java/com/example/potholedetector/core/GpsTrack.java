@@ -0,0 +1,148 @@
+package com.example.potholedetector.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Vehicle positions over the course of a video, looked up by video timestamp.
+ *
+ * Samples come from a companion GPS log or, failing that, the single location a camera
+ * stores in the video metadata. Positions between samples are interpolated linearly;
+ * before the first and after the last sample the nearest one is used. A track of one
+ * sample is {@link #isApproximate() approximate}: it says where the video was taken, not
+ * where each pothole is. Safe to share between the report and history writer threads.
+ */
+public class GpsTrack {
+
+    // ISO 6709 as stored in MP4 metadata, e.g. "+37.4219-122.0840/" or with altitude
+    private static final Pattern ISO_6709 = Pattern.compile("([+-]\\d+(?:\\.\\d+)?)([+-]\\d+(?:\\.\\d+)?)");
+
+    private long[] timeMs = new long[64];
+    private double[] latitude = new double[64];
+    private double[] longitude = new double[64];
+    private int size;
+    private boolean sorted = true;
+
+    public synchronized void add(long videoTimeMs, double lat, double lon) {
+        if (size == timeMs.length) {
+            timeMs = Arrays.copyOf(timeMs, size * 2);
+            latitude = Arrays.copyOf(latitude, size * 2);
+            longitude = Arrays.copyOf(longitude, size * 2);
+        }
+        sorted &= size == 0 || videoTimeMs >= timeMs[size - 1];
+        timeMs[size] = videoTimeMs;
+        latitude[size] = lat;
+        longitude[size] = lon;
+        size++;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    // One position for the whole video, e.g. the metadata location; not per pothole
+    public synchronized boolean isApproximate() {
+        return size < 2;
+    }
+
+    // Latitude and longitude at a video timestamp, or null without samples
+    public synchronized double[] locate(long videoTimeMs) {
+        if (size == 0) {
+            return null;
+        }
+        ensureSorted();
+        int i = Arrays.binarySearch(timeMs, 0, size, videoTimeMs);
+        if (i >= 0) {
+            return new double[]{latitude[i], longitude[i]};
+        }
+        int after = -i - 1;
+        if (after == 0) {
+            return new double[]{latitude[0], longitude[0]};
+        }
+        if (after == size) {
+            return new double[]{latitude[size - 1], longitude[size - 1]};
+        }
+        int before = after - 1;
+        double t = (double) (videoTimeMs - timeMs[before]) / (timeMs[after] - timeMs[before]);
+        return new double[]{
+                latitude[before] + t * (latitude[after] - latitude[before]),
+                longitude[before] + t * (longitude[after] - longitude[before])};
+    }
+
+    // Samples logged out of order are sorted once, on first lookup
+    private void ensureSorted() {
+        if (sorted) {
+            return;
+        }
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(timeMs[a], timeMs[b]));
+        long[] t = new long[timeMs.length];
+        double[] lat = new double[latitude.length];
+        double[] lon = new double[longitude.length];
+        for (int i = 0; i < size; i++) {
+            t[i] = timeMs[order[i]];
+            lat[i] = latitude[order[i]];
+            lon[i] = longitude[order[i]];
+        }
+        timeMs = t;
+        latitude = lat;
+        longitude = lon;
+        sorted = true;
+    }
+
+    // The same position for the whole video
+    public static GpsTrack fixed(double lat, double lon) {
+        GpsTrack track = new GpsTrack();
+        track.add(0, lat, lon);
+        return track;
+    }
+
+    // A fixed track from an ISO 6709 location string, or null when it can't be parsed
+    public static GpsTrack fromIso6709(String location) {
+        if (location == null) {
+            return null;
+        }
+        Matcher matcher = ISO_6709.matcher(location);
+        if (!matcher.lookingAt()) {
+            return null;
+        }
+        double lat = Double.parseDouble(matcher.group(1));
+        double lon = Double.parseDouble(matcher.group(2));
+        if (Math.abs(lat) > 90 || Math.abs(lon) > 180) {
+            return null;
+        }
+        return fixed(lat, lon);
+    }
+
+    // Companion log: "video_time_ms,lat,lon" per line; headers, comments and bad lines are skipped
+    public static GpsTrack readCsv(Reader in) throws IOException {
+        GpsTrack track = new GpsTrack();
+        BufferedReader reader = new BufferedReader(in);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] fields = line.split(",");
+            if (fields.length < 3 || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                track.add(Long.parseLong(fields[0].trim()),
+                        Double.parseDouble(fields[1].trim()),
+                        Double.parseDouble(fields[2].trim()));
+            } catch (NumberFormatException e) {
+                // Header or a damaged line
+            }
+        }
+        return track;
+    }
+}
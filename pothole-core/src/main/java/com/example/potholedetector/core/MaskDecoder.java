@@ -0,0 +1,40 @@
+package com.example.potholedetector.core;
+
+/**
+ * Turns YOLOv8-seg mask coefficients into a binary mask.
+ *
+ * The mask is the linear combination of the prototype masks, thresholded at
+ * sigmoid(x) > 0.5, which is the same as x > 0, so no exponentials are needed. Only the
+ * detection's box is evaluated, in prototype grid coordinates.
+ */
+public final class MaskDecoder {
+
+    private MaskDecoder() {
+    }
+
+    // protos is [maskDim, protoH, protoW]; fills mask row-major over [x0, x1) x [y0, y1), returns the pixel count
+    public static int decode(float[] protos, int maskDim, int protoH, int protoW, float[] coefficients,
+                             int x0, int y0, int x1, int y1, byte[] mask) {
+        int width = x1 - x0;
+        int plane = protoH * protoW;
+        int count = 0;
+        for (int y = y0; y < y1; y++) {
+            int rowOut = (y - y0) * width;
+            int rowIn = y * protoW;
+            for (int x = x0; x < x1; x++) {
+                float sum = 0;
+                int index = rowIn + x;
+                for (int k = 0; k < maskDim; k++) {
+                    sum += coefficients[k] * protos[k * plane + index];
+                }
+                if (sum > 0) {
+                    mask[rowOut + x - x0] = 1;
+                    count++;
+                } else {
+                    mask[rowOut + x - x0] = 0;
+                }
+            }
+        }
+        return count;
+    }
+}
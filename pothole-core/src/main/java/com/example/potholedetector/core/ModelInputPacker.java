@@ -0,0 +1,253 @@
+package com.example.potholedetector.core;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Writes images into the model's normalized CHW float input.
+ *
+ * Camera frames can be packed straight from their YUV 4:2:0 planes: the region is
+ * letterboxed while it is sampled (bilinear luma, nearest chroma, full-range BT.601 to
+ * RGB), so no RGB copy of the frame is ever made. Normalization goes through a 256-entry
+ * table per channel, and the column maps and row buffers are kept between calls and only
+ * reallocated when the sizes grow. Not thread-safe; one packer per thread.
+ */
+public class ModelInputPacker {
+
+    // Fixed-point fractional bits of the bilinear weights
+    private static final int WEIGHT_BITS = 8;
+    private static final int WEIGHT_ONE = 1 << WEIGHT_BITS;
+
+    // Per channel, value -> normalized input
+    private final float[][] normalized = new float[3][256];
+    private final float[] padValue = new float[3];
+
+    // Output rows, padding prefilled; rebuilt when the input size changes
+    private int rowSize;
+    private final float[][] outRow = new float[3][];
+
+    // Column maps of the scaled region, relative to the copied source rows
+    private int[] lumaX0 = new int[0];
+    private int[] lumaX1 = new int[0];
+    private int[] weightX = new int[0];
+    private int[] chromaX = new int[0];
+
+    // Source rows; a row already in a buffer is not copied again
+    private byte[] lumaRowA = new byte[0];
+    private byte[] lumaRowB = new byte[0];
+    private int lumaRowAIndex;
+    private int lumaRowBIndex;
+    private byte[] uRow = new byte[0];
+    private byte[] vRow = new byte[0];
+    private int chromaRowIndex;
+
+    // mean and std are per RGB channel on values scaled to [0, 1]; padding is the letterbox grey
+    public ModelInputPacker(float[] mean, float[] std, int padding) {
+        for (int c = 0; c < 3; c++) {
+            for (int v = 0; v < 256; v++) {
+                normalized[c][v] = (v / 255f - mean[c]) / std[c];
+            }
+            padValue[c] = normalized[c][padding];
+        }
+    }
+
+    /**
+     * Letterboxes a region of a YUV_420_888 image into {@code out} at {@code offset}.
+     * The region is scaled to {@code scaledW} by {@code scaledH} and placed at {@code padX},
+     * {@code padY}, the same placement the letterbox maps detections back with. The U and V
+     * buffers may interleave (pixel stride 2). Plane buffer positions are changed.
+     */
+    public void packYuv(ByteBuffer yPlane, int yRowStride,
+                        ByteBuffer uPlane, ByteBuffer vPlane, int uvRowStride, int uvPixelStride,
+                        int regionX, int regionY, int regionWidth, int regionHeight,
+                        int inputSize, int padX, int padY, int scaledW, int scaledH,
+                        FloatBuffer out, int offset) {
+        prepareRows(inputSize);
+        mapColumns(regionX, regionWidth, scaledW, uvPixelStride);
+
+        // Luma columns actually read, and the chroma columns below them
+        int lumaFrom = regionX;
+        int lumaLength = regionWidth;
+        int chromaFrom = (regionX >> 1) * uvPixelStride;
+        int chromaLength = (((regionX + regionWidth - 1) >> 1) - (regionX >> 1)) * uvPixelStride + 1;
+        lumaRowA = ensure(lumaRowA, lumaLength);
+        lumaRowB = ensure(lumaRowB, lumaLength);
+        uRow = ensure(uRow, chromaLength);
+        vRow = ensure(vRow, chromaLength);
+        lumaRowAIndex = -1;
+        lumaRowBIndex = -1;
+        chromaRowIndex = -1;
+
+        int plane = inputSize * inputSize;
+        double scaleY = (double) regionHeight / scaledH;
+        float[] r = outRow[0];
+        float[] g = outRow[1];
+        float[] b = outRow[2];
+        for (int dy = 0; dy < scaledH; dy++) {
+            // Same sample positions as OpenCV's INTER_LINEAR resize
+            double fy = (dy + 0.5) * scaleY - 0.5;
+            int sy = (int) Math.floor(fy);
+            int wy = (int) Math.round((fy - sy) * WEIGHT_ONE);
+            if (sy < 0) {
+                sy = 0;
+                wy = 0;
+            } else if (sy >= regionHeight - 1) {
+                sy = regionHeight - 1;
+                wy = 0;
+            }
+            int sy1 = Math.min(sy + 1, regionHeight - 1);
+            byte[] top = lumaRow(yPlane, yRowStride, regionY + sy, lumaFrom, lumaLength);
+            byte[] bottom = lumaRow(yPlane, yRowStride, regionY + sy1, lumaFrom, lumaLength);
+            int centreY = Math.min(regionHeight - 1, (int) ((dy + 0.5) * scaleY));
+            chromaRow(uPlane, vPlane, uvRowStride, (regionY + centreY) >> 1, chromaFrom, chromaLength);
+
+            for (int dx = 0; dx < scaledW; dx++) {
+                int x0 = lumaX0[dx];
+                int x1 = lumaX1[dx];
+                int wx = weightX[dx];
+                int upper = (top[x0] & 0xFF) * (WEIGHT_ONE - wx) + (top[x1] & 0xFF) * wx;
+                int lower = (bottom[x0] & 0xFF) * (WEIGHT_ONE - wx) + (bottom[x1] & 0xFF) * wx;
+                int y = (upper * (WEIGHT_ONE - wy) + lower * wy + (1 << (2 * WEIGHT_BITS - 1))) >> (2 * WEIGHT_BITS);
+
+                int c = chromaX[dx];
+                int u = (uRow[c] & 0xFF) - 128;
+                int v = (vRow[c] & 0xFF) - 128;
+                // Full-range BT.601, 16-bit fixed point
+                int red = y + ((91881 * v + 32768) >> 16);
+                int green = y - ((22554 * u + 46802 * v + 32768) >> 16);
+                int blue = y + ((116130 * u + 32768) >> 16);
+                r[padX + dx] = normalized[0][clampByte(red)];
+                g[padX + dx] = normalized[1][clampByte(green)];
+                b[padX + dx] = normalized[2][clampByte(blue)];
+            }
+            putRow(out, offset, plane, (padY + dy) * inputSize);
+        }
+        putPaddingRows(out, offset, inputSize, padY, scaledH);
+    }
+
+    /**
+     * Packs an already letterboxed interleaved image of {@code inputSize} squared pixels,
+     * RGB or RGBA, into {@code out} at {@code offset}.
+     */
+    public void packInterleaved(byte[] pixels, int channels, int inputSize, FloatBuffer out, int offset) {
+        int plane = inputSize * inputSize;
+        prepareRows(inputSize);
+        float[] r = outRow[0];
+        float[] g = outRow[1];
+        float[] b = outRow[2];
+        for (int y = 0; y < inputSize; y++) {
+            int index = y * inputSize * channels;
+            for (int x = 0; x < inputSize; x++, index += channels) {
+                r[x] = normalized[0][pixels[index] & 0xFF];
+                g[x] = normalized[1][pixels[index + 1] & 0xFF];
+                b[x] = normalized[2][pixels[index + 2] & 0xFF];
+            }
+            putRow(out, offset, plane, y * inputSize);
+        }
+    }
+
+    private void prepareRows(int inputSize) {
+        if (rowSize == inputSize) {
+            return;
+        }
+        for (int c = 0; c < 3; c++) {
+            outRow[c] = new float[inputSize];
+        }
+        rowSize = inputSize;
+    }
+
+    private void mapColumns(int regionX, int regionWidth, int scaledW, int uvPixelStride) {
+        if (lumaX0.length < scaledW) {
+            lumaX0 = new int[scaledW];
+            lumaX1 = new int[scaledW];
+            weightX = new int[scaledW];
+            chromaX = new int[scaledW];
+        }
+        double scaleX = (double) regionWidth / scaledW;
+        int chromaBase = regionX >> 1;
+        for (int dx = 0; dx < scaledW; dx++) {
+            double fx = (dx + 0.5) * scaleX - 0.5;
+            int sx = (int) Math.floor(fx);
+            int wx = (int) Math.round((fx - sx) * WEIGHT_ONE);
+            if (sx < 0) {
+                sx = 0;
+                wx = 0;
+            } else if (sx >= regionWidth - 1) {
+                sx = regionWidth - 1;
+                wx = 0;
+            }
+            lumaX0[dx] = sx;
+            lumaX1[dx] = Math.min(sx + 1, regionWidth - 1);
+            weightX[dx] = wx;
+            int centreX = Math.min(regionWidth - 1, (int) ((dx + 0.5) * scaleX));
+            chromaX[dx] = (((regionX + centreX) >> 1) - chromaBase) * uvPixelStride;
+        }
+        // Every row of the region has the same padding columns
+        for (int c = 0; c < 3; c++) {
+            Arrays.fill(outRow[c], padValue[c]);
+        }
+    }
+
+    private byte[] lumaRow(ByteBuffer yPlane, int rowStride, int row, int from, int length) {
+        if (row == lumaRowAIndex) {
+            return lumaRowA;
+        }
+        if (row == lumaRowBIndex) {
+            return lumaRowB;
+        }
+        // Rows are visited top to bottom, so the lower-numbered buffer is the one to reuse
+        boolean useA = lumaRowAIndex < lumaRowBIndex;
+        byte[] target = useA ? lumaRowA : lumaRowB;
+        yPlane.position(row * rowStride + from);
+        yPlane.get(target, 0, length);
+        if (useA) {
+            lumaRowAIndex = row;
+        } else {
+            lumaRowBIndex = row;
+        }
+        return target;
+    }
+
+    private void chromaRow(ByteBuffer uPlane, ByteBuffer vPlane, int rowStride, int row, int from, int length) {
+        if (row == chromaRowIndex) {
+            return;
+        }
+        uPlane.position(row * rowStride + from);
+        uPlane.get(uRow, 0, length);
+        vPlane.position(row * rowStride + from);
+        vPlane.get(vRow, 0, length);
+        chromaRowIndex = row;
+    }
+
+    private void putRow(FloatBuffer out, int offset, int plane, int rowStart) {
+        for (int c = 0; c < 3; c++) {
+            out.position(offset + c * plane + rowStart);
+            out.put(outRow[c], 0, rowSize);
+        }
+        out.position(0);
+    }
+
+    // Letterbox bands above and below the scaled region
+    private void putPaddingRows(FloatBuffer out, int offset, int inputSize, int padY, int scaledH) {
+        int plane = inputSize * inputSize;
+        for (int c = 0; c < 3; c++) {
+            Arrays.fill(outRow[c], padValue[c]);
+        }
+        for (int y = 0; y < inputSize; y++) {
+            if (y == padY) {
+                y += scaledH - 1;
+                continue;
+            }
+            putRow(out, offset, plane, y * inputSize);
+        }
+    }
+
+    private static byte[] ensure(byte[] buffer, int length) {
+        return buffer.length >= length ? buffer : new byte[length];
+    }
+
+    private static int clampByte(int value) {
+        return value < 0 ? 0 : (value > 255 ? 255 : value);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.potholedetector.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Greedy non-maximum suppression.
+ *
+ * Boxes are visited in descending score order and a box is dropped when it overlaps an
+ * already kept box above the IoU threshold. Suppression is class-agnostic: the model
+ * has a single pothole class and tile seams produce same-object duplicates.
+ */
+public final class Nms {
+
+    private Nms() {
+    }
+
+    public static List<Detection> apply(List<Detection> detections, float iouThreshold, int maxDetections) {
+        int n = detections.size();
+        if (n == 0) {
+            return new ArrayList<>();
+        }
+
+        // Sort indices by score without boxing through a comparator on objects
+        float[] scores = new float[n];
+        for (int i = 0; i < n; i++) {
+            scores[i] = detections.get(i).score;
+        }
+        int[] order = sortByScoreDescending(scores);
+
+        boolean[] suppressed = new boolean[n];
+        List<Detection> kept = new ArrayList<>();
+        for (int a = 0; a < n && kept.size() < maxDetections; a++) {
+            int i = order[a];
+            if (suppressed[i]) {
+                continue;
+            }
+            Detection best = detections.get(i);
+            kept.add(best);
+            for (int b = a + 1; b < n; b++) {
+                int j = order[b];
+                if (!suppressed[j] && best.iou(detections.get(j)) > iouThreshold) {
+                    suppressed[j] = true;
+                }
+            }
+        }
+        return kept;
+    }
+
+    // Index permutation sorting scores high to low
+    static int[] sortByScoreDescending(float[] scores) {
+        int n = scores.length;
+        long[] keyed = new long[n];
+        for (int i = 0; i < n; i++) {
+            // Scores are non-negative, so their IEEE bits order like the values
+            keyed[i] = ((long) Float.floatToIntBits(scores[i]) << 32) | i;
+        }
+        Arrays.sort(keyed);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = (int) keyed[n - 1 - i];
+        }
+        return order;
+    }
+}
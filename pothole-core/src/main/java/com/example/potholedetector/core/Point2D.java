@@ -0,0 +1,21 @@
+package com.example.potholedetector.core;
+
+/**
+ * A point in frame pixel coordinates.
+ *
+ * Plain replacement for the OpenCV point so the core classes don't need the native
+ * library.
+ */
+public class Point2D {
+    public double x;
+    public double y;
+
+    public Point2D(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public double distance(Point2D other) {
+        return Math.hypot(x - other.x, y - other.y);
+    }
+}
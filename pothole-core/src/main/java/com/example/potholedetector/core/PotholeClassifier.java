@@ -0,0 +1,81 @@
+package com.example.potholedetector.core;
+
+/**
+ * Size and risk classification of a detected pothole - SAME AS PYTHON CODE.
+ *
+ * Kept apart from the detector so it can run on recorded or synthetic detections without
+ * a model. Results are {@link SizeClass}/{@link RiskClass} codes. Every threshold test is
+ * done with sign-bit arithmetic instead of branches, so the column form
+ * {@link #classify(DetectionTable, float)} is a straight loop the JIT can vectorize.
+ *
+ * Risk is the size code (0 small, 1 medium, 2 large) plus a position factor that is 1 at
+ * the vertical centre of the frame and 0 at the top and bottom edges; the sum is compared
+ * against the medium and high risk thresholds.
+ */
+public class PotholeClassifier {
+
+    // Define size thresholds (in pixels squared) - SAME AS PYTHON CODE
+    private float smallThreshold = 5000;    // Areas below this are small potholes
+    private float largeThreshold = 15000;   // Areas above this are large potholes
+
+    // Risk score thresholds - SAME AS PYTHON CODE
+    private float mediumRiskThreshold = 1;
+    private float highRiskThreshold = 2;
+
+    public void setSizeThresholds(float smallThreshold, float largeThreshold) {
+        this.smallThreshold = smallThreshold;
+        this.largeThreshold = largeThreshold;
+    }
+
+    public void setRiskThresholds(float mediumRiskThreshold, float highRiskThreshold) {
+        this.mediumRiskThreshold = mediumRiskThreshold;
+        this.highRiskThreshold = highRiskThreshold;
+    }
+
+    // Small below the small threshold, large above the large threshold, medium in between
+    public byte classifySize(float area) {
+        return (byte) (notBelow(area, smallThreshold) + above(area, largeThreshold));
+    }
+
+    // Calculate risk level based on size and position (center of road is more severe)
+    public byte classifyRisk(byte sizeClass, float centroidY, float frameHeight) {
+        float roadCenter = frameHeight * 0.5f;
+        // Same arithmetic as the column loop so both give identical results at the thresholds
+        float riskAdjusted = sizeClass + 1 - Math.abs(centroidY - roadCenter) * (1 / roadCenter);
+        return (byte) (notBelow(riskAdjusted, mediumRiskThreshold) + notBelow(riskAdjusted, highRiskThreshold));
+    }
+
+    // Fill the size and risk columns of every row from its area and centroid
+    public void classify(DetectionTable table, float frameHeight) {
+        classify(table.areaColumn(), table.centroidYColumn(), table.size(), frameHeight,
+                table.sizeClassColumn(), table.riskClassColumn());
+    }
+
+    public void classify(float[] areas, float[] centroidYs, int count, float frameHeight,
+                         byte[] sizeOut, byte[] riskOut) {
+        float small = smallThreshold;
+        float large = largeThreshold;
+        float mediumRisk = mediumRiskThreshold;
+        float highRisk = highRiskThreshold;
+        float roadCenter = frameHeight * 0.5f;
+        float invCenter = 1 / roadCenter;
+        for (int i = 0; i < count; i++) {
+            float area = areas[i];
+            int size = notBelow(area, small) + above(area, large);
+            // Size code plus the position factor: 1 at center, 0 at edges
+            float riskAdjusted = size + 1 - Math.abs(centroidYs[i] - roadCenter) * invCenter;
+            sizeOut[i] = (byte) size;
+            riskOut[i] = (byte) (notBelow(riskAdjusted, mediumRisk) + notBelow(riskAdjusted, highRisk));
+        }
+    }
+
+    // 1 if value > threshold, else 0: the sign bit of (threshold - value)
+    private static int above(float value, float threshold) {
+        return Float.floatToRawIntBits(threshold - value) >>> 31;
+    }
+
+    // 1 if value >= threshold, else 0: one minus the sign bit of (value - threshold)
+    private static int notBelow(float value, float threshold) {
+        return 1 - (Float.floatToRawIntBits(value - threshold) >>> 31);
+    }
+}
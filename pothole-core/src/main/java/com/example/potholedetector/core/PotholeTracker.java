@@ -0,0 +1,221 @@
+package com.example.potholedetector.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Links per-frame detections into tracks, so a pothole seen in many frames counts once.
+ *
+ * Every track predicts its next box from its smoothed velocity (potholes slide down the
+ * frame as the vehicle approaches). A detection can match a track when its centre is
+ * within the gate around the prediction, which scales with the box size so distant small
+ * potholes that move several box widths per frame are still caught. Matches are taken
+ * greedily, closest first; unmatched detections start new tracks and a track that has not
+ * been matched for {@code maxMisses} frames is finished.
+ */
+public class PotholeTracker {
+
+    private static final float VELOCITY_ALPHA = 0.5f;
+    // Gate floor in pixels, for potholes only a few pixels across
+    private static final float MIN_GATE_PX = 24;
+
+    private final float gateScale;
+    private final int maxMisses;
+
+    private final List<Track> active = new ArrayList<>();
+    private final List<Track> finished = new ArrayList<>();
+    private int nextId = 1;
+
+    public PotholeTracker() {
+        this(1.0f, 5);
+    }
+
+    // gateScale: match radius as a multiple of the box diagonal
+    public PotholeTracker(float gateScale, int maxMisses) {
+        this.gateScale = gateScale;
+        this.maxMisses = maxMisses;
+    }
+
+    // Associate one frame's detections; returns the track of each detection, in order
+    public Track[] update(int frameIndex, List<Detection> detections) {
+        int n = detections.size();
+        Track[] assigned = new Track[n];
+
+        int[] pairs = associate(frameIndex, detections);
+        boolean[] trackUsed = new boolean[active.size()];
+        for (int p = 0; p < pairs.length; p += 2) {
+            int t = pairs[p];
+            int d = pairs[p + 1];
+            if (trackUsed[t] || assigned[d] != null) {
+                continue;
+            }
+            trackUsed[t] = true;
+            Track track = active.get(t);
+            track.update(frameIndex, detections.get(d));
+            assigned[d] = track;
+        }
+
+        // Age the tracks that found nothing
+        for (int t = trackUsed.length - 1; t >= 0; t--) {
+            if (trackUsed[t]) {
+                continue;
+            }
+            Track track = active.get(t);
+            track.misses++;
+            if (track.misses > maxMisses) {
+                active.remove(t);
+                finished.add(track);
+            }
+        }
+
+        for (int d = 0; d < n; d++) {
+            if (assigned[d] == null) {
+                Track track = new Track(nextId++, frameIndex, detections.get(d));
+                active.add(track);
+                assigned[d] = track;
+            }
+        }
+        return assigned;
+    }
+
+    // Associate the rows of a table, all from one frame; tables keep no score, so it is 1
+    public Track[] update(int frameIndex, DetectionTable rows) {
+        List<Detection> detections = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            detections.add(new Detection(rows.x1(i), rows.y1(i), rows.x2(i), rows.y2(i), 1f, 0));
+        }
+        Track[] tracks = update(frameIndex, detections);
+        byte[] risks = rows.riskClassColumn();
+        for (int i = 0; i < tracks.length; i++) {
+            Track track = tracks[i];
+            track.maxRisk = (byte) Math.max(track.maxRisk, risks[i]);
+            track.lastTimestampMs = rows.timestampMs(i);
+            // The row that set the largest area is where the pothole was closest
+            if (detections.get(i).area() == track.maxArea) {
+                track.bestTimestampMs = rows.timestampMs(i);
+            }
+        }
+        return tracks;
+    }
+
+    // Candidate (track, detection) index pairs inside the gate, closest first
+    int[] associate(int frameIndex, List<Detection> detections) {
+        int trackCount = active.size();
+        int n = detections.size();
+        if (trackCount == 0 || n == 0) {
+            return new int[0];
+        }
+
+        long[] keyed = new long[Math.min(trackCount * n, 1 << 16)];
+        int count = 0;
+        for (int t = 0; t < trackCount; t++) {
+            Track track = active.get(t);
+            int gap = frameIndex - track.lastFrame;
+            float px = (track.x1 + track.x2) * 0.5f + track.vx * gap;
+            float py = (track.y1 + track.y2) * 0.5f + track.vy * gap;
+            float trackDiagonal = (float) Math.hypot(track.x2 - track.x1, track.y2 - track.y1);
+            for (int d = 0; d < n; d++) {
+                Detection detection = detections.get(d);
+                float gate = Math.max(MIN_GATE_PX,
+                        gateScale * 0.5f * (trackDiagonal + (float) Math.hypot(detection.width(), detection.height())));
+                float distance = (float) Math.hypot(detection.centerX() - px, detection.centerY() - py);
+                if (distance >= gate) {
+                    continue;
+                }
+                float similarity = 1 - distance / gate;
+                if (count == keyed.length) {
+                    keyed = Arrays.copyOf(keyed, keyed.length * 2);
+                }
+                // Similarity bits order like the value; track and detection index packed below
+                keyed[count++] = ((long) Float.floatToIntBits(similarity) << 32) | ((long) t << 16) | d;
+            }
+        }
+        Arrays.sort(keyed, 0, count);
+
+        int[] pairs = new int[count * 2];
+        for (int i = 0; i < count; i++) {
+            long key = keyed[count - 1 - i];
+            pairs[2 * i] = (int) (key >>> 16) & 0xFFFF;
+            pairs[2 * i + 1] = (int) key & 0xFFFF;
+        }
+        return pairs;
+    }
+
+    public List<Track> getActiveTracks() {
+        return active;
+    }
+
+    // Tracks that have ended; call finish() at the end of a run to close the rest
+    public List<Track> getFinishedTracks() {
+        return finished;
+    }
+
+    public void finish() {
+        finished.addAll(active);
+        active.clear();
+    }
+
+    public int getTrackCount() {
+        return nextId - 1;
+    }
+
+    public void reset() {
+        active.clear();
+        finished.clear();
+        nextId = 1;
+    }
+
+    public static class Track {
+        public final int id;
+        public final int firstFrame;
+        public int lastFrame;
+        public int hits = 1;
+        public int misses;
+        public float x1;
+        public float y1;
+        public float x2;
+        public float y2;
+        // Per-frame box motion, smoothed
+        public float vx;
+        public float vy;
+        public float bestScore;
+        // Largest box area seen, the pothole is closest and best resolved then
+        public float maxArea;
+        // Only set when fed from a DetectionTable: highest risk code, time of maxArea, time last seen
+        public byte maxRisk;
+        public int bestTimestampMs;
+        public int lastTimestampMs;
+        // Strongest wheel impact matched to this pothole by BumpFusion, m/s^2; 0 if none
+        public float bumpPeak;
+
+        Track(int id, int frameIndex, Detection d) {
+            this.id = id;
+            this.firstFrame = frameIndex;
+            this.lastFrame = frameIndex;
+            this.x1 = d.x1;
+            this.y1 = d.y1;
+            this.x2 = d.x2;
+            this.y2 = d.y2;
+            this.bestScore = d.score;
+            this.maxArea = d.area();
+        }
+
+        void update(int frameIndex, Detection d) {
+            int gap = Math.max(1, frameIndex - lastFrame);
+            float dx = (d.centerX() - (x1 + x2) * 0.5f) / gap;
+            float dy = (d.centerY() - (y1 + y2) * 0.5f) / gap;
+            vx += VELOCITY_ALPHA * (dx - vx);
+            vy += VELOCITY_ALPHA * (dy - vy);
+            x1 = d.x1;
+            y1 = d.y1;
+            x2 = d.x2;
+            y2 = d.y2;
+            lastFrame = frameIndex;
+            hits++;
+            misses = 0;
+            bestScore = Math.max(bestScore, d.score);
+            maxArea = Math.max(maxArea, d.area());
+        }
+    }
+}
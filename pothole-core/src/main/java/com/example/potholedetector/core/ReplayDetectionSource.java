@@ -0,0 +1,104 @@
+package com.example.potholedetector.core;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Replays detections recorded from an earlier run.
+ *
+ * The recording is a CSV with one detection per line, ordered by frame:
+ * {@code frameIndex,timestampMs,x1,y1,x2,y2,score,classId,polygon}, where the optional
+ * polygon is space separated x y pairs. The file is streamed, so recordings with millions
+ * of detections replay in constant memory. {@link #write} produces the same format.
+ */
+public class ReplayDetectionSource implements DetectionSource<Object>, Closeable {
+
+    public static final String HEADER = "frameIndex,timestampMs,x1,y1,x2,y2,score,classId,polygon";
+
+    private final BufferedReader reader;
+    private String[] pending;
+
+    public ReplayDetectionSource(Reader reader) throws IOException {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        readNext();
+        if (pending != null && pending[0].equals("frameIndex")) {
+            readNext();
+        }
+    }
+
+    // Detections recorded for this frame; frames must be requested in increasing order
+    @Override
+    public List<Detection> detect(Object frame, int frameIndex, long timestampMs) {
+        List<Detection> detections = new ArrayList<>();
+        try {
+            while (pending != null) {
+                int recordedFrame = Integer.parseInt(pending[0]);
+                if (recordedFrame > frameIndex) {
+                    break;
+                }
+                if (recordedFrame == frameIndex) {
+                    detections.add(parse(pending));
+                }
+                readNext();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Error reading detection recording", e);
+        }
+        return detections;
+    }
+
+    public boolean hasMore() {
+        return pending != null;
+    }
+
+    private void readNext() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+        } while (line != null && line.isEmpty());
+        pending = line == null ? null : line.split(",", -1);
+    }
+
+    private static Detection parse(String[] fields) {
+        Detection d = new Detection(
+                Float.parseFloat(fields[2]), Float.parseFloat(fields[3]),
+                Float.parseFloat(fields[4]), Float.parseFloat(fields[5]),
+                Float.parseFloat(fields[6]), Integer.parseInt(fields[7]));
+        if (fields.length > 8 && !fields[8].isEmpty()) {
+            String[] values = fields[8].split(" ");
+            d.polygon = new float[values.length];
+            for (int i = 0; i < values.length; i++) {
+                d.polygon[i] = Float.parseFloat(values[i]);
+            }
+        }
+        return d;
+    }
+
+    // Append one frame's detections in the replay format
+    public static void write(Writer writer, int frameIndex, long timestampMs, List<Detection> detections) throws IOException {
+        for (Detection d : detections) {
+            writer.write(String.format(Locale.US, "%d,%d,%.1f,%.1f,%.1f,%.1f,%.3f,%d,",
+                    frameIndex, timestampMs, d.x1, d.y1, d.x2, d.y2, d.score, d.classId));
+            if (d.polygon != null) {
+                for (int i = 0; i < d.polygon.length; i++) {
+                    if (i > 0) {
+                        writer.write(' ');
+                    }
+                    writer.write(String.format(Locale.US, "%.1f", d.polygon[i]));
+                }
+            }
+            writer.write('\n');
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
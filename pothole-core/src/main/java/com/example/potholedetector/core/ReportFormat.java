@@ -0,0 +1,21 @@
+package com.example.potholedetector.core;
+
+/**
+ * Output formats of {@link ReportGenerator}.
+ */
+public enum ReportFormat {
+    // Human-readable report
+    TEXT("txt"),
+    // One row per pothole, for spreadsheets
+    CSV("csv"),
+    // A summary object, then one object per pothole
+    JSONL("jsonl"),
+    // Run header followed by the detection table columns, see DetectionTable.write
+    BINARY("bin");
+
+    public final String extension;
+
+    ReportFormat(String extension) {
+        this.extension = extension;
+    }
+}
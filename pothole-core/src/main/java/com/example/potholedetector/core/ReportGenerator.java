@@ -0,0 +1,625 @@
+package com.example.potholedetector.core;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class ReportGenerator {
+
+    // Core classes have no Android Log; java.util.logging reaches logcat on a device
+    private static final Logger LOG = Logger.getLogger(ReportGenerator.class.getName());
+
+    private static final int BINARY_MAGIC = 0x50545231; // "PTR1"
+
+    /** A photo of one of the worst potholes, saved next to the report. */
+    public static class Evidence {
+        public final int trackId;
+        public final RiskClass risk;
+        public final float area;
+        public final String fileName;
+
+        public Evidence(int trackId, RiskClass risk, float area, String fileName) {
+            this.trackId = trackId;
+            this.risk = risk;
+            this.area = area;
+            this.fileName = fileName;
+        }
+    }
+
+    /** A side-by-side measurement made during the run, as its own section of the text report. */
+    public static class Comparison {
+        public final String title;
+        public final String text;
+
+        public Comparison(String title, String text) {
+            this.title = title;
+            this.text = text;
+        }
+    }
+
+    private ReportFormat format = ReportFormat.TEXT;
+    // Potholes listed one by one in the text report, riskiest first; 0 lists all
+    private int detailLimit = 0;
+
+    // Frames analyzed per model input resolution
+    private Map<Integer, Integer> inputSizeUsage = new HashMap<>();
+
+    // Road ROI mode and mean preprocessing + forward time, to compare runs with and without the crop
+    private String roiMode = "OFF";
+    private double avgInferenceMs = 0;
+
+    // Far-field tiling cost and the detections only the tiles found
+    private boolean tilingEnabled = false;
+    private double avgTileMs = 0;
+    private int tileOnlyDetections = 0;
+
+    // Total time per pipeline stage for the summary sidecar, in the order stages were added
+    private final Map<String, Double> stageTimingsMs = new LinkedHashMap<>();
+
+    // Wheel impacts from the motion sensors; -1 when the run had no sensor log
+    private int bumpCount = -1;
+    private int bumpConfirmedTracks = 0;
+    private int bumpOnly = 0;
+
+    // Photos of the worst potholes, highest ranked first
+    private final List<Evidence> evidence = new ArrayList<>();
+
+    // Settings changes of the throughput governor, in run order
+    private final List<ThroughputGovernor.Decision> governorDecisions = new ArrayList<>();
+
+    // Vehicle positions by video time; when set, potholes are reported with coordinates
+    private GpsTrack gpsTrack;
+
+    // E.g. with and without the road crop, in the order they were added
+    private final List<Comparison> comparisons = new ArrayList<>();
+
+    private ReportSummary lastSummary;
+
+    public void setFormat(ReportFormat format) {
+        this.format = format;
+    }
+
+    public ReportFormat getFormat() {
+        return format;
+    }
+
+    // Cap the detailed section of the text report to the riskiest potholes; 0 lists all
+    public void setDetailLimit(int detailLimit) {
+        this.detailLimit = detailLimit;
+    }
+
+    public void setInputSizeUsage(Map<Integer, Integer> inputSizeUsage) {
+        this.inputSizeUsage = inputSizeUsage;
+    }
+
+    public void setInferenceStats(String roiMode, double avgInferenceMs) {
+        this.roiMode = roiMode;
+        this.avgInferenceMs = avgInferenceMs;
+    }
+
+    public void setTilingStats(boolean enabled, double avgTileMs, int tileOnlyDetections) {
+        this.tilingEnabled = enabled;
+        this.avgTileMs = avgTileMs;
+        this.tileOnlyDetections = tileOnlyDetections;
+    }
+
+    public void addStageTiming(String stage, double totalMs) {
+        stageTimingsMs.put(stage, totalMs);
+    }
+
+    public void setBumpStats(int bumpCount, int confirmedTracks, int bumpOnly) {
+        this.bumpCount = bumpCount;
+        this.bumpConfirmedTracks = confirmedTracks;
+        this.bumpOnly = bumpOnly;
+    }
+
+    public void addEvidence(int trackId, RiskClass risk, float area, String fileName) {
+        evidence.add(new Evidence(trackId, risk, area, fileName));
+    }
+
+    public void addGovernorDecision(long timeMs, ThroughputGovernor.Settings settings, String reason) {
+        governorDecisions.add(new ThroughputGovernor.Decision(timeMs, settings, reason));
+    }
+
+    public void setGpsTrack(GpsTrack gpsTrack) {
+        this.gpsTrack = gpsTrack;
+    }
+
+    // title is the section heading; text may span several lines
+    public void addComparison(String title, String text) {
+        comparisons.add(new Comparison(title, text));
+    }
+
+    // Summary of the last report generated, or null
+    public ReportSummary getSummary() {
+        return lastSummary;
+    }
+
+    public boolean generateReport(
+            File reportFile,
+            String videoName,
+            double videoDuration,
+            int framesProcessed,
+            Map<String, Integer> potholeCounts,
+            Map<String, Integer> riskLevels,
+            DetectionTable allPotholes) {
+
+        // Calculate severity rating (0-10)
+        double severityRating = Math.min(10,
+                (riskLevels.get("Medium") * 0.5 + riskLevels.get("High") * 1.0) / Math.max(1, framesProcessed) * 10);
+
+        // Find hotspots once for both the report and the summary
+        List<Map<String, Object>> hotspots = sortedHotspots(allPotholes);
+        Map<String, Long> sectionOffsets = new LinkedHashMap<>();
+
+        long writeStart = System.nanoTime();
+        try {
+            switch (format) {
+                case CSV:
+                    try (ReportWriter writer = new ReportWriter(reportFile)) {
+                        writeCsv(writer, allPotholes);
+                    }
+                    break;
+                case JSONL:
+                    try (ReportWriter writer = new ReportWriter(reportFile)) {
+                        writeJsonLines(writer, videoName, videoDuration, framesProcessed,
+                                severityRating, allPotholes, hotspots);
+                    }
+                    break;
+                case BINARY:
+                    try (DataOutputStream out = new DataOutputStream(
+                            new BufferedOutputStream(new FileOutputStream(reportFile), 64 * 1024))) {
+                        writeBinary(out, videoName, videoDuration, framesProcessed, severityRating, allPotholes);
+                    }
+                    break;
+                default:
+                    try (ReportWriter writer = new ReportWriter(reportFile)) {
+                        writeText(writer, videoName, videoDuration, framesProcessed,
+                                potholeCounts, riskLevels, severityRating, allPotholes, hotspots, sectionOffsets);
+                    }
+                    break;
+            }
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Error writing report " + reportFile, e);
+            return false;
+        }
+        stageTimingsMs.put("report", (System.nanoTime() - writeStart) / 1e6);
+
+        // The sidecar is a convenience; readers fall back to the report without it
+        lastSummary = buildSummary(reportFile, videoName, videoDuration, framesProcessed, severityRating,
+                allPotholes, hotspots, sectionOffsets);
+        try {
+            lastSummary.write(ReportSummary.fileFor(reportFile));
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Error writing report summary", e);
+        }
+        return true;
+    }
+
+    private ReportSummary buildSummary(File reportFile, String videoName, double videoDuration,
+                                       int framesProcessed, double severityRating,
+                                       DetectionTable potholes, List<Map<String, Object>> hotspots,
+                                       Map<String, Long> sectionOffsets) {
+        ReportSummary summary = new ReportSummary();
+        summary.video = videoName != null ? videoName : "";
+        summary.reportFile = reportFile.getName();
+        summary.format = format;
+        summary.reportBytes = reportFile.length();
+        summary.durationSec = videoDuration;
+        summary.framesAnalyzed = framesProcessed;
+        summary.potholes = potholes.size();
+        summary.sizeCounts = potholes.sizeHistogram();
+        summary.riskCounts = potholes.riskHistogram();
+        summary.avgArea = potholes.meanArea();
+        summary.severity = severityRating;
+        for (int i = 0; i < Math.min(ReportSummary.MAX_HOTSPOTS, hotspots.size()); i++) {
+            Point2D center = (Point2D) hotspots.get(i).get("center");
+            summary.hotspots.add(new ReportSummary.Hotspot((float) center.x, (float) center.y,
+                    (Integer) hotspots.get(i).get("count")));
+        }
+        summary.stageTimingsMs.putAll(stageTimingsMs);
+        summary.sectionOffsets.putAll(sectionOffsets);
+        return summary;
+    }
+
+    private void writeText(
+            ReportWriter writer,
+            String videoName,
+            double videoDuration,
+            int framesProcessed,
+            Map<String, Integer> potholeCounts,
+            Map<String, Integer> riskLevels,
+            double severityRating,
+            DetectionTable allPotholes,
+            List<Map<String, Object>> hotspots,
+            Map<String, Long> sectionOffsets) throws IOException {
+
+        // Header
+        writer.write("=".repeat(80) + "\n");
+        writer.write("POTHOLE DETECTION ANALYSIS REPORT\n");
+        writer.write("Generated on: " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US).format(new Date()) + "\n");
+        writer.write("=".repeat(80) + "\n\n");
+
+        // Video information
+        beginSection(writer, "VIDEO INFORMATION", sectionOffsets);
+        writer.write("Filename: " + videoName + "\n");
+        writer.write("Duration: ");
+        writer.writeFixed(videoDuration, 2);
+        writer.write(" seconds\n");
+        writer.write("Frames analyzed: " + framesProcessed + "\n");
+        writer.write("Model used: YOLOv8-seg (best_02.pt)\n");
+        if (!inputSizeUsage.isEmpty()) {
+            writer.write("Model input resolution:\n");
+            for (Map.Entry<Integer, Integer> entry : inputSizeUsage.entrySet()) {
+                writer.write("  - " + entry.getKey() + "x" + entry.getKey() + ": " + entry.getValue() + " frames\n");
+            }
+        }
+        if (gpsTrack != null && gpsTrack.isApproximate()) {
+            // Only where the video was taken, so it is not repeated for every pothole
+            double[] location = gpsTrack.locate(0);
+            writer.write("Approximate location (video metadata): ");
+            writer.writeFixed(location[0], 6);
+            writer.write(", ");
+            writer.writeFixed(location[1], 6);
+            writer.write("\n");
+        }
+        writer.write("Road region crop: " + roiMode + "\n");
+        writer.write("Average inference time: ");
+        writer.writeFixed(avgInferenceMs, 1);
+        writer.write(" ms/frame\n");
+        if (tilingEnabled) {
+            writer.write("Far-field tiling: +");
+            writer.writeFixed(avgTileMs, 1);
+            writer.write(" ms/frame, " + tileOnlyDetections + " detections found only in tiles\n");
+        }
+        writer.write("\n");
+
+        // Summary statistics
+        beginSection(writer, "SUMMARY STATISTICS", sectionOffsets);
+        writer.write("Total unique potholes detected: " + allPotholes.size() + "\n");
+        writer.write("Pothole size distribution:\n");
+        writer.write("  - Small: " + potholeCounts.get("Small") + "\n");
+        writer.write("  - Medium: " + potholeCounts.get("Medium") + "\n");
+        writer.write("  - Large: " + potholeCounts.get("Large") + "\n\n");
+        writer.write("Risk level distribution:\n");
+        writer.write("  - Low risk: " + riskLevels.get("Low") + "\n");
+        writer.write("  - Medium risk: " + riskLevels.get("Medium") + "\n");
+        writer.write("  - High risk: " + riskLevels.get("High") + "\n\n");
+
+        // Calculate average area
+        double avgArea = allPotholes.meanArea();
+        writer.write("Average pothole area: ");
+        writer.writeFixed(avgArea, 2);
+        writer.write(" square pixels\n");
+
+        writer.write("Overall road condition severity rating (0-10): ");
+        writer.writeFixed(severityRating, 1);
+        writer.write("\n");
+        if (bumpCount >= 0) {
+            writer.write("Wheel impacts from motion sensors: " + bumpCount + "\n");
+            writer.write("  - Confirming a visual detection: " + bumpConfirmedTracks + "\n");
+            writer.write("  - Not seen on video: " + bumpOnly + "\n");
+        }
+        writer.write("\n");
+
+        // Hotspot analysis
+        beginSection(writer, "HOTSPOT ANALYSIS", sectionOffsets);
+
+        if (!hotspots.isEmpty()) {
+            writer.write("Identified " + hotspots.size() + " hotspot areas with multiple potholes:\n");
+
+            // List top 5 hotspots
+            for (int i = 0; i < Math.min(5, hotspots.size()); i++) {
+                Map<String, Object> hotspot = hotspots.get(i);
+                Point2D center = (Point2D) hotspot.get("center");
+                int count = (Integer) hotspot.get("count");
+                writer.write(String.format("  %d. Location: x=%.0f, y=%.0f - %d potholes in proximity\n",
+                        i+1, center.x, center.y, count));
+            }
+        } else {
+            writer.write("No significant hotspots identified.\n");
+        }
+        writer.write("\n");
+
+        // Detailed pothole information
+        beginSection(writer, "DETAILED POTHOLE INFORMATION", sectionOffsets);
+
+        // Sort potholes by risk level (High > Medium > Low)
+        int[] order = allPotholes.orderByRiskDescending();
+        int listed = detailLimit > 0 ? Math.min(detailLimit, order.length) : order.length;
+        if (listed < order.length) {
+            writer.write("Showing the " + listed + " highest-risk of " + order.length + " potholes.\n\n");
+        }
+
+        for (int i = 0; i < listed; i++) {
+            int row = order[i];
+            writer.write("Pothole #");
+            writer.writeLong(i + 1);
+            writer.write(":\n  - Size category: ");
+            writer.write(allPotholes.sizeClass(row).label);
+            writer.write("\n  - Area: ");
+            writer.writeFixed(allPotholes.area(row), 2);
+            writer.write(" square pixels\n  - Risk level: ");
+            writer.write(allPotholes.riskClass(row).label);
+            writer.write("\n  - Position: x=");
+            writer.writeFixed(allPotholes.centroidX(row), 0);
+            writer.write(", y=");
+            writer.writeFixed(allPotholes.centroidY(row), 0);
+            double[] location = locate(allPotholes, row);
+            if (location != null) {
+                writer.write("\n  - Location: ");
+                writer.writeFixed(location[0], 6);
+                writer.write(", ");
+                writer.writeFixed(location[1], 6);
+            }
+            writer.write("\n\n");
+        }
+
+        // Evidence photos
+        if (!evidence.isEmpty()) {
+            beginSection(writer, "EVIDENCE PHOTOS", sectionOffsets);
+            for (Evidence photo : evidence) {
+                writer.write("Track #" + photo.trackId + " - " + photo.risk.label + " risk, area ");
+                writer.writeFixed(photo.area, 0);
+                writer.write(": " + photo.fileName + "\n");
+            }
+            writer.write("\n");
+        }
+
+        // Throughput governor
+        if (!governorDecisions.isEmpty()) {
+            beginSection(writer, "THROUGHPUT GOVERNOR", sectionOffsets);
+            for (ThroughputGovernor.Decision decision : governorDecisions) {
+                writer.write("At ");
+                writer.writeFixed(decision.timeMs / 1000.0, 1);
+                writer.write(" s: " + decision.settings + " (" + decision.reason + ")\n");
+            }
+            writer.write("\n");
+        }
+
+        // Side-by-side measurements
+        for (Comparison comparison : comparisons) {
+            beginSection(writer, comparison.title, sectionOffsets);
+            writer.write(comparison.text + "\n\n");
+        }
+
+        // Recommendations
+        beginSection(writer, "RECOMMENDATIONS", sectionOffsets);
+        if (severityRating >= 7) {
+            writer.write("URGENT ATTENTION REQUIRED: The analyzed road section shows significant pothole damage that requires immediate repair.\n");
+            writer.write("- Prioritize the identified hotspot areas for immediate patching.\n");
+            writer.write("- Consider complete resurfacing for long-term solution.\n");
+            writer.write("- Place warning signs for drivers about dangerous road conditions.\n");
+        } else if (severityRating >= 4) {
+            writer.write("MODERATE ATTENTION NEEDED: The analyzed road section shows moderate pothole damage that should be addressed soon.\n");
+            writer.write("- Schedule repairs for high-risk potholes within the next maintenance cycle.\n");
+            writer.write("- Monitor the identified hotspots for further deterioration.\n");
+        } else {
+            writer.write("MINOR ATTENTION SUGGESTED: The analyzed road section shows minimal pothole damage.\n");
+            writer.write("- Address the few identified potholes during regular maintenance cycles.\n");
+            writer.write("- Re-analyze the road after adverse weather conditions to monitor degradation.\n");
+        }
+    }
+
+    // Section title and rule, remembering where the title starts
+    private static void beginSection(ReportWriter writer, String title,
+                                     Map<String, Long> sectionOffsets) throws IOException {
+        sectionOffsets.put(title, writer.bytePosition());
+        writer.write(title);
+        writer.write("\n");
+        writer.write("-".repeat(80) + "\n");
+    }
+
+    // One row per pothole in recording order
+    private void writeCsv(ReportWriter writer, DetectionTable potholes) throws IOException {
+        writer.write("frame,timestamp_ms,x,y,area,x1,y1,x2,y2,size,risk\n");
+        for (int i = 0; i < potholes.size(); i++) {
+            writer.writeLong(potholes.frameIndex(i));
+            writer.write(',');
+            writer.writeLong(potholes.timestampMs(i));
+            writer.write(',');
+            writer.writeFixed(potholes.centroidX(i), 1);
+            writer.write(',');
+            writer.writeFixed(potholes.centroidY(i), 1);
+            writer.write(',');
+            writer.writeFixed(potholes.area(i), 1);
+            writer.write(',');
+            writer.writeFixed(potholes.x1(i), 1);
+            writer.write(',');
+            writer.writeFixed(potholes.y1(i), 1);
+            writer.write(',');
+            writer.writeFixed(potholes.x2(i), 1);
+            writer.write(',');
+            writer.writeFixed(potholes.y2(i), 1);
+            writer.write(',');
+            writer.write(potholes.sizeClass(i).label);
+            writer.write(',');
+            writer.write(potholes.riskClass(i).label);
+            writer.write('\n');
+        }
+    }
+
+    // A summary line, then one line per pothole in recording order
+    private void writeJsonLines(ReportWriter writer, String videoName, double videoDuration,
+                                int framesProcessed, double severityRating,
+                                DetectionTable potholes,
+                                List<Map<String, Object>> hotspots) throws IOException {
+        int[] sizes = potholes.sizeHistogram();
+        int[] risks = potholes.riskHistogram();
+
+        writer.write("{\"type\":\"summary\",\"video\":");
+        writer.writeJsonString(videoName != null ? videoName : "");
+        writer.write(",\"durationSec\":");
+        writer.writeJsonNumber(videoDuration, 2);
+        writer.write(",\"framesAnalyzed\":");
+        writer.writeLong(framesProcessed);
+        writer.write(",\"potholes\":");
+        writer.writeLong(potholes.size());
+        writer.write(",\"sizes\":{");
+        for (SizeClass size : SizeClass.values()) {
+            if (size.code() > 0) {
+                writer.write(',');
+            }
+            writer.writeJsonString(size.label);
+            writer.write(':');
+            writer.writeLong(sizes[size.code()]);
+        }
+        writer.write("},\"risks\":{");
+        for (RiskClass risk : RiskClass.values()) {
+            if (risk.code() > 0) {
+                writer.write(',');
+            }
+            writer.writeJsonString(risk.label);
+            writer.write(':');
+            writer.writeLong(risks[risk.code()]);
+        }
+        writer.write("},\"avgArea\":");
+        writer.writeJsonNumber(potholes.meanArea(), 2);
+        writer.write(",\"severity\":");
+        writer.writeJsonNumber(severityRating, 1);
+        writer.write(",\"hotspots\":[");
+        for (int i = 0; i < hotspots.size(); i++) {
+            Point2D center = (Point2D) hotspots.get(i).get("center");
+            writer.write(i > 0 ? ",{\"x\":" : "{\"x\":");
+            writer.writeFixed(center.x, 0);
+            writer.write(",\"y\":");
+            writer.writeFixed(center.y, 0);
+            writer.write(",\"count\":");
+            writer.writeLong((Integer) hotspots.get(i).get("count"));
+            writer.write('}');
+        }
+        writer.write("]}\n");
+
+        for (int i = 0; i < potholes.size(); i++) {
+            writer.write("{\"type\":\"pothole\",\"frame\":");
+            writer.writeLong(potholes.frameIndex(i));
+            writer.write(",\"timestampMs\":");
+            writer.writeLong(potholes.timestampMs(i));
+            writer.write(",\"x\":");
+            writer.writeFixed(potholes.centroidX(i), 1);
+            writer.write(",\"y\":");
+            writer.writeFixed(potholes.centroidY(i), 1);
+            writer.write(",\"area\":");
+            writer.writeFixed(potholes.area(i), 1);
+            writer.write(",\"box\":[");
+            writer.writeFixed(potholes.x1(i), 1);
+            writer.write(',');
+            writer.writeFixed(potholes.y1(i), 1);
+            writer.write(',');
+            writer.writeFixed(potholes.x2(i), 1);
+            writer.write(',');
+            writer.writeFixed(potholes.y2(i), 1);
+            writer.write("],\"size\":\"");
+            writer.write(potholes.sizeClass(i).label);
+            writer.write("\",\"risk\":\"");
+            writer.write(potholes.riskClass(i).label);
+            double[] location = locate(potholes, i);
+            if (location != null) {
+                writer.write("\",\"lat\":");
+                writer.writeFixed(location[0], 6);
+                writer.write(",\"lon\":");
+                writer.writeFixed(location[1], 6);
+                writer.write("}\n");
+            } else {
+                writer.write("\"}\n");
+            }
+        }
+    }
+
+    // Run header, then the table columns as written by DetectionTable.write
+    private void writeBinary(DataOutputStream out, String videoName, double videoDuration,
+                             int framesProcessed, double severityRating,
+                             DetectionTable potholes) throws IOException {
+        out.writeInt(BINARY_MAGIC);
+        out.writeUTF(videoName != null ? videoName : "");
+        out.writeDouble(videoDuration);
+        out.writeInt(framesProcessed);
+        out.writeFloat((float) severityRating);
+        potholes.write(out);
+    }
+
+    // Vehicle position when the row was seen, or null without a GPS log
+    private double[] locate(DetectionTable potholes, int row) {
+        return gpsTrack != null && !gpsTrack.isApproximate() ? gpsTrack.locate(potholes.timestampMs(row)) : null;
+    }
+
+    // Hotspots sorted by count (highest first)
+    private List<Map<String, Object>> sortedHotspots(DetectionTable potholes) {
+        List<Map<String, Object>> hotspots = findHotspots(potholes);
+        hotspots.sort((h1, h2) -> ((Integer)h2.get("count")).compareTo((Integer)h1.get("count")));
+        return hotspots;
+    }
+
+    // Method to find hotspots (areas with multiple potholes in close proximity)
+    List<Map<String, Object>> findHotspots(DetectionTable potholes) {
+        List<Map<String, Object>> hotspots = new ArrayList<>();
+
+        // If too few potholes, no hotspots
+        if (potholes.size() < 3) {
+            return hotspots;
+        }
+
+        float[] xs = potholes.centroidXColumn();
+        float[] ys = potholes.centroidYColumn();
+        int n = potholes.size();
+
+        // For each pothole, count how many other potholes are nearby
+        for (int p = 0; p < n; p++) {
+            int nearbyCount = 0;
+
+            // Check distance to all other potholes
+            for (int o = 0; o < n; o++) {
+                if (p == o) continue;
+
+                // Calculate distance
+                double distance = Math.sqrt(
+                        Math.pow(xs[p] - xs[o], 2) +
+                                Math.pow(ys[p] - ys[o], 2));
+
+                // If within 50 pixels, count as nearby
+                if (distance < 50) {
+                    nearbyCount++;
+                }
+            }
+
+            // If at least 3 potholes are in proximity, consider it a hotspot
+            if (nearbyCount >= 2) {
+                // Check if this pothole's location is already in a hotspot
+                boolean alreadyExists = false;
+                for (Map<String, Object> existingHotspot : hotspots) {
+                    Point2D center = (Point2D) existingHotspot.get("center");
+                    double distance = Math.sqrt(
+                            Math.pow(xs[p] - center.x, 2) +
+                                    Math.pow(ys[p] - center.y, 2));
+
+                    if (distance < 50) {
+                        alreadyExists = true;
+                        break;
+                    }
+                }
+
+                // If not already a hotspot, add it
+                if (!alreadyExists) {
+                    Map<String, Object> hotspot = new HashMap<>();
+                    hotspot.put("center", new Point2D(xs[p], ys[p]));
+                    hotspot.put("count", nearbyCount + 1); // +1 to include this pothole
+                    hotspots.add(hotspot);
+                }
+            }
+        }
+
+        return hotspots;
+    }
+}
\ No newline at end of file
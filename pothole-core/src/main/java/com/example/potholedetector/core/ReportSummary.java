@@ -0,0 +1,372 @@
+package com.example.potholedetector.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Headline numbers of a report, written next to it as a small JSON sidecar.
+ *
+ * Holds the counts, severity, top hotspots, time spent per pipeline stage and the byte
+ * offset of every section of the text report. Screens that only need a summary read this
+ * file instead of parsing the report, so their cost doesn't grow with the run.
+ */
+public class ReportSummary {
+
+    public static final String SUFFIX = ".summary.json";
+
+    // Hotspots kept in the summary, same as the text report lists
+    public static final int MAX_HOTSPOTS = 5;
+
+    public String video = "";
+    public String reportFile = "";
+    public ReportFormat format = ReportFormat.TEXT;
+    public long reportBytes;
+    public double durationSec;
+    public int framesAnalyzed;
+    public int potholes;
+    public int[] sizeCounts = new int[SizeClass.values().length];
+    public int[] riskCounts = new int[RiskClass.values().length];
+    public double avgArea;
+    public double severity;
+    public List<Hotspot> hotspots = new ArrayList<>();
+    // Total milliseconds per stage, in pipeline order
+    public Map<String, Double> stageTimingsMs = new LinkedHashMap<>();
+    // Section title -> byte offset of the title line; empty for formats without sections
+    public Map<String, Long> sectionOffsets = new LinkedHashMap<>();
+
+    public static class Hotspot {
+        public float x;
+        public float y;
+        public int count;
+
+        public Hotspot(float x, float y, int count) {
+            this.x = x;
+            this.y = y;
+            this.count = count;
+        }
+    }
+
+    // report_x.txt -> report_x.summary.json
+    public static File fileFor(File reportFile) {
+        String name = reportFile.getName();
+        int dot = name.lastIndexOf('.');
+        return new File(reportFile.getParentFile(), (dot > 0 ? name.substring(0, dot) : name) + SUFFIX);
+    }
+
+    public void write(File file) throws IOException {
+        try (ReportWriter writer = new ReportWriter(file)) {
+            writer.write("{\"video\":");
+            writer.writeJsonString(video);
+            writer.write(",\"report\":");
+            writer.writeJsonString(reportFile);
+            writer.write(",\"format\":");
+            writer.writeJsonString(format.name());
+            writer.write(",\"reportBytes\":");
+            writer.writeLong(reportBytes);
+            writer.write(",\"durationSec\":");
+            writer.writeJsonNumber(durationSec, 2);
+            writer.write(",\"framesAnalyzed\":");
+            writer.writeLong(framesAnalyzed);
+            writer.write(",\"potholes\":");
+            writer.writeLong(potholes);
+            writer.write(",\"sizes\":{");
+            for (SizeClass size : SizeClass.values()) {
+                if (size.code() > 0) {
+                    writer.write(',');
+                }
+                writer.writeJsonString(size.label);
+                writer.write(':');
+                writer.writeLong(sizeCounts[size.code()]);
+            }
+            writer.write("},\"risks\":{");
+            for (RiskClass risk : RiskClass.values()) {
+                if (risk.code() > 0) {
+                    writer.write(',');
+                }
+                writer.writeJsonString(risk.label);
+                writer.write(':');
+                writer.writeLong(riskCounts[risk.code()]);
+            }
+            writer.write("},\"avgArea\":");
+            writer.writeJsonNumber(avgArea, 2);
+            writer.write(",\"severity\":");
+            writer.writeJsonNumber(severity, 1);
+            writer.write(",\"hotspots\":[");
+            for (int i = 0; i < hotspots.size(); i++) {
+                Hotspot hotspot = hotspots.get(i);
+                writer.write(i > 0 ? ",{\"x\":" : "{\"x\":");
+                writer.writeJsonNumber(hotspot.x, 0);
+                writer.write(",\"y\":");
+                writer.writeJsonNumber(hotspot.y, 0);
+                writer.write(",\"count\":");
+                writer.writeLong(hotspot.count);
+                writer.write('}');
+            }
+            writer.write("],\"stageTimingsMs\":{");
+            boolean first = true;
+            for (Map.Entry<String, Double> stage : stageTimingsMs.entrySet()) {
+                if (!first) {
+                    writer.write(',');
+                }
+                first = false;
+                writer.writeJsonString(stage.getKey());
+                writer.write(':');
+                writer.writeJsonNumber(stage.getValue(), 1);
+            }
+            writer.write("},\"sections\":{");
+            first = true;
+            for (Map.Entry<String, Long> section : sectionOffsets.entrySet()) {
+                if (!first) {
+                    writer.write(',');
+                }
+                first = false;
+                writer.writeJsonString(section.getKey());
+                writer.write(':');
+                writer.writeLong(section.getValue());
+            }
+            writer.write("}}\n");
+        }
+    }
+
+    public static ReportSummary read(File file) throws IOException {
+        Map<String, Object> json;
+        try (InputStream in = new FileInputStream(file)) {
+            Object value = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8)).readValue();
+            if (!(value instanceof Map)) {
+                throw new IOException("Not a report summary");
+            }
+            json = asObject(value);
+        }
+
+        ReportSummary summary = new ReportSummary();
+        summary.video = (String) json.getOrDefault("video", "");
+        summary.reportFile = (String) json.getOrDefault("report", "");
+        try {
+            summary.format = ReportFormat.valueOf((String) json.getOrDefault("format", "TEXT"));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown report format in summary", e);
+        }
+        summary.reportBytes = number(json, "reportBytes").longValue();
+        summary.durationSec = decimal(json, "durationSec");
+        summary.framesAnalyzed = number(json, "framesAnalyzed").intValue();
+        summary.potholes = number(json, "potholes").intValue();
+        for (Map.Entry<String, Object> entry : asObject(json.get("sizes")).entrySet()) {
+            summary.sizeCounts[SizeClass.fromLabel(entry.getKey()).code()] = ((Number) entry.getValue()).intValue();
+        }
+        for (Map.Entry<String, Object> entry : asObject(json.get("risks")).entrySet()) {
+            summary.riskCounts[RiskClass.fromLabel(entry.getKey()).code()] = ((Number) entry.getValue()).intValue();
+        }
+        summary.avgArea = decimal(json, "avgArea");
+        summary.severity = decimal(json, "severity");
+        Object hotspots = json.get("hotspots");
+        if (hotspots instanceof List) {
+            for (Object item : (List<?>) hotspots) {
+                Map<String, Object> hotspot = asObject(item);
+                summary.hotspots.add(new Hotspot((float) decimal(hotspot, "x"),
+                        (float) decimal(hotspot, "y"), number(hotspot, "count").intValue()));
+            }
+        }
+        Map<String, Object> stages = asObject(json.get("stageTimingsMs"));
+        for (String stage : stages.keySet()) {
+            summary.stageTimingsMs.put(stage, decimal(stages, stage));
+        }
+        for (Map.Entry<String, Object> entry : asObject(json.get("sections")).entrySet()) {
+            summary.sectionOffsets.put(entry.getKey(), ((Number) entry.getValue()).longValue());
+        }
+        return summary;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asObject(Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : new LinkedHashMap<>();
+    }
+
+    private static Number number(Map<String, Object> json, String key) {
+        Object value = json.get(key);
+        return value instanceof Number ? (Number) value : 0;
+    }
+
+    // Non-finite values are written as null and read back as NaN
+    private static double decimal(Map<String, Object> json, String key) {
+        Object value = json.get(key);
+        if (value == null && json.containsKey(key)) {
+            return Double.NaN;
+        }
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+
+    // Just enough JSON for the files write() produces: objects, arrays, strings, numbers
+    static class JsonReader {
+        private final Reader reader;
+        private int next;
+
+        JsonReader(Reader reader) throws IOException {
+            this.reader = reader;
+            this.next = reader.read();
+        }
+
+        Object readValue() throws IOException {
+            skipWhitespace();
+            switch (next) {
+                case '{':
+                    return readObject();
+                case '[':
+                    return readArray();
+                case '"':
+                    return readString();
+                case 't':
+                case 'f':
+                case 'n':
+                    return readLiteral();
+                default:
+                    return readNumber();
+            }
+        }
+
+        private Map<String, Object> readObject() throws IOException {
+            Map<String, Object> object = new LinkedHashMap<>();
+            advance();
+            skipWhitespace();
+            if (next == '}') {
+                advance();
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = readString();
+                skipWhitespace();
+                expect(':');
+                object.put(key, readValue());
+                skipWhitespace();
+                if (next == '}') {
+                    advance();
+                    return object;
+                }
+                expect(',');
+            }
+        }
+
+        private List<Object> readArray() throws IOException {
+            List<Object> array = new ArrayList<>();
+            advance();
+            skipWhitespace();
+            if (next == ']') {
+                advance();
+                return array;
+            }
+            while (true) {
+                array.add(readValue());
+                skipWhitespace();
+                if (next == ']') {
+                    advance();
+                    return array;
+                }
+                expect(',');
+            }
+        }
+
+        private String readString() throws IOException {
+            expect('"');
+            StringBuilder text = new StringBuilder();
+            while (next != '"') {
+                if (next < 0) {
+                    throw new IOException("Unterminated string in summary");
+                }
+                if (next == '\\') {
+                    advance();
+                    if (next == 'u') {
+                        char[] hex = new char[4];
+                        for (int i = 0; i < 4; i++) {
+                            advance();
+                            hex[i] = (char) next;
+                        }
+                        text.append((char) Integer.parseInt(new String(hex), 16));
+                    } else {
+                        text.append(unescape(next));
+                    }
+                } else {
+                    text.append((char) next);
+                }
+                advance();
+            }
+            advance();
+            return text.toString();
+        }
+
+        private static char unescape(int c) {
+            switch (c) {
+                case 'n':
+                    return '\n';
+                case 't':
+                    return '\t';
+                case 'r':
+                    return '\r';
+                case 'b':
+                    return '\b';
+                case 'f':
+                    return '\f';
+                default:
+                    // \" \\ and \/
+                    return (char) c;
+            }
+        }
+
+        private Object readLiteral() throws IOException {
+            StringBuilder word = new StringBuilder();
+            while (Character.isLetter(next)) {
+                word.append((char) next);
+                advance();
+            }
+            switch (word.toString()) {
+                case "true":
+                    return Boolean.TRUE;
+                case "false":
+                    return Boolean.FALSE;
+                case "null":
+                    return null;
+                default:
+                    throw new IOException("Unexpected token in summary: " + word);
+            }
+        }
+
+        private Number readNumber() throws IOException {
+            StringBuilder digits = new StringBuilder();
+            while (next == '-' || next == '+' || next == '.' || next == 'e' || next == 'E'
+                    || (next >= '0' && next <= '9')) {
+                digits.append((char) next);
+                advance();
+            }
+            try {
+                return Double.parseDouble(digits.toString());
+            } catch (NumberFormatException e) {
+                throw new IOException("Bad number in summary: " + digits, e);
+            }
+        }
+
+        private void skipWhitespace() throws IOException {
+            while (next == ' ' || next == '\n' || next == '\r' || next == '\t') {
+                advance();
+            }
+        }
+
+        private void expect(char c) throws IOException {
+            if (next != c) {
+                throw new IOException("Expected '" + c + "' in summary");
+            }
+            advance();
+        }
+
+        private void advance() throws IOException {
+            next = reader.read();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.potholedetector.core;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered UTF-8 writer for reports, straight onto a file channel.
+ *
+ * Characters collect in a 64K buffer and go to the channel in one write when it fills,
+ * so reports with tens of thousands of lines cost a few hundred system calls. Numbers are
+ * formatted in place by {@link #writeFixed} and {@link #writeLong}, without the
+ * allocations and locale lookups of {@code String.format}.
+ */
+public class ReportWriter extends Writer {
+
+    private static final int BUFFER_CHARS = 64 * 1024;
+
+    private static final long[] POW10 = {1, 10, 100, 1000, 10000, 100000, 1000000};
+
+    private final FileOutputStream stream;
+    private final FileChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final char[] chars = new char[BUFFER_CHARS];
+    // UTF-8 needs at most 3 bytes per UTF-16 char
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_CHARS * 3);
+    private final char[] digits = new char[20];
+    private int count;
+
+    public ReportWriter(File file) throws IOException {
+        this.stream = new FileOutputStream(file);
+        this.channel = stream.getChannel();
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (count == chars.length) {
+            flushBuffer();
+        }
+        chars[count++] = (char) c;
+    }
+
+    @Override
+    public void write(char[] source, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (count == chars.length) {
+                flushBuffer();
+            }
+            int n = Math.min(length, chars.length - count);
+            System.arraycopy(source, offset, chars, count, n);
+            count += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    @Override
+    public void write(String text, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (count == chars.length) {
+                flushBuffer();
+            }
+            int n = Math.min(length, chars.length - count);
+            text.getChars(offset, offset + n, chars, count);
+            count += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    // Decimal integer
+    public void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            write(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            write('-');
+            value = -value;
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        write(digits, pos, digits.length - pos);
+    }
+
+    /**
+     * Fixed-point with 0-6 decimals, the same text as {@code String.format("%.Nf")}: the
+     * shortest decimal form of the double is rounded half up, and a negative value that
+     * rounds to zero keeps its sign. Far from a tie the binary product rounds the same
+     * way; within a few ulps of one, or beyond long range, the decimal form is rounded.
+     */
+    public void writeFixed(double value, int decimals) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            write(Double.toString(value));
+            return;
+        }
+        double magnitude = Math.abs(value);
+        long scale = POW10[decimals];
+        double product = magnitude * scale;
+        // Sign bit, so -0.0 prints "-0.00" too
+        if (Double.doubleToRawLongBits(value) < 0) {
+            write('-');
+        }
+        if (product >= 1e15 || Math.abs(product - Math.floor(product) - 0.5) <= 4 * Math.ulp(product)) {
+            write(new BigDecimal(Double.toString(magnitude)).setScale(decimals, RoundingMode.HALF_UP).toPlainString());
+            return;
+        }
+        long scaled = Math.round(product);
+        writeLong(scaled / scale);
+        if (decimals > 0) {
+            write('.');
+            long fraction = scaled % scale;
+            for (int i = decimals - 1; i >= 0; i--) {
+                digits[i] = (char) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            write(digits, 0, decimals);
+        }
+    }
+
+    // JSON number as writeFixed; null for NaN and infinities, which JSON has no literal for
+    public void writeJsonNumber(double value, int decimals) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            write("null");
+        } else {
+            writeFixed(value, decimals);
+        }
+    }
+
+    // JSON string literal with quotes and escapes
+    public void writeJsonString(String text) throws IOException {
+        write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                write('\\');
+                write(c);
+            } else if (c < 0x20) {
+                write("\\u00");
+                write(Character.forDigit(c >> 4, 16));
+                write(Character.forDigit(c & 0xF, 16));
+            } else {
+                write(c);
+            }
+        }
+        write('"');
+    }
+
+    // Bytes written to the file so far, counting everything buffered
+    public long bytePosition() throws IOException {
+        flushBuffer();
+        return channel.position();
+    }
+
+    private void flushBuffer() throws IOException {
+        int length = count;
+        // Keep a trailing high surrogate for the next chunk so the pair is encoded together
+        if (length > 0 && Character.isHighSurrogate(chars[length - 1])) {
+            length--;
+        }
+        CharBuffer in = CharBuffer.wrap(chars, 0, length);
+        bytes.clear();
+        CoderResult result = encoder.encode(in, bytes, false);
+        if (result.isError()) {
+            result.throwException();
+        }
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        count -= length;
+        if (count > 0) {
+            chars[0] = chars[length];
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.potholedetector.core;
+
+/**
+ * Pothole risk level, codes ordered by severity. The code is what {@link DetectionTable} stores.
+ */
+public enum RiskClass {
+    LOW("Low"),
+    MEDIUM("Medium"),
+    HIGH("High");
+
+    private static final RiskClass[] BY_CODE = values();
+
+    public final String label;
+
+    RiskClass(String label) {
+        this.label = label;
+    }
+
+    public byte code() {
+        return (byte) ordinal();
+    }
+
+    public static RiskClass fromCode(int code) {
+        return BY_CODE[code];
+    }
+
+    public static RiskClass fromLabel(String label) {
+        for (RiskClass risk : BY_CODE) {
+            if (risk.label.equals(label)) {
+                return risk;
+            }
+        }
+        throw new IllegalArgumentException("Unknown risk level: " + label);
+    }
+}
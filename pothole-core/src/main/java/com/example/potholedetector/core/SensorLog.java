@@ -0,0 +1,103 @@
+package com.example.potholedetector.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recorded motion sensor log, one sample per line: "log_time_ms,sensor,x,y,z".
+ *
+ * The sensor is "a" for the accelerometer (m/s^2) or "g" for the gyroscope (rad/s), on the
+ * device axes. Times are milliseconds from the start of the log, which begins before the
+ * video does: the camera app opens first and the user presses record some time later.
+ * Once the video is known, a trailing "# video_ms=start,end" line gives its span on the
+ * log's clock, and {@link #detectBumps} moves bumps onto the video's clock with it.
+ */
+public final class SensorLog {
+
+    public static final String HEADER = "log_time_ms,sensor,x,y,z\n";
+
+    private static final String VIDEO_SPAN = "# video_ms=";
+
+    private SensorLog() {
+    }
+
+    public static void writeSample(ReportWriter writer, long logTimeMs, int sensor,
+                                   float x, float y, float z) throws IOException {
+        writer.writeLong(logTimeMs);
+        writer.write(sensor == SensorRingBuffer.GYROSCOPE ? ",g," : ",a,");
+        writer.writeFixed(x, 4);
+        writer.write(',');
+        writer.writeFixed(y, 4);
+        writer.write(',');
+        writer.writeFixed(z, 4);
+        writer.write('\n');
+    }
+
+    // Where the video lies on the log's clock
+    public static void writeVideoSpan(ReportWriter writer, long startMs, long endMs) throws IOException {
+        writer.write(VIDEO_SPAN);
+        writer.writeLong(startMs);
+        writer.write(',');
+        writer.writeLong(endMs);
+        writer.write('\n');
+    }
+
+    /**
+     * Start of the video on the log's clock, from wall-clock times: the video ends when
+     * the camera app finishes writing it, so it starts its duration before that.
+     */
+    public static long videoStartMs(long logStartWallMs, long videoEndWallMs, long videoDurationMs) {
+        return videoEndWallMs - videoDurationMs - logStartWallMs;
+    }
+
+    /**
+     * Runs the accelerometer samples of a log through a detector and returns its bumps on the
+     * video's clock, dropping those outside the video; null when the log has no video span,
+     * since its times can't then be matched to frames.
+     */
+    public static List<BumpDetector.BumpEvent> detectBumps(Reader in, BumpDetector detector) throws IOException {
+        BufferedReader reader = new BufferedReader(in);
+        long videoStartMs = -1;
+        long videoEndMs = -1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith(VIDEO_SPAN)) {
+                String[] span = line.substring(VIDEO_SPAN.length()).split(",");
+                try {
+                    videoStartMs = Long.parseLong(span[0].trim());
+                    videoEndMs = Long.parseLong(span[1].trim());
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    // Damaged line
+                }
+                continue;
+            }
+            String[] fields = line.split(",");
+            if (fields.length < 5 || !"a".equals(fields[1].trim())) {
+                continue;
+            }
+            try {
+                detector.accept(Long.parseLong(fields[0].trim()),
+                        Float.parseFloat(fields[2].trim()),
+                        Float.parseFloat(fields[3].trim()),
+                        Float.parseFloat(fields[4].trim()));
+            } catch (NumberFormatException e) {
+                // Damaged line
+            }
+        }
+        List<BumpDetector.BumpEvent> logBumps = detector.finish();
+        if (videoStartMs < 0 || videoEndMs < videoStartMs) {
+            return null;
+        }
+
+        List<BumpDetector.BumpEvent> bumps = new ArrayList<>();
+        for (BumpDetector.BumpEvent bump : logBumps) {
+            if (bump.timestampMs >= videoStartMs && bump.timestampMs <= videoEndMs) {
+                bumps.add(new BumpDetector.BumpEvent(bump.timestampMs - videoStartMs, bump.peak));
+            }
+        }
+        return bumps;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.potholedetector.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-size queue of motion sensor samples between one producer and one consumer.
+ *
+ * The sensor callback thread writes and the pipeline reads without locks: each side owns
+ * one sequence counter and publishes it with an ordered store after touching the slots,
+ * so the other side never sees a half-written sample. Samples are kept in parallel
+ * primitive arrays, nothing is allocated per sample, and a full buffer drops the new
+ * sample instead of blocking the sensor thread.
+ */
+public class SensorRingBuffer {
+
+    public static final int ACCELEROMETER = 0;
+    public static final int GYROSCOPE = 1;
+
+    public interface SampleSink {
+        void accept(long timestampNs, int sensor, float x, float y, float z);
+    }
+
+    private final int mask;
+    private final long[] timestampNs;
+    private final byte[] sensor;
+    private final float[] values;
+
+    // Next slot to write, only advanced by the producer
+    private final AtomicLong head = new AtomicLong();
+    // Next slot to read, only advanced by the consumer
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // capacity is rounded up to a power of two
+    public SensorRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        mask = size - 1;
+        timestampNs = new long[size];
+        sensor = new byte[size];
+        values = new float[size * 3];
+    }
+
+    // Producer side; false when the buffer is full and the sample was dropped
+    public boolean offer(long timeNs, int sensorType, float x, float y, float z) {
+        long h = head.get();
+        if (h - tail.get() > mask) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        int slot = (int) h & mask;
+        timestampNs[slot] = timeNs;
+        sensor[slot] = (byte) sensorType;
+        values[slot * 3] = x;
+        values[slot * 3 + 1] = y;
+        values[slot * 3 + 2] = z;
+        head.lazySet(h + 1);
+        return true;
+    }
+
+    // Consumer side; hands every available sample to the sink and returns how many
+    public int drain(SampleSink sink) {
+        long t = tail.get();
+        long h = head.get();
+        for (long i = t; i < h; i++) {
+            int slot = (int) i & mask;
+            sink.accept(timestampNs[slot], sensor[slot],
+                    values[slot * 3], values[slot * 3 + 1], values[slot * 3 + 2]);
+        }
+        tail.lazySet(h);
+        return (int) (h - t);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.potholedetector.core;
+
+/**
+ * Pothole size category. The code is what {@link DetectionTable} stores.
+ */
+public enum SizeClass {
+    SMALL("Small"),
+    MEDIUM("Medium"),
+    LARGE("Large");
+
+    private static final SizeClass[] BY_CODE = values();
+
+    public final String label;
+
+    SizeClass(String label) {
+        this.label = label;
+    }
+
+    public byte code() {
+        return (byte) ordinal();
+    }
+
+    public static SizeClass fromCode(int code) {
+        return BY_CODE[code];
+    }
+
+    public static SizeClass fromLabel(String label) {
+        for (SizeClass size : BY_CODE) {
+            if (size.label.equals(label)) {
+                return size;
+            }
+        }
+        throw new IllegalArgumentException("Unknown size category: " + label);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.potholedetector.core;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded generator of plausible pothole detections, for reproducible load tests.
+ *
+ * It ignores the frame. Potholes appear near the horizon, drift down and grow as the
+ * vehicle approaches, and leave at the bottom edge, so consecutive frames see the same
+ * pothole like a real drive does. Sizes are log-normal, giving many small and few large
+ * potholes. The same seed always produces the same sequence.
+ */
+public class SyntheticDetectionSource implements DetectionSource<Object> {
+
+    private static final int POLYGON_VERTICES = 12;
+
+    private final Random random;
+    private final int frameWidth;
+    private final int frameHeight;
+    private final double spawnRate;
+
+    // Log-normal area parameters (pixels squared at the bottom of the frame)
+    private double medianArea = 4000;
+    private double areaSigma = 0.8;
+    private double missRate = 0.1;
+
+    private final List<Track> active = new ArrayList<>();
+
+    // spawnRate: mean number of new potholes per frame
+    public SyntheticDetectionSource(long seed, int frameWidth, int frameHeight, double spawnRate) {
+        this.random = new Random(seed);
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+        this.spawnRate = spawnRate;
+    }
+
+    public void setAreaDistribution(double medianArea, double sigma) {
+        this.medianArea = medianArea;
+        this.areaSigma = sigma;
+    }
+
+    // Probability that a visible pothole is not reported in a frame
+    public void setMissRate(double missRate) {
+        this.missRate = missRate;
+    }
+
+    @Override
+    public List<Detection> detect(Object frame, int frameIndex, long timestampMs) {
+        return next();
+    }
+
+    public List<Detection> next() {
+        spawn();
+
+        List<Detection> detections = new ArrayList<>(active.size());
+        Iterator<Track> it = active.iterator();
+        while (it.hasNext()) {
+            Track t = it.next();
+            // Perspective: closer potholes move faster and look bigger
+            double progress = (t.y - horizonY()) / (frameHeight - horizonY());
+            t.y += t.speed * (0.2 + progress);
+            if (t.y >= frameHeight) {
+                it.remove();
+                continue;
+            }
+            if (random.nextDouble() < missRate) {
+                continue;
+            }
+            detections.add(toDetection(t, Math.max(0.05, progress)));
+        }
+        return detections;
+    }
+
+    private void spawn() {
+        // Poisson arrivals by inversion
+        double limit = Math.exp(-spawnRate);
+        double p = random.nextDouble();
+        while (p > limit) {
+            Track t = new Track();
+            t.x = frameWidth * (0.2 + 0.6 * random.nextDouble());
+            t.y = horizonY();
+            t.speed = frameHeight * (0.01 + 0.02 * random.nextDouble());
+            t.area = medianArea * Math.exp(areaSigma * random.nextGaussian());
+            t.aspect = 0.5 + random.nextDouble() * 1.5;
+            t.phase = random.nextDouble() * Math.PI * 2;
+            active.add(t);
+            p *= random.nextDouble();
+        }
+    }
+
+    private Detection toDetection(Track t, double scale) {
+        // Spread the track outwards from the vanishing point as it approaches
+        double x = frameWidth / 2.0 + (t.x - frameWidth / 2.0) * (0.3 + 0.7 * scale);
+        double area = t.area * scale * scale;
+        double rx = Math.sqrt(area * t.aspect / Math.PI);
+        double ry = Math.sqrt(area / (t.aspect * Math.PI));
+
+        float[] polygon = new float[POLYGON_VERTICES * 2];
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < POLYGON_VERTICES; i++) {
+            double angle = t.phase + 2 * Math.PI * i / POLYGON_VERTICES;
+            double jitter = 0.85 + 0.3 * random.nextDouble();
+            float px = (float) (x + Math.cos(angle) * rx * jitter);
+            float py = (float) (t.y + Math.sin(angle) * ry * jitter);
+            polygon[2 * i] = px;
+            polygon[2 * i + 1] = py;
+            minX = Math.min(minX, px);
+            minY = Math.min(minY, py);
+            maxX = Math.max(maxX, px);
+            maxY = Math.max(maxY, py);
+        }
+
+        float score = (float) (0.4 + 0.6 * random.nextDouble());
+        Detection d = new Detection(minX, minY, maxX, maxY, score, 0);
+        d.polygon = polygon;
+        return d;
+    }
+
+    private double horizonY() {
+        return frameHeight * 0.4;
+    }
+
+    private static class Track {
+        double x;
+        double y;
+        double speed;
+        double area;
+        double aspect;
+        double phase;
+    }
+}
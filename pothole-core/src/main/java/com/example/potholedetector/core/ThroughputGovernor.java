@@ -0,0 +1,311 @@
+package com.example.potholedetector.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keeps a long video survey at a sustained throughput as the device heats up or drains.
+ *
+ * Throughput is video time analyzed per second of wall time. The governor owns four knobs:
+ * the sampling stride (source frames between analyzed ones), a cap on the model input
+ * size, how often a processed frame is previewed, and the inference thread count. Thermal
+ * status and battery set hard limits on them; measured frame times then move the stride
+ * and the input cap within those limits, one step per window of frames. Each change is
+ * kept as a {@link Decision} with its reason, for the report.
+ *
+ * Thermal statuses use the values of Android's {@code PowerManager.THERMAL_STATUS_*}.
+ */
+public class ThroughputGovernor {
+
+    public static final int THERMAL_NONE = 0;
+    public static final int THERMAL_LIGHT = 1;
+    public static final int THERMAL_MODERATE = 2;
+    public static final int THERMAL_SEVERE = 3;
+    public static final int THERMAL_CRITICAL = 4;
+    public static final int THERMAL_EMERGENCY = 5;
+    public static final int THERMAL_SHUTDOWN = 6;
+
+    private static final String[] THERMAL_LABELS =
+            {"none", "light", "moderate", "severe", "critical", "emergency", "shutdown"};
+
+    // Per thermal status up to critical: input size steps below the largest, thread divisor, preview interval
+    private static final int[] THERMAL_SIZE_STEPS = {0, 0, 1, 2, 3};
+    private static final int[] THERMAL_WORKER_DIVISOR = {1, 1, 1, 2, 4};
+    private static final int[] THERMAL_PREVIEW_INTERVAL = {1, 1, 2, 4, 8};
+
+    // Unplugged battery levels, in percent, that cut the preview rate and then the sampling rate
+    private static final int LOW_BATTERY = 20;
+    private static final int CRITICAL_BATTERY = 10;
+
+    // Frame times are averaged over at least this long before the stride or input cap moves
+    private static final long WINDOW_MS = 10_000;
+    private static final int MIN_WINDOW_FRAMES = 5;
+
+    // Thresholds relative to the target throughput
+    private static final double SLOW_RATIO = 0.9;
+    private static final double FAST_RATIO = 1.3;
+    // A step back up must still be predicted above the target by this margin
+    private static final double STEP_UP_MARGIN = 1.05;
+
+    // The stride never grows past this multiple of the base stride, gaps get too long to catch potholes
+    private static final int MAX_STRIDE_FACTOR = 4;
+
+    // Share of the frame time that doesn't depend on the input size: decoding, resizing, post-processing
+    private static final double FIXED_COST_SHARE = 0.3;
+
+    /** Values of the four knobs. */
+    public static class Settings {
+        public final int stride;
+        public final int maxInputSize;
+        public final int previewInterval;
+        public final int workers;
+
+        public Settings(int stride, int maxInputSize, int previewInterval, int workers) {
+            this.stride = stride;
+            this.maxInputSize = maxInputSize;
+            this.previewInterval = previewInterval;
+            this.workers = workers;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Settings)) {
+                return false;
+            }
+            Settings other = (Settings) o;
+            return stride == other.stride && maxInputSize == other.maxInputSize
+                    && previewInterval == other.previewInterval && workers == other.workers;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((stride * 31 + maxInputSize) * 31 + previewInterval) * 31 + workers;
+        }
+
+        @Override
+        public String toString() {
+            return "stride " + stride + ", input <= " + maxInputSize + ", preview 1/" + previewInterval
+                    + ", " + workers + " threads";
+        }
+    }
+
+    /** A change of settings, at a time in milliseconds from the start of the run. */
+    public static class Decision {
+        public final long timeMs;
+        public final Settings settings;
+        public final String reason;
+
+        public Decision(long timeMs, Settings settings, String reason) {
+            this.timeMs = timeMs;
+            this.settings = settings;
+            this.reason = reason;
+        }
+    }
+
+    private final int baseStride;
+    private final int[] inputSizes;
+    private final int maxWorkers;
+    private final double frameIntervalMs;
+    private final double targetSpeed;
+
+    private int thermalStatus = THERMAL_NONE;
+    private int batteryPercent = 100;
+    private boolean charging = true;
+    // Reason for a change of limits not applied yet
+    private String pendingReason;
+
+    // Chosen from frame times; the limits may still clamp them
+    private int sizeIndex;
+    private int stride;
+
+    private long windowStartMs = -1;
+    private double windowFrameMs;
+    private int windowFrames;
+
+    private Settings settings;
+    private final List<Decision> decisions = new ArrayList<>();
+
+    /**
+     * @param baseStride      stride at full speed
+     * @param inputSizes      input sizes the detector supports
+     * @param maxWorkers      inference threads when the device is cool
+     * @param frameIntervalMs time between source frames
+     * @param targetSpeed     video seconds to analyze per second of wall time
+     */
+    public ThroughputGovernor(int baseStride, int[] inputSizes, int maxWorkers,
+                              double frameIntervalMs, double targetSpeed) {
+        this.baseStride = Math.max(1, baseStride);
+        this.inputSizes = inputSizes.clone();
+        Arrays.sort(this.inputSizes);
+        this.maxWorkers = Math.max(1, maxWorkers);
+        this.frameIntervalMs = frameIntervalMs;
+        this.targetSpeed = targetSpeed;
+        this.sizeIndex = this.inputSizes.length - 1;
+        this.stride = this.baseStride;
+        this.settings = computeSettings();
+    }
+
+    public synchronized Settings getSettings() {
+        return settings;
+    }
+
+    public synchronized List<Decision> getDecisions() {
+        return new ArrayList<>(decisions);
+    }
+
+    public double getTargetSpeed() {
+        return targetSpeed;
+    }
+
+    public synchronized void setThermalStatus(int status) {
+        status = Math.max(THERMAL_NONE, Math.min(THERMAL_SHUTDOWN, status));
+        if (status == thermalStatus) {
+            return;
+        }
+        thermalStatus = status;
+        addPendingReason("thermal status " + THERMAL_LABELS[status]);
+    }
+
+    public synchronized void setBattery(int percent, boolean charging) {
+        if (batteryLevel(percent, charging) != batteryLevel(batteryPercent, this.charging)) {
+            addPendingReason(charging ? "charging" : "battery " + percent + "%");
+        }
+        this.batteryPercent = percent;
+        this.charging = charging;
+    }
+
+    /**
+     * Feed the wall time one analyzed frame took, finished {@code timeMs} after the start
+     * of the run. Returns the decision if the settings changed, for the next frame on.
+     */
+    public synchronized Decision recordFrame(long timeMs, double frameMs) {
+        if (windowStartMs < 0) {
+            windowStartMs = timeMs;
+        }
+        String reason = null;
+        if (pendingReason != null) {
+            reason = pendingReason;
+            pendingReason = null;
+            // Frames so far ran under the old limits
+            resetWindow(timeMs);
+        } else {
+            windowFrameMs += frameMs;
+            windowFrames++;
+            if (windowFrames >= MIN_WINDOW_FRAMES && timeMs - windowStartMs >= WINDOW_MS) {
+                reason = adjustForLatency(windowFrameMs / windowFrames);
+                resetWindow(timeMs);
+            }
+        }
+        if (reason == null) {
+            return null;
+        }
+
+        Settings next = computeSettings();
+        if (next.equals(settings)) {
+            return null;
+        }
+        settings = next;
+        Decision decision = new Decision(timeMs, next, reason);
+        decisions.add(decision);
+        return decision;
+    }
+
+    // Frame time under the given settings relative to the largest input at full thread count
+    public double relativeCost(Settings s) {
+        double pixels = (double) s.maxInputSize / inputSizes[inputSizes.length - 1];
+        double threads = Math.sqrt((double) maxWorkers / Math.max(1, s.workers));
+        return FIXED_COST_SHARE + (1 - FIXED_COST_SHARE) * pixels * pixels * threads;
+    }
+
+    private String adjustForLatency(double meanFrameMs) {
+        double speed = settings.stride * frameIntervalMs / meanFrameMs;
+        int currentSize = effectiveSizeIndex();
+        String measured = String.format(Locale.US, "%.2fx real time at %.0f ms/frame", speed, meanFrameMs);
+
+        if (speed < targetSpeed * SLOW_RATIO) {
+            // Resolution goes first, sampling gaps can miss potholes altogether
+            if (currentSize > 0) {
+                sizeIndex = currentSize - 1;
+            } else if (stride < baseStride * MAX_STRIDE_FACTOR) {
+                stride = Math.max(stride, strideFloor()) + 1;
+            } else {
+                return null;
+            }
+            return measured + ", below target " + formatSpeed(targetSpeed);
+        }
+
+        if (speed > targetSpeed * FAST_RATIO) {
+            // Win back coverage first, then resolution, if the prediction still meets the target
+            if (stride > Math.max(baseStride, strideFloor())) {
+                double predicted = speed * (stride - 1) / stride;
+                if (predicted >= targetSpeed * STEP_UP_MARGIN) {
+                    stride--;
+                    return measured + ", above target " + formatSpeed(targetSpeed);
+                }
+            } else if (currentSize < sizeCeiling()) {
+                Settings larger = new Settings(settings.stride, inputSizes[currentSize + 1],
+                        settings.previewInterval, settings.workers);
+                double predicted = speed * relativeCost(settings) / relativeCost(larger);
+                if (predicted >= targetSpeed * STEP_UP_MARGIN) {
+                    sizeIndex = currentSize + 1;
+                    return measured + ", above target " + formatSpeed(targetSpeed);
+                }
+            }
+        }
+        return null;
+    }
+
+    private Settings computeSettings() {
+        int thermal = Math.min(thermalStatus, THERMAL_CRITICAL);
+        int previewInterval = THERMAL_PREVIEW_INTERVAL[thermal];
+        if (batteryLevel(batteryPercent, charging) > 0) {
+            previewInterval *= 2;
+        }
+        return new Settings(
+                Math.max(stride, strideFloor()),
+                inputSizes[effectiveSizeIndex()],
+                previewInterval,
+                Math.max(1, maxWorkers / THERMAL_WORKER_DIVISOR[thermal]));
+    }
+
+    private int effectiveSizeIndex() {
+        return Math.min(sizeIndex, sizeCeiling());
+    }
+
+    private int sizeCeiling() {
+        int steps = THERMAL_SIZE_STEPS[Math.min(thermalStatus, THERMAL_CRITICAL)];
+        return Math.max(0, inputSizes.length - 1 - steps);
+    }
+
+    private int strideFloor() {
+        // Past critical the device is about to shut down, sample as little as allowed
+        if (thermalStatus > THERMAL_CRITICAL) {
+            return baseStride * MAX_STRIDE_FACTOR;
+        }
+        return batteryLevel(batteryPercent, charging) > 1 ? baseStride * 2 : baseStride;
+    }
+
+    // 0 fine, 1 low, 2 critical
+    private static int batteryLevel(int percent, boolean charging) {
+        if (charging || percent > LOW_BATTERY) {
+            return 0;
+        }
+        return percent > CRITICAL_BATTERY ? 1 : 2;
+    }
+
+    private void addPendingReason(String reason) {
+        pendingReason = pendingReason == null ? reason : pendingReason + ", " + reason;
+    }
+
+    private void resetWindow(long timeMs) {
+        windowStartMs = timeMs;
+        windowFrameMs = 0;
+        windowFrames = 0;
+    }
+
+    private static String formatSpeed(double speed) {
+        return String.format(Locale.US, "%.2fx", speed);
+    }
+}
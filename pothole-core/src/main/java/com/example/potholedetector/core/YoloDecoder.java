@@ -0,0 +1,60 @@
+package com.example.potholedetector.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes raw YOLOv8 head output into detections.
+ *
+ * The head output is laid out channel-major as [channels, anchors] per image, where the
+ * channels are cx, cy, w, h, one score per class and, for the segmentation model,
+ * {@code maskDim} mask coefficients. Coordinates are in model input pixels.
+ */
+public final class YoloDecoder {
+
+    public static final int SEG_MASK_DIM = 32;
+
+    private YoloDecoder() {
+    }
+
+    // Decode image number 'batchIndex' of a [batch, channels, anchors] output
+    public static List<Detection> decode(float[] output, int batchIndex, int channels, int anchors,
+                                         int maskDim, float confidenceThreshold) {
+        int numClasses = channels - 4 - maskDim;
+        int base = batchIndex * channels * anchors;
+        List<Detection> detections = new ArrayList<>();
+
+        for (int a = 0; a < anchors; a++) {
+            // Best class score for this anchor
+            float bestScore = 0;
+            int bestClass = 0;
+            for (int c = 0; c < numClasses; c++) {
+                float score = output[base + (4 + c) * anchors + a];
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestClass = c;
+                }
+            }
+            if (bestScore < confidenceThreshold) {
+                continue;
+            }
+
+            float cx = output[base + a];
+            float cy = output[base + anchors + a];
+            float halfW = output[base + 2 * anchors + a] * 0.5f;
+            float halfH = output[base + 3 * anchors + a] * 0.5f;
+            Detection d = new Detection(cx - halfW, cy - halfH, cx + halfW, cy + halfH, bestScore, bestClass);
+
+            if (maskDim > 0) {
+                float[] coefficients = new float[maskDim];
+                int maskBase = base + (4 + numClasses) * anchors + a;
+                for (int k = 0; k < maskDim; k++) {
+                    coefficients[k] = output[maskBase + k * anchors];
+                }
+                d.maskCoefficients = coefficients;
+            }
+            detections.add(d);
+        }
+        return detections;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.potholedetector.core;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BumpDetectorTest {
+
+    private static final double RATE_HZ = 200;
+    private static final double GRAVITY = 9.81;
+
+    // Vertical acceleration at time t: a 40 ms half-sine jolt at every given time
+    private static double jolts(double t, long[] atMs, double amplitude) {
+        for (long at : atMs) {
+            double dt = t - at / 1000.0;
+            if (dt >= 0 && dt < 0.04) {
+                return amplitude * Math.sin(Math.PI * dt / 0.04);
+            }
+        }
+        return 0;
+    }
+
+    // Feeds durationSec of samples with the phone's up axis at the given tilt from z, towards y
+    private static List<BumpDetector.BumpEvent> run(BumpDetector detector, double durationSec, double tiltDeg,
+                                                    long[] joltsMs, double amplitude, double pitchAmplitude) {
+        double tilt = Math.toRadians(tiltDeg);
+        for (int i = 0; i < durationSec * RATE_HZ; i++) {
+            double t = i / RATE_HZ;
+            // Slow pitching of the car: a 0.3 Hz sway of the vertical
+            double vertical = GRAVITY + jolts(t, joltsMs, amplitude) + pitchAmplitude * Math.sin(2 * Math.PI * 0.3 * t);
+            detector.accept(Math.round(t * 1000), 0,
+                    (float) (vertical * Math.sin(tilt)), (float) (vertical * Math.cos(tilt)));
+        }
+        return detector.finish();
+    }
+
+    @Test
+    public void findsEachJoltAtItsPeak() {
+        long[] at = {2000, 4500, 7000};
+        List<BumpDetector.BumpEvent> bumps = run(new BumpDetector(), 9, 0, at, 15, 0);
+        assertEquals(3, bumps.size());
+        for (int i = 0; i < at.length; i++) {
+            // The band-pass delays the peak by a few samples
+            long lag = bumps.get(i).timestampMs - at[i];
+            assertTrue("lag " + lag, lag >= 0 && lag < 100);
+            assertTrue(bumps.get(i).peak >= 4);
+        }
+    }
+
+    @Test
+    public void mountAngleDoesNotMatter() {
+        long[] at = {3000, 6000};
+        List<BumpDetector.BumpEvent> upright = run(new BumpDetector(), 8, 0, at, 15, 0);
+        List<BumpDetector.BumpEvent> tilted = run(new BumpDetector(), 8, 60, at, 15, 0);
+        assertEquals(2, tilted.size());
+        for (int i = 0; i < at.length; i++) {
+            assertEquals(upright.get(i).timestampMs, tilted.get(i).timestampMs, 10);
+            assertEquals(upright.get(i).peak, tilted.get(i).peak, upright.get(i).peak * 0.2);
+        }
+    }
+
+    @Test
+    public void slowPitchAndSmallJoltsAreIgnored() {
+        assertTrue(run(new BumpDetector(), 10, 20, new long[0], 0, 3).isEmpty());
+        assertTrue(run(new BumpDetector(), 6, 0, new long[]{3000}, 2, 0).isEmpty());
+    }
+
+    @Test
+    public void joltsWithinTheRefractoryTimeAreOneBump() {
+        assertEquals(1, run(new BumpDetector(), 6, 0, new long[]{3000, 3150}, 15, 0).size());
+
+        BumpDetector quick = new BumpDetector();
+        quick.setRefractoryMs(50);
+        assertEquals(2, run(quick, 6, 0, new long[]{3000, 3150}, 15, 0).size());
+    }
+
+    @Test
+    public void thresholdIsConfigurable() {
+        BumpDetector strict = new BumpDetector();
+        strict.setThreshold(50);
+        assertTrue(run(strict, 6, 0, new long[]{3000}, 15, 0).isEmpty());
+    }
+}
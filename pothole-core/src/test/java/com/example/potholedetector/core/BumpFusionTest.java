@@ -0,0 +1,68 @@
+package com.example.potholedetector.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BumpFusionTest {
+
+    private static PotholeTracker.Track track(int lastSeenMs) {
+        PotholeTracker tracker = new PotholeTracker();
+        PotholeTracker.Track track = tracker.update(0, Collections.singletonList(new Detection(0, 0, 10, 10, 1, 0)))[0];
+        track.lastTimestampMs = lastSeenMs;
+        return track;
+    }
+
+    private static BumpDetector.BumpEvent bump(long atMs, float peak) {
+        return new BumpDetector.BumpEvent(atMs, peak);
+    }
+
+    @Test
+    public void bumpGoesToTheTrackLastSeenJustBefore() {
+        PotholeTracker.Track early = track(1000);
+        PotholeTracker.Track late = track(5000);
+        List<BumpDetector.BumpEvent> unmatched = BumpFusion.fuse(Arrays.asList(late, early),
+                Collections.singletonList(bump(5800, 9)), 1500);
+        assertTrue(unmatched.isEmpty());
+        assertEquals(9, late.bumpPeak, 0);
+        assertEquals(0, early.bumpPeak, 0);
+    }
+
+    @Test
+    public void bumpsTooLongAfterOrBeforeAnyTrackAreUnmatched() {
+        PotholeTracker.Track seen = track(5000);
+        BumpDetector.BumpEvent before = bump(4000, 6);
+        BumpDetector.BumpEvent tooLate = bump(6600, 7);
+        List<BumpDetector.BumpEvent> unmatched = BumpFusion.fuse(Collections.singletonList(seen),
+                Arrays.asList(before, tooLate), 1500);
+        assertEquals(2, unmatched.size());
+        assertSame(before, unmatched.get(0));
+        assertSame(tooLate, unmatched.get(1));
+        assertEquals(0, seen.bumpPeak, 0);
+    }
+
+    @Test
+    public void eachTrackTakesOneBump() {
+        PotholeTracker.Track first = track(1000);
+        PotholeTracker.Track second = track(1200);
+        // Both bumps follow the second track; the next one back within the lead takes the other
+        List<BumpDetector.BumpEvent> unmatched = BumpFusion.fuse(Arrays.asList(first, second),
+                Arrays.asList(bump(1500, 5), bump(1600, 8), bump(1700, 4)), 1500);
+        assertEquals(5, second.bumpPeak, 0);
+        assertEquals(8, first.bumpPeak, 0);
+        assertEquals(1, unmatched.size());
+        assertEquals(1700, unmatched.get(0).timestampMs);
+    }
+
+    @Test
+    public void noTracks() {
+        List<BumpDetector.BumpEvent> bumps = Collections.singletonList(bump(100, 5));
+        assertEquals(1, BumpFusion.fuse(Collections.<PotholeTracker.Track>emptyList(), bumps, 1500).size());
+    }
+}
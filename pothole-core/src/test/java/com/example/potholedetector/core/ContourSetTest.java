@@ -0,0 +1,146 @@
+package com.example.potholedetector.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ContourSetTest {
+
+    private static final float EPSILON = 1e-4f;
+
+    private static int add(ContourSet set, int... xy) {
+        for (int i = 0; i < xy.length; i += 2) {
+            set.addPoint(xy[i], xy[i + 1]);
+        }
+        return set.endContour();
+    }
+
+    // The points in reverse order, the other orientation
+    private static int[] reversed(int... xy) {
+        int[] out = new int[xy.length];
+        for (int i = 0; i < xy.length; i += 2) {
+            out[xy.length - 2 - i] = xy[i];
+            out[xy.length - 1 - i] = xy[i + 1];
+        }
+        return out;
+    }
+
+    private static void assertMetrics(ContourSet set, int i, float area, float centroidX, float centroidY,
+                                      int boxX, int boxY, int boxWidth, int boxHeight, float perimeter) {
+        assertEquals(area, set.area(i), EPSILON);
+        assertEquals(centroidX, set.centroidX(i), EPSILON);
+        assertEquals(centroidY, set.centroidY(i), EPSILON);
+        assertEquals(boxX, set.boxX(i));
+        assertEquals(boxY, set.boxY(i));
+        assertEquals(boxWidth, set.boxWidth(i));
+        assertEquals(boxHeight, set.boxHeight(i));
+        assertEquals(perimeter, set.perimeter(i), EPSILON);
+    }
+
+    @Test
+    public void rectangleAndTriangleInBothOrientations() {
+        int[] rectangle = {0, 0, 10, 0, 10, 5, 0, 5};
+        int[] triangle = {0, 0, 6, 0, 0, 3};
+        ContourSet set = new ContourSet();
+        add(set, rectangle);
+        add(set, reversed(rectangle));
+        add(set, triangle);
+        add(set, reversed(triangle));
+        set.analyze(true);
+
+        assertEquals(4, set.size());
+        for (int i = 0; i < 2; i++) {
+            // Box counts pixels, as boundingRect: the last column and row are inside
+            assertMetrics(set, i, 50, 5, 2.5f, 0, 0, 11, 6, 30);
+            assertMetrics(set, 2 + i, 9, 2, 1, 0, 0, 7, 4, 9 + (float) Math.sqrt(45));
+        }
+    }
+
+    @Test
+    public void offsetPolygonKeepsItsShape() {
+        // An L shape moved far from the origin
+        int[] shape = {1000, 2000, 1004, 2000, 1004, 2001, 1001, 2001, 1001, 2003, 1000, 2003};
+        ContourSet set = new ContourSet();
+        add(set, shape);
+        set.analyze(true);
+        // A 4x1 bar, centre (1002, 2000.5), on a 1x2 bar, centre (1000.5, 2002)
+        float cx = (4 * 1002f + 2 * 1000.5f) / 6;
+        float cy = (4 * 2000.5f + 2 * 2002f) / 6;
+        assertMetrics(set, 0, 6, cx, cy, 1000, 2000, 5, 4, 14);
+    }
+
+    @Test
+    public void degenerateContoursUseTheBoxCentre() {
+        ContourSet set = new ContourSet();
+        add(set, 3, 3);
+        add(set, 2, 4, 8, 4, 5, 4);
+        add(set);
+        set.analyze(true);
+
+        assertMetrics(set, 0, 0, 3.5f, 3.5f, 3, 3, 1, 1, 0);
+        // A line has no area; its perimeter goes there and back
+        assertMetrics(set, 1, 0, 5.5f, 4.5f, 2, 4, 7, 1, 12);
+        assertMetrics(set, 2, 0, 0, 0, 0, 0, 0, 0, 0);
+        assertEquals(0, set.pointCount(2));
+    }
+
+    @Test
+    public void largestAndClear() {
+        ContourSet set = new ContourSet(1, 1);
+        assertEquals(-1, set.largest());
+        add(set, 0, 0, 2, 0, 2, 2);
+        add(set, 0, 0, 20, 0, 20, 20, 0, 20);
+        add(set, 0, 0, 4, 0, 4, 4);
+        set.analyze(false);
+        assertEquals(1, set.largest());
+        assertEquals(400, set.area(1), EPSILON);
+
+        // Arrays stay, contents start over
+        set.clear();
+        assertEquals(0, set.size());
+        assertEquals(0, add(set, 5, 5, 6, 5, 6, 6));
+        set.analyze(false);
+        assertEquals(0.5f, set.area(0), EPSILON);
+        assertEquals(0, set.largest());
+    }
+
+    @Test
+    public void growsAndCopiesPoints() {
+        ContourSet set = new ContourSet(1, 1);
+        for (int c = 0; c < 30; c++) {
+            for (int p = 0; p <= c; p++) {
+                set.addPoint(c, p);
+            }
+            set.endContour();
+        }
+        assertEquals(30, set.size());
+        int[] xy = new int[60];
+        assertEquals(30, set.copyPoints(29, xy));
+        for (int p = 0; p < 30; p++) {
+            assertEquals(29, xy[p * 2]);
+            assertEquals(p, xy[p * 2 + 1]);
+        }
+        assertEquals(29 * 30 / 2, set.offsetsColumn()[29]);
+    }
+
+    @Test
+    public void filledDirectlyFromColumns() {
+        // As the flat contour converter fills them
+        ContourSet set = new ContourSet();
+        set.ensureCapacity(2, 7);
+        int[] points = {0, 0, 4, 0, 4, 4, 0, 4, 1, 1, 3, 1, 1, 3};
+        System.arraycopy(points, 0, set.pointsColumn(), 0, points.length);
+        int[] offsets = {0, 4, 7};
+        System.arraycopy(offsets, 0, set.offsetsColumn(), 0, offsets.length);
+        set.setSize(2);
+        set.analyze(false);
+
+        assertEquals(16, set.area(0), EPSILON);
+        assertEquals(2, set.area(1), EPSILON);
+        assertEquals(5f / 3, set.centroidX(1), EPSILON);
+        int[] xy = new int[6];
+        set.copyPoints(1, xy);
+        assertArrayEquals(new int[]{1, 1, 3, 1, 1, 3}, xy);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.potholedetector.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DetectionTableTest {
+
+    private static DetectionTable sample() {
+        DetectionTable table = new DetectionTable(1);
+        table.add(0, 0, 10, 20, 300, 0, 10, 20, 30, SizeClass.SMALL.code(), RiskClass.LOW.code());
+        table.add(1, 33, 50, 60, 9000, 40, 50, 60, 70, SizeClass.MEDIUM.code(), RiskClass.HIGH.code());
+        table.add(2, 66, 70, 80, 20000, 60, 70, 80, 90, SizeClass.LARGE.code(), RiskClass.MEDIUM.code());
+        table.add(3, 100, 90, 95, 9000, 85, 90, 95, 100, SizeClass.MEDIUM.code(), RiskClass.HIGH.code());
+        return table;
+    }
+
+    @Test
+    public void rowsGrowPastTheInitialCapacity() {
+        DetectionTable table = sample();
+        assertEquals(4, table.size());
+        assertEquals(2, table.frameIndex(2));
+        assertEquals(66, table.timestampMs(2));
+        assertEquals(70, table.centroidX(2), 0);
+        assertEquals(80, table.centroidY(2), 0);
+        assertEquals(20000, table.area(2), 0);
+        assertEquals(60, table.x1(2), 0);
+        assertEquals(90, table.y2(2), 0);
+        assertSame(SizeClass.LARGE, table.sizeClass(2));
+        assertSame(RiskClass.MEDIUM, table.riskClass(2));
+    }
+
+    @Test
+    public void addAllAppendsEveryColumn() {
+        DetectionTable table = sample();
+        table.addAll(sample());
+        assertEquals(8, table.size());
+        assertEquals(33, table.timestampMs(5));
+        assertSame(RiskClass.HIGH, table.riskClass(5));
+
+        table.clear();
+        assertTrue(table.isEmpty());
+    }
+
+    @Test
+    public void aggregates() {
+        DetectionTable table = sample();
+        assertEquals((300 + 9000 + 20000 + 9000) / 4.0, table.meanArea(), 1e-9);
+        assertArrayEquals(new int[]{1, 2, 1}, table.sizeHistogram());
+        assertArrayEquals(new int[]{1, 1, 2}, table.riskHistogram());
+        assertEquals(0, new DetectionTable().meanArea(), 0);
+    }
+
+    @Test
+    public void orderingsAreStable() {
+        DetectionTable table = sample();
+        assertArrayEquals(new int[]{1, 3, 2, 0}, table.orderByRiskDescending());
+        assertArrayEquals(new int[]{2, 1, 3, 0}, table.orderByAreaDescending());
+    }
+
+    @Test
+    public void binaryRoundTrip() throws IOException {
+        DetectionTable table = sample();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        table.write(out);
+        DetectionTable read = DetectionTable.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(table.size(), read.size());
+        for (int i = 0; i < table.size(); i++) {
+            assertEquals(table.frameIndex(i), read.frameIndex(i));
+            assertEquals(table.timestampMs(i), read.timestampMs(i));
+            assertEquals(table.centroidX(i), read.centroidX(i), 0);
+            assertEquals(table.area(i), read.area(i), 0);
+            assertEquals(table.x2(i), read.x2(i), 0);
+            assertSame(table.sizeClass(i), read.sizeClass(i));
+            assertSame(table.riskClass(i), read.riskClass(i));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void readRejectsOtherData() throws IOException {
+        DetectionTable.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 0, 0, 0, 0}));
+    }
+
+    @Test
+    public void classCodesRoundTrip() {
+        for (SizeClass size : SizeClass.values()) {
+            assertSame(size, SizeClass.fromCode(size.code()));
+            assertSame(size, SizeClass.fromLabel(size.label));
+        }
+        for (RiskClass risk : RiskClass.values()) {
+            assertSame(risk, RiskClass.fromCode(risk.code()));
+            assertSame(risk, RiskClass.fromLabel(risk.label));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownLabel() {
+        RiskClass.fromLabel("Severe");
+    }
+}
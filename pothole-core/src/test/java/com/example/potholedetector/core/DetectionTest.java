@@ -0,0 +1,33 @@
+package com.example.potholedetector.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DetectionTest {
+
+    @Test
+    public void geometry() {
+        Detection d = new Detection(10, 20, 40, 30, 0.5f, 0);
+        assertEquals(30, d.width(), 0);
+        assertEquals(10, d.height(), 0);
+        assertEquals(300, d.area(), 0);
+        assertEquals(25, d.centerX(), 0);
+        assertEquals(25, d.centerY(), 0);
+    }
+
+    @Test
+    public void invertedBoxHasNoArea() {
+        assertEquals(0, new Detection(10, 10, 5, 20, 1, 0).area(), 0);
+    }
+
+    @Test
+    public void iou() {
+        Detection a = new Detection(0, 0, 10, 10, 1, 0);
+        assertEquals(1, a.iou(new Detection(0, 0, 10, 10, 1, 0)), 1e-6);
+        // 50 shared of 150 covered
+        assertEquals(1 / 3f, a.iou(new Detection(5, 0, 15, 10, 1, 0)), 1e-6);
+        // Touching edges do not overlap
+        assertEquals(0, a.iou(new Detection(10, 0, 20, 10, 1, 0)), 0);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.potholedetector.core;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EncodedSampleRingTest {
+
+    // A sample of the given size whose bytes all carry its number
+    private static ByteBuffer sample(int number, int size) {
+        byte[] bytes = new byte[size];
+        Arrays.fill(bytes, (byte) number);
+        return ByteBuffer.wrap(bytes);
+    }
+
+    private static void assertHeld(EncodedSampleRing ring, long seq, int number, int size) {
+        assertEquals(size, ring.size(seq));
+        for (int i = 0; i < size; i++) {
+            assertEquals((byte) number, ring.data()[ring.offset(seq) + i]);
+        }
+    }
+
+    @Test
+    public void keepsSamplesWithTheirTimesInOrder() {
+        EncodedSampleRing ring = new EncodedSampleRing(1000, 16);
+        assertTrue(ring.isEmpty());
+        assertEquals(-1, ring.newestPtsUs());
+        for (int i = 0; i < 5; i++) {
+            assertTrue(ring.add(sample(i, 10 + i), i * 33_000L, i % 3 == 0));
+        }
+        assertEquals(0, ring.firstSequence());
+        assertEquals(5, ring.nextSequence());
+        assertEquals(132_000, ring.newestPtsUs());
+        for (int i = 0; i < 5; i++) {
+            assertHeld(ring, i, i, 10 + i);
+            assertEquals(i * 33_000L, ring.ptsUs(i));
+            assertEquals(i % 3 == 0, ring.isKeyFrame(i));
+        }
+    }
+
+    @Test
+    public void wrapsAndEvictsTheOldestBytes() {
+        EncodedSampleRing ring = new EncodedSampleRing(100, 16);
+        for (int i = 0; i < 3; i++) {
+            ring.add(sample(i, 30), i, true);
+        }
+        // Doesn't fit before the end: goes to the start, over the first sample
+        ring.add(sample(3, 30), 3, true);
+        assertEquals(1, ring.firstSequence());
+        assertEquals(0, ring.offset(3));
+        assertHeld(ring, 1, 1, 30);
+        assertHeld(ring, 2, 2, 30);
+        assertHeld(ring, 3, 3, 30);
+
+        ring.add(sample(4, 50), 4, true);
+        assertEquals(3, ring.firstSequence());
+        assertHeld(ring, 3, 3, 30);
+        assertHeld(ring, 4, 4, 50);
+    }
+
+    @Test
+    public void evictsWhenOutOfSlots() {
+        EncodedSampleRing ring = new EncodedSampleRing(1000, 4);
+        for (int i = 0; i < 6; i++) {
+            ring.add(sample(i, 1), i, false);
+        }
+        assertEquals(2, ring.firstSequence());
+        assertEquals(6, ring.nextSequence());
+        assertHeld(ring, 2, 2, 1);
+    }
+
+    @Test
+    public void oversizedSampleLeavesAGap() {
+        EncodedSampleRing ring = new EncodedSampleRing(100, 16);
+        ring.add(sample(0, 40), 0, true);
+        ByteBuffer large = sample(1, 101);
+        assertFalse(ring.add(large, 1, true));
+        assertTrue(ring.isEmpty());
+        assertEquals(2, ring.firstSequence());
+
+        assertTrue(ring.add(sample(2, 100), 2, true));
+        assertEquals(2, ring.firstSequence());
+        assertHeld(ring, 2, 2, 100);
+    }
+
+    @Test
+    public void findsTheKeyFrameBeforeATime() {
+        EncodedSampleRing ring = new EncodedSampleRing(1000, 64);
+        for (int i = 0; i < 40; i++) {
+            // A key frame every 10 samples, 10 ms apart
+            ring.add(sample(i, 4), i * 10_000L, i % 10 == 0);
+        }
+        assertEquals(20, ring.keyFrameAtOrBefore(255_000));
+        assertEquals(20, ring.keyFrameAtOrBefore(200_000));
+        assertEquals(10, ring.keyFrameAtOrBefore(199_999));
+        assertEquals(30, ring.keyFrameAtOrBefore(Long.MAX_VALUE));
+        assertEquals(-1, ring.keyFrameAtOrBefore(-1));
+    }
+
+    @Test
+    public void heldSamplesAreAlwaysIntactAndNewest() {
+        Random random = new Random(7);
+        EncodedSampleRing ring = new EncodedSampleRing(4096, 64);
+        List<Integer> sizes = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            int size = random.nextInt(10) == 0 ? 1000 + random.nextInt(2000) : 1 + random.nextInt(200);
+            sizes.add(size);
+            assertTrue(ring.add(sample(i, size), i, false));
+
+            long held = 0;
+            for (long seq = ring.firstSequence(); seq < ring.nextSequence(); seq++) {
+                held += ring.size(seq);
+            }
+            assertTrue(held <= 4096);
+            assertTrue(ring.nextSequence() - ring.firstSequence() <= 64);
+            if (i % 97 == 0) {
+                for (long seq = ring.firstSequence(); seq < ring.nextSequence(); seq++) {
+                    assertHeld(ring, seq, (int) seq, sizes.get((int) seq));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.potholedetector.core;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EvidenceClipperTest {
+
+    private static final long FRAME_US = 100_000;
+    private static final long SECOND = 1_000_000;
+
+    // Clips as lists of sample times, key frames negated
+    private static class RecordingSink implements EvidenceClipper.ClipSink {
+        final List<List<Long>> clips = new ArrayList<>();
+        List<Long> open;
+
+        @Override
+        public void beginClip(long startPtsUs) {
+            assertNull(open);
+            open = new ArrayList<>();
+        }
+
+        @Override
+        public void writeSample(byte[] data, int offset, int size, long ptsUs, boolean keyFrame) {
+            // Each sample carries its frame number
+            assertEquals((byte) (ptsUs / FRAME_US), data[offset]);
+            open.add(keyFrame ? -ptsUs : ptsUs);
+        }
+
+        @Override
+        public void endClip() {
+            clips.add(open);
+            open = null;
+        }
+
+        long start(int clip) {
+            return Math.abs(clips.get(clip).get(0));
+        }
+
+        long end(int clip) {
+            List<Long> samples = clips.get(clip);
+            return Math.abs(samples.get(samples.size() - 1));
+        }
+    }
+
+    private final RecordingSink sink = new RecordingSink();
+    // 10 fps, a key frame every second; 2 s either side of an event, 10 s at most
+    private final EvidenceClipper clipper = new EvidenceClipper(new EncodedSampleRing(1 << 16, 256),
+            2 * SECOND, 2 * SECOND, 10 * SECOND, sink);
+    private long streamUs;
+
+    // Feeds the stream up to and including the given time
+    private void streamTo(long ptsUs) throws IOException {
+        for (; streamUs <= ptsUs; streamUs += FRAME_US) {
+            byte[] bytes = new byte[50];
+            bytes[0] = (byte) (streamUs / FRAME_US);
+            clipper.addSample(ByteBuffer.wrap(bytes), streamUs, streamUs % SECOND == 0);
+        }
+    }
+
+    private static void assertContinuous(List<Long> clip) {
+        assertTrue("starts on a key frame", clip.get(0) < 0);
+        for (int i = 1; i < clip.size(); i++) {
+            assertEquals(Math.abs(clip.get(i - 1)) + FRAME_US, Math.abs(clip.get(i)), 0);
+        }
+    }
+
+    @Test
+    public void clipCoversTheEventFromTheKeyFrameBefore() throws IOException {
+        streamTo(5_500_000);
+        clipper.onEvent(5_500_000);
+        // Still open until a pre-roll and the detection delay past its end
+        streamTo(10_400_000);
+        assertEquals(0, sink.clips.size());
+        streamTo(10_600_000);
+        assertEquals(1, sink.clips.size());
+
+        assertContinuous(sink.clips.get(0));
+        assertEquals(3 * SECOND, sink.start(0));
+        assertEquals(7_500_000, sink.end(0));
+    }
+
+    @Test
+    public void overlappingEventsExtendOneClip() throws IOException {
+        streamTo(5 * SECOND);
+        clipper.onEvent(5 * SECOND);
+        streamTo(8 * SECOND);
+        clipper.onEvent(8 * SECOND);
+        streamTo(20 * SECOND);
+
+        assertEquals(1, clipper.getClipCount());
+        assertEquals(1, clipper.getMergedEventCount());
+        assertContinuous(sink.clips.get(0));
+        assertEquals(3 * SECOND, sink.start(0));
+        assertEquals(10 * SECOND, sink.end(0));
+    }
+
+    @Test
+    public void separateEventsNeverRepeatFootage() throws IOException {
+        streamTo(5 * SECOND);
+        clipper.onEvent(5 * SECOND);
+        // Overlaps the first clip's window, but merging would pass the maximum length
+        streamTo(10 * SECOND);
+        clipper.onEvent(10_500_000);
+        streamTo(20 * SECOND);
+
+        assertEquals(2, sink.clips.size());
+        assertEquals(0, clipper.getMergedEventCount());
+        assertContinuous(sink.clips.get(1));
+        assertEquals(7 * SECOND, sink.end(0));
+        assertEquals(8 * SECOND, sink.start(1));
+        assertEquals(12_500_000, sink.end(1));
+    }
+
+    @Test
+    public void eventBeforeThePreRollStartsAtTheFirstKeyFrame() throws IOException {
+        streamTo(500_000);
+        clipper.onEvent(500_000);
+        clipper.flush();
+        assertEquals(1, sink.clips.size());
+        assertEquals(0, sink.start(0));
+        assertEquals(500_000, sink.end(0));
+    }
+
+    @Test
+    public void flushEndsTheOpenClip() throws IOException {
+        streamTo(4 * SECOND);
+        clipper.onEvent(4 * SECOND);
+        streamTo(5 * SECOND);
+        clipper.flush();
+        clipper.flush();
+        assertEquals(1, clipper.getClipCount());
+        assertEquals(2 * SECOND, sink.start(0));
+        assertEquals(5 * SECOND, sink.end(0));
+
+        // A later event starts a new clip after it
+        clipper.onEvent(5_500_000);
+        streamTo(12 * SECOND);
+        assertEquals(2, clipper.getClipCount());
+        assertEquals(6 * SECOND, sink.start(1));
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.potholedetector.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class GeoTileIndexTest {
+
+    private static final double METERS_PER_DEGREE = 111_320;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // Offset a position by metres north and east
+    private static double[] offset(double lat, double lon, double north, double east) {
+        return new double[]{lat + north / METERS_PER_DEGREE,
+                lon + east / (METERS_PER_DEGREE * Math.cos(Math.toRadians(lat)))};
+    }
+
+    @Test
+    public void sightingsWithinTheRadiusMerge() {
+        GeoTileIndex index = new GeoTileIndex(5);
+        int id = index.add(52.0, 13.0, RiskClass.LOW.code(), 1000);
+        double[] near = offset(52.0, 13.0, 3, 2);
+        assertEquals(id, index.add(near[0], near[1], RiskClass.HIGH.code(), 500));
+        assertEquals(1, index.size());
+        assertEquals(2, index.sightings(id));
+        assertEquals((52.0 + near[0]) / 2, index.latitude(id), 1e-12);
+        assertEquals(RiskClass.HIGH, index.maxRisk(id));
+        assertEquals(500, index.firstSeenMs(id));
+        assertEquals(1000, index.lastSeenMs(id));
+
+        double[] far = offset(52.0, 13.0, 0, 8);
+        assertNotEquals(id, index.add(far[0], far[1], RiskClass.LOW.code(), 2000));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void mergesAcrossTileEdges() {
+        GeoTileIndex index = new GeoTileIndex(5);
+        // Pairs 4 m apart at many offsets, so some straddle a tile edge
+        for (int i = 0; i < 200; i++) {
+            double[] a = offset(-33.9, 18.4, i * 20, i * 13.7);
+            double[] b = offset(a[0], a[1], 2.4, -3.2);
+            int id = index.add(a[0], a[1], (byte) 0, i);
+            assertEquals(id, index.add(b[0], b[1], (byte) 0, i));
+        }
+        assertEquals(200, index.size());
+    }
+
+    @Test
+    public void nearestMatchesBruteForce() {
+        GeoTileIndex index = new GeoTileIndex(5);
+        Random random = new Random(42);
+        // Enough points to grow the columns and rehash the tiles, at a high latitude
+        for (int i = 0; i < 20000; i++) {
+            double[] p = offset(60.0, 25.0, random.nextDouble() * 2000, random.nextDouble() * 2000);
+            index.add(p[0], p[1], (byte) random.nextInt(3), i);
+        }
+        for (int q = 0; q < 2000; q++) {
+            double[] p = offset(60.0, 25.0, random.nextDouble() * 2000, random.nextDouble() * 2000);
+            int expected = -1;
+            double best = 25;
+            double cosLat = Math.cos(Math.toRadians(p[0]));
+            for (int i = 0; i < index.size(); i++) {
+                double dy = (index.latitude(i) - p[0]) * METERS_PER_DEGREE;
+                double dx = (index.longitude(i) - p[1]) * METERS_PER_DEGREE * cosLat;
+                if (dx * dx + dy * dy <= best) {
+                    best = dx * dx + dy * dy;
+                    expected = i;
+                }
+            }
+            assertEquals(expected, index.findNearest(p[0], p[1]));
+        }
+    }
+
+    @Test
+    public void binaryRoundTrip() throws IOException {
+        GeoTileIndex index = new GeoTileIndex(5);
+        for (int i = 0; i < 300; i++) {
+            double[] p = offset(40.0, -3.7, i * 7, 0);
+            index.add(p[0], p[1], (byte) (i % 3), i * 10L);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.write(out);
+        GeoTileIndex read = GeoTileIndex.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(index.size(), read.size());
+        assertEquals(5, read.getRadiusMeters(), 0);
+        for (int i = 0; i < index.size(); i++) {
+            assertEquals(index.latitude(i), read.latitude(i), 0);
+            assertEquals(index.maxRisk(i), read.maxRisk(i));
+            assertEquals(index.lastSeenMs(i), read.lastSeenMs(i));
+        }
+        // The tiles are rebuilt too
+        double[] p = offset(40.0, -3.7, 70, 1);
+        assertEquals(10, read.findNearest(p[0], p[1]));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void geoJsonIsLongitudeFirst() throws IOException {
+        GeoTileIndex index = new GeoTileIndex(5);
+        index.add(57.64911, 10.40744, RiskClass.MEDIUM.code(), 42);
+        File file = folder.newFile();
+        try (ReportWriter writer = new ReportWriter(file)) {
+            index.writeGeoJson(writer);
+        }
+        Map<String, Object> json;
+        try (Reader reader = new FileReader(file)) {
+            json = (Map<String, Object>) new ReportSummary.JsonReader(reader).readValue();
+        }
+        List<Object> features = (List<Object>) json.get("features");
+        assertEquals(1, features.size());
+        Map<String, Object> feature = (Map<String, Object>) features.get(0);
+        List<Object> coordinates = (List<Object>) ((Map<String, Object>) feature.get("geometry")).get("coordinates");
+        assertEquals(10.40744, (Double) coordinates.get(0), 1e-9);
+        assertEquals(57.64911, (Double) coordinates.get(1), 1e-9);
+        Map<String, Object> properties = (Map<String, Object>) feature.get("properties");
+        assertEquals("u4pruydqq", properties.get("id"));
+        assertEquals("Medium", properties.get("risk"));
+    }
+}
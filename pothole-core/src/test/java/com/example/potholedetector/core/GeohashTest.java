@@ -0,0 +1,24 @@
+package com.example.potholedetector.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GeohashTest {
+
+    @Test
+    public void knownHashes() {
+        assertEquals("u4pruydqqvj", Geohash.encode(57.64911, 10.40744, 11));
+        assertEquals("s00000000", Geohash.encode(0, 0, 9));
+        assertEquals("ezs42", Geohash.encode(42.605, -5.603, 5));
+    }
+
+    @Test
+    public void prefixesAreCoarserCells() {
+        String fine = Geohash.encode(48.8584, 2.2945, 9);
+        assertTrue(fine.startsWith(Geohash.encode(48.8584, 2.2945, 6)));
+        // About a metre away: same 9 character cell unless on its edge, same 7 character cell
+        assertEquals(fine.substring(0, 7), Geohash.encode(48.85841, 2.29451, 9).substring(0, 7));
+    }
+}
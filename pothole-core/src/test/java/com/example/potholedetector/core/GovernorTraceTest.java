@@ -0,0 +1,115 @@
+package com.example.potholedetector.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class GovernorTraceTest {
+
+    private static final int[] SIZES = {320, 416, 512, 640};
+    private static final double FRAME_INTERVAL_MS = 1000 / 30.0;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // The app's governor: stride 3 at 30 fps, 4 threads, half real time
+    private static ThroughputGovernor governor() {
+        return new ThroughputGovernor(3, SIZES, 4, FRAME_INTERVAL_MS, 0.5);
+    }
+
+    /*
+     * Three minutes recorded at fixed settings, stride 3, input 640, 4 threads, unplugged:
+     * cool until 30 s, moderate until 90 s, then severe; the battery is at 15% from 120 s
+     * and 8% from 150 s. Frames slow down from 180 to 260 and 330 ms as it heats up.
+     */
+    private static GovernorTrace.Replay replaySample(ThroughputGovernor governor) throws IOException {
+        try (Reader reader = new InputStreamReader(
+                GovernorTraceTest.class.getResourceAsStream("/governor_trace.csv"), StandardCharsets.UTF_8)) {
+            return GovernorTrace.replay(reader, governor, FRAME_INTERVAL_MS);
+        }
+    }
+
+    private static void assertDecision(ThroughputGovernor.Decision decision, long fromMs, long toMs,
+                                       int stride, int inputSize, int workers, String reason) {
+        assertTrue(decision.timeMs + " ms", decision.timeMs >= fromMs && decision.timeMs < toMs);
+        assertEquals(stride, decision.settings.stride);
+        assertEquals(inputSize, decision.settings.maxInputSize);
+        assertEquals(workers, decision.settings.workers);
+        assertTrue(decision.reason, decision.reason.startsWith(reason));
+    }
+
+    @Test
+    public void sampleTraceSteersStrideInputSizeAndWorkers() throws IOException {
+        GovernorTrace.Replay replay = replaySample(governor());
+        List<ThroughputGovernor.Decision> decisions = replay.decisions;
+        assertEquals(6, decisions.size());
+
+        // Each limit applies with the first frame after the change
+        assertDecision(decisions.get(0), 30_000, 31_000, 3, 512, 4, "thermal status moderate");
+        assertEquals(2, decisions.get(0).settings.previewInterval);
+        assertDecision(decisions.get(1), 90_000, 91_000, 3, 416, 2, "thermal status severe");
+        // Half the threads cost more than the smaller input saved; one window later the size drops
+        assertDecision(decisions.get(2), 100_000, 102_000, 3, 320, 2, "0.42x real time");
+        assertDecision(decisions.get(3), 120_000, 121_000, 3, 320, 2, "battery 15%");
+        assertEquals(8, decisions.get(3).settings.previewInterval);
+        assertDecision(decisions.get(4), 150_000, 151_000, 6, 320, 2, "battery 8%");
+        // Doubling the stride leaves room to win back resolution within the severe limit
+        assertDecision(decisions.get(5), 160_000, 162_000, 6, 416, 2, "1.11x real time");
+    }
+
+    @Test
+    public void replayKeepsUpWithTheTarget() throws IOException {
+        GovernorTrace.Replay replay = replaySample(governor());
+        assertTrue(replay.wallMs >= 180_000);
+        assertTrue(String.valueOf(replay.speed()), replay.speed() >= 0.5);
+    }
+
+    @Test
+    public void writtenTraceReplays() throws IOException {
+        File file = folder.newFile();
+        try (ReportWriter writer = new ReportWriter(file)) {
+            writer.write(GovernorTrace.HEADER);
+            for (int i = 0; i <= 100; i++) {
+                GovernorTrace.writeFrame(writer, i * 200L, i < 50 ? 0 : 4, 90, true, 200, 3, 640, 4);
+            }
+        }
+        ThroughputGovernor governor = governor();
+        GovernorTrace.Replay replay;
+        try (Reader reader = new FileReader(file)) {
+            replay = GovernorTrace.replay(reader, governor, FRAME_INTERVAL_MS);
+        }
+        assertEquals(1, replay.decisions.size());
+        ThroughputGovernor.Decision critical = replay.decisions.get(0);
+        assertDecision(critical, 10_000, 10_400, 3, 320, 1, "thermal status critical");
+        assertEquals(8, critical.settings.previewInterval);
+        // The smaller input makes frames cheaper than traced
+        assertTrue(replay.frames > 101);
+    }
+
+    @Test
+    public void damagedLinesAreSkipped() throws IOException {
+        String trace = GovernorTrace.HEADER + "0,0,90,1,200.0,3,640\nabc,0,90,1,200.0,3,640,4\n500,0,90,1,200.0,3,640,4\n";
+        GovernorTrace.Replay replay = GovernorTrace.replay(new StringReader(trace), governor(), FRAME_INTERVAL_MS);
+        assertEquals(3, replay.frames);
+        assertEquals(0, replay.decisions.size());
+
+        GovernorTrace.Replay empty = GovernorTrace.replay(new StringReader(GovernorTrace.HEADER), governor(),
+                FRAME_INTERVAL_MS);
+        assertEquals(0, empty.frames);
+        assertEquals(0, empty.speed(), 0);
+        assertNotNull(empty.decisions);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.potholedetector.core;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GpsTrackTest {
+
+    @Test
+    public void interpolatesBetweenSamplesAndClampsOutside() {
+        GpsTrack track = new GpsTrack();
+        track.add(1000, 10, 20);
+        track.add(3000, 12, 16);
+        assertArrayEquals(new double[]{11, 18}, track.locate(2000), 1e-12);
+        assertArrayEquals(new double[]{12, 16}, track.locate(3000), 0);
+        assertArrayEquals(new double[]{10, 20}, track.locate(0), 0);
+        assertArrayEquals(new double[]{12, 16}, track.locate(9000), 0);
+        assertFalse(track.isApproximate());
+    }
+
+    @Test
+    public void samplesOutOfOrderAreSorted() {
+        GpsTrack track = new GpsTrack();
+        for (int i = 99; i >= 0; i--) {
+            track.add(i * 100L, i, -i);
+        }
+        assertEquals(100, track.size());
+        assertArrayEquals(new double[]{42.5, -42.5}, track.locate(4250), 1e-12);
+    }
+
+    @Test
+    public void emptyTrackLocatesNothing() {
+        GpsTrack track = new GpsTrack();
+        assertTrue(track.isEmpty());
+        assertNull(track.locate(0));
+    }
+
+    @Test
+    public void metadataLocationIsOneApproximatePoint() {
+        GpsTrack track = GpsTrack.fromIso6709("+37.4219-122.0840/");
+        assertArrayEquals(new double[]{37.4219, -122.0840}, track.locate(123456), 0);
+        assertTrue(track.isApproximate());
+
+        GpsTrack withAltitude = GpsTrack.fromIso6709("-33.8568+151.2153+012.5/");
+        assertArrayEquals(new double[]{-33.8568, 151.2153}, withAltitude.locate(0), 0);
+    }
+
+    @Test
+    public void badMetadataLocations() {
+        assertNull(GpsTrack.fromIso6709(null));
+        assertNull(GpsTrack.fromIso6709(""));
+        assertNull(GpsTrack.fromIso6709("37.4219,-122.0840"));
+        assertNull(GpsTrack.fromIso6709("+97.0000+010.0000/"));
+    }
+
+    @Test
+    public void csvSkipsHeadersCommentsAndBadLines() throws IOException {
+        String csv = "video_time_ms,lat,lon\n"
+                + "# phone GPS\n"
+                + "0,51.5000,-0.1200\n"
+                + "garbage\n"
+                + "1000, 51.5010 , -0.1210\n"
+                + "2000,north,west\n";
+        GpsTrack track = GpsTrack.readCsv(new StringReader(csv));
+        assertEquals(2, track.size());
+        assertArrayEquals(new double[]{51.5005, -0.1205}, track.locate(500), 1e-12);
+    }
+}
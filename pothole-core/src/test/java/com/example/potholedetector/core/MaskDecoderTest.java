@@ -0,0 +1,38 @@
+package com.example.potholedetector.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MaskDecoderTest {
+
+    @Test
+    public void thresholdsTheCombinationAtZero() {
+        // Two 2x3 prototypes: a left-to-right ramp and a constant
+        float[] protos = {
+                -1, 0, 1,
+                -1, 0, 1,
+                1, 1, 1,
+                1, 1, 1,
+        };
+        byte[] mask = new byte[6];
+        // ramp - 0.5: only the right column is positive
+        int count = MaskDecoder.decode(protos, 2, 2, 3, new float[]{1, -0.5f}, 0, 0, 3, 2, mask);
+        assertEquals(2, count);
+        assertArrayEquals(new byte[]{0, 0, 1, 0, 0, 1}, mask);
+    }
+
+    @Test
+    public void evaluatesOnlyTheBox() {
+        float[] protos = {
+                1, 2, 3,
+                4, -5, 6,
+        };
+        byte[] mask = {9, 9, 9};
+        // x 1..2 of row 1, written from the start of mask
+        int count = MaskDecoder.decode(protos, 1, 2, 3, new float[]{1}, 1, 1, 3, 2, mask);
+        assertEquals(1, count);
+        assertArrayEquals(new byte[]{0, 1, 9}, mask);
+    }
+}
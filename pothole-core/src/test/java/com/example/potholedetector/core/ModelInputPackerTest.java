@@ -0,0 +1,246 @@
+package com.example.potholedetector.core;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ModelInputPackerTest {
+
+    private static final float[] MEAN = {0.485f, 0.456f, 0.406f};
+    private static final float[] STD = {0.229f, 0.224f, 0.225f};
+    private static final int PADDING = 114;
+
+    // Differences from the float reference, in 0..255 grey levels. Luma is interpolated in
+    // fixed point, so a grey image is off by rounding only; chroma is sampled nearest rather
+    // than interpolated, which adds up to about two levels where the colour changes.
+    private static final double GREY_TOLERANCE = 0.6;
+    private static final double COLOUR_TOLERANCE = 2.5;
+    private static final double MEAN_TOLERANCE = 0.5;
+
+    // A YUV 4:2:0 image: textured luma and smooth or neutral chroma, kept clear of clipping
+    private static final class Yuv {
+        final int width;
+        final int height;
+        final int rowStride;
+        final int uvRowStride;
+        final int uvPixelStride;
+        final byte[] y;
+        final byte[] u;
+        final byte[] v;
+
+        Yuv(int width, int height, int rowPadding, int uvPixelStride, boolean colour, long seed) {
+            this.width = width;
+            this.height = height;
+            this.rowStride = width + rowPadding;
+            this.uvPixelStride = uvPixelStride;
+            int chromaWidth = (width + 1) / 2;
+            int chromaHeight = (height + 1) / 2;
+            uvRowStride = chromaWidth * uvPixelStride + rowPadding;
+            Random random = new Random(seed);
+            y = new byte[rowStride * height];
+            u = new byte[uvRowStride * chromaHeight];
+            v = new byte[uvRowStride * chromaHeight];
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    double ramp = 60 + 100.0 * (col + row) / (width + height);
+                    y[row * rowStride + col] = (byte) (ramp + 12 * Math.sin(col * 0.3) + random.nextInt(16));
+                }
+            }
+            for (int row = 0; row < chromaHeight; row++) {
+                for (int col = 0; col < chromaWidth; col++) {
+                    int i = row * uvRowStride + col * uvPixelStride;
+                    u[i] = (byte) (colour ? 128 + 20 * Math.sin(col * 0.05) : 128);
+                    v[i] = (byte) (colour ? 128 - 20 * Math.cos(row * 0.07) : 128);
+                }
+            }
+        }
+
+        // Full-range BT.601 in double, chroma of the 2x2 block the pixel is in
+        double rgb(int channel, int col, int row) {
+            double luma = y[row * rowStride + col] & 0xFF;
+            int c = (row >> 1) * uvRowStride + (col >> 1) * uvPixelStride;
+            double cb = (u[c] & 0xFF) - 128;
+            double cr = (v[c] & 0xFF) - 128;
+            switch (channel) {
+                case 0:
+                    return luma + 1.402 * cr;
+                case 1:
+                    return luma - 0.344136 * cb - 0.714136 * cr;
+                default:
+                    return luma + 1.772 * cb;
+            }
+        }
+    }
+
+    private static double normalize(int channel, double value) {
+        return (value / 255 - MEAN[channel]) / STD[channel];
+    }
+
+    // OpenCV INTER_LINEAR source position and weight along one axis
+    private static double[] sample(int d, double scale, int length) {
+        double f = (d + 0.5) * scale - 0.5;
+        int s = (int) Math.floor(f);
+        double w = f - s;
+        if (s < 0) {
+            s = 0;
+            w = 0;
+        } else if (s >= length - 1) {
+            s = length - 1;
+            w = 0;
+        }
+        return new double[]{s, Math.min(s + 1, length - 1), w};
+    }
+
+    /**
+     * The float path: the region converted to RGB, bilinearly resized, letterboxed into the
+     * padding colour and normalized, all in double.
+     */
+    private static float[] reference(Yuv image, int regionX, int regionY, int regionWidth, int regionHeight,
+                                     int inputSize, int padX, int padY, int scaledW, int scaledH) {
+        int plane = inputSize * inputSize;
+        float[] out = new float[3 * plane];
+        for (int c = 0; c < 3; c++) {
+            for (int i = 0; i < plane; i++) {
+                out[c * plane + i] = (float) normalize(c, PADDING);
+            }
+        }
+        for (int dy = 0; dy < scaledH; dy++) {
+            double[] sy = sample(dy, (double) regionHeight / scaledH, regionHeight);
+            for (int dx = 0; dx < scaledW; dx++) {
+                double[] sx = sample(dx, (double) regionWidth / scaledW, regionWidth);
+                for (int c = 0; c < 3; c++) {
+                    double top = image.rgb(c, regionX + (int) sx[0], regionY + (int) sy[0]) * (1 - sx[2])
+                            + image.rgb(c, regionX + (int) sx[1], regionY + (int) sy[0]) * sx[2];
+                    double bottom = image.rgb(c, regionX + (int) sx[0], regionY + (int) sy[1]) * (1 - sx[2])
+                            + image.rgb(c, regionX + (int) sx[1], regionY + (int) sy[1]) * sx[2];
+                    double value = top * (1 - sy[2]) + bottom * sy[2];
+                    out[c * plane + (padY + dy) * inputSize + padX + dx] = (float) normalize(c, value);
+                }
+            }
+        }
+        return out;
+    }
+
+    // Largest and mean absolute difference, in grey levels
+    private static double[] greyLevelDifference(float[] expected, FloatBuffer actual, int offset, int inputSize) {
+        int plane = inputSize * inputSize;
+        double worst = 0;
+        double sum = 0;
+        for (int i = 0; i < expected.length; i++) {
+            double diff = Math.abs(expected[i] - actual.get(offset + i)) * STD[i / plane] * 255;
+            worst = Math.max(worst, diff);
+            sum += diff;
+        }
+        return new double[]{worst, sum / expected.length};
+    }
+
+    // Packs the region letterboxed into inputSize, as Letterbox places it, and compares with the reference
+    private static void assertMatchesReference(ModelInputPacker packer, Yuv image,
+                                               int regionX, int regionY, int regionWidth, int regionHeight,
+                                               int inputSize, double tolerance) {
+        double scale = Math.min((double) inputSize / regionWidth, (double) inputSize / regionHeight);
+        int scaledW = (int) Math.round(regionWidth * scale);
+        int scaledH = (int) Math.round(regionHeight * scale);
+        int padX = (inputSize - scaledW) / 2;
+        int padY = (inputSize - scaledH) / 2;
+
+        ByteBuffer yPlane = ByteBuffer.wrap(image.y);
+        ByteBuffer uPlane;
+        ByteBuffer vPlane;
+        if (image.uvPixelStride == 2) {
+            // Semi-planar, as most cameras deliver it: U and V are views of one interleaved buffer
+            byte[] vu = new byte[image.v.length];
+            for (int i = 0; i + 1 < vu.length; i += 2) {
+                vu[i] = image.v[i];
+                vu[i + 1] = image.u[i];
+            }
+            vPlane = ByteBuffer.wrap(vu, 0, vu.length - 1).slice();
+            uPlane = ByteBuffer.wrap(vu, 1, vu.length - 1).slice();
+        } else {
+            uPlane = ByteBuffer.wrap(image.u);
+            vPlane = ByteBuffer.wrap(image.v);
+        }
+
+        int offset = 7;
+        FloatBuffer out = FloatBuffer.allocate(offset + 3 * inputSize * inputSize);
+        packer.packYuv(yPlane, image.rowStride, uPlane, vPlane, image.uvRowStride, image.uvPixelStride,
+                regionX, regionY, regionWidth, regionHeight, inputSize, padX, padY, scaledW, scaledH, out, offset);
+
+        float[] expected = reference(image, regionX, regionY, regionWidth, regionHeight,
+                inputSize, padX, padY, scaledW, scaledH);
+        double[] difference = greyLevelDifference(expected, out, offset, inputSize);
+        assertTrue("off by up to " + difference[0] + " grey levels", difference[0] <= tolerance);
+        assertTrue("off by " + difference[1] + " grey levels on average", difference[1] <= MEAN_TOLERANCE);
+        assertEquals(0, out.get(0), 0);
+    }
+
+    @Test
+    public void greyFrameMatchesReferenceUpToRounding() {
+        Yuv image = new Yuv(640, 480, 16, 2, false, 1);
+        ModelInputPacker packer = new ModelInputPacker(MEAN, STD, PADDING);
+        assertMatchesReference(packer, image, 0, 0, 640, 480, 320, GREY_TOLERANCE);
+        assertMatchesReference(packer, image, 37, 51, 151, 211, 160, GREY_TOLERANCE);
+        assertMatchesReference(packer, image, 20, 10, 96, 64, 320, GREY_TOLERANCE);
+    }
+
+    @Test
+    public void wholeFrameDownscaledMatchesReference() {
+        Yuv image = new Yuv(640, 480, 0, 1, true, 1);
+        assertMatchesReference(new ModelInputPacker(MEAN, STD, PADDING), image, 0, 0, 640, 480, 320, COLOUR_TOLERANCE);
+    }
+
+    @Test
+    public void semiPlanarPaddedRowsMatchReference() {
+        Yuv image = new Yuv(640, 480, 32, 2, true, 2);
+        assertMatchesReference(new ModelInputPacker(MEAN, STD, PADDING), image, 0, 0, 640, 480, 256, COLOUR_TOLERANCE);
+    }
+
+    @Test
+    public void oddRegionMatchesReference() {
+        // A road region starting on odd coordinates, taller than wide
+        Yuv image = new Yuv(400, 300, 8, 2, true, 3);
+        assertMatchesReference(new ModelInputPacker(MEAN, STD, PADDING), image, 37, 51, 151, 211, 160, COLOUR_TOLERANCE);
+    }
+
+    @Test
+    public void upscaledRegionMatchesReference() {
+        Yuv image = new Yuv(200, 120, 0, 1, true, 4);
+        assertMatchesReference(new ModelInputPacker(MEAN, STD, PADDING), image, 20, 10, 96, 64, 320, COLOUR_TOLERANCE);
+    }
+
+    @Test
+    public void packerIsReusableAcrossSizes() {
+        ModelInputPacker packer = new ModelInputPacker(MEAN, STD, PADDING);
+        Yuv large = new Yuv(640, 480, 0, 2, true, 5);
+        Yuv small = new Yuv(160, 90, 4, 1, true, 6);
+        assertMatchesReference(packer, large, 0, 0, 640, 480, 320, COLOUR_TOLERANCE);
+        assertMatchesReference(packer, small, 3, 5, 120, 80, 128, COLOUR_TOLERANCE);
+        assertMatchesReference(packer, large, 100, 40, 300, 300, 320, COLOUR_TOLERANCE);
+    }
+
+    @Test
+    public void interleavedPixelsAreNormalizedPerChannel() {
+        int inputSize = 4;
+        byte[] rgba = new byte[inputSize * inputSize * 4];
+        for (int i = 0; i < inputSize * inputSize; i++) {
+            rgba[i * 4] = (byte) (i * 16);
+            rgba[i * 4 + 1] = (byte) (255 - i * 16);
+            rgba[i * 4 + 2] = (byte) PADDING;
+            rgba[i * 4 + 3] = (byte) 255;
+        }
+        FloatBuffer out = FloatBuffer.allocate(3 * inputSize * inputSize);
+        new ModelInputPacker(MEAN, STD, PADDING).packInterleaved(rgba, 4, inputSize, out, 0);
+
+        int plane = inputSize * inputSize;
+        for (int i = 0; i < plane; i++) {
+            assertEquals(normalize(0, i * 16), out.get(i), 1e-5);
+            assertEquals(normalize(1, 255 - i * 16), out.get(plane + i), 1e-5);
+            assertEquals(normalize(2, PADDING), out.get(2 * plane + i), 1e-5);
+        }
+    }
+}
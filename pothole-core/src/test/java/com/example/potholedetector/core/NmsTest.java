@@ -0,0 +1,64 @@
+package com.example.potholedetector.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class NmsTest {
+
+    @Test
+    public void keepsTheBestOfOverlappingBoxes() {
+        Detection weak = new Detection(0, 0, 10, 10, 0.6f, 0);
+        Detection strong = new Detection(1, 1, 11, 11, 0.9f, 0);
+        Detection apart = new Detection(50, 50, 60, 60, 0.7f, 0);
+        List<Detection> kept = Nms.apply(Arrays.asList(weak, strong, apart), 0.5f, 10);
+        assertEquals(2, kept.size());
+        assertSame(strong, kept.get(0));
+        assertSame(apart, kept.get(1));
+    }
+
+    @Test
+    public void overlapBelowThresholdIsKept() {
+        Detection a = new Detection(0, 0, 10, 10, 0.9f, 0);
+        // IoU 1/3
+        Detection b = new Detection(5, 0, 15, 10, 0.8f, 0);
+        assertEquals(2, Nms.apply(Arrays.asList(a, b), 0.5f, 10).size());
+        assertEquals(1, Nms.apply(Arrays.asList(a, b), 0.3f, 10).size());
+    }
+
+    @Test
+    public void suppressionIgnoresTheClass() {
+        Detection a = new Detection(0, 0, 10, 10, 0.9f, 0);
+        Detection b = new Detection(0, 0, 10, 10, 0.8f, 1);
+        assertEquals(1, Nms.apply(Arrays.asList(a, b), 0.5f, 10).size());
+    }
+
+    @Test
+    public void stopsAtMaxDetections() {
+        List<Detection> boxes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            boxes.add(new Detection(i * 20, 0, i * 20 + 10, 10, i / 10f, 0));
+        }
+        List<Detection> kept = Nms.apply(boxes, 0.5f, 3);
+        assertEquals(3, kept.size());
+        assertEquals(0.9f, kept.get(0).score, 0);
+        assertEquals(0.7f, kept.get(2).score, 1e-6);
+    }
+
+    @Test
+    public void emptyInput() {
+        assertTrue(Nms.apply(new ArrayList<Detection>(), 0.5f, 10).isEmpty());
+    }
+
+    @Test
+    public void scoreOrder() {
+        assertArrayEquals(new int[]{2, 0, 3, 1}, Nms.sortByScoreDescending(new float[]{0.5f, 0f, 0.9f, 0.25f}));
+    }
+}
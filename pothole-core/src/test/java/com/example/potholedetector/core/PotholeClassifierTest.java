@@ -0,0 +1,103 @@
+package com.example.potholedetector.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class PotholeClassifierTest {
+
+    private static final float FRAME_HEIGHT = 500;
+
+    private final PotholeClassifier classifier = new PotholeClassifier();
+
+    // The String classification this replaced, as it was
+    private static int legacySize(double area) {
+        if (area < 5000) {
+            return 0;
+        } else if (area > 15000) {
+            return 2;
+        } else {
+            return 1;
+        }
+    }
+
+    private static int legacyRisk(int size, double centroidY, double frameHeight) {
+        double roadCenter = frameHeight / 2.0;
+        double riskAdjusted = size + 1 - (Math.abs(centroidY - roadCenter) / roadCenter);
+        if (riskAdjusted >= 2) {
+            return 2;
+        } else if (riskAdjusted >= 1) {
+            return 1;
+        } else {
+            return 0;
+        }
+    }
+
+    @Test
+    public void sizeThresholdsAreInclusiveForMedium() {
+        assertEquals(SizeClass.SMALL.code(), classifier.classifySize(4999.99f));
+        assertEquals(SizeClass.MEDIUM.code(), classifier.classifySize(5000));
+        assertEquals(SizeClass.MEDIUM.code(), classifier.classifySize(15000));
+        assertEquals(SizeClass.LARGE.code(), classifier.classifySize(15000.01f));
+        assertEquals(SizeClass.SMALL.code(), classifier.classifySize(0));
+    }
+
+    @Test
+    public void riskDependsOnSizeAndPosition() {
+        // At the centre the factor is 1
+        assertEquals(RiskClass.MEDIUM.code(), classifier.classifyRisk(SizeClass.SMALL.code(), 250, FRAME_HEIGHT));
+        assertEquals(RiskClass.HIGH.code(), classifier.classifyRisk(SizeClass.MEDIUM.code(), 250, FRAME_HEIGHT));
+        // At the edges it is 0
+        assertEquals(RiskClass.LOW.code(), classifier.classifyRisk(SizeClass.SMALL.code(), 0, FRAME_HEIGHT));
+        assertEquals(RiskClass.MEDIUM.code(), classifier.classifyRisk(SizeClass.MEDIUM.code(), 500, FRAME_HEIGHT));
+        assertEquals(RiskClass.HIGH.code(), classifier.classifyRisk(SizeClass.LARGE.code(), 0, FRAME_HEIGHT));
+    }
+
+    @Test
+    public void configuredThresholds() {
+        classifier.setSizeThresholds(100, 200);
+        classifier.setRiskThresholds(0.5f, 3);
+        assertEquals(SizeClass.LARGE.code(), classifier.classifySize(201));
+        assertEquals(RiskClass.HIGH.code(), classifier.classifyRisk(SizeClass.LARGE.code(), 250, FRAME_HEIGHT));
+        assertEquals(RiskClass.MEDIUM.code(), classifier.classifyRisk(SizeClass.LARGE.code(), 0, FRAME_HEIGHT));
+        assertEquals(RiskClass.MEDIUM.code(), classifier.classifyRisk(SizeClass.SMALL.code(), 150, FRAME_HEIGHT));
+    }
+
+    @Test
+    public void columnsMatchRowsAndTheLegacyPath() {
+        int count = 1_000_000;
+        Random random = new Random(42);
+        float[] areas = new float[count];
+        float[] centroidYs = new float[count];
+        for (int i = 0; i < count; i++) {
+            areas[i] = (float) (4000 * Math.exp(0.8 * random.nextGaussian()));
+            // Whole and half pixels hit the risk thresholds exactly
+            centroidYs[i] = random.nextInt(1001) * 0.5f;
+        }
+        byte[] sizes = new byte[count];
+        byte[] risks = new byte[count];
+        classifier.classify(areas, centroidYs, count, FRAME_HEIGHT, sizes, risks);
+
+        for (int i = 0; i < count; i++) {
+            byte size = classifier.classifySize(areas[i]);
+            assertEquals(size, sizes[i]);
+            assertEquals(classifier.classifyRisk(size, centroidYs[i], FRAME_HEIGHT), risks[i]);
+            assertEquals(legacySize(areas[i]), sizes[i]);
+            assertEquals(legacyRisk(sizes[i], centroidYs[i], FRAME_HEIGHT), risks[i]);
+        }
+    }
+
+    @Test
+    public void classifiesATable() {
+        DetectionTable table = new DetectionTable();
+        table.add(0, 0, 10, 250, 20000, 0, 0, 1, 1, (byte) 0, (byte) 0);
+        table.add(0, 0, 10, 0, 100, 0, 0, 1, 1, (byte) 0, (byte) 0);
+        classifier.classify(table, FRAME_HEIGHT);
+        assertEquals(SizeClass.LARGE, table.sizeClass(0));
+        assertEquals(RiskClass.HIGH, table.riskClass(0));
+        assertEquals(SizeClass.SMALL, table.sizeClass(1));
+        assertEquals(RiskClass.LOW, table.riskClass(1));
+    }
+}
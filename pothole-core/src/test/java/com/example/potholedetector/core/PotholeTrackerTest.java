@@ -0,0 +1,133 @@
+package com.example.potholedetector.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PotholeTrackerTest {
+
+    private static Detection box(float cx, float cy, float size) {
+        return new Detection(cx - size / 2, cy - size / 2, cx + size / 2, cy + size / 2, 0.8f, 0);
+    }
+
+    @Test
+    public void sameDetectionEveryFrameIsOneTrack() {
+        PotholeTracker tracker = new PotholeTracker();
+        PotholeTracker.Track first = tracker.update(0, Collections.singletonList(box(100, 100, 20)))[0];
+        for (int frame = 1; frame < 10; frame++) {
+            assertSame(first, tracker.update(frame, Collections.singletonList(box(100, 100, 20)))[0]);
+        }
+        assertEquals(1, tracker.getTrackCount());
+        assertEquals(10, first.hits);
+        assertEquals(0, first.vx, 1e-6);
+    }
+
+    @Test
+    public void distantDetectionsStartSeparateTracks() {
+        PotholeTracker tracker = new PotholeTracker();
+        PotholeTracker.Track[] tracks = tracker.update(0, Arrays.asList(box(100, 100, 20), box(500, 400, 20)));
+        assertNotSame(tracks[0], tracks[1]);
+        assertEquals(2, tracker.getTrackCount());
+    }
+
+    @Test
+    public void closestPairIsMatchedFirst() {
+        PotholeTracker tracker = new PotholeTracker();
+        PotholeTracker.Track[] start = tracker.update(0, Arrays.asList(box(100, 100, 40), box(150, 100, 40)));
+        // Both detections are inside both gates; each goes to the track it is nearest
+        PotholeTracker.Track[] next = tracker.update(1, Arrays.asList(box(152, 100, 40), box(101, 100, 40)));
+        assertSame(start[1], next[0]);
+        assertSame(start[0], next[1]);
+    }
+
+    @Test
+    public void velocityFollowsAMovingPothole() {
+        PotholeTracker tracker = new PotholeTracker();
+        PotholeTracker.Track track = tracker.update(0, Collections.singletonList(box(200, 100, 10)))[0];
+        // 20 px per frame, more than the box size; the prediction keeps it in the gate
+        for (int frame = 1; frame < 8; frame++) {
+            assertSame(track, tracker.update(frame, Collections.singletonList(box(200, 100 + 20 * frame, 10)))[0]);
+        }
+        assertEquals(20, track.vy, 0.5);
+        assertEquals(0, track.vx, 1e-6);
+    }
+
+    @Test
+    public void velocityIsPerFrameAcrossGaps() {
+        PotholeTracker tracker = new PotholeTracker();
+        PotholeTracker.Track track = tracker.update(0, Collections.singletonList(box(200, 100, 10)))[0];
+        // Sampled every third frame, 6 px per frame
+        for (int frame = 3; frame < 30; frame += 3) {
+            assertSame(track, tracker.update(frame, Collections.singletonList(box(200, 100 + 6 * frame, 10)))[0]);
+        }
+        assertEquals(6, track.vy, 0.1);
+    }
+
+    @Test
+    public void trackEndsAfterMaxMisses() {
+        PotholeTracker tracker = new PotholeTracker(1.0f, 2);
+        PotholeTracker.Track track = tracker.update(0, Collections.singletonList(box(100, 100, 20)))[0];
+        List<Detection> none = Collections.emptyList();
+        tracker.update(1, none);
+        tracker.update(2, none);
+        assertEquals(1, tracker.getActiveTracks().size());
+        tracker.update(3, none);
+        assertTrue(tracker.getActiveTracks().isEmpty());
+        assertSame(track, tracker.getFinishedTracks().get(0));
+
+        // The pothole coming back is a new track
+        assertNotSame(track, tracker.update(4, Collections.singletonList(box(100, 100, 20)))[0]);
+    }
+
+    @Test
+    public void missedFramesAreBridged() {
+        PotholeTracker tracker = new PotholeTracker(1.0f, 2);
+        PotholeTracker.Track track = tracker.update(0, Collections.singletonList(box(100, 100, 20)))[0];
+        tracker.update(1, Collections.<Detection>emptyList());
+        assertSame(track, tracker.update(2, Collections.singletonList(box(100, 102, 20)))[0]);
+        assertEquals(0, track.misses);
+        assertEquals(2, track.hits);
+    }
+
+    @Test
+    public void finishAndReset() {
+        PotholeTracker tracker = new PotholeTracker();
+        tracker.update(0, Arrays.asList(box(100, 100, 20), box(500, 400, 20)));
+        tracker.finish();
+        assertTrue(tracker.getActiveTracks().isEmpty());
+        assertEquals(2, tracker.getFinishedTracks().size());
+
+        tracker.reset();
+        assertTrue(tracker.getFinishedTracks().isEmpty());
+        assertEquals(0, tracker.getTrackCount());
+        assertEquals(1, tracker.update(0, Collections.singletonList(box(1, 1, 2)))[0].id);
+    }
+
+    @Test
+    public void tableRowsKeepRiskAndClosestTime() {
+        PotholeTracker tracker = new PotholeTracker();
+        DetectionTable rows = new DetectionTable();
+        rows.add(0, 0, 100, 100, 100, 95, 95, 105, 105, (byte) 0, (byte) 2);
+        PotholeTracker.Track track = tracker.update(0, rows)[0];
+
+        rows.clear();
+        rows.add(1, 33, 100, 104, 400, 90, 94, 110, 114, (byte) 1, (byte) 1);
+        assertSame(track, tracker.update(1, rows)[0]);
+
+        rows.clear();
+        rows.add(2, 66, 100, 106, 100, 95, 101, 105, 111, (byte) 0, (byte) 0);
+        assertSame(track, tracker.update(2, rows)[0]);
+
+        assertEquals(2, track.maxRisk);
+        assertEquals(400, track.maxArea, 1e-3);
+        assertEquals(33, track.bestTimestampMs);
+        assertEquals(66, track.lastTimestampMs);
+    }
+}
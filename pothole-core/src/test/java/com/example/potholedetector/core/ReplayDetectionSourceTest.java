@@ -0,0 +1,58 @@
+package com.example.potholedetector.core;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ReplayDetectionSourceTest {
+
+    @Test
+    public void replaysWhatWasWritten() throws Exception {
+        Detection withPolygon = new Detection(10, 20, 30, 40, 0.875f, 0);
+        withPolygon.polygon = new float[]{10, 20, 30, 20, 20.5f, 40};
+        Detection plain = new Detection(1.5f, 2.5f, 3.5f, 4.5f, 0.5f, 1);
+
+        StringWriter out = new StringWriter();
+        out.write(ReplayDetectionSource.HEADER + "\n");
+        ReplayDetectionSource.write(out, 0, 0, Arrays.asList(withPolygon, plain));
+        ReplayDetectionSource.write(out, 3, 100, Collections.singletonList(plain));
+
+        try (ReplayDetectionSource source = new ReplayDetectionSource(new StringReader(out.toString()))) {
+            List<Detection> frame0 = source.detect(null, 0, 0);
+            assertEquals(2, frame0.size());
+            Detection d = frame0.get(0);
+            assertEquals(10, d.x1, 0);
+            assertEquals(40, d.y2, 0);
+            assertEquals(0.875f, d.score, 0);
+            assertArrayEquals(withPolygon.polygon, d.polygon, 0);
+            assertNull(frame0.get(1).polygon);
+            assertEquals(1, frame0.get(1).classId);
+
+            // Frames without detections are empty, not skipped
+            assertTrue(source.detect(null, 1, 33).isEmpty());
+            assertTrue(source.hasMore());
+            assertEquals(1, source.detect(null, 3, 100).size());
+            assertFalse(source.hasMore());
+        }
+    }
+
+    @Test
+    public void framesAskedPastAreDropped() throws Exception {
+        String csv = "0,0,1,1,2,2,0.5,0,\n2,66,1,1,2,2,0.5,0,\n5,166,1,1,2,2,0.5,0,\n";
+        try (ReplayDetectionSource source = new ReplayDetectionSource(new StringReader(csv))) {
+            // With a stride of 4 the rows of frames 0 and 2 are passed over
+            assertEquals(0, source.detect(null, 4, 133).size());
+            assertEquals(1, source.detect(null, 5, 166).size());
+        }
+    }
+}
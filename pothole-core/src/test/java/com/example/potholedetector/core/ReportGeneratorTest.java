@@ -0,0 +1,139 @@
+package com.example.potholedetector.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReportGeneratorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final DetectionTable potholes = new DetectionTable();
+    private final Map<String, Integer> sizes = new HashMap<>();
+    private final Map<String, Integer> risks = new HashMap<>();
+
+    private void addPotholes(int count) {
+        PotholeClassifier classifier = new PotholeClassifier();
+        for (int i = 0; i < count; i++) {
+            // Half-pixel contour areas, some on a rounding tie of two decimals
+            float area = 1000 + i * 737.5f + (i % 3 == 0 ? 0.005f : 0);
+            potholes.add(i, i * 33, 100 + i, 50 + 7 * i % 400, area, 0, 0, 10, 10, (byte) 0, (byte) 0);
+        }
+        classifier.classify(potholes, 500);
+        for (SizeClass size : SizeClass.values()) {
+            sizes.put(size.label, potholes.sizeHistogram()[size.code()]);
+        }
+        for (RiskClass risk : RiskClass.values()) {
+            risks.put(risk.label, potholes.riskHistogram()[risk.code()]);
+        }
+    }
+
+    private String generate(ReportGenerator generator, String name) throws IOException {
+        File file = new File(folder.getRoot(), name + "." + generator.getFormat().extension);
+        assertTrue(generator.generateReport(file, "drive.mp4", 12.5, 120, sizes, risks, potholes));
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static int occurrences(String text, String part) {
+        int count = 0;
+        for (int at = text.indexOf(part); at >= 0; at = text.indexOf(part, at + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void textListsEveryPotholeByDefault() throws IOException {
+        addPotholes(40);
+        String text = generate(new ReportGenerator(), "report");
+        assertEquals(40, occurrences(text, "Pothole #"));
+        assertFalse(text.contains("Showing the"));
+        assertTrue(text.contains("Total unique potholes detected: 40\n"));
+        assertTrue(text.contains(String.format(Locale.US, "Average pothole area: %.2f square pixels\n",
+                potholes.meanArea())));
+        // Every area prints as String.format did
+        int[] order = potholes.orderByRiskDescending();
+        for (int i = 0; i < order.length; i++) {
+            assertTrue(text.contains(String.format(Locale.US, "Pothole #%d:\n  - Size category: %s\n  - Area: %.2f square pixels\n",
+                    i + 1, potholes.sizeClass(order[i]).label, potholes.area(order[i]))));
+        }
+    }
+
+    @Test
+    public void detailLimitKeepsTheRiskiest() throws IOException {
+        addPotholes(40);
+        ReportGenerator generator = new ReportGenerator();
+        generator.setDetailLimit(5);
+        String text = generate(generator, "limited");
+        assertEquals(5, occurrences(text, "Pothole #"));
+        assertTrue(text.contains("Showing the 5 highest-risk of 40 potholes."));
+    }
+
+    @Test
+    public void csvHasOneRowPerPothole() throws IOException {
+        addPotholes(10);
+        ReportGenerator generator = new ReportGenerator();
+        generator.setFormat(ReportFormat.CSV);
+        List<String> lines = Arrays.asList(generate(generator, "rows").split("\n"));
+        assertEquals("frame,timestamp_ms,x,y,area,x1,y1,x2,y2,size,risk", lines.get(0));
+        assertEquals(11, lines.size());
+        assertTrue(lines.get(2).startsWith("1,33,101.0,57.0,1737.5,"));
+    }
+
+    @Test
+    public void jsonLinesStartWithTheSummary() throws IOException {
+        addPotholes(10);
+        ReportGenerator generator = new ReportGenerator();
+        generator.setFormat(ReportFormat.JSONL);
+        String[] lines = generate(generator, "lines").split("\n");
+        assertEquals(11, lines.length);
+        assertTrue(lines[0].startsWith("{\"type\":\"summary\",\"video\":\"drive.mp4\",\"durationSec\":12.50,"));
+        assertTrue(lines[1].startsWith("{\"type\":\"pothole\",\"frame\":0,"));
+    }
+
+    @Test
+    public void evidenceAndGovernorSectionsListEntriesInOrder() throws IOException {
+        addPotholes(3);
+        ReportGenerator generator = new ReportGenerator();
+        generator.addEvidence(7, RiskClass.HIGH, 16250.4f, "track7.jpg");
+        generator.addEvidence(2, RiskClass.MEDIUM, 8000, "track2.jpg");
+        generator.addGovernorDecision(0, new ThroughputGovernor.Settings(3, 640, 1, 4), "start");
+        generator.addGovernorDecision(95_250, new ThroughputGovernor.Settings(6, 416, 4, 2), "thermal status severe");
+        String report = generate(generator, "sections");
+
+        int high = report.indexOf("Track #7 - High risk, area 16250: track7.jpg\n");
+        assertTrue(high >= 0);
+        assertTrue(report.indexOf("Track #2 - Medium risk, area 8000: track2.jpg\n") > high);
+        int start = report.indexOf("At 0.0 s: stride 3, input <= 640, preview 1/1, 4 threads (start)\n");
+        assertTrue(start >= 0);
+        assertTrue(report.indexOf("At 95.3 s: stride 6, input <= 416, preview 1/4, 2 threads (thermal status severe)\n")
+                > start);
+    }
+
+    @Test
+    public void comparisonsGetTheirOwnSections() throws IOException {
+        addPotholes(2);
+        ReportGenerator generator = new ReportGenerator();
+        generator.addComparison("ROAD CROP COMPARISON", "Without crop: 80.0 ms/frame\nWith LANE crop: 50.0 ms/frame");
+        String report = generate(generator, "comparison");
+        int section = report.indexOf("ROAD CROP COMPARISON");
+        assertTrue(section >= 0);
+        assertTrue(report.indexOf("Without crop: 80.0 ms/frame\nWith LANE crop: 50.0 ms/frame\n") > section);
+        assertTrue(report.indexOf("RECOMMENDATIONS") > section);
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.potholedetector.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ReportSummaryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Object parse(String json) throws IOException {
+        return new ReportSummary.JsonReader(new StringReader(json)).readValue();
+    }
+
+    private static ReportSummary sample() {
+        ReportSummary summary = new ReportSummary();
+        summary.video = "drive \"north\".mp4";
+        summary.reportFile = "pothole_report_1.txt";
+        summary.reportBytes = 123456;
+        summary.durationSec = 61.25;
+        summary.framesAnalyzed = 600;
+        summary.potholes = 42;
+        summary.sizeCounts = new int[]{20, 15, 7};
+        summary.riskCounts = new int[]{10, 20, 12};
+        summary.avgArea = 4321.5;
+        summary.severity = 6.5;
+        summary.hotspots.add(new ReportSummary.Hotspot(120, 340, 4));
+        summary.stageTimingsMs.put("decode", 812.5);
+        summary.stageTimingsMs.put("inference", 9001.0);
+        summary.sectionOffsets.put("VIDEO INFORMATION", 160L);
+        summary.sectionOffsets.put("SUMMARY STATISTICS", 700L);
+        return summary;
+    }
+
+    @Test
+    public void fileNameFollowsTheReport() {
+        assertEquals("report_1.summary.json", ReportSummary.fileFor(new File("report_1.txt")).getName());
+        assertEquals("report.summary.json", ReportSummary.fileFor(new File("report")).getName());
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        File file = folder.newFile();
+        sample().write(file);
+        ReportSummary read = ReportSummary.read(file);
+
+        assertEquals("drive \"north\".mp4", read.video);
+        assertEquals("pothole_report_1.txt", read.reportFile);
+        assertEquals(ReportFormat.TEXT, read.format);
+        assertEquals(123456, read.reportBytes);
+        assertEquals(61.25, read.durationSec, 0);
+        assertEquals(600, read.framesAnalyzed);
+        assertEquals(42, read.potholes);
+        assertArrayEquals(new int[]{20, 15, 7}, read.sizeCounts);
+        assertArrayEquals(new int[]{10, 20, 12}, read.riskCounts);
+        assertEquals(4321.5, read.avgArea, 0);
+        assertEquals(6.5, read.severity, 0);
+        assertEquals(1, read.hotspots.size());
+        assertEquals(340, read.hotspots.get(0).y, 0);
+        assertEquals(4, read.hotspots.get(0).count);
+        assertEquals(Arrays.asList("decode", "inference"), Arrays.asList(read.stageTimingsMs.keySet().toArray()));
+        assertEquals(812.5, read.stageTimingsMs.get("decode"), 0);
+        assertEquals(Long.valueOf(700), read.sectionOffsets.get("SUMMARY STATISTICS"));
+    }
+
+    @Test
+    public void nonFiniteValuesAreNull() throws IOException {
+        ReportSummary summary = sample();
+        summary.durationSec = Double.NaN;
+        summary.severity = Double.POSITIVE_INFINITY;
+        summary.stageTimingsMs.put("report", Double.NaN);
+        File file = folder.newFile();
+        summary.write(file);
+
+        String json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"durationSec\":null"));
+        assertTrue(json.contains("\"severity\":null"));
+        assertFalse(json.contains("NaN"));
+        assertFalse(json.contains("Infinity"));
+
+        ReportSummary read = ReportSummary.read(file);
+        assertTrue(Double.isNaN(read.durationSec));
+        assertTrue(Double.isNaN(read.severity));
+        assertTrue(Double.isNaN(read.stageTimingsMs.get("report")));
+        assertEquals(4321.5, read.avgArea, 0);
+    }
+
+    @Test(expected = IOException.class)
+    public void readRejectsNonObjects() throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), "[1, 2]".getBytes(StandardCharsets.UTF_8));
+        ReportSummary.read(file);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void readerParsesNestedValues() throws IOException {
+        Map<String, Object> object = (Map<String, Object>) parse(
+                " { \"a\" : [1, -2.5, 3e2, {}, []], \"b\":{\"c\":true,\"d\":false,\"e\":null},\n\t\"f\":\"x\" } ");
+        List<Object> a = (List<Object>) object.get("a");
+        assertEquals(5, a.size());
+        assertEquals(1.0, a.get(0));
+        assertEquals(-2.5, a.get(1));
+        assertEquals(300.0, a.get(2));
+        assertTrue(((Map<?, ?>) a.get(3)).isEmpty());
+        assertTrue(((List<?>) a.get(4)).isEmpty());
+        Map<String, Object> b = (Map<String, Object>) object.get("b");
+        assertEquals(Boolean.TRUE, b.get("c"));
+        assertEquals(Boolean.FALSE, b.get("d"));
+        assertTrue(b.containsKey("e"));
+        assertNull(b.get("e"));
+        assertEquals("x", object.get("f"));
+    }
+
+    @Test
+    public void readerUnescapesStrings() throws IOException {
+        assertEquals("q\" b\\ s/ n\n t\t r\r \u00e9 \u0001",
+                parse("\"q\\\" b\\\\ s\\/ n\\n t\\t r\\r \\u00e9 \\u0001\""));
+    }
+
+    @Test(expected = IOException.class)
+    public void readerRejectsUnterminatedStrings() throws IOException {
+        parse("{\"a\":\"open");
+    }
+
+    @Test(expected = IOException.class)
+    public void readerRejectsUnknownLiterals() throws IOException {
+        parse("{\"a\":NaN}");
+    }
+
+    @Test(expected = IOException.class)
+    public void readerRejectsMissingSeparators() throws IOException {
+        parse("{\"a\":1 \"b\":2}");
+    }
+
+    @Test(expected = IOException.class)
+    public void readerRejectsEmptyInput() throws IOException {
+        parse("");
+    }
+}
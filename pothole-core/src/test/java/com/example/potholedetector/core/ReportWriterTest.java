@@ -0,0 +1,111 @@
+package com.example.potholedetector.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class ReportWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String written(double[] values, int decimals) throws IOException {
+        File file = folder.newFile();
+        try (ReportWriter writer = new ReportWriter(file)) {
+            for (double value : values) {
+                writer.writeFixed(value, decimals);
+                writer.write('\n');
+            }
+        }
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static String formatted(double[] values, int decimals) {
+        StringBuilder text = new StringBuilder();
+        for (double value : values) {
+            text.append(String.format(Locale.US, "%." + decimals + "f", value)).append('\n');
+        }
+        return text.toString();
+    }
+
+    @Test
+    public void fixedMatchesFormatAtTies() throws IOException {
+        double[] values = {1.005, 2.675, 1.115, 0.125, 0.375, 1.5, 2.5, -2.5, 0.045, 1234567.895,
+                1.005f, 4999.995f, -0.001, -0.0, 0.0, 0.004999, 1e-9, 123456789012.345, 3e15, -7.5e17};
+        for (int decimals = 0; decimals <= 6; decimals++) {
+            assertEquals(formatted(values, decimals), written(values, decimals));
+        }
+    }
+
+    @Test
+    public void fixedMatchesFormatOnRandomValues() throws IOException {
+        Random random = new Random(42);
+        double[] values = new double[20000];
+        for (int i = 0; i < values.length; i++) {
+            switch (i % 4) {
+                case 0:
+                    values[i] = random.nextDouble() * 1000;
+                    break;
+                case 1:
+                    // Three decimals land on or next to the ties of two
+                    values[i] = random.nextInt(1_000_000) / 1000.0 - 500;
+                    break;
+                case 2:
+                    // Areas are stored as floats and widened
+                    values[i] = (float) (4000 * Math.exp(0.8 * random.nextGaussian()));
+                    break;
+                default:
+                    values[i] = random.nextInt(200_000) * 0.5;
+            }
+        }
+        for (int decimals = 0; decimals <= 3; decimals++) {
+            assertEquals(formatted(values, decimals), written(values, decimals));
+        }
+    }
+
+    @Test
+    public void nonFiniteAsDoubleToString() throws IOException {
+        assertEquals("NaN\nInfinity\n-Infinity\n",
+                written(new double[]{Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}, 2));
+    }
+
+    @Test
+    public void longsAndJsonStrings() throws IOException {
+        File file = folder.newFile();
+        try (ReportWriter writer = new ReportWriter(file)) {
+            writer.writeLong(0);
+            writer.write(' ');
+            writer.writeLong(-1234567890123L);
+            writer.write(' ');
+            writer.writeLong(Long.MIN_VALUE);
+            writer.write(' ');
+            writer.writeJsonString("a\"b\\c\n\u00e9");
+        }
+        assertEquals("0 -1234567890123 -9223372036854775808 \"a\\\"b\\\\c\\u000a\u00e9\"",
+                new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void textPastTheBufferIsEncodedWhole() throws IOException {
+        StringBuilder text = new StringBuilder();
+        // Surrogate pairs and multi-byte chars across the 64K chunk boundaries
+        while (text.length() < 200_000) {
+            text.append("pothole \u00fc\ud83d\ude97 ");
+        }
+        File file = folder.newFile();
+        try (ReportWriter writer = new ReportWriter(file)) {
+            writer.write(text.toString());
+            assertEquals(text.toString().getBytes(StandardCharsets.UTF_8).length, writer.bytePosition());
+        }
+        assertEquals(text.toString(), new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.potholedetector.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SensorLogTest {
+
+    private static final long RATE_HZ = 200;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // A log of durationMs with a jolt at each given log time, and the video span when videoStartMs >= 0
+    private File writeLog(long durationMs, long[] joltsMs, long videoStartMs, long videoEndMs) throws IOException {
+        File file = folder.newFile();
+        try (ReportWriter writer = new ReportWriter(file)) {
+            writer.write(SensorLog.HEADER);
+            for (long i = 0; i * 1000 / RATE_HZ < durationMs; i++) {
+                long t = i * 1000 / RATE_HZ;
+                double vertical = 9.81;
+                for (long at : joltsMs) {
+                    if (t >= at && t < at + 40) {
+                        vertical += 15 * Math.sin(Math.PI * (t - at) / 40.0);
+                    }
+                }
+                SensorLog.writeSample(writer, t, SensorRingBuffer.ACCELEROMETER, 0, 0, (float) vertical);
+                SensorLog.writeSample(writer, t, SensorRingBuffer.GYROSCOPE, 0.01f, 0, 0);
+            }
+            if (videoStartMs >= 0) {
+                SensorLog.writeVideoSpan(writer, videoStartMs, videoEndMs);
+            }
+        }
+        return file;
+    }
+
+    private static List<BumpDetector.BumpEvent> bumps(File log) throws IOException {
+        try (Reader reader = new FileReader(log)) {
+            return SensorLog.detectBumps(reader, new BumpDetector());
+        }
+    }
+
+    @Test
+    public void videoStartsItsDurationBeforeItEnds() {
+        // Log started at 10:00:00.000, video of 60 s finished writing at 10:01:12.500
+        assertEquals(12_500, SensorLog.videoStartMs(36_000_000, 36_072_500, 60_000));
+    }
+
+    @Test
+    public void bumpsMoveOntoTheVideoClock() throws IOException {
+        // The user waited 12.5 s in the camera app before recording 20 s
+        File log = writeLog(40_000, new long[]{5000, 20_000, 35_000}, 12_500, 32_500);
+        List<BumpDetector.BumpEvent> bumps = bumps(log);
+        // Only the jolt during the video, at 7.5 s into it
+        assertEquals(1, bumps.size());
+        long videoTimeMs = bumps.get(0).timestampMs;
+        assertEquals(7500, videoTimeMs, 100);
+    }
+
+    @Test
+    public void unalignedLogIsNotUsed() throws IOException {
+        assertNull(bumps(writeLog(10_000, new long[]{5000}, -1, -1)));
+        assertNull(SensorLog.detectBumps(new StringReader(SensorLog.HEADER + "# video_ms=abc\n"), new BumpDetector()));
+    }
+
+    @Test
+    public void damagedLinesAreSkipped() throws IOException {
+        String log = SensorLog.HEADER + "12,a,0.0,0.0\nxx,a,1,2,3\n# video_ms=0,1000\n";
+        assertEquals(0, SensorLog.detectBumps(new StringReader(log), new BumpDetector()).size());
+    }
+}
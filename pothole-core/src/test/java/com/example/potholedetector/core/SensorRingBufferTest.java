@@ -0,0 +1,67 @@
+package com.example.potholedetector.core;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SensorRingBufferTest {
+
+    @Test
+    public void capacityIsAPowerOfTwo() {
+        assertEquals(2048, new SensorRingBuffer(2048).capacity());
+        assertEquals(1024, new SensorRingBuffer(1000).capacity());
+        assertEquals(2, new SensorRingBuffer(0).capacity());
+    }
+
+    @Test
+    public void drainsInOrderAndDropsWhenFull() {
+        SensorRingBuffer buffer = new SensorRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i, i % 2, i, i * 2, i * 3));
+        }
+        assertFalse(buffer.offer(99, 0, 0, 0, 0));
+        assertEquals(1, buffer.getDropped());
+
+        long[] expected = {0};
+        int drained = buffer.drain((timestampNs, sensor, x, y, z) -> {
+            assertEquals(expected[0], timestampNs);
+            assertEquals(expected[0] % 2, sensor);
+            assertEquals(expected[0] * 3, z, 0);
+            expected[0]++;
+        });
+        assertEquals(4, drained);
+        // Room again, wrapping around the slots
+        assertTrue(buffer.offer(4, 0, 0, 0, 0));
+        assertEquals(1, buffer.drain((timestampNs, sensor, x, y, z) -> assertEquals(4, timestampNs)));
+    }
+
+    @Test
+    public void producerAndConsumerThreads() throws InterruptedException {
+        SensorRingBuffer buffer = new SensorRingBuffer(64);
+        int count = 200_000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                while (!buffer.offer(i, 0, i, -i, 0.5f)) {
+                    Thread.yield();
+                }
+            }
+        });
+        AtomicLong next = new AtomicLong();
+        producer.start();
+        while (next.get() < count) {
+            buffer.drain((timestampNs, sensor, x, y, z) -> {
+                // Every sample whole and in order
+                assertEquals(next.get(), timestampNs);
+                assertEquals((float) timestampNs, x, 0);
+                assertEquals((float) -timestampNs, y, 0);
+                next.incrementAndGet();
+            });
+        }
+        producer.join();
+        assertEquals(count, next.get());
+    }
+}
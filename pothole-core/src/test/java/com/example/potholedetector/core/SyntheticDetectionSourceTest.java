@@ -0,0 +1,56 @@
+package com.example.potholedetector.core;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SyntheticDetectionSourceTest {
+
+    @Test
+    public void sameSeedSameDetections() {
+        SyntheticDetectionSource a = new SyntheticDetectionSource(42, 1280, 720, 0.3);
+        SyntheticDetectionSource b = new SyntheticDetectionSource(42, 1280, 720, 0.3);
+        int total = 0;
+        for (int frame = 0; frame < 300; frame++) {
+            List<Detection> da = a.detect(null, frame, frame * 33L);
+            List<Detection> db = b.detect(null, frame, frame * 33L);
+            assertEquals(da.size(), db.size());
+            for (int i = 0; i < da.size(); i++) {
+                assertEquals(da.get(i).x1, db.get(i).x1, 0);
+                assertEquals(da.get(i).score, db.get(i).score, 0);
+                assertArrayEquals(da.get(i).polygon, db.get(i).polygon, 0);
+            }
+            total += da.size();
+        }
+        assertTrue(total > 0);
+    }
+
+    @Test
+    public void detectionsAreBelowTheHorizonWithTheirPolygonInTheBox() {
+        SyntheticDetectionSource source = new SyntheticDetectionSource(7, 1280, 720, 0.5);
+        source.setMissRate(0);
+        for (int frame = 0; frame < 300; frame++) {
+            for (Detection d : source.next()) {
+                assertTrue(d.score >= 0.4f && d.score <= 1f);
+                assertTrue(d.y2 > 720 * 0.4f && d.y1 < 720);
+                for (int i = 0; i < d.polygon.length; i += 2) {
+                    assertTrue(d.polygon[i] >= d.x1 && d.polygon[i] <= d.x2);
+                    assertTrue(d.polygon[i + 1] >= d.y1 && d.polygon[i + 1] <= d.y2);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void everythingMissedGivesNothing() {
+        SyntheticDetectionSource source = new SyntheticDetectionSource(1, 640, 480, 2);
+        source.setMissRate(1);
+        for (int frame = 0; frame < 50; frame++) {
+            assertTrue(source.next().isEmpty());
+        }
+    }
+}
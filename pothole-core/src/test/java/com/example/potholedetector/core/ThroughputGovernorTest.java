@@ -0,0 +1,138 @@
+package com.example.potholedetector.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ThroughputGovernorTest {
+
+    private static final int[] SIZES = {416, 320, 640, 512};
+    private static final double FRAME_INTERVAL_MS = 1000 / 30.0;
+
+    private long clockMs;
+    private long windowStartMs = -1;
+
+    // Stride 3 at 30 fps is 100 ms of video per frame, so half real time needs 200 ms frames
+    private static ThroughputGovernor governor() {
+        return new ThroughputGovernor(3, SIZES, 4, FRAME_INTERVAL_MS, 0.5);
+    }
+
+    // Feeds frames of the given time up to the end of the governor's next window; returns its decision
+    private ThroughputGovernor.Decision runWindow(ThroughputGovernor governor, double frameMs) {
+        while (true) {
+            clockMs += (long) frameMs;
+            if (windowStartMs < 0) {
+                windowStartMs = clockMs;
+            }
+            ThroughputGovernor.Decision decision = governor.recordFrame(clockMs, frameMs);
+            if (clockMs - windowStartMs >= 10_000) {
+                windowStartMs = clockMs;
+                return decision;
+            }
+            assertNull(decision);
+        }
+    }
+
+    private static void assertSettings(ThroughputGovernor.Settings settings,
+                                       int stride, int inputSize, int previewInterval, int workers) {
+        assertEquals(new ThroughputGovernor.Settings(stride, inputSize, previewInterval, workers), settings);
+    }
+
+    @Test
+    public void startsAtFullSettings() {
+        assertSettings(governor().getSettings(), 3, 640, 1, 4);
+    }
+
+    @Test
+    public void thermalStatusLimitsSizeWorkersAndPreview() {
+        int[][] expected = {
+                // input size, workers, preview interval
+                {640, 4, 1}, {640, 4, 1}, {512, 4, 2}, {416, 2, 4}, {320, 1, 8}};
+        for (int status = 0; status < expected.length; status++) {
+            ThroughputGovernor governor = governor();
+            governor.setThermalStatus(status);
+            governor.recordFrame(100, 150);
+            assertSettings(governor.getSettings(), 3, expected[status][0], expected[status][2], expected[status][1]);
+        }
+
+        ThroughputGovernor shuttingDown = governor();
+        shuttingDown.setThermalStatus(ThroughputGovernor.THERMAL_SHUTDOWN);
+        ThroughputGovernor.Decision decision = shuttingDown.recordFrame(100, 150);
+        assertSettings(decision.settings, 12, 320, 8, 1);
+        assertEquals("thermal status shutdown", decision.reason);
+    }
+
+    @Test
+    public void unpluggedBatteryCutsPreviewThenSampling() {
+        ThroughputGovernor governor = governor();
+        governor.setBattery(50, false);
+        assertNull(governor.recordFrame(100, 150));
+
+        governor.setBattery(15, false);
+        assertSettings(governor.recordFrame(200, 150).settings, 3, 640, 2, 4);
+        governor.setBattery(8, false);
+        ThroughputGovernor.Decision critical = governor.recordFrame(300, 150);
+        assertSettings(critical.settings, 6, 640, 2, 4);
+        assertEquals("battery 8%", critical.reason);
+
+        governor.setBattery(8, true);
+        assertSettings(governor.recordFrame(400, 150).settings, 3, 640, 1, 4);
+        assertEquals(3, governor.getDecisions().size());
+    }
+
+    @Test
+    public void slowFramesLowerResolutionBeforeSampling() {
+        ThroughputGovernor governor = governor();
+        // Half the target speed, whatever the settings
+        for (int size : new int[]{512, 416, 320}) {
+            ThroughputGovernor.Decision decision = runWindow(governor, 400);
+            assertNotNull(decision);
+            assertEquals(size, decision.settings.maxInputSize);
+            assertEquals(3, decision.settings.stride);
+        }
+        for (int stride = 4; stride <= 12; stride++) {
+            assertEquals(stride, runWindow(governor, 400 * stride / 3.0).settings.stride);
+        }
+        // Four times the base stride is as far as it goes
+        assertNull(runWindow(governor, 2000));
+        assertEquals(12, governor.getSettings().stride);
+    }
+
+    @Test
+    public void fastFramesWinBackSamplingBeforeResolution() {
+        ThroughputGovernor governor = governor();
+        runWindow(governor, 400);
+        runWindow(governor, 400);
+        runWindow(governor, 400);
+        runWindow(governor, 530);
+        assertSettings(governor.getSettings(), 4, 320, 1, 4);
+
+        // 1.0x real time at stride 4: back to the base stride first, then larger inputs
+        assertSettings(runWindow(governor, 133).settings, 3, 320, 1, 4);
+        assertSettings(runWindow(governor, 100).settings, 3, 416, 1, 4);
+        assertSettings(runWindow(governor, 100).settings, 3, 512, 1, 4);
+        assertSettings(runWindow(governor, 100).settings, 3, 640, 1, 4);
+        assertNull(runWindow(governor, 100));
+    }
+
+    @Test
+    public void noStepUpThatWouldMissTheTarget() {
+        ThroughputGovernor governor = governor();
+        runWindow(governor, 400);
+        assertEquals(512, governor.getSettings().maxInputSize);
+        // 0.69x at 512 is above the step-up threshold, but 640 would only reach about 0.5x
+        assertNull(runWindow(governor, 145));
+        assertEquals(512, governor.getSettings().maxInputSize);
+    }
+
+    @Test
+    public void relativeCostFollowsPixelsAndThreads() {
+        ThroughputGovernor governor = governor();
+        assertEquals(1, governor.relativeCost(new ThroughputGovernor.Settings(3, 640, 1, 4)), 1e-9);
+        assertEquals(0.3 + 0.7 * 0.25, governor.relativeCost(new ThroughputGovernor.Settings(3, 320, 1, 4)), 1e-9);
+        assertEquals(0.3 + 0.7 * Math.sqrt(2), governor.relativeCost(new ThroughputGovernor.Settings(3, 640, 1, 2)), 1e-9);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.potholedetector.core;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class YoloDecoderTest {
+
+    // [batch, channels, anchors] output with the given per-anchor channel values
+    private static float[] output(int batch, int channels, int anchors, float[][][] values) {
+        float[] out = new float[batch * channels * anchors];
+        for (int b = 0; b < batch; b++) {
+            for (int a = 0; a < anchors; a++) {
+                for (int c = 0; c < channels; c++) {
+                    out[(b * channels + c) * anchors + a] = values[b][a][c];
+                }
+            }
+        }
+        return out;
+    }
+
+    @Test
+    public void decodesBoxesAboveTheThreshold() {
+        float[] out = output(1, 6, 3, new float[][][]{{
+                {100, 50, 20, 10, 0.9f, 0.1f},
+                {10, 10, 4, 4, 0.1f, 0.2f},
+                {200, 80, 40, 30, 0.3f, 0.7f},
+        }});
+        List<Detection> detections = YoloDecoder.decode(out, 0, 6, 3, 0, 0.25f);
+        assertEquals(2, detections.size());
+
+        Detection first = detections.get(0);
+        assertEquals(90, first.x1, 0);
+        assertEquals(45, first.y1, 0);
+        assertEquals(110, first.x2, 0);
+        assertEquals(55, first.y2, 0);
+        assertEquals(0.9f, first.score, 0);
+        assertEquals(0, first.classId);
+        assertNull(first.maskCoefficients);
+
+        assertEquals(1, detections.get(1).classId);
+        assertEquals(0.7f, detections.get(1).score, 0);
+    }
+
+    @Test
+    public void readsMaskCoefficientsAndTheRequestedImage() {
+        float[][][] values = {
+                {{0, 0, 0, 0, 0, 0, 0}, {0, 0, 0, 0, 0, 0, 0}},
+                {{0, 0, 0, 0, 0, 0, 0}, {40, 40, 8, 8, 0.8f, -1.5f, 2.5f}},
+        };
+        float[] out = output(2, 7, 2, values);
+        List<Detection> detections = YoloDecoder.decode(out, 1, 7, 2, 2, 0.5f);
+        assertEquals(1, detections.size());
+        assertEquals(36, detections.get(0).x1, 0);
+        assertArrayEquals(new float[]{-1.5f, 2.5f}, detections.get(0).maskCoefficients, 0);
+    }
+}
@@ -21,4 +21,5 @@ dependencyResolutionManagement {
 }
 rootProject.name = "PotholeDetector"
 include(":app")
+include(":pothole-core")
 // No OpenCV module references
\ No newline at end of file